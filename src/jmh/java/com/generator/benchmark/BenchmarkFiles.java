@@ -0,0 +1,40 @@
+package com.generator.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Scratch directories for the I/O benchmarks.
+ * They are created under {@code -Dbenchmark.dir}, or under {@code /dev/shm} when it exists, so the
+ * numbers measure the generator rather than the disk; point the property at a real disk to measure both.
+ */
+final class BenchmarkFiles {
+
+    private BenchmarkFiles() {
+    }
+
+    static Path createDirectory(String prefix) throws IOException {
+        String configured = System.getProperty("benchmark.dir");
+        Path parent = configured != null ? Paths.get(configured) : Paths.get("/dev/shm");
+        if (configured == null && !Files.isDirectory(parent)) {
+            return Files.createTempDirectory(prefix);
+        }
+        Files.createDirectories(parent);
+        return Files.createTempDirectory(parent, prefix);
+    }
+
+    static void delete(Path directory) throws IOException {
+        if (directory != null && Files.exists(directory)) {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder())
+                     .map(Path::toFile)
+                     .forEach(File::delete);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.generator.benchmark;
+
+import com.generator.engine.FileGenerationEngine;
+import com.generator.model.ContentMode;
+import com.generator.model.FileGenerationParameters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A complete engine run of {@code files} files into a fresh directory, across thread counts and
+ * payload sizes. Each invocation is one run; divide the file count by the score for files per second.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+
+    @Param({"10000"})
+    public long files;
+
+    @Param({"1", "4", "8"})
+    public int threads;
+
+    /**
+     * 0 renders the default content template, anything else writes random text of that many bytes
+     */
+    @Param({"0", "4096", "65536"})
+    public long payloadSize;
+
+    private Path directory;
+    private FileGenerationParameters parameters;
+
+    @Setup(Level.Invocation)
+    public void setUp() throws IOException {
+        directory = BenchmarkFiles.createDirectory("end-to-end-benchmark");
+        parameters = new FileGenerationParameters(directory.toString(), files, "file_{n}.txt",
+                "This is file number {n}\nGenerated on: {date}\nContent goes here...");
+        parameters.setThreadCount(threads);
+        if (payloadSize > 0) {
+            parameters.setContentMode(ContentMode.RANDOM_TEXT);
+            parameters.setTargetFileSize(payloadSize);
+        }
+    }
+
+    @Benchmark
+    public long generate() throws IOException, InterruptedException {
+        FileGenerationEngine engine = new FileGenerationEngine(parameters);
+        engine.generate(() -> false, progress -> { });
+        return engine.getCompletedBytes();
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.delete(directory);
+    }
+}
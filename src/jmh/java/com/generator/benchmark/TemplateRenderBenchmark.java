@@ -0,0 +1,66 @@
+package com.generator.benchmark;
+
+import com.generator.template.CompiledTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Placeholder substitution for one file, as done by the engine's workers: the file name and the
+ * content template are rendered into reused buffers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TemplateRenderBenchmark {
+
+    @Param({"INDEX", "DATE", "MIXED", "STATIC"})
+    public String template;
+
+    private CompiledTemplate nameTemplate;
+    private CompiledTemplate contentTemplate;
+    private final StringBuilder nameBuffer = new StringBuilder(64);
+    private final StringBuilder contentBuffer = new StringBuilder(256);
+    private long index;
+
+    @Setup
+    public void compile() {
+        nameTemplate = CompiledTemplate.compile("file_{n:08}.txt");
+        switch (template) {
+            case "INDEX":
+                contentTemplate = CompiledTemplate.compile("This is file number {n}\nContent goes here...");
+                break;
+            case "DATE":
+                contentTemplate = CompiledTemplate.compile("File {n}\nGenerated on: {date}\nAt: {date:ISO}");
+                break;
+            case "MIXED":
+                contentTemplate = CompiledTemplate.compile("id={uuid} n={n:06} t={epochMillis} tag={random:16}");
+                break;
+            default:
+                contentTemplate = CompiledTemplate.compile("The same content for every file");
+        }
+    }
+
+    @Benchmark
+    public int renderFile() {
+        long fileIndex = ++index;
+        nameBuffer.setLength(0);
+        nameTemplate.render(fileIndex, nameBuffer);
+        contentBuffer.setLength(0);
+        contentTemplate.render(fileIndex, contentBuffer);
+        return nameBuffer.length() + contentBuffer.length();
+    }
+}
@@ -0,0 +1,116 @@
+package com.generator.benchmark;
+
+import com.generator.io.CloneBackend;
+import com.generator.io.FileWriteBackend;
+import com.generator.io.MappedFileWriter;
+import com.generator.metrics.PhaseTimer;
+import com.generator.model.ContentMode;
+import com.generator.model.WriteBackendType;
+import com.generator.payload.PayloadGenerator;
+import com.generator.template.CompiledTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing one file through each backend. File names cycle over a fixed set, so the
+ * benchmark measures create/truncate/write/close rather than directory growth.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class WriteBackendBenchmark {
+
+    private static final int FILE_SLOTS = 1024;
+
+    /**
+     * FILE_WRITER and NIO_CHANNEL render through a session, CLONE copies a seed file and
+     * MEMORY_MAPPED fills the file through {@link MappedFileWriter}
+     */
+    @Param({"FILE_WRITER", "NIO_CHANNEL", "CLONE", "MEMORY_MAPPED"})
+    public String backend;
+
+    @Param({"100", "4096", "1048576"})
+    public int size;
+
+    private Path directory;
+    private Path[] files;
+    private StringBuilder content;
+    private FileWriteBackend writeBackend;
+    private FileWriteBackend.Session session;
+    private ExecutorService pool;
+    private MappedFileWriter mappedWriter;
+    private int slot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = BenchmarkFiles.createDirectory("backend-benchmark");
+        files = new Path[FILE_SLOTS];
+        for (int i = 0; i < FILE_SLOTS; i++) {
+            files[i] = directory.resolve("file_" + i + ".txt");
+        }
+        content = new StringBuilder(size);
+        while (content.length() < size) {
+            content.append((char) ('a' + content.length() % 26));
+        }
+
+        switch (backend) {
+            case "CLONE":
+                writeBackend = CloneBackend.create(directory,
+                        FileWriteBackend.create(WriteBackendType.NIO_CHANNEL, false, 64 * 1024), content, false);
+                break;
+            case "MEMORY_MAPPED":
+                int threads = Runtime.getRuntime().availableProcessors();
+                pool = Executors.newFixedThreadPool(threads);
+                mappedWriter = new MappedFileWriter(pool, threads, false);
+                return;
+            default:
+                writeBackend = FileWriteBackend.create(WriteBackendType.valueOf(backend), false, 64 * 1024);
+        }
+        session = writeBackend.openSession();
+    }
+
+    @Benchmark
+    public long writeFile() throws IOException, InterruptedException {
+        Path file = files[slot++ & (FILE_SLOTS - 1)];
+        if (mappedWriter != null) {
+            return mappedWriter.write(file, slot, size,
+                    () -> PayloadGenerator.create(ContentMode.RANDOM_TEXT, CompiledTemplate.compile("")), () -> false,
+                    PhaseTimer.disabled());
+        }
+        return session.write(file, content);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (session != null) {
+            session.close();
+        }
+        if (writeBackend instanceof CloneBackend) {
+            ((CloneBackend) writeBackend).close();
+        }
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+        BenchmarkFiles.delete(directory);
+    }
+}
@@ -20,7 +20,7 @@ public class FileGeneratorApp extends Application {
 
         // Set up the primary stage
         primaryStage.setTitle("Java File Generator");
-        primaryStage.setScene(new Scene(root, 600, 400));
+        primaryStage.setScene(new Scene(root, 600, 1060));
         primaryStage.setResizable(false);
         primaryStage.show();
     }
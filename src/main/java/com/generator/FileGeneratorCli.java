@@ -0,0 +1,698 @@
+package com.generator;
+
+import com.generator.engine.FileGenerationEngine;
+import com.generator.jobs.GenerationJob;
+import com.generator.jobs.JobScheduler;
+import com.generator.manifest.ManifestVerifier;
+import com.generator.model.ChecksumType;
+import com.generator.model.CollisionPolicy;
+import com.generator.model.ContentMode;
+import com.generator.model.FileGenerationParameters;
+import com.generator.model.TimestampMode;
+import com.generator.model.WriteBackendType;
+import com.generator.profile.GenerationProfile;
+import com.generator.template.ColumnNames;
+import com.generator.template.CompiledTemplate;
+import com.generator.template.TimestampProvider;
+import com.generator.util.ByteSizes;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless command line entry point for the Java File Generator.
+ * This class doesn't depend on JavaFX, so it starts quickly and runs on JDKs without a GUI toolkit.
+ */
+public final class FileGeneratorCli {
+
+    static final int EXIT_SUCCESS = 0;
+    static final int EXIT_FAILURE = 1;
+    static final int EXIT_USAGE = 2;
+
+    private FileGeneratorCli() {
+    }
+
+    /**
+     * Main method - entry point for batch generation
+     * @param args command line arguments, see {@code --help}
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs the generator with the given arguments
+     * @return the process exit status
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        FileGenerationParameters parameters;
+        try {
+            if (args.length == 0 || "--help".equals(args[0]) || "-h".equals(args[0])) {
+                printUsage(args.length == 0 ? err : out);
+                return args.length == 0 ? EXIT_USAGE : EXIT_SUCCESS;
+            }
+            if (hasOption(args, "--verify")) {
+                return verify(parseVerifyArguments(args), out, err);
+            }
+            if (hasOption(args, "--replay")) {
+                return replay(parseReplayArguments(args), out, err);
+            }
+            parameters = parseArguments(args);
+            String saveProfile = optionValue(args, "--save-profile");
+            if (saveProfile != null) {
+                GenerationProfile.write(parameters, Paths.get(saveProfile));
+                out.println("Saved profile " + saveProfile + " (--replay runs it)");
+                return EXIT_SUCCESS;
+            }
+        } catch (IllegalArgumentException e) {
+            err.println("Error: " + e.getMessage());
+            err.println("Run with --help for usage.");
+            return EXIT_USAGE;
+        } catch (IOException e) {
+            err.println("Error: " + e.getMessage());
+            return EXIT_USAGE;
+        }
+        return generate(parameters, out, err);
+    }
+
+    /**
+     * Runs one generation, printing progress and then a summary
+     * @return the process exit status
+     */
+    private static int generate(FileGenerationParameters parameters, PrintStream out, PrintStream err) {
+        FileGenerationEngine engine = new FileGenerationEngine(parameters);
+        long start = System.nanoTime();
+        try {
+            engine.generate(() -> false, progressPrinter(err));
+        } catch (IOException e) {
+            err.println("Error: " + e.getMessage());
+            return EXIT_FAILURE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err.println("Error: generation was interrupted");
+            return EXIT_FAILURE;
+        }
+        printSummary(engine, parameters, System.nanoTime() - start, out);
+        return EXIT_SUCCESS;
+    }
+
+    private static void printSummary(FileGenerationEngine engine, FileGenerationParameters parameters,
+                                     long elapsedNanos, PrintStream out) {
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        long files = engine.getCompletedCount();
+        long bytes = engine.getCompletedBytes();
+        String threads = parameters.getThreadCount() + " threads";
+        if (engine.isUsingVirtualThreads()) {
+            threads = engine.getWorkerThreadCount() + " virtual threads";
+        } else if (parameters.isVirtualThreads()) {
+            threads = engine.getWorkerThreadCount() + " platform threads (virtual threads need Java 21)";
+        }
+        out.println(String.format(Locale.ROOT, "Generated %d files (%s) in %.3f s: %.0f files/s, %s/s using %s",
+                files, ByteSizes.format(bytes), seconds, files / seconds, ByteSizes.format(bytes / seconds),
+                threads));
+        out.println("Random seed " + engine.getSeed() + " (--seed repeats the random values of this run)");
+        if (engine.getSkippedCount() > 0) {
+            out.println(String.format(Locale.ROOT, "Skipped %d files that already existed",
+                    engine.getSkippedCount()));
+        } else if (parameters.getCollisionPolicy() == CollisionPolicy.UPDATE) {
+            out.println(String.format(Locale.ROOT, "Kept %d unchanged files, rewrote %d changed files",
+                    engine.getUnchangedCount(), engine.getChangedCount()));
+        } else if (engine.getExistingCount() > 0) {
+            out.println(String.format(Locale.ROOT, "Overwrote %d existing files", engine.getExistingCount()));
+        }
+        if (engine.getDeletedCount() > 0) {
+            out.println(String.format(Locale.ROOT, "Deleted %d files outside the run", engine.getDeletedCount()));
+        }
+        if (engine.getResumedCount() > 0) {
+            out.println(String.format(Locale.ROOT, "Skipped %d files already recorded in the checkpoint",
+                    engine.getResumedCount()));
+        }
+        out.println(engine.getMetricsReport().formatPhases());
+    }
+
+    private static boolean hasOption(String[] args, String name) {
+        for (String arg : args) {
+            if (arg.equals(name) || arg.startsWith(name + "=")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the value of the last occurrence of an option, or null if it is not given
+     */
+    private static String optionValue(String[] args, String name) {
+        String value = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith(name + "=")) {
+                value = args[i].substring(name.length() + 1);
+            } else if (args[i].equals(name) && i + 1 < args.length) {
+                value = args[++i];
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Runs saved profiles one after another, stopping at the first failure, or all at once
+     * @return {@link #EXIT_SUCCESS} if every profile ran, otherwise {@link #EXIT_FAILURE}
+     */
+    private static int replay(ReplayOptions options, PrintStream out, PrintStream err) {
+        List<FileGenerationParameters> runs = new ArrayList<>();
+        for (Path profile : options.profiles) {
+            try {
+                FileGenerationParameters parameters = GenerationProfile.read(profile);
+                validate(parameters);
+                runs.add(parameters);
+            } catch (IOException | IllegalArgumentException e) {
+                err.println("Error: " + profile + ": " + e.getMessage());
+                return EXIT_USAGE;
+            }
+        }
+
+        if (!options.parallel) {
+            for (int i = 0; i < runs.size(); i++) {
+                out.println(String.format(Locale.ROOT, "Profile %d of %d: %s", i + 1, runs.size(),
+                        options.profiles.get(i)));
+                int status = generate(runs.get(i), out, err);
+                if (status != EXIT_SUCCESS) {
+                    return status;
+                }
+            }
+            return EXIT_SUCCESS;
+        }
+
+        // Every profile gets its own share of the threads, even those writing to the same disk
+        int threads = 0;
+        for (FileGenerationParameters parameters : runs) {
+            threads += parameters.isVirtualThreads() ? 1 : parameters.getThreadCount();
+        }
+        int status = EXIT_SUCCESS;
+        try (JobScheduler scheduler = new JobScheduler(threads, runs.size(), null)) {
+            List<GenerationJob> jobs = new ArrayList<>();
+            for (FileGenerationParameters parameters : runs) {
+                jobs.add(scheduler.submit(parameters, 0));
+            }
+            for (int i = 0; i < jobs.size(); i++) {
+                GenerationJob job = jobs.get(i);
+                job.await();
+                out.println(String.format(Locale.ROOT, "Profile %d of %d: %s", i + 1, runs.size(),
+                        options.profiles.get(i)));
+                if (job.getState() == GenerationJob.State.SUCCEEDED) {
+                    FileGenerationEngine engine = job.getEngine();
+                    printSummary(engine, job.getParameters(), engine.getMetricsReport().getElapsedNanos(), out);
+                } else {
+                    err.println("Error: " + (job.getFailure() != null ? job.getFailure().getMessage()
+                            : "generation was cancelled"));
+                    status = EXIT_FAILURE;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err.println("Error: replay was interrupted");
+            return EXIT_FAILURE;
+        }
+        return status;
+    }
+
+    /**
+     * Options of a {@code --replay} run
+     */
+    static final class ReplayOptions {
+        final List<Path> profiles = new ArrayList<>();
+        boolean parallel;
+    }
+
+    /**
+     * Reads the options of a {@code --replay} run: one or more profiles and --parallel
+     * @throws IllegalArgumentException if an option is unknown, missing its value or invalid
+     */
+    static ReplayOptions parseReplayArguments(String[] args) {
+        ReplayOptions options = new ReplayOptions();
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            String value;
+            int equals = option.indexOf('=');
+            if (option.startsWith("--") && equals > 0) {
+                value = option.substring(equals + 1);
+                option = option.substring(0, equals);
+            } else if (i + 1 < args.length) {
+                value = args[++i];
+            } else {
+                throw new IllegalArgumentException("Missing value for option " + option);
+            }
+
+            switch (option) {
+                case "--replay":
+                    options.profiles.add(Paths.get(value));
+                    break;
+                case "--parallel":
+                    options.parallel = parseBoolean(option, value);
+                    break;
+                default:
+                    throw new IllegalArgumentException(option + " cannot be combined with --replay");
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Checks the files listed in a manifest, printing one line per missing or corrupt file
+     * @return {@link #EXIT_SUCCESS} if every file matches, otherwise {@link #EXIT_FAILURE}
+     */
+    private static int verify(VerifyOptions options, PrintStream out, PrintStream err) {
+        ManifestVerifier verifier = new ManifestVerifier(options.manifest, options.baseDirectory, options.threads);
+        long start = System.nanoTime();
+        try {
+            verifier.verify((problem, entry, detail) -> {
+                synchronized (out) {
+                    out.println(problem + " " + entry.getPath() + ": " + detail);
+                }
+            });
+        } catch (IOException e) {
+            err.println("Error: " + e.getMessage());
+            return EXIT_FAILURE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err.println("Error: verification was interrupted");
+            return EXIT_FAILURE;
+        }
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1_000_000_000.0;
+
+        long files = verifier.getCheckedCount();
+        long problems = verifier.getMissingCount() + verifier.getCorruptCount();
+        out.println(String.format(Locale.ROOT, "Verified %d files (%s) in %.3f s: %d ok, %d missing, %d corrupt",
+                files, ByteSizes.format(verifier.getCheckedBytes()), seconds, files - problems,
+                verifier.getMissingCount(), verifier.getCorruptCount()));
+        return problems == 0 ? EXIT_SUCCESS : EXIT_FAILURE;
+    }
+
+    /**
+     * Options of a {@code --verify} run
+     */
+    static final class VerifyOptions {
+        Path manifest;
+        Path baseDirectory;
+        int threads = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Reads the options of a {@code --verify} run: the manifest, --output and --threads
+     * @throws IllegalArgumentException if an option is unknown, missing its value or invalid
+     */
+    static VerifyOptions parseVerifyArguments(String[] args) {
+        VerifyOptions options = new VerifyOptions();
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            String value;
+            int equals = option.indexOf('=');
+            if (option.startsWith("--") && equals > 0) {
+                value = option.substring(equals + 1);
+                option = option.substring(0, equals);
+            } else if (i + 1 < args.length) {
+                value = args[++i];
+            } else {
+                throw new IllegalArgumentException("Missing value for option " + option);
+            }
+
+            switch (option) {
+                case "--verify":
+                    options.manifest = Paths.get(value);
+                    break;
+                case "-o":
+                case "--output":
+                    options.baseDirectory = Paths.get(value);
+                    break;
+                case "-t":
+                case "--threads":
+                    options.threads = parseInt(option, value);
+                    break;
+                default:
+                    throw new IllegalArgumentException(option + " cannot be combined with --verify");
+            }
+        }
+        if (options.threads < 1) {
+            throw new IllegalArgumentException("--threads must be at least 1");
+        }
+        if (options.baseDirectory == null) {
+            // The GUI and most runs keep the manifest in the output directory
+            Path parent = options.manifest.toAbsolutePath().getParent();
+            options.baseDirectory = parent != null ? parent : Paths.get(".");
+        }
+        return options;
+    }
+
+    /**
+     * Prints a progress line about once per second, so short runs only print their summary
+     */
+    private static FileGenerationEngine.ProgressListener progressPrinter(PrintStream err) {
+        long[] nextReportNanos = {TimeUnit.SECONDS.toNanos(1)};
+        return progress -> {
+            if (progress.getElapsedNanos() >= nextReportNanos[0]
+                    && progress.getCompletedFiles() < progress.getTotalFiles()) {
+                nextReportNanos[0] = progress.getElapsedNanos() + TimeUnit.SECONDS.toNanos(1);
+                err.println(progress.format());
+            }
+        };
+    }
+
+    private static boolean usesColumns(String template) {
+        return CompiledTemplate.compile(template, new TimestampProvider(TimestampMode.PER_RUN), new ColumnNames())
+                .usesColumns();
+    }
+
+    /**
+     * Builds generation parameters from command line options
+     * @throws IllegalArgumentException if an option is unknown, missing its value or invalid
+     * @throws IOException if a content template file cannot be read
+     */
+    static FileGenerationParameters parseArguments(String[] args) throws IOException {
+        String profile = optionValue(args, "--profile");
+        FileGenerationParameters parameters = profile != null
+                ? GenerationProfile.read(Paths.get(profile)) : new FileGenerationParameters();
+        // A profile always holds the count, so a data file run keeps the number of records it had
+        boolean countGiven = profile != null;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            String value;
+            int equals = option.indexOf('=');
+            if (option.startsWith("--") && equals > 0) {
+                value = option.substring(equals + 1);
+                option = option.substring(0, equals);
+            } else if (i + 1 < args.length) {
+                value = args[++i];
+            } else {
+                throw new IllegalArgumentException("Missing value for option " + option);
+            }
+
+            switch (option) {
+                case "-o":
+                case "--output":
+                    parameters.setOutputDirectory(value);
+                    break;
+                case "-c":
+                case "--count":
+                    parameters.setFileCount(parseLong(option, value));
+                    countGiven = true;
+                    break;
+                case "--start":
+                    parameters.setStartIndex(parseLong(option, value));
+                    break;
+                case "-p":
+                case "--pattern":
+                    parameters.setFileNamePattern(value);
+                    break;
+                case "--content":
+                    parameters.setFileContent(value);
+                    break;
+                case "--content-file":
+                    parameters.setFileContent(new String(Files.readAllBytes(Paths.get(value)), StandardCharsets.UTF_8));
+                    break;
+                case "-t":
+                case "--threads":
+                    parameters.setThreadCount(parseInt(option, value));
+                    break;
+                case "--virtual-threads":
+                    parameters.setVirtualThreads(parseBoolean(option, value));
+                    break;
+                case "--render-threads":
+                    parameters.setRenderThreadCount(parseInt(option, value));
+                    break;
+                case "--timestamp-mode":
+                    parameters.setTimestampMode(parseEnum(TimestampMode.class, option, value));
+                    break;
+                case "--backend":
+                    parameters.setWriteBackend(parseEnum(WriteBackendType.class, option, value));
+                    break;
+                case "--fsync":
+                    parameters.setFsync(parseBoolean(option, value));
+                    break;
+                case "--clone-static":
+                    parameters.setCloneStaticContent(parseBoolean(option, value));
+                    break;
+                case "--content-mode":
+                    parameters.setContentMode(parseEnum(ContentMode.class, option, value));
+                    break;
+                case "--file-size":
+                    parameters.setTargetFileSize(parseSize(option, value));
+                    break;
+                case "--chunk-size":
+                    parameters.setChunkSize((int) Math.min(Integer.MAX_VALUE, parseSize(option, value)));
+                    break;
+                case "--max-files-per-second":
+                    parameters.setMaxFilesPerSecond(parseDouble(option, value));
+                    break;
+                case "--max-bytes-per-second":
+                    parameters.setMaxBytesPerSecond(parseSize(option, value));
+                    break;
+                case "--archive":
+                    parameters.setArchiveFile(value);
+                    parameters.getArchiveFormat();
+                    break;
+                case "--data":
+                    parameters.setDataFile(value);
+                    parameters.getDataFormat();
+                    break;
+                case "--manifest":
+                    parameters.setManifestFile(value);
+                    break;
+                case "--checksum":
+                    parameters.setChecksumType(ChecksumType.forName(value));
+                    break;
+                case "--seed":
+                    parameters.setSeed(parseLong(option, value));
+                    break;
+                case "--existing":
+                    parameters.setCollisionPolicy(parseEnum(CollisionPolicy.class, option, value));
+                    break;
+                case "--preflight":
+                    parameters.setPreflightCheck(parseBoolean(option, value));
+                    break;
+                case "--delete-extra":
+                    parameters.setDeleteExtraFiles(parseBoolean(option, value));
+                    break;
+                case "--checkpoint":
+                    parameters.setCheckpointFile(value);
+                    break;
+                case "--resume":
+                    parameters.setResume(parseBoolean(option, value));
+                    break;
+                case "--shard-fan-out":
+                    parameters.setShardFanOut(parseInt(option, value));
+                    break;
+                case "--shard-depth":
+                    parameters.setShardDepth(parseInt(option, value));
+                    break;
+                case "--profile":
+                case "--save-profile":
+                    // Read before the other options, so they override the profile; saved by run()
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+
+        if (parameters.getDataFile() != null && !countGiven) {
+            // One file per record, however many there are
+            parameters.setFileCount(Long.MAX_VALUE - parameters.getStartIndex());
+        }
+        validate(parameters);
+        return parameters;
+    }
+
+    /**
+     * Checks the combinations of options that cannot run together
+     * @throws IllegalArgumentException naming the conflicting options
+     */
+    static void validate(FileGenerationParameters parameters) {
+        if (parameters.getOutputDirectory().trim().isEmpty()) {
+            throw new IllegalArgumentException("Output directory is required (--output)");
+        }
+        if (parameters.getWriteBackend() == WriteBackendType.MEMORY_MAPPED
+                && parameters.getContentMode() == ContentMode.TEMPLATE) {
+            throw new IllegalArgumentException("--backend memory-mapped needs a --content-mode other than template");
+        }
+        if (parameters.getArchiveFile() != null && parameters.isResume()) {
+            throw new IllegalArgumentException("--archive cannot be combined with --resume");
+        }
+        if (parameters.getArchiveFile() != null && parameters.getWriteBackend() == WriteBackendType.MEMORY_MAPPED) {
+            throw new IllegalArgumentException("--archive cannot be combined with --backend memory-mapped");
+        }
+        if (parameters.getManifestFile() != null && parameters.getArchiveFile() != null) {
+            throw new IllegalArgumentException("--manifest cannot be combined with --archive");
+        }
+        if (!parameters.getChecksumType().isSupported()) {
+            throw new IllegalArgumentException("--checksum " + parameters.getChecksumType().getName()
+                    + " needs Java 9 or later");
+        }
+        if (parameters.getRenderThreadCount() > 0 && parameters.getContentMode() != ContentMode.TEMPLATE) {
+            throw new IllegalArgumentException("--render-threads needs --content-mode template");
+        }
+        if (parameters.isVirtualThreads() && parameters.getRenderThreadCount() > 0) {
+            throw new IllegalArgumentException("--virtual-threads cannot be combined with --render-threads");
+        }
+        if (parameters.isVirtualThreads() && parameters.getWriteBackend() == WriteBackendType.MEMORY_MAPPED) {
+            throw new IllegalArgumentException("--virtual-threads cannot be combined with --backend memory-mapped");
+        }
+        if (parameters.getDataFile() == null && (usesColumns(parameters.getFileNamePattern())
+                || usesColumns(parameters.getFileContent()))) {
+            throw new IllegalArgumentException("{col:name} placeholders need a --data file");
+        }
+        if (parameters.getDataFile() != null && parameters.getContentMode() != ContentMode.TEMPLATE) {
+            throw new IllegalArgumentException("--data needs --content-mode template");
+        }
+        if (parameters.getDataFile() != null && parameters.getRenderThreadCount() > 0) {
+            throw new IllegalArgumentException("--data cannot be combined with --render-threads");
+        }
+        if (parameters.isResume() && parameters.getCheckpointFile() == null) {
+            throw new IllegalArgumentException("--resume true needs a --checkpoint file");
+        }
+        if (parameters.getCollisionPolicy() == CollisionPolicy.UPDATE && (parameters.getArchiveFile() != null
+                || parameters.getRenderThreadCount() > 0
+                || parameters.getWriteBackend() == WriteBackendType.MEMORY_MAPPED)) {
+            throw new IllegalArgumentException(
+                    "--existing update cannot be combined with --archive, --render-threads or --backend memory-mapped");
+        }
+        if (parameters.isDeleteExtraFiles() && parameters.getCollisionPolicy() != CollisionPolicy.UPDATE) {
+            throw new IllegalArgumentException("--delete-extra true needs --existing update");
+        }
+        if (!parameters.isValid()) {
+            throw new IllegalArgumentException("Invalid parameters: " + parameters);
+        }
+    }
+
+    private static int parseInt(String option, String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+        }
+    }
+
+    private static double parseDouble(String option, String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+        }
+    }
+
+    private static long parseLong(String option, String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+        }
+    }
+
+    private static long parseSize(String option, String value) {
+        try {
+            return ByteSizes.parse(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid size for " + option + ": " + value);
+        }
+    }
+
+    private static boolean parseBoolean(String option, String value) {
+        if ("true".equalsIgnoreCase(value.trim())) {
+            return true;
+        } else if ("false".equalsIgnoreCase(value.trim())) {
+            return false;
+        }
+        throw new IllegalArgumentException("Invalid value for " + option + " (expected true or false): " + value);
+    }
+
+    /**
+     * Parses an enum constant, accepting lower case and dashes (e.g. {@code per-run})
+     */
+    static <E extends Enum<E>> E parseEnum(Class<E> type, String option, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+        }
+    }
+
+    private static void printUsage(PrintStream out) {
+        out.println("Usage: java -cp java-file-generator.jar com.generator.FileGeneratorCli [options]");
+        out.println("       java -cp java-file-generator.jar com.generator.FileGeneratorCli --verify MANIFEST"
+                + " [--output DIR] [--threads N]");
+        out.println("       java -cp java-file-generator.jar com.generator.FileGeneratorCli --replay PROFILE"
+                + " [--replay PROFILE...] [--parallel true|false]");
+        out.println();
+        out.println("Options:");
+        out.println("  -o, --output DIR            Output directory (required)");
+        out.println("  -c, --count N               Number of files to generate (default 1)");
+        out.println("      --start N               File number {n} of the first file (default 1)");
+        out.println("  -p, --pattern PATTERN       File name pattern (default file_{n}.txt)");
+        out.println("      --content TEXT          Content template (default \"This is file number {n}\")");
+        out.println("      --content-file FILE     Read the content template from a UTF-8 file");
+        out.println("  -t, --threads N             Worker threads (default: available processors)");
+        out.println("      --virtual-threads true|false  Run one virtual thread per file in flight on Java 21+,");
+        out.println("                              --threads of them (e.g. 1000); older JVMs fall back to");
+        out.println("                              at most 256 platform threads (default false)");
+        out.println("      --render-threads N      Render on N separate threads and use --threads for writing");
+        out.println("                              only (default 0: each worker renders and writes)");
+        out.println("      --timestamp-mode MODE   per-second or per-run refresh of {date} placeholders");
+        out.println("      --backend TYPE          nio-channel (default), file-writer or memory-mapped");
+        out.println("      --fsync true|false      Force every file to disk before closing it (default false)");
+        out.println("      --clone-static true|false  Copy placeholder-free content in the kernel (default true)");
+        out.println("      --content-mode MODE     template (default), repeat-template, random-bytes,");
+        out.println("                              random-text or zero-fill");
+        out.println("      --file-size SIZE        Size of each file for non-template modes, e.g. 64K, 10M, 1G");
+        out.println("      --chunk-size SIZE       Write buffer and streaming chunk size (default 1M)");
+        out.println("      --max-files-per-second N  Limit the rate of files written (default 0: unlimited)");
+        out.println("      --max-bytes-per-second SIZE  Limit the write throughput, e.g. 50M (default 0: unlimited)");
+        out.println("      --shard-fan-out N       Spread files over a directory tree with at most N entries");
+        out.println("                              per directory (default 0: no sharding)");
+        out.println("      --shard-depth N         Directory levels used with --shard-fan-out (default 1)");
+        out.println("      --archive FILE          Stream all files into one .tar, .tar.gz/.tgz or .zip archive");
+        out.println("                              (relative to --output) instead of writing them individually");
+        out.println("      --data FILE             Generate one file per record of a .csv (with a header) or");
+        out.println("                              .jsonl file, filling {col:name} placeholders; --count");
+        out.println("                              then limits the records used (default: all of them)");
+        out.println("      --seed N                Seed of {uuid}, {random:N}, {rand:...}, {lorem:N} and the random");
+        out.println("                              content modes; the same seed and {n} always give the same");
+        out.println("                              file (default: a new seed every run)");
+        out.println("      --manifest FILE         Record the size and checksum of every file in FILE (relative");
+        out.println("                              to --output), computed while writing");
+        out.println("      --checksum TYPE         crc32c (default on Java 9+), crc32 or sha256");
+        out.println("      --existing POLICY       overwrite (default), skip or fail when files of the run");
+        out.println("                              already exist in --output, or update to rewrite only the");
+        out.println("                              files whose content changed (checked against --manifest");
+        out.println("                              when the last run wrote one, otherwise read back)");
+        out.println("      --delete-extra true|false  With --existing update, delete files matching the name");
+        out.println("                              pattern whose numbers lie outside the run (default false)");
+        out.println("      --preflight true|false  Check free space and inodes before writing (default true)");
+        out.println("      --checkpoint FILE       Record finished files in FILE so the run can be resumed");
+        out.println("      --resume true|false     Skip the files recorded in --checkpoint (default false)");
+        out.println("      --profile FILE          Start from the settings of a saved JSON profile; the other");
+        out.println("                              options override them");
+        out.println("      --save-profile FILE     Save the settings to a JSON profile instead of generating");
+        out.println("  -h, --help                  Show this help");
+        out.println();
+        out.println("Verify options:");
+        out.println("      --verify MANIFEST       Check the files listed in a manifest against their size and");
+        out.println("                              checksum, reading --threads files at once");
+        out.println("  -o, --output DIR            Directory the manifest's paths are relative to (default: the");
+        out.println("                              manifest's directory)");
+        out.println();
+        out.println("Replay options:");
+        out.println("      --replay PROFILE        Run a saved profile; repeat to run several in the given order");
+        out.println("      --parallel true|false   Run all profiles at once instead of one after another");
+        out.println("                              (default false)");
+        out.println();
+        out.println("Exit status: 0 on success, 1 if generation failed or files did not verify,");
+        out.println("2 on invalid arguments.");
+    }
+}
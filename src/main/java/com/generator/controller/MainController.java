@@ -1,16 +1,34 @@
 package com.generator.controller;
 
+import com.generator.jobs.JobScheduler;
+import com.generator.metrics.MetricsReport;
+import com.generator.model.ArchiveFormat;
+import com.generator.model.CollisionPolicy;
+import com.generator.model.ContentMode;
+import com.generator.model.DataFormat;
 import com.generator.model.FileGenerationParameters;
 import com.generator.model.FileGeneratorTask;
+import com.generator.model.TimestampMode;
+import com.generator.profile.GenerationProfile;
+import com.generator.template.ColumnNames;
+import com.generator.template.CompiledTemplate;
+import com.generator.template.TimestampProvider;
+import com.generator.util.ByteSizes;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
+import javafx.scene.layout.VBox;
 import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.ResourceBundle;
 
 /**
@@ -21,21 +39,61 @@ public class MainController implements Initializable {
 
     @FXML private TextField outputDirectoryField;
     @FXML private TextField fileCountField;
+    @FXML private TextField startIndexField;
     @FXML private TextField fileNamePatternField;
     @FXML private TextArea contentTemplateArea;
+    @FXML private TextField threadCountField;
+    @FXML private TextField renderThreadCountField;
+    @FXML private CheckBox virtualThreadsBox;
+    @FXML private ComboBox<ContentMode> contentModeBox;
+    @FXML private TextField fileSizeField;
+    @FXML private TextField maxFilesPerSecondField;
+    @FXML private TextField maxBytesPerSecondField;
+    @FXML private CheckBox checkpointBox;
+    @FXML private CheckBox resumeBox;
+    @FXML private TextField archiveField;
+    @FXML private TextField dataFileField;
+    @FXML private TextField seedField;
+    @FXML private CheckBox manifestBox;
+    @FXML private ComboBox<CollisionPolicy> collisionPolicyBox;
+    @FXML private CheckBox deleteExtraBox;
+    @FXML private TextField priorityField;
     @FXML private Button browseButton;
     @FXML private Button generateButton;
     @FXML private Button cancelButton;
+    @FXML private Button saveProfileButton;
+    @FXML private Button replayButton;
+    @FXML private ListView<FileGeneratorTask> jobList;
     @FXML private ProgressBar progressBar;
     @FXML private Label statusLabel;
+    @FXML private TextArea metricsArea;
 
-    private FileGeneratorTask currentTask;
-    private Thread currentThread;
+    /**
+     * Worker threads shared by all jobs: the most a single job may ask for, so a job running alone
+     * gets its full thread count and jobs overlapping on different disks split the budget
+     */
+    private static final int JOB_THREAD_BUDGET = 1024;
+
+    /**
+     * Runs the submitted jobs; jobs on the same disk run one after the other
+     */
+    private final JobScheduler scheduler = new JobScheduler(JOB_THREAD_BUDGET, 1, null);
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         // Set default values
         outputDirectoryField.setText(System.getProperty("user.home"));
+        threadCountField.setText(String.valueOf(FileGenerationParameters.defaultThreadCount()));
+        contentModeBox.getItems().setAll(ContentMode.values());
+        contentModeBox.setValue(ContentMode.TEMPLATE);
+        collisionPolicyBox.getItems().setAll(CollisionPolicy.values());
+        collisionPolicyBox.setValue(CollisionPolicy.OVERWRITE);
+        fileSizeField.disableProperty().bind(contentModeBox.valueProperty().isEqualTo(ContentMode.TEMPLATE));
+        resumeBox.disableProperty().bind(checkpointBox.selectedProperty().not());
+        deleteExtraBox.disableProperty().bind(collisionPolicyBox.valueProperty().isNotEqualTo(CollisionPolicy.UPDATE));
+        jobList.setCellFactory(list -> new JobCell());
+        jobList.getSelectionModel().selectedItemProperty().addListener(
+                (observable, oldValue, newValue) -> showJob(newValue));
         
         // Add input validation listeners
         fileCountField.textProperty().addListener((observable, oldValue, newValue) -> {
@@ -43,6 +101,36 @@ public class MainController implements Initializable {
                 fileCountField.setText(newValue.replaceAll("[^\\d]", ""));
             }
         });
+        startIndexField.textProperty().addListener((observable, oldValue, newValue) -> {
+            if (!newValue.matches("\\d*")) {
+                startIndexField.setText(newValue.replaceAll("[^\\d]", ""));
+            }
+        });
+        // Rate limits also apply to the selected job while it runs
+        maxFilesPerSecondField.textProperty().addListener((observable, oldValue, newValue) -> {
+            double rate = parseFilesPerSecond(newValue);
+            FileGeneratorTask task = jobList.getSelectionModel().getSelectedItem();
+            if (rate >= 0 && task != null && task.isRunning()) {
+                task.getRateLimiter().setFilesPerSecond(rate);
+            }
+        });
+        maxBytesPerSecondField.textProperty().addListener((observable, oldValue, newValue) -> {
+            long rate = parseBytesPerSecond(newValue);
+            FileGeneratorTask task = jobList.getSelectionModel().getSelectedItem();
+            if (rate >= 0 && task != null && task.isRunning()) {
+                task.getRateLimiter().setBytesPerSecond(rate);
+            }
+        });
+        threadCountField.textProperty().addListener((observable, oldValue, newValue) -> {
+            if (!newValue.matches("\\d*")) {
+                threadCountField.setText(newValue.replaceAll("[^\\d]", ""));
+            }
+        });
+        renderThreadCountField.textProperty().addListener((observable, oldValue, newValue) -> {
+            if (!newValue.matches("\\d*")) {
+                renderThreadCountField.setText(newValue.replaceAll("[^\\d]", ""));
+            }
+        });
     }
 
     /**
@@ -71,7 +159,7 @@ public class MainController implements Initializable {
     }
 
     /**
-     * Handles the generate files button click
+     * Handles the generate files button click: queues a new job, which starts once its disk is free
      */
     @FXML
     private void handleGenerateFiles() {
@@ -80,62 +168,144 @@ public class MainController implements Initializable {
         }
 
         // Create parameters from UI input
-        FileGenerationParameters parameters = createParametersFromInput();
-        
-        // Create and configure the task
-        currentTask = new FileGeneratorTask(parameters);
-        
-        // Bind progress properties
-        progressBar.progressProperty().bind(currentTask.progressProperty());
-        statusLabel.textProperty().bind(currentTask.messageProperty());
-        
+        submitJob(createParametersFromInput(), parsePriority(priorityField.getText()));
+    }
+
+    /**
+     * Handles the save profile button click, saving the settings of the form to a JSON profile
+     */
+    @FXML
+    private void handleSaveProfile() {
+        if (!validateInput()) {
+            return;
+        }
+        FileChooser fileChooser = profileChooser("Save Profile");
+        fileChooser.setInitialFileName("profile" + GenerationProfile.EXTENSION);
+        File file = fileChooser.showSaveDialog(saveProfileButton.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        try {
+            GenerationProfile.write(createParametersFromInput(), file.toPath());
+        } catch (IOException e) {
+            showErrorAlert("Saving Profile Failed", e.getMessage());
+        }
+    }
+
+    /**
+     * Handles the replay profiles button click, queueing a job per selected profile in file name order.
+     * The scheduler runs profiles for the same disk one after another and those for other disks in parallel.
+     */
+    @FXML
+    private void handleReplayProfiles() {
+        List<File> files = profileChooser("Replay Profiles").showOpenMultipleDialog(
+                replayButton.getScene().getWindow());
+        if (files == null) {
+            return;
+        }
+        files = new ArrayList<>(files);
+        files.sort(Comparator.comparing(File::getName));
+
+        // Read every profile before queueing any, so a bad one does not leave half a batch running
+        List<FileGenerationParameters> runs = new ArrayList<>();
+        StringBuilder errors = new StringBuilder();
+        for (File file : files) {
+            try {
+                FileGenerationParameters parameters = GenerationProfile.read(file.toPath());
+                if (parameters.isValid()) {
+                    runs.add(parameters);
+                } else {
+                    errors.append("- ").append(file.getName()).append(": invalid settings\n");
+                }
+            } catch (IOException e) {
+                errors.append("- ").append(e.getMessage()).append("\n");
+            }
+        }
+        if (errors.length() > 0) {
+            showErrorAlert("Replay Failed", "Please fix the following profiles:\n\n" + errors);
+            return;
+        }
+        int priority = parsePriority(priorityField.getText());
+        for (FileGenerationParameters parameters : runs) {
+            submitJob(parameters, priority);
+        }
+    }
+
+    private static FileChooser profileChooser(String title) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(title);
+        fileChooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("Generation profiles", "*" + GenerationProfile.EXTENSION));
+        return fileChooser;
+    }
+
+    /**
+     * Queues a job and follows it in the progress section
+     */
+    private void submitJob(FileGenerationParameters parameters, int priority) {
+        FileGeneratorTask task = new FileGeneratorTask(parameters, scheduler, priority);
+
         // Handle task completion
-        currentTask.setOnSucceeded(e -> {
-            generateButton.setDisable(false);
-            cancelButton.setDisable(true);
-            progressBar.progressProperty().unbind();
-            statusLabel.textProperty().unbind();
-            statusLabel.setText("File generation completed successfully!");
-        });
-        
-        currentTask.setOnFailed(e -> {
-            generateButton.setDisable(false);
-            cancelButton.setDisable(true);
-            progressBar.progressProperty().unbind();
-            statusLabel.textProperty().unbind();
-            
-            Throwable exception = currentTask.getException();
+        task.setOnSucceeded(e -> jobEnded(task));
+        task.setOnFailed(e -> {
+            jobEnded(task);
+            Throwable exception = task.getException();
             String errorMessage = exception != null ? exception.getMessage() : "Unknown error occurred";
-            statusLabel.setText("Error: " + errorMessage);
-            
-            showErrorAlert("Generation Failed", errorMessage);
-        });
-        
-        currentTask.setOnCancelled(e -> {
-            generateButton.setDisable(false);
-            cancelButton.setDisable(true);
-            progressBar.progressProperty().unbind();
-            statusLabel.textProperty().unbind();
-            statusLabel.setText("File generation was cancelled");
+            showErrorAlert("Generation Failed", "Job #" + task.getJob().getId() + ": " + errorMessage);
         });
+        task.setOnCancelled(e -> jobEnded(task));
+
+        // Follow the new job in the progress section
+        jobList.getItems().add(task);
+        jobList.getSelectionModel().select(task);
 
-        // Update UI state
-        generateButton.setDisable(true);
-        cancelButton.setDisable(false);
-        
         // Start the task in a new thread
-        currentThread = new Thread(currentTask);
-        currentThread.setDaemon(true);
-        currentThread.start();
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Binds the progress section to a job, or resets it if none is selected
+     */
+    private void showJob(FileGeneratorTask task) {
+        progressBar.progressProperty().unbind();
+        statusLabel.textProperty().unbind();
+        if (task == null) {
+            progressBar.setProgress(0);
+            statusLabel.setText("Ready to generate files");
+            cancelButton.setDisable(true);
+            metricsArea.clear();
+            return;
+        }
+        progressBar.progressProperty().bind(task.progressProperty());
+        statusLabel.textProperty().bind(task.messageProperty());
+        cancelButton.setDisable(task.isDone());
+        showMetrics(task);
+    }
+
+    private void jobEnded(FileGeneratorTask task) {
+        if (task == jobList.getSelectionModel().getSelectedItem()) {
+            showJob(task);
+        }
+    }
+
+    /**
+     * Shows the run summary of a job, if it got far enough to produce one
+     */
+    private void showMetrics(FileGeneratorTask task) {
+        MetricsReport report = task.getMetricsReport();
+        metricsArea.setText(report != null ? report.format() : "");
     }
 
     /**
-     * Handles the cancel generation button click
+     * Handles the cancel generation button click, cancelling the selected job
      */
     @FXML
     private void handleCancelGeneration() {
-        if (currentTask != null && !currentTask.isDone()) {
-            currentTask.cancel();
+        FileGeneratorTask task = jobList.getSelectionModel().getSelectedItem();
+        if (task != null && !task.isDone()) {
+            task.cancel();
         }
     }
 
@@ -163,26 +333,159 @@ public class MainController implements Initializable {
 
         // Validate file count
         String fileCountText = fileCountField.getText().trim();
+        long count = 0;
         if (fileCountText.isEmpty()) {
             errors.append("- Number of files is required\n");
         } else {
             try {
-                int count = Integer.parseInt(fileCountText);
+                count = Long.parseLong(fileCountText);
                 if (count <= 0) {
                     errors.append("- Number of files must be greater than 0\n");
-                } else if (count > 1000000) {
-                    errors.append("- Number of files cannot exceed 1,000,000\n");
                 }
             } catch (NumberFormatException e) {
                 errors.append("- Invalid number format for file count\n");
             }
         }
 
-        // Validate file name pattern
+        // Validate start index
+        String startIndexText = startIndexField.getText().trim();
+        if (startIndexText.isEmpty()) {
+            errors.append("- First file number is required\n");
+        } else {
+            try {
+                long start = Long.parseLong(startIndexText);
+                if (count > 0 && count - 1 > Long.MAX_VALUE - start) {
+                    errors.append("- Last file number is too large\n");
+                }
+            } catch (NumberFormatException e) {
+                errors.append("- Invalid number format for first file number\n");
+            }
+        }
+
+        // Validate thread count
+        String threadCountText = threadCountField.getText().trim();
+        if (threadCountText.isEmpty()) {
+            errors.append("- Number of worker threads is required\n");
+        } else {
+            try {
+                int threads = Integer.parseInt(threadCountText);
+                if (threads <= 0) {
+                    errors.append("- Number of worker threads must be greater than 0\n");
+                } else if (threads > 1024 && !virtualThreadsBox.isSelected()) {
+                    errors.append("- Number of worker threads cannot exceed 1,024\n");
+                } else if (threads > 10000) {
+                    errors.append("- Number of virtual threads cannot exceed 10,000\n");
+                }
+            } catch (NumberFormatException e) {
+                errors.append("- Invalid number format for worker threads\n");
+            }
+        }
+
+        // Validate render threads
+        String renderThreadCountText = renderThreadCountField.getText().trim();
+        if (!renderThreadCountText.isEmpty()) {
+            try {
+                int renderThreads = Integer.parseInt(renderThreadCountText);
+                if (renderThreads > 1024) {
+                    errors.append("- Number of render threads cannot exceed 1,024\n");
+                } else if (renderThreads > 0 && contentModeBox.getValue() != ContentMode.TEMPLATE) {
+                    errors.append("- Render threads only apply to the template content mode\n");
+                } else if (renderThreads > 0 && virtualThreadsBox.isSelected()) {
+                    errors.append("- Render threads cannot be combined with virtual threads\n");
+                }
+            } catch (NumberFormatException e) {
+                errors.append("- Invalid number format for render threads\n");
+            }
+        }
+
+        // Validate file size
+        if (contentModeBox.getValue() != ContentMode.TEMPLATE) {
+            try {
+                ByteSizes.parse(fileSizeField.getText());
+            } catch (IllegalArgumentException e) {
+                errors.append("- Invalid file size (use e.g. 512, 64K, 10M or 1G)\n");
+            }
+        }
+
+        // Validate rate limits
+        if (parseFilesPerSecond(maxFilesPerSecondField.getText()) < 0) {
+            errors.append("- Invalid files per second limit\n");
+        }
+        if (parseBytesPerSecond(maxBytesPerSecondField.getText()) < 0) {
+            errors.append("- Invalid bytes per second limit (use e.g. 512K or 50M)\n");
+        }
+
+        // Validate archive
+        String archive = archiveField.getText().trim();
+        if (!archive.isEmpty()) {
+            try {
+                ArchiveFormat.forFileName(archive);
+            } catch (IllegalArgumentException e) {
+                errors.append("- Archive must end in .tar, .tar.gz, .tgz or .zip\n");
+            }
+            if (checkpointBox.isSelected() && resumeBox.isSelected()) {
+                errors.append("- An archive is always written from scratch and cannot be resumed\n");
+            }
+            if (manifestBox.isSelected()) {
+                errors.append("- A checksum manifest lists individual files and cannot be written for an archive\n");
+            }
+            if (collisionPolicyBox.getValue() == CollisionPolicy.UPDATE) {
+                errors.append("- An archive is always written from scratch and cannot be updated\n");
+            }
+        }
+
+        // Validate update; it compares files as the writer threads render them
+        if (collisionPolicyBox.getValue() == CollisionPolicy.UPDATE && !renderThreadCountText.isEmpty()
+                && !renderThreadCountText.matches("0*")) {
+            errors.append("- Updating changed files cannot be combined with render threads\n");
+        }
+
+        // Validate data file
+        String dataFile = dataFileField.getText().trim();
+        if (!dataFile.isEmpty()) {
+            try {
+                DataFormat.forFileName(dataFile);
+            } catch (IllegalArgumentException e) {
+                errors.append("- Data file must end in .csv, .jsonl or .ndjson\n");
+            }
+            if (!new File(dataFile).isFile()) {
+                errors.append("- Data file does not exist\n");
+            }
+            if (contentModeBox.getValue() != ContentMode.TEMPLATE) {
+                errors.append("- A data file needs the template content mode\n");
+            }
+            if (!renderThreadCountText.isEmpty() && !renderThreadCountText.matches("0*")) {
+                errors.append("- A data file cannot be combined with render threads\n");
+            }
+        }
+
+        // Validate priority
+        String priority = priorityField.getText().trim();
+        if (!priority.isEmpty()) {
+            try {
+                Integer.parseInt(priority);
+            } catch (NumberFormatException e) {
+                errors.append("- Invalid number format for job priority\n");
+            }
+        }
+
+        // Validate seed
+        String seed = seedField.getText().trim();
+        if (!seed.isEmpty()) {
+            try {
+                Long.parseLong(seed);
+            } catch (NumberFormatException e) {
+                errors.append("- Invalid number format for random seed\n");
+            }
+        }
+
+        // Validate file name pattern; with a data file, columns can also keep names apart
         String pattern = fileNamePatternField.getText().trim();
+        CompiledTemplate namePattern = CompiledTemplate.compile(pattern,
+                new TimestampProvider(TimestampMode.PER_RUN), new ColumnNames());
         if (pattern.isEmpty()) {
             errors.append("- File name pattern is required\n");
-        } else if (!pattern.contains("{n}")) {
+        } else if (!namePattern.usesIndex() && !(namePattern.usesColumns() && !dataFile.isEmpty())) {
             errors.append("- File name pattern must contain {n} placeholder\n");
         }
 
@@ -198,12 +501,118 @@ public class MainController implements Initializable {
      * Creates FileGenerationParameters from UI input
      */
     private FileGenerationParameters createParametersFromInput() {
-        return new FileGenerationParameters(
+        FileGenerationParameters parameters = new FileGenerationParameters(
             outputDirectoryField.getText().trim(),
-            Integer.parseInt(fileCountField.getText().trim()),
+            Long.parseLong(fileCountField.getText().trim()),
             fileNamePatternField.getText().trim(),
             contentTemplateArea.getText()
         );
+        parameters.setStartIndex(Long.parseLong(startIndexField.getText().trim()));
+        parameters.setThreadCount(Integer.parseInt(threadCountField.getText().trim()));
+        if (!renderThreadCountField.getText().trim().isEmpty()) {
+            parameters.setRenderThreadCount(Integer.parseInt(renderThreadCountField.getText().trim()));
+        }
+        parameters.setVirtualThreads(virtualThreadsBox.isSelected());
+        parameters.setContentMode(contentModeBox.getValue());
+        parameters.setCollisionPolicy(collisionPolicyBox.getValue());
+        parameters.setDeleteExtraFiles(collisionPolicyBox.getValue() == CollisionPolicy.UPDATE
+                && deleteExtraBox.isSelected());
+        parameters.setMaxFilesPerSecond(parseFilesPerSecond(maxFilesPerSecondField.getText()));
+        parameters.setMaxBytesPerSecond(parseBytesPerSecond(maxBytesPerSecondField.getText()));
+        if (contentModeBox.getValue() != ContentMode.TEMPLATE) {
+            parameters.setTargetFileSize(ByteSizes.parse(fileSizeField.getText()));
+        }
+        if (!archiveField.getText().trim().isEmpty()) {
+            parameters.setArchiveFile(archiveField.getText().trim());
+        }
+        if (!dataFileField.getText().trim().isEmpty()) {
+            parameters.setDataFile(dataFileField.getText().trim());
+        }
+        if (!seedField.getText().trim().isEmpty()) {
+            parameters.setSeed(Long.parseLong(seedField.getText().trim()));
+        }
+        if (manifestBox.isSelected()) {
+            parameters.setManifestFile(FileGenerationParameters.DEFAULT_MANIFEST_NAME);
+        }
+        if (checkpointBox.isSelected()) {
+            parameters.setCheckpointFile(new File(parameters.getOutputDirectory(),
+                    FileGenerationParameters.DEFAULT_CHECKPOINT_NAME).getPath());
+            parameters.setResume(resumeBox.isSelected());
+        }
+        return parameters;
+    }
+
+    /**
+     * Parses the job priority
+     * @return the priority, 0 for a blank or invalid field
+     */
+    private static int parsePriority(String text) {
+        try {
+            return text == null || text.trim().isEmpty() ? 0 : Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Parses the files per second limit
+     * @return the limit, 0 for a blank field (unlimited) or -1 if the text is invalid
+     */
+    private static double parseFilesPerSecond(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return 0;
+        }
+        try {
+            double rate = Double.parseDouble(text.trim());
+            return rate >= 0 && !Double.isInfinite(rate) ? rate : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Parses the bytes per second limit
+     * @return the limit, 0 for a blank field (unlimited) or -1 if the text is invalid
+     */
+    private static long parseBytesPerSecond(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return 0;
+        }
+        try {
+            return ByteSizes.parse(text);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Shows a job in the job list as its number and output directory above its progress and status
+     */
+    private static class JobCell extends ListCell<FileGeneratorTask> {
+        private final Label title = new Label();
+        private final ProgressBar progress = new ProgressBar();
+        private final Label status = new Label();
+        private final VBox box = new VBox(2, title, progress, status);
+
+        JobCell() {
+            progress.setMaxWidth(Double.MAX_VALUE);
+        }
+
+        @Override
+        protected void updateItem(FileGeneratorTask task, boolean empty) {
+            super.updateItem(task, empty);
+            progress.progressProperty().unbind();
+            status.textProperty().unbind();
+            if (empty || task == null) {
+                setGraphic(null);
+                return;
+            }
+            title.setText("#" + task.getJob().getId() + " " + task.getJob().getParameters().getOutputDirectory()
+                    + (task.getJob().getPriority() != 0 ? " (priority " + task.getJob().getPriority() + ")" : ""));
+            progress.progressProperty().bind(task.progressProperty());
+            status.textProperty().bind(task.messageProperty());
+            setGraphic(box);
+        }
     }
 
     /**
@@ -0,0 +1,113 @@
+package com.generator.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV records in the RFC 4180 style. A {@code "} switches quoting on or off anywhere in a field and a
+ * doubled quote inside quotes is a literal quote, so a field's quoting always agrees with the quote count
+ * {@link DataSourceReader} uses to find record ends. Records that only hold line breaks are skipped.
+ */
+final class CsvRowParser extends RowParser {
+
+    /**
+     * Template column of each field position, -1 for fields no template uses
+     */
+    private final int[] fieldColumns;
+
+    CsvRowParser(int[] fieldColumns) {
+        this.fieldColumns = fieldColumns;
+    }
+
+    @Override
+    boolean parseRecord(ParsedRow target) {
+        while (position < length && (chars[position] == '\r' || chars[position] == '\n')) {
+            position++;
+        }
+        if (position >= length) {
+            return false;
+        }
+
+        target.clear();
+        int field = 0;
+        boolean quoted = false;
+        target.startValue();
+        for (; position < length; position++) {
+            char c = chars[position];
+            if (quoted) {
+                if (c != '"') {
+                    append(target, field, c);
+                } else if (position + 1 < length && chars[position + 1] == '"') {
+                    append(target, field, '"');
+                    position++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                endField(target, field);
+                field++;
+                target.startValue();
+            } else if (c == '\n') {
+                // The \r of a \r\n line break was appended outside quotes
+                if (chars[position - 1] == '\r' && column(field) >= 0) {
+                    target.dropLast();
+                }
+                position++;
+                break;
+            } else {
+                append(target, field, c);
+            }
+        }
+        endField(target, field);
+        return true;
+    }
+
+    private int column(int field) {
+        return field < fieldColumns.length ? fieldColumns[field] : -1;
+    }
+
+    private void append(ParsedRow target, int field, char c) {
+        if (column(field) >= 0) {
+            target.append(c);
+        }
+    }
+
+    private void endField(ParsedRow target, int field) {
+        if (column(field) >= 0) {
+            target.endValue(column(field));
+        }
+    }
+
+    /**
+     * Splits one record, such as the header, into all of its fields
+     */
+    static List<String> fields(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c != '\r' && c != '\n') {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
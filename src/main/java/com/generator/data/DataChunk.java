@@ -0,0 +1,42 @@
+package com.generator.data;
+
+/**
+ * A run of whole records cut from a data source, still undecoded. Chunks are cut by a single reader
+ * and parsed by any worker, so the expensive decoding and field splitting run in parallel.
+ */
+public final class DataChunk {
+
+    private final byte[] bytes;
+    private final int length;
+    private final long firstRow;
+    private final int rowCount;
+
+    DataChunk(byte[] bytes, int length, long firstRow, int rowCount) {
+        this.bytes = bytes;
+        this.length = length;
+        this.firstRow = firstRow;
+        this.rowCount = rowCount;
+    }
+
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    /**
+     * @return number of the chunk's first record, counting data records from 0
+     */
+    public long getFirstRow() {
+        return firstRow;
+    }
+
+    /**
+     * @return number of records in the chunk
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+}
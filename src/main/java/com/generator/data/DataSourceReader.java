@@ -0,0 +1,260 @@
+package com.generator.data;
+
+import com.generator.model.DataFormat;
+import com.generator.template.ColumnNames;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streams a CSV or JSONL file as {@link DataChunk}s of whole records, so a file of any size is read with a
+ * few chunks in memory. The reader only finds record ends and counts records, a single pass over the bytes
+ * that keeps up with the disk; decoding and parsing happen later in {@link RowParser}s on the workers.
+ * Not thread-safe: one thread reads the chunks.
+ */
+public final class DataSourceReader implements Closeable {
+
+    /**
+     * Bytes read per chunk; a record longer than this gets a larger chunk of its own
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final DataFormat format;
+    private final List<String> columnNames;
+    private final int chunkSize;
+    private final long size;
+    private int[] fieldColumns;
+    private byte[] carry = new byte[0];
+    private int carryLength;
+    private boolean endOfInput;
+    private long rowsRead;
+    private long bytesRead;
+
+    // Results of the last scan
+    private int lastRecordEnd;
+    private int recordsBeforeEnd;
+    private boolean trailingRecord;
+
+    private DataSourceReader(FileChannel channel, DataFormat format, List<String> columnNames, int chunkSize)
+            throws IOException {
+        this.channel = channel;
+        this.format = format;
+        this.columnNames = columnNames;
+        this.chunkSize = chunkSize;
+        this.size = channel.size();
+    }
+
+    /**
+     * Opens a data file, reading the header of a CSV file
+     * @param columns the columns the templates use
+     * @throws IOException if the file cannot be read, or a CSV header lacks one of the columns
+     */
+    public static DataSourceReader open(Path file, DataFormat format, ColumnNames columns) throws IOException {
+        return open(file, format, columns, DEFAULT_CHUNK_SIZE);
+    }
+
+    static DataSourceReader open(Path file, DataFormat format, ColumnNames columns, int chunkSize)
+            throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            DataSourceReader reader = new DataSourceReader(channel, format, columns.names(), chunkSize);
+            if (format == DataFormat.CSV) {
+                reader.readHeader(file);
+            }
+            return reader;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the fields named in the header record to the template columns
+     */
+    private void readHeader(Path file) throws IOException {
+        byte[] buffer = new byte[chunkSize];
+        int length = 0;
+        while (true) {
+            length = fill(buffer, length);
+            scan(buffer, length);
+            if (recordsBeforeEnd > 0 || endOfInput) {
+                break;
+            }
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+
+        int headerEnd = recordsBeforeEnd > 0 ? firstRecordEnd(buffer, length) : length;
+        List<String> header = CsvRowParser.fields(new String(buffer, 0, headerEnd, StandardCharsets.UTF_8).trim());
+        fieldColumns = new int[header.size()];
+        Arrays.fill(fieldColumns, -1);
+        for (int column = 0; column < columnNames.size(); column++) {
+            int field = header.indexOf(columnNames.get(column));
+            if (field < 0) {
+                throw new IOException("Column '" + columnNames.get(column) + "' is not in the header of " + file);
+            }
+            fieldColumns[field] = column;
+        }
+
+        carry = buffer;
+        carryLength = length - headerEnd;
+        System.arraycopy(buffer, headerEnd, carry, 0, carryLength);
+        bytesRead = headerEnd;
+    }
+
+    /**
+     * Reads the next chunk of records
+     * @return the chunk, or null once the file has no more records
+     */
+    public DataChunk read() throws IOException {
+        if (endOfInput && carryLength == 0) {
+            return null;
+        }
+        byte[] buffer = new byte[Math.max(chunkSize, carryLength * 2)];
+        System.arraycopy(carry, 0, buffer, 0, carryLength);
+        int length = carryLength;
+        carryLength = 0;
+
+        while (true) {
+            length = fill(buffer, length);
+            scan(buffer, length);
+            if (endOfInput || lastRecordEnd > 0) {
+                break;
+            }
+            // A single record longer than the buffer
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+
+        int rows = recordsBeforeEnd;
+        int end = lastRecordEnd;
+        if (endOfInput) {
+            rows += trailingRecord ? 1 : 0;
+            end = length;
+        } else {
+            if (carry.length < length - end) {
+                carry = new byte[Math.max(length - end, chunkSize)];
+            }
+            carryLength = length - end;
+            System.arraycopy(buffer, end, carry, 0, carryLength);
+        }
+        if (rows == 0 && endOfInput) {
+            return null;
+        }
+
+        DataChunk chunk = new DataChunk(buffer, end, rowsRead, rows);
+        rowsRead += rows;
+        bytesRead += end;
+        return chunk;
+    }
+
+    /**
+     * Reads until the buffer is full or the file ends
+     * @return the new length of the buffer's content
+     */
+    private int fill(byte[] buffer, int length) throws IOException {
+        ByteBuffer target = ByteBuffer.wrap(buffer, length, buffer.length - length);
+        while (target.hasRemaining() && !endOfInput) {
+            if (channel.read(target) < 0) {
+                endOfInput = true;
+            }
+        }
+        return target.position();
+    }
+
+    /**
+     * Finds the end of the last complete record and counts the records before it. A CSV record ends at a
+     * line break outside quotes and a JSONL record at any line break; records without content are not counted.
+     */
+    private void scan(byte[] buffer, int length) {
+        boolean csv = format == DataFormat.CSV;
+        boolean quoted = false;
+        boolean content = false;
+        int records = 0;
+        int end = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer[i];
+            if (b == '\n') {
+                if (!quoted) {
+                    records += content ? 1 : 0;
+                    content = false;
+                    end = i + 1;
+                }
+            } else if (csv) {
+                if (b == '"') {
+                    quoted = !quoted;
+                }
+                content |= b != '\r';
+            } else {
+                content |= (b & 0xff) > ' ';
+            }
+        }
+        lastRecordEnd = end;
+        recordsBeforeEnd = records;
+        trailingRecord = content;
+    }
+
+    /**
+     * @return the end of the first record with content, which must exist
+     */
+    private static int firstRecordEnd(byte[] buffer, int length) {
+        boolean quoted = false;
+        boolean content = false;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer[i];
+            if (b == '\n' && !quoted && content) {
+                return i + 1;
+            } else if (b == '"') {
+                quoted = !quoted;
+            }
+            content |= b != '\r' && b != '\n';
+        }
+        return length;
+    }
+
+    /**
+     * @return a parser for this file's chunks, for the calling worker alone
+     */
+    public RowParser newParser() {
+        return format == DataFormat.CSV ? new CsvRowParser(fieldColumns) : new JsonlRowParser(columnNames);
+    }
+
+    /**
+     * @return number of records read so far
+     */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * @return number of bytes of the file handed out in chunks so far, including a CSV header
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * @return size of the file in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return true once every record has been read
+     */
+    public boolean isFinished() {
+        return endOfInput && carryLength == 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
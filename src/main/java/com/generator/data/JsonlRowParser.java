@@ -0,0 +1,203 @@
+package com.generator.data;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * JSON Lines records: one object per line. String members are unescaped, numbers and booleans keep their
+ * text, {@code null} is empty, and nested objects or arrays are copied as JSON text. Members that no
+ * template uses are skipped without being copied.
+ */
+final class JsonlRowParser extends RowParser {
+
+    private final String[] columnNames;
+    private final StringBuilder key = new StringBuilder();
+
+    JsonlRowParser(List<String> columnNames) {
+        this.columnNames = columnNames.toArray(new String[0]);
+    }
+
+    @Override
+    boolean parseRecord(ParsedRow target) throws IOException {
+        skipWhitespace();
+        if (position >= length) {
+            return false;
+        }
+
+        target.clear();
+        expect('{');
+        skipSpaces();
+        if (peek() == '}') {
+            position++;
+        } else {
+            while (true) {
+                expect('"');
+                key.setLength(0);
+                parseString(key, null);
+                int column = columnOf(key);
+                skipSpaces();
+                expect(':');
+                skipSpaces();
+                target.startValue();
+                parseValue(column >= 0 ? target : null);
+                if (column >= 0) {
+                    target.endValue(column);
+                }
+                skipSpaces();
+                char c = next();
+                if (c == '}') {
+                    break;
+                } else if (c != ',') {
+                    throw malformed("expected ',' or '}' but found '" + c + "'");
+                }
+                skipSpaces();
+            }
+        }
+
+        skipSpaces();
+        if (position < length && chars[position] != '\n') {
+            throw malformed("unexpected text after the JSON object");
+        }
+        return true;
+    }
+
+    private int columnOf(CharSequence name) {
+        for (int i = 0; i < columnNames.length; i++) {
+            if (columnNames[i].contentEquals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a value into the row, or skips it when the row is null
+     */
+    private void parseValue(ParsedRow target) throws IOException {
+        char c = peek();
+        if (c == '"') {
+            position++;
+            parseString(null, target);
+        } else if (c == '{' || c == '[') {
+            int start = position;
+            skipNested();
+            if (target != null) {
+                target.append(chars, start, position);
+            }
+        } else {
+            int start = position;
+            while (position < length && "-+.0123456789eEtruefalsn".indexOf(chars[position]) >= 0) {
+                position++;
+            }
+            if (position == start) {
+                throw malformed("unexpected '" + c + "'");
+            }
+            if (target != null && !isNull(start)) {
+                target.append(chars, start, position);
+            }
+        }
+    }
+
+    private boolean isNull(int start) {
+        return position - start == 4 && chars[start] == 'n' && chars[start + 1] == 'u';
+    }
+
+    /**
+     * Parses the rest of a string after its opening quote into one of the two targets
+     */
+    private void parseString(StringBuilder builder, ParsedRow target) throws IOException {
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return;
+            } else if (c == '\\') {
+                c = unescape(next());
+            }
+            if (builder != null) {
+                builder.append(c);
+            } else if (target != null) {
+                target.append(c);
+            }
+        }
+    }
+
+    private char unescape(char escape) throws IOException {
+        switch (escape) {
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                if (position + 4 > length) {
+                    throw malformed("truncated \\u escape");
+                }
+                try {
+                    char decoded = (char) Integer.parseInt(new String(chars, position, 4), 16);
+                    position += 4;
+                    return decoded;
+                } catch (NumberFormatException e) {
+                    throw malformed("invalid \\u escape");
+                }
+            default:
+                return escape;
+        }
+    }
+
+    /**
+     * Skips an object or array, including strings that contain brackets
+     */
+    private void skipNested() throws IOException {
+        int depth = 0;
+        do {
+            char c = next();
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            } else if (c == '"') {
+                parseString(null, null);
+            }
+        } while (depth > 0);
+    }
+
+    private void skipWhitespace() {
+        while (position < length && chars[position] <= ' ') {
+            position++;
+        }
+    }
+
+    /**
+     * Skips whitespace within the line
+     */
+    private void skipSpaces() {
+        while (position < length && chars[position] <= ' ' && chars[position] != '\n') {
+            position++;
+        }
+    }
+
+    private char peek() throws IOException {
+        if (position >= length || chars[position] == '\n') {
+            throw malformed("unexpected end of line");
+        }
+        return chars[position];
+    }
+
+    private char next() throws IOException {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private void expect(char expected) throws IOException {
+        char c = next();
+        if (c != expected) {
+            throw malformed("expected '" + expected + "' but found '" + c + "'");
+        }
+    }
+}
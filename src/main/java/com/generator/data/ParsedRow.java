@@ -0,0 +1,81 @@
+package com.generator.data;
+
+import com.generator.template.DataRow;
+
+import java.util.Arrays;
+
+/**
+ * A parsed record holding the values of the template columns, copied into one reusable char array.
+ * Each worker owns one and fills it for every file it writes.
+ */
+public final class ParsedRow implements DataRow {
+
+    private final int[] starts;
+    private final int[] ends;
+    private char[] values = new char[256];
+    private int length;
+    private int valueStart;
+
+    public ParsedRow(int columns) {
+        starts = new int[columns];
+        ends = new int[columns];
+    }
+
+    @Override
+    public void appendColumn(int column, StringBuilder out) {
+        out.append(values, starts[column], ends[column] - starts[column]);
+    }
+
+    /**
+     * @return the value of the column as a new String, empty if the record had none
+     */
+    public String get(int column) {
+        return new String(values, starts[column], ends[column] - starts[column]);
+    }
+
+    /**
+     * Empties every column for the next record
+     */
+    void clear() {
+        Arrays.fill(starts, 0);
+        Arrays.fill(ends, 0);
+        length = 0;
+    }
+
+    void startValue() {
+        valueStart = length;
+    }
+
+    void append(char c) {
+        if (length == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[length++] = c;
+    }
+
+    void append(char[] chars, int from, int to) {
+        int count = to - from;
+        if (length + count > values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, length + count));
+        }
+        System.arraycopy(chars, from, values, length, count);
+        length += count;
+    }
+
+    /**
+     * Removes the last character of the value being built, if there is one
+     */
+    void dropLast() {
+        if (length > valueStart) {
+            length--;
+        }
+    }
+
+    /**
+     * Stores the characters appended since {@link #startValue()} as the column's value
+     */
+    void endValue(int column) {
+        starts[column] = valueStart;
+        ends[column] = length;
+    }
+}
@@ -0,0 +1,65 @@
+package com.generator.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits the records of a chunk into the template columns. A parser belongs to one worker and is reused
+ * for every chunk it takes; {@link #reset} decodes the whole chunk once, since chunks end on a record.
+ */
+public abstract class RowParser {
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    char[] chars = new char[0];
+    int length;
+    int position;
+    private long row;
+
+    /**
+     * Starts parsing the records of the chunk
+     */
+    public void reset(DataChunk chunk) {
+        // UTF-8 never decodes to more chars than it has bytes
+        if (chars.length < chunk.getLength()) {
+            chars = new char[chunk.getLength()];
+        }
+        CharBuffer output = CharBuffer.wrap(chars);
+        decoder.reset();
+        decoder.decode(ByteBuffer.wrap(chunk.getBytes(), 0, chunk.getLength()), output, true);
+        decoder.flush(output);
+        length = output.position();
+        position = 0;
+        row = chunk.getFirstRow();
+    }
+
+    /**
+     * Parses the next record of the chunk into the row
+     * @return false if the chunk has no more records
+     * @throws IOException if the record is malformed
+     */
+    public boolean next(ParsedRow target) throws IOException {
+        if (!parseRecord(target)) {
+            return false;
+        }
+        row++;
+        return true;
+    }
+
+    /**
+     * @return false at the end of the chunk
+     */
+    abstract boolean parseRecord(ParsedRow target) throws IOException;
+
+    /**
+     * @return an exception naming the record being parsed, counting data records from 1
+     */
+    IOException malformed(String problem) {
+        return new IOException("Malformed data record " + (row + 1) + ": " + problem);
+    }
+}
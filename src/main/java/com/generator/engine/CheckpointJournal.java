@@ -0,0 +1,187 @@
+package com.generator.engine;
+
+import com.generator.model.FileGenerationParameters;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only record of the file numbers a run has finished, so an interrupted run can be resumed.
+ * Workers append one {@code first-last} line per completed batch, in whatever order they finish;
+ * reading the journal merges the lines back into sorted ranges. A file is only recorded after it has
+ * been written, so a crash can at worst cause files to be generated twice, never skipped. A line cut
+ * short by a crash is ignored, and resuming rewrites the journal with the merged ranges.
+ */
+final class CheckpointJournal implements AutoCloseable {
+
+    private static final String HEADER = "# file-generator checkpoint ";
+
+    private final FileChannel channel;
+    private final List<long[]> completed;
+
+    private CheckpointJournal(FileChannel channel, List<long[]> completed) {
+        this.channel = channel;
+        this.completed = completed;
+    }
+
+    /**
+     * Opens the journal for a run
+     * @param fingerprint identifies the parameters that decide file names and content, see {@link #fingerprint}
+     * @param resume true to keep the ranges already recorded, false to start a new journal
+     * @throws IOException if the journal cannot be written, or was written for different parameters
+     */
+    static CheckpointJournal open(Path file, String fingerprint, boolean resume) throws IOException {
+        List<long[]> completed = Collections.emptyList();
+        if (resume && Files.exists(file)) {
+            completed = read(file, fingerprint);
+            compact(file, fingerprint, completed);
+            return new CheckpointJournal(FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND),
+                                         completed);
+        }
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                               StandardOpenOption.TRUNCATE_EXISTING);
+        writeFully(channel, HEADER + fingerprint + "\n");
+        return new CheckpointJournal(channel, completed);
+    }
+
+    /**
+     * @return the ranges recorded before this run, sorted and merged
+     */
+    List<long[]> getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Records that files first..last have been written. Safe to call from any thread.
+     */
+    void record(long first, long last) throws IOException {
+        byte[] line = (first + "-" + last + "\n").getBytes(StandardCharsets.US_ASCII);
+        synchronized (channel) {
+            writeFully(channel, ByteBuffer.wrap(line));
+        }
+    }
+
+    /**
+     * Forces the journal to disk and closes it
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads the ranges recorded in a journal
+     * @return sorted, disjoint ranges with adjacent ones merged
+     * @throws IOException if the journal cannot be read or its fingerprint does not match
+     */
+    static List<long[]> read(Path file, String fingerprint) throws IOException {
+        String text = new String(Files.readAllBytes(file), StandardCharsets.US_ASCII);
+        // Anything after the last line break was cut short by a crash
+        String[] lines = text.substring(0, text.lastIndexOf('\n') + 1).split("\n");
+        if (lines[0].isEmpty()) {
+            return new ArrayList<>();
+        } else if (!lines[0].equals(HEADER + fingerprint)) {
+            throw new IOException("Checkpoint " + file + " was written for different parameters;"
+                    + " delete it to start over");
+        }
+
+        List<long[]> ranges = new ArrayList<>(lines.length);
+        for (int i = 1; i < lines.length; i++) {
+            long[] range = parseRange(lines[i]);
+            if (range != null) {
+                ranges.add(range);
+            }
+        }
+        return merge(ranges);
+    }
+
+    /**
+     * Identifies the parameters that decide the names and content of the files, so a journal is never
+     * used to resume a run whose files would differ. The file count may change between runs.
+     */
+    static String fingerprint(FileGenerationParameters parameters) {
+        CRC32 crc = new CRC32();
+        String key = parameters.getFileNamePattern() + '\0' + parameters.getFileContent() + '\0'
+                + parameters.getContentMode() + '\0' + parameters.getTargetFileSize() + '\0'
+                + parameters.getShardFanOut() + '\0' + parameters.getShardDepth();
+        if (parameters.getDataFile() != null) {
+            key += '\0' + parameters.getDataFile();
+        }
+        if (parameters.getSeed() != null) {
+            key += "\0seed " + parameters.getSeed();
+        }
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        return String.format("%08x", crc.getValue());
+    }
+
+    private static long[] parseRange(String line) {
+        int dash = line.indexOf('-', 1);
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            long first = Long.parseLong(line.substring(0, dash));
+            long last = Long.parseLong(line.substring(dash + 1));
+            return first <= last ? new long[] {first, last} : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static List<long[]> merge(List<long[]> ranges) {
+        ranges.sort(Comparator.comparingLong(range -> range[0]));
+        List<long[]> merged = new ArrayList<>();
+        long[] current = null;
+        for (long[] range : ranges) {
+            if (current != null && range[0] <= current[1] + 1) {
+                current[1] = Math.max(current[1], range[1]);
+            } else {
+                current = range;
+                merged.add(current);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Replaces the journal with one line per merged range
+     */
+    private static void compact(Path file, String fingerprint, List<long[]> ranges) throws IOException {
+        StringBuilder text = new StringBuilder(HEADER).append(fingerprint).append('\n');
+        for (long[] range : ranges) {
+            text.append(range[0]).append('-').append(range[1]).append('\n');
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temporary, text.toString().getBytes(StandardCharsets.US_ASCII));
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeFully(FileChannel channel, String text) throws IOException {
+        writeFully(channel, ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.generator.engine;
+
+import com.generator.io.FileDigest;
+import com.generator.payload.PayloadGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Decides per file whether an updating run has to write it. A missing file or one of another size
+ * always differs. Otherwise the checksum of the new content is looked up in the earlier run's
+ * manifest when it lists the file, which costs one stat per unchanged file. Without an entry the
+ * file is read and compared with the new content chunk by chunk, stopping at the first difference.
+ * Every worker owns one instance with its own buffers.
+ */
+final class DeltaCheck {
+
+    /**
+     * Largest chunk compared at once
+     */
+    static final int MAX_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Outcome of comparing a file with its new content
+     */
+    enum Difference {
+        MISSING,
+        CHANGED,
+        UNCHANGED
+    }
+
+    private final PreviousManifest previous;
+    private final ByteBuffer expected;
+    private final ByteBuffer actual;
+    private String checksum;
+
+    /**
+     * @param previous entries of the earlier run's manifest, or null to compare every file's content
+     */
+    DeltaCheck(PreviousManifest previous, int chunkSize) {
+        this.previous = previous;
+        int size = Math.max(1, Math.min(chunkSize, MAX_CHUNK_SIZE));
+        this.expected = ByteBuffer.allocate(size);
+        this.actual = ByteBuffer.allocate(size);
+    }
+
+    /**
+     * Compares a file with rendered content
+     * @param content the encoded content; its position is left unchanged
+     * @param checksum the checksum of the content, or null if the run keeps no manifest
+     */
+    Difference compare(Path file, long fileIndex, ByteBuffer content, String checksum) throws IOException {
+        this.checksum = checksum;
+        long size = sizeOf(file);
+        if (size < 0) {
+            return Difference.MISSING;
+        } else if (size != content.remaining()) {
+            return Difference.CHANGED;
+        }
+        if (checksum != null && previous != null && previous.size(fileIndex) >= 0) {
+            return previous.matches(fileIndex, size, checksum) ? Difference.UNCHANGED : Difference.CHANGED;
+        }
+
+        ByteBuffer remaining = content.duplicate();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (remaining.hasRemaining()) {
+                int length = Math.min(remaining.remaining(), actual.capacity());
+                if (!readFully(channel, length)) {
+                    return Difference.CHANGED;
+                }
+                ByteBuffer chunk = remaining.duplicate();
+                chunk.limit(chunk.position() + length);
+                if (!chunk.equals(actual)) {
+                    return Difference.CHANGED;
+                }
+                remaining.position(remaining.position() + length);
+            }
+        }
+        return Difference.UNCHANGED;
+    }
+
+    /**
+     * Compares a file with the payload of a size-targeted file
+     * @param payload generates the content; if it feeds the digest, the digest is reset first
+     * @param digest the run's manifest digest, or null if the run keeps no manifest
+     */
+    Difference compare(Path file, long fileIndex, long size, PayloadGenerator payload, FileDigest digest)
+            throws IOException {
+        checksum = null;
+        long existing = sizeOf(file);
+        if (existing < 0) {
+            return Difference.MISSING;
+        } else if (existing != size) {
+            return Difference.CHANGED;
+        }
+
+        if (digest != null) {
+            digest.reset();
+        }
+        if (digest != null && previous != null && previous.size(fileIndex) >= 0) {
+            // Generating the payload is far cheaper than reading the file
+            for (long offset = 0; offset < size; offset += expected.limit()) {
+                fill(payload, fileIndex, offset, size);
+            }
+            checksum = digest.finish();
+            return previous.matches(fileIndex, size, checksum) ? Difference.UNCHANGED : Difference.CHANGED;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (long offset = 0; offset < size; offset += expected.limit()) {
+                fill(payload, fileIndex, offset, size);
+                if (!readFully(channel, expected.limit()) || !expected.equals(actual)) {
+                    return Difference.CHANGED;
+                }
+            }
+        }
+        if (digest != null) {
+            checksum = digest.finish();
+        }
+        return Difference.UNCHANGED;
+    }
+
+    /**
+     * @return the checksum of the content last found unchanged, or null if the run keeps no manifest
+     */
+    String getChecksum() {
+        return checksum;
+    }
+
+    private void fill(PayloadGenerator payload, long fileIndex, long offset, long size) {
+        expected.clear();
+        expected.limit((int) Math.min(expected.capacity(), size - offset));
+        payload.fill(expected, fileIndex, offset);
+        expected.flip();
+    }
+
+    /**
+     * Reads the next bytes of the file into the comparison buffer
+     * @return false if the file ended first
+     */
+    private boolean readFully(FileChannel channel, int length) throws IOException {
+        actual.clear();
+        actual.limit(length);
+        while (actual.hasRemaining()) {
+            if (channel.read(actual) < 0) {
+                return false;
+            }
+        }
+        actual.flip();
+        return true;
+    }
+
+    /**
+     * @return the size of the file, or -1 if it does not exist
+     */
+    private static long sizeOf(Path file) throws IOException {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class).size();
+        } catch (NoSuchFileException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.generator.engine;
+
+import com.generator.io.FileDigest;
+import com.generator.payload.PayloadGenerator;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Feeds every chunk a payload generator produces into a file digest on its way to the disk.
+ * Write sessions fill a file's chunks in order, so the digest sees the bytes as they land in the file;
+ * reset it before each file.
+ */
+final class DigestingPayload extends PayloadGenerator {
+
+    private final PayloadGenerator generator;
+    private final FileDigest digest;
+
+    DigestingPayload(PayloadGenerator generator, FileDigest digest) {
+        this.generator = generator;
+        this.digest = digest;
+    }
+
+    @Override
+    public void fill(ByteBuffer buffer, long fileIndex, long fileOffset) {
+        ByteBuffer filled = buffer.duplicate();
+        generator.fill(buffer, fileIndex, fileOffset);
+        filled.limit(buffer.position());
+        digest.update(filled);
+    }
+
+    @Override
+    public boolean isStatic() {
+        return generator.isStatic();
+    }
+}
@@ -0,0 +1,128 @@
+package com.generator.engine;
+
+import com.generator.template.CompiledTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spreads generated files over subdirectories so no single directory grows to millions of entries.
+ * Shard directories come either from path placeholders in the file name pattern, such as
+ * {@code {n/1000}/file_{n}.txt}, or from a fixed fan-out and depth prepended to the pattern.
+ */
+final class DirectorySharding {
+
+    private DirectorySharding() {
+    }
+
+    /**
+     * Prefixes the pattern with a fixed directory tree. With fan-out 1000 and depth 2, file 1234567
+     * goes to {@code 001/234/}, so below the top level no directory holds more than 1000 entries.
+     * @param fanOut entries per directory, or 0 to return the pattern unchanged
+     */
+    static String shardedPattern(String pattern, int fanOut, int depth) {
+        if (fanOut == 0) {
+            return pattern;
+        }
+
+        int width = String.valueOf(fanOut - 1).length();
+        StringBuilder prefix = new StringBuilder();
+        for (int level = depth; level >= 1; level--) {
+            long divisor = 1;
+            for (int i = 0; i < level; i++) {
+                try {
+                    divisor = Math.multiplyExact(divisor, fanOut);
+                } catch (ArithmeticException e) {
+                    throw new IllegalArgumentException("Shard fan-out " + fanOut + " is too large for depth " + depth);
+                }
+            }
+            prefix.append("{n/").append(divisor);
+            if (level < depth) {
+                prefix.append('%').append(fanOut);
+            }
+            prefix.append(":0").append(width).append("}/");
+        }
+        return prefix.append(pattern).toString();
+    }
+
+    /**
+     * Creates every directory needed for files first..last before any file is written, splitting the
+     * work across the pool. This only works when the directory part of the name depends on nothing
+     * but the file number; it is then enough to render it at every multiple of its index stride.
+     * @return false if the directories could not be predicted and have to be created while writing
+     */
+    static boolean createDirectories(Path outputPath, CompiledTemplate directoryTemplate, long first, long last,
+                                     ExecutorService pool, int threads, BooleanSupplier stopRequested)
+            throws IOException, InterruptedException {
+        long stride = directoryTemplate.indexStride();
+        if (stride == 0) {
+            return false;
+        } else if (stride == Long.MAX_VALUE) {
+            Files.createDirectories(outputPath.resolve(directoryTemplate.render(first)));
+            return true;
+        }
+
+        // Candidate 0 is the first file, candidate c > 0 the c-th multiple of the stride after it
+        long firstMultiple = first - first % stride + stride;
+        long candidates = 1 + (last >= firstMultiple ? (last - firstMultiple) / stride + 1 : 0);
+        long perThread = (candidates + threads - 1) / threads;
+        List<Future<Void>> parts = new ArrayList<>(threads);
+        for (long from = 0; from < candidates; from += perThread) {
+            long partFrom = from;
+            long partTo = Math.min(candidates, from + perThread);
+            parts.add(pool.submit(() -> {
+                createRange(outputPath, directoryTemplate, first, firstMultiple, stride, partFrom, partTo,
+                            stopRequested);
+                return null;
+            }));
+        }
+        awaitParts(parts);
+        return true;
+    }
+
+    private static void createRange(Path outputPath, CompiledTemplate directoryTemplate, long first,
+                                    long firstMultiple, long stride, long from, long to,
+                                    BooleanSupplier stopRequested) throws IOException {
+        StringBuilder buffer = new StringBuilder(64);
+        String previous = null;
+        for (long c = from; c < to && !stopRequested.getAsBoolean(); c++) {
+            buffer.setLength(0);
+            directoryTemplate.render(c == 0 ? first : firstMultiple + (c - 1) * stride, buffer);
+            // Several candidates can share a directory when the placeholders use different divisors
+            if (previous == null || !previous.contentEquals(buffer)) {
+                previous = buffer.toString();
+                Files.createDirectories(outputPath.resolve(previous));
+            }
+        }
+    }
+
+    private static void awaitParts(List<Future<Void>> parts) throws IOException, InterruptedException {
+        Throwable failure = null;
+        for (Future<Void> part : parts) {
+            try {
+                part.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+
+        if (failure instanceof IOException) {
+            throw new IOException("Failed to create shard directory: " + failure.getMessage(), failure);
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new IOException("Failed to create shard directories", failure);
+        }
+    }
+}
@@ -0,0 +1,1246 @@
+package com.generator.engine;
+
+import com.generator.data.DataChunk;
+import com.generator.data.DataSourceReader;
+import com.generator.data.ParsedRow;
+import com.generator.data.RowParser;
+import com.generator.io.ArchiveBackend;
+import com.generator.io.CloneBackend;
+import com.generator.io.FileDigest;
+import com.generator.io.FileWriteBackend;
+import com.generator.io.MappedFileWriter;
+import com.generator.io.Utf8Encoder;
+import com.generator.manifest.Manifest;
+import com.generator.manifest.ManifestWriter;
+import com.generator.metrics.BatchTracer;
+import com.generator.metrics.MetricsReport;
+import com.generator.metrics.Phase;
+import com.generator.metrics.PhaseTimer;
+import com.generator.metrics.RunMetrics;
+import com.generator.model.CollisionPolicy;
+import com.generator.model.ContentMode;
+import com.generator.model.FileGenerationParameters;
+import com.generator.model.WriteBackendType;
+import com.generator.payload.PayloadGenerator;
+import com.generator.template.ColumnNames;
+import com.generator.template.CompiledTemplate;
+import com.generator.template.TimestampProvider;
+import com.generator.util.SeededRandom;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Plain-Java file generation engine.
+ * Splits the startIndex..endIndex file number range across a fixed pool of worker threads. Workers claim
+ * small batches of indexes from a shared counter, so faster workers simply pick up more batches.
+ * With a checkpoint file, every finished batch is appended to a {@link CheckpointJournal}, and a resumed
+ * run only generates the numbers the journal does not list.
+ * With a data source, a reader thread cuts the file into chunks of records instead, and the workers
+ * parse the chunks they take and write a file per record.
+ * In virtual thread mode the pool holds one virtual thread per file allowed in flight; they claim smaller
+ * batches, and their number is capped by the file descriptors the process has left.
+ * An updating run compares each file with its rendered content first, see {@link DeltaCheck}, and only
+ * writes the files that are missing or differ.
+ */
+public class FileGenerationEngine {
+
+    /**
+     * Number of file indexes a worker claims at a time
+     */
+    static final int BATCH_SIZE = 256;
+
+    /**
+     * Number of file indexes a virtual worker claims at a time, small enough to keep thousands of them busy
+     */
+    static final int VIRTUAL_BATCH_SIZE = 16;
+
+    /**
+     * Largest write buffer of a worker in virtual thread mode, which keeps thousands of sessions small
+     */
+    static final int VIRTUAL_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Rendered batches that may wait for each writer thread before the render stage is held back
+     */
+    static final int PIPELINE_QUEUE_BATCHES_PER_WRITER = 2;
+
+    /**
+     * Data source chunks that may wait for each worker before the reader is held back
+     */
+    static final int DATA_CHUNKS_PER_WORKER = 2;
+
+    /**
+     * How often pipeline stages blocked on a queue check for cancellation
+     */
+    private static final long QUEUE_POLL_MILLIS = 50;
+
+    /**
+     * Interval between progress snapshots, i.e. 10 updates per second
+     */
+    static final long PROGRESS_INTERVAL_MILLIS = 100;
+
+    /**
+     * Receives progress snapshots at a fixed rate from a sampling thread, never concurrently,
+     * and a final snapshot on the generating thread once the run has ended.
+     */
+    public interface ProgressListener {
+        void progressChanged(ProgressSnapshot progress);
+    }
+
+    private final FileGenerationParameters parameters;
+    private final AtomicLong nextIndex = new AtomicLong();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder completedBytes = new LongAdder();
+    private final LongAdder unchangedFiles = new LongAdder();
+    private final LongAdder changedFiles = new LongAdder();
+    private final LongAdder deletedFiles = new LongAdder();
+    private final RunMetrics metrics = new RunMetrics();
+    private final RateLimiter rateLimiter;
+    private final SeededRandom random;
+    private volatile long runNanos;
+    private volatile boolean cancelled = false;
+    private boolean createDirectoriesWhileWriting = false;
+    private ThreadFactory virtualThreadFactory;
+    private int workerLimit;
+    private int claimSize = BATCH_SIZE;
+    private volatile int workerThreads;
+    private IndexPlan plan;
+    private CheckpointJournal journal;
+    private ManifestWriter manifest;
+    private PreviousManifest previousManifest;
+    private String staticChecksum;
+    private ColumnNames columns;
+    private DataSourceReader dataSource;
+    private volatile long totalFiles;
+    private volatile long existingFiles;
+    private volatile long skippedFiles;
+
+    public FileGenerationEngine(FileGenerationParameters parameters) {
+        this.parameters = parameters;
+        this.rateLimiter = new RateLimiter(parameters.getMaxFilesPerSecond(), parameters.getMaxBytesPerSecond());
+        this.random = parameters.getSeed() != null
+                ? new SeededRandom(parameters.getSeed()) : SeededRandom.withRandomSeed();
+    }
+
+    /**
+     * Generates all files, blocking until the workers have finished, failed or been cancelled.
+     * @param cancellationRequested polled by the workers between files; generation stops once it returns true
+     * @param listener receives sampled progress snapshots, see {@link ProgressListener}
+     * @throws IOException if the output directory cannot be created or a file cannot be written
+     * @throws IllegalArgumentException if the parameters are not valid, see {@link FileGenerationParameters#isValid}
+     */
+    public void generate(BooleanSupplier cancellationRequested, ProgressListener listener)
+            throws IOException, InterruptedException {
+        // E.g. the render pipeline would ignore a data source and write every file without its columns
+        if (!parameters.isValid()) {
+            throw new IllegalArgumentException("Invalid parameters: " + parameters);
+        }
+        File outputDir = new File(parameters.getOutputDirectory());
+        if (!outputDir.exists()) {
+            if (!outputDir.mkdirs()) {
+                throw new IOException("Failed to create output directory: " + parameters.getOutputDirectory());
+            }
+        }
+
+        TimestampProvider timestamps = new TimestampProvider(parameters.getTimestampMode());
+        String namePattern = DirectorySharding.shardedPattern(
+                parameters.getFileNamePattern(), parameters.getShardFanOut(), parameters.getShardDepth());
+        columns = parameters.getDataFile() != null ? new ColumnNames() : null;
+        CompiledTemplate nameTemplate = CompiledTemplate.compile(namePattern, timestamps, columns, random);
+        CompiledTemplate contentTemplate = CompiledTemplate.compile(
+                parameters.getFileContent(), timestamps, columns, random);
+        Path outputPath = outputDir.toPath();
+
+        chooseWorkerThreads();
+
+        plan = IndexPlan.of(parameters.getStartIndex(), parameters.getEndIndex());
+        if (parameters.getCheckpointFile() != null) {
+            journal = CheckpointJournal.open(Paths.get(parameters.getCheckpointFile()),
+                    CheckpointJournal.fingerprint(parameters), parameters.isResume());
+            plan = IndexPlan.excluding(parameters.getStartIndex(), parameters.getEndIndex(), journal.getCompleted());
+        }
+        totalFiles = plan.size();
+        try {
+            if (parameters.isPreflightCheck() || parameters.getCollisionPolicy() != CollisionPolicy.OVERWRITE) {
+                preflight(outputPath, nameTemplate, contentTemplate, cancellationRequested);
+            }
+            // Archive entries need no directories
+            CompiledTemplate directoryTemplate = nameTemplate.directoryPart();
+            if (directoryTemplate != null && parameters.getArchiveFile() == null) {
+                createDirectoriesWhileWriting = !prepareDirectories(outputPath, directoryTemplate,
+                                                                    cancellationRequested);
+            }
+            if (parameters.getManifestFile() != null
+                    && parameters.getCollisionPolicy() == CollisionPolicy.UPDATE) {
+                // Read before the new manifest replaces it
+                previousManifest = PreviousManifest.load(outputPath.resolve(parameters.getManifestFile()),
+                        parameters.getChecksumType(), nameTemplate, parameters.getStartIndex(),
+                        parameters.getEndIndex());
+            }
+            if (parameters.getManifestFile() != null) {
+                // Relative to the output directory like the archive; a resumed run adds its files to the
+                // entries of the files it skips
+                manifest = ManifestWriter.open(outputPath.resolve(parameters.getManifestFile()),
+                                               parameters.getChecksumType(), parameters.isResume());
+            }
+            if (parameters.getDataFile() != null) {
+                dataSource = DataSourceReader.open(Paths.get(parameters.getDataFile()),
+                                                   parameters.getDataFormat(), columns);
+            }
+        } catch (IOException | InterruptedException e) {
+            closeOutputs();
+            throw e;
+        }
+
+        ProgressSampler sampler = new ProgressSampler(
+                this::getCompletedCount, this::getCompletedBytes, () -> totalFiles, listener);
+        sampler.start(PROGRESS_INTERVAL_MILLIS);
+        long runStart = System.nanoTime();
+        try {
+            if (parameters.getWriteBackend() == WriteBackendType.MEMORY_MAPPED) {
+                generateMapped(outputPath, nameTemplate, contentTemplate, cancellationRequested);
+            } else {
+                generateFiles(outputPath, nameTemplate, contentTemplate, cancellationRequested);
+            }
+        } finally {
+            runNanos = System.nanoTime() - runStart;
+            sampler.stop();
+            try {
+                if (dataSource != null) {
+                    dataSource.close();
+                }
+            } finally {
+                closeOutputs();
+            }
+        }
+    }
+
+    /**
+     * Looks for files of the run that already exist and applies the collision policy to them, deleting
+     * the files outside the run if an update asks for it, then checks that the output file store has
+     * room for the files left to write
+     */
+    private void preflight(Path outputPath, CompiledTemplate nameTemplate, CompiledTemplate contentTemplate,
+                           BooleanSupplier cancellationRequested) throws IOException, InterruptedException {
+        CollisionPolicy policy = parameters.getCollisionPolicy();
+        boolean deleteExtraFiles = parameters.isDeleteExtraFiles();
+        if (parameters.getArchiveFile() == null && (plan.size() > 0 || deleteExtraFiles)) {
+            // Only skipping and failing need to know which files exist; the other policies just count them
+            boolean keepRanges = policy == CollisionPolicy.SKIP || policy == CollisionPolicy.FAIL;
+            List<long[]> existing = null;
+            PreflightCheck.OutsideHandler outside = !deleteExtraFiles ? null : name -> {
+                if (Files.deleteIfExists(outputPath.resolve(name))) {
+                    deletedFiles.increment();
+                }
+            };
+            BooleanSupplier stopRequested = () -> isStopped(cancellationRequested);
+            ExecutorService pool = newWorkerPool(workerLimit);
+            try {
+                if (keepRanges) {
+                    existing = PreflightCheck.findExisting(outputPath, nameTemplate, plan, pool, stopRequested,
+                            outside, parameters.getStartIndex(), parameters.getEndIndex());
+                    existingFiles = PreflightCheck.count(existing);
+                } else {
+                    existingFiles = PreflightCheck.countExisting(outputPath, nameTemplate, plan, pool,
+                            stopRequested, outside, parameters.getStartIndex(), parameters.getEndIndex());
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+            if (existingFiles > 0 && policy == CollisionPolicy.FAIL) {
+                throw new IOException(existingFiles + " files of this run already exist, e.g. "
+                        + nameTemplate.render(existing.get(0)[0]));
+            } else if (existingFiles > 0 && policy == CollisionPolicy.SKIP) {
+                plan = plan.excluding(existing);
+                totalFiles = plan.size();
+                skippedFiles = existingFiles;
+            }
+        }
+
+        // An update rewrites existing files in place, so only the missing ones need room.
+        // The number of records, and so of files, is unknown until the data source has been read.
+        long files = policy == CollisionPolicy.UPDATE ? plan.size() - existingFiles : plan.size();
+        if (parameters.isPreflightCheck() && parameters.getDataFile() == null && files > 0) {
+            checkCapacity(outputPath, nameTemplate, contentTemplate, files);
+        }
+    }
+
+    /**
+     * Estimates the space and inodes the planned files need and fails if the file store lacks either
+     * @param files the number of files the run creates
+     */
+    private void checkCapacity(Path outputPath, CompiledTemplate nameTemplate, CompiledTemplate contentTemplate,
+                               long files) throws IOException {
+        long size = parameters.getTargetFileSize();
+        if (parameters.getContentMode() == ContentMode.TEMPLATE) {
+            // Numbers only grow along the run, so the larger of the first and last file stands for all
+            size = Math.max(encodedLength(contentTemplate, plan.indexAt(0)),
+                            encodedLength(contentTemplate, plan.indexAt(plan.size() - 1)));
+        }
+
+        if (parameters.getArchiveFile() != null) {
+            // About one tar record of header per entry; compression can only make the archive smaller
+            PreflightCheck.checkCapacity(outputPath, PreflightCheck.multiply(files, size + 512), 1);
+        } else {
+            long directories = 0;
+            CompiledTemplate directoryTemplate = nameTemplate.directoryPart();
+            if (directoryTemplate != null) {
+                long stride = directoryTemplate.indexStride();
+                directories = stride == 0 ? 0 : stride == Long.MAX_VALUE ? 1 : Math.min(files, files / stride + 1);
+            }
+            PreflightCheck.checkCapacity(outputPath,
+                    PreflightCheck.multiply(files, PreflightCheck.allocated(size)), files + directories);
+        }
+    }
+
+    private static long encodedLength(CompiledTemplate template, long index) {
+        return template.render(index).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Closes the manifest and the checkpoint journal, whichever are open
+     */
+    private void closeOutputs() throws IOException {
+        try {
+            if (manifest != null) {
+                manifest.close();
+            }
+        } finally {
+            if (journal != null) {
+                journal.close();
+            }
+        }
+    }
+
+    /**
+     * Picks the worker threads: virtual ones if requested and the JVM has them, otherwise a capped number of
+     * platform threads. Either way a requested virtual thread pool never exceeds the free file descriptors
+     * and claims small batches, so many threads share even a short run.
+     */
+    private void chooseWorkerThreads() {
+        workerLimit = parameters.getThreadCount();
+        if (parameters.isVirtualThreads()) {
+            virtualThreadFactory = VirtualThreads.factory("file-generator-virtual-");
+            workerLimit = Math.min(workerLimit, VirtualThreads.openFileHeadroom());
+            if (virtualThreadFactory == null) {
+                workerLimit = Math.min(workerLimit, VirtualThreads.PLATFORM_FALLBACK_LIMIT);
+            }
+            claimSize = VIRTUAL_BATCH_SIZE;
+        }
+    }
+
+    /**
+     * @return a pool of worker threads, virtual ones if {@link #chooseWorkerThreads} picked them
+     */
+    private ExecutorService newWorkerPool(int threads) {
+        return Executors.newFixedThreadPool(threads,
+                virtualThreadFactory != null ? virtualThreadFactory : new WorkerThreadFactory());
+    }
+
+    /**
+     * @return the write buffer size for each worker session
+     */
+    private int bufferSize() {
+        return parameters.isVirtualThreads()
+                ? Math.min(parameters.getChunkSize(), VIRTUAL_BUFFER_SIZE)
+                : parameters.getChunkSize();
+    }
+
+    /**
+     * Writes the files through a write backend, cloning them from a seed file when every file is identical,
+     * or streams them into the archive when there is one
+     */
+    private void generateFiles(Path outputPath, CompiledTemplate nameTemplate, CompiledTemplate contentTemplate,
+                               BooleanSupplier cancellationRequested) throws IOException, InterruptedException {
+
+        boolean sizedPayload = parameters.getContentMode() != ContentMode.TEMPLATE;
+        if (parameters.getArchiveFile() != null) {
+            ArchiveBackend archive = ArchiveBackend.create(outputPath.resolve(parameters.getArchiveFile()),
+                    parameters.getArchiveFormat(), outputPath, bufferSize(), parameters.isFsync());
+            try {
+                if (parameters.getRenderThreadCount() > 0) {
+                    runPipeline(outputPath, nameTemplate, contentTemplate, archive, cancellationRequested);
+                } else {
+                    runWorkers(outputPath, nameTemplate, contentTemplate, sizedPayload, archive,
+                               cancellationRequested);
+                }
+            } finally {
+                archive.close();
+            }
+            return;
+        }
+
+        FileWriteBackend backend = FileWriteBackend.create(
+                parameters.getWriteBackend(), parameters.isFsync(), bufferSize());
+
+        // Identical content for every file: write it once and let the kernel copy it.
+        // An update has to compare every file with the content, so it writes through the workers.
+        CloneBackend cloneBackend = null;
+        if (parameters.isCloneStaticContent() && parameters.getCollisionPolicy() != CollisionPolicy.UPDATE) {
+            if (sizedPayload) {
+                PayloadGenerator generator = PayloadGenerator.create(parameters.getContentMode(), contentTemplate, random);
+                if (generator.isStatic()) {
+                    cloneBackend = CloneBackend.create(outputPath, backend, parameters.getTargetFileSize(),
+                                                       generator, parameters.isFsync());
+                }
+            } else if (contentTemplate.isStatic()) {
+                cloneBackend = CloneBackend.create(outputPath, backend, parameters.getFileContent(),
+                                                   parameters.isFsync());
+            }
+        }
+
+        try {
+            if (cloneBackend != null && manifest != null) {
+                staticChecksum = cloneBackend.checksum(FileDigest.create(parameters.getChecksumType()));
+            }
+            if (cloneBackend != null) {
+                runWorkers(outputPath, nameTemplate, null, false, cloneBackend, cancellationRequested);
+            } else if (parameters.getRenderThreadCount() > 0) {
+                runPipeline(outputPath, nameTemplate, contentTemplate, backend, cancellationRequested);
+            } else {
+                runWorkers(outputPath, nameTemplate, contentTemplate, sizedPayload, backend, cancellationRequested);
+            }
+        } finally {
+            if (cloneBackend != null) {
+                cloneBackend.close();
+            }
+        }
+    }
+
+    /**
+     * Creates all shard directories up front on the worker threads, so workers never have to check for them
+     * @return false if the directories depend on more than the file number and are created while writing
+     */
+    private boolean prepareDirectories(Path outputPath, CompiledTemplate directoryTemplate,
+                                       BooleanSupplier cancellationRequested)
+            throws IOException, InterruptedException {
+        int threads = workerLimit;
+        ExecutorService pool = newWorkerPool(threads);
+        try {
+            return DirectorySharding.createDirectories(outputPath, directoryTemplate, parameters.getStartIndex(),
+                    parameters.getEndIndex(), pool, threads, () -> isStopped(cancellationRequested));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates the directory of a file unless it is the one the calling thread created last
+     * @return the directory of the file
+     */
+    private static Path ensureDirectory(Path file, Path lastDirectory) throws IOException {
+        Path directory = file.getParent();
+        if (!directory.equals(lastDirectory)) {
+            Files.createDirectories(directory);
+        }
+        return directory;
+    }
+
+    /**
+     * Runs the worker pool over the planned index ranges
+     * @param contentTemplate template rendered per file, or null if the backend supplies the content
+     * @param sizedPayload whether files are streamed from a payload generator instead of the rendered template
+     */
+    private void runWorkers(Path outputPath, CompiledTemplate nameTemplate, CompiledTemplate contentTemplate,
+                            boolean sizedPayload, FileWriteBackend backend, BooleanSupplier cancellationRequested)
+            throws IOException, InterruptedException {
+        long total = plan.size();
+        long batches = (total + claimSize - 1) / claimSize;
+        // The number of records is unknown until the data source has been read
+        int threads = (int) Math.max(1, dataSource != null ? workerLimit : Math.min(workerLimit, batches));
+        workerThreads = threads;
+
+        ExecutorService pool = newWorkerPool(dataSource != null ? threads + 1 : threads);
+        List<Future<Void>> workers = new ArrayList<>(threads + 1);
+        BlockingQueue<DataChunk> chunks = new ArrayBlockingQueue<>(DATA_CHUNKS_PER_WORKER * threads);
+        AtomicBoolean readerDone = new AtomicBoolean();
+        if (dataSource != null) {
+            workers.add(pool.submit(() -> {
+                try {
+                    readChunks(chunks, () -> isStopped(cancellationRequested));
+                } catch (Exception | Error e) {
+                    cancelled = true;
+                    throw e;
+                } finally {
+                    readerDone.set(true);
+                }
+                return null;
+            }));
+        }
+        for (int i = 0; i < threads; i++) {
+            workers.add(pool.submit(() -> {
+                PayloadGenerator payload = sizedPayload
+                        ? PayloadGenerator.create(parameters.getContentMode(), contentTemplate, random)
+                        : null;
+                PhaseTimer timer = metrics.newTimer();
+                try (FileWriteBackend.Session session = backend.openSession(timer)) {
+                    Worker worker = new Worker(outputPath, nameTemplate, sizedPayload ? null : contentTemplate,
+                                               payload, session, timer);
+                    if (dataSource != null) {
+                        worker.runChunks(chunks, readerDone, cancellationRequested);
+                    } else {
+                        worker.run(total, cancellationRequested);
+                    }
+                }
+                return null;
+            }));
+        }
+        pool.shutdown();
+
+        try {
+            awaitWorkers(workers);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the data source into the chunk queue until it ends or enough records for the run have been read,
+     * keeping the progress total at the number of files the records read so far suggest
+     */
+    private void readChunks(BlockingQueue<DataChunk> chunks, BooleanSupplier stopRequested)
+            throws IOException, InterruptedException {
+        long limit = parameters.getFileCount();
+        DataChunk chunk;
+        while (dataSource.getRowsRead() < limit && (chunk = dataSource.read()) != null) {
+            long rows = dataSource.getRowsRead();
+            if (!dataSource.isFinished()) {
+                rows = (long) Math.ceil((double) rows * dataSource.getSize() / Math.max(1, dataSource.getBytesRead()));
+            }
+            totalFiles = plan.sizeUpTo(parameters.getStartIndex() + Math.min(rows, limit) - 1);
+            if (!transfer(chunk, chunks, stopRequested)) {
+                return;
+            }
+        }
+        totalFiles = plan.sizeUpTo(parameters.getStartIndex() + Math.min(dataSource.getRowsRead(), limit) - 1);
+    }
+
+    /**
+     * Runs rendering and writing as separate stages on their own threads, so CPU work and I/O overlap.
+     * Render threads encode batches of files into recycled {@link RenderedBatch}es and pass them to the
+     * writer threads through a bounded queue; a full queue makes the renderers wait, and the writers hand
+     * every batch back through the free queue, which holds all batches the pipeline will ever allocate.
+     */
+    private void runPipeline(Path outputPath, CompiledTemplate nameTemplate, CompiledTemplate contentTemplate,
+                             FileWriteBackend backend, BooleanSupplier cancellationRequested)
+            throws IOException, InterruptedException {
+        int renderers = parameters.getRenderThreadCount();
+        int writers = parameters.getThreadCount();
+        int queued = PIPELINE_QUEUE_BATCHES_PER_WRITER * writers;
+        BlockingQueue<RenderedBatch> rendered = new ArrayBlockingQueue<>(queued);
+        BlockingQueue<RenderedBatch> free = new ArrayBlockingQueue<>(queued + renderers + writers);
+        for (int i = 0; i < queued + renderers + writers; i++) {
+            free.add(new RenderedBatch(BATCH_SIZE));
+        }
+        AtomicInteger activeRenderers = new AtomicInteger(renderers);
+        BooleanSupplier stopRequested = () -> isStopped(cancellationRequested);
+
+        ExecutorService pool = Executors.newFixedThreadPool(renderers + writers, new WorkerThreadFactory());
+        List<Future<Void>> stages = new ArrayList<>(renderers + writers);
+        for (int i = 0; i < renderers; i++) {
+            stages.add(pool.submit(() -> {
+                try {
+                    new Renderer(outputPath, nameTemplate, contentTemplate).run(free, rendered, stopRequested);
+                } catch (Exception | Error e) {
+                    cancelled = true;
+                    throw e;
+                } finally {
+                    activeRenderers.decrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (int i = 0; i < writers; i++) {
+            stages.add(pool.submit(() -> {
+                PhaseTimer timer = metrics.newTimer();
+                try (FileWriteBackend.Session session = backend.openSession(timer)) {
+                    new BatchWriter(outputPath, session, timer).run(rendered, free, activeRenderers, stopRequested);
+                } catch (Exception | Error e) {
+                    cancelled = true;
+                    throw e;
+                }
+                return null;
+            }));
+        }
+        pool.shutdown();
+
+        try {
+            awaitWorkers(stages);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes the files one after another, each one filled by all worker threads through memory mappings
+     */
+    private void generateMapped(Path outputPath, CompiledTemplate nameTemplate, CompiledTemplate contentTemplate,
+                                BooleanSupplier cancellationRequested)
+            throws IOException, InterruptedException {
+        if (parameters.getContentMode() == ContentMode.TEMPLATE) {
+            throw new IllegalArgumentException("The memory-mapped backend needs a size-targeted content mode");
+        }
+
+        int threads = parameters.getThreadCount();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, new WorkerThreadFactory());
+        MappedFileWriter writer = new MappedFileWriter(pool, threads, parameters.isFsync());
+        BooleanSupplier stopRequested = () -> isStopped(cancellationRequested);
+        StringBuilder nameBuffer = new StringBuilder(64);
+        StringBuilder manifestLines = new StringBuilder();
+        FileDigest digest = manifest != null ? FileDigest.create(parameters.getChecksumType()) : null;
+        Path lastDirectory = null;
+        PhaseTimer timer = metrics.newTimer();
+
+        try {
+            for (long position = 0; position < plan.size(); position++) {
+                long i = plan.indexAt(position);
+                if (!rateLimiter.acquireFile(stopRequested)) {
+                    break;
+                }
+                timer.start();
+                nameBuffer.setLength(0);
+                nameTemplate.render(i, nameBuffer);
+                Path file = outputPath.resolve(nameBuffer.toString());
+                timer.lap(Phase.RENDER);
+
+                try {
+                    if (createDirectoriesWhileWriting) {
+                        lastDirectory = ensureDirectory(file, lastDirectory);
+                    }
+                    long bytes = writer.write(file, i, parameters.getTargetFileSize(),
+                            () -> PayloadGenerator.create(parameters.getContentMode(), contentTemplate, random),
+                            stopRequested, timer, digest);
+                    completedBytes.add(bytes);
+                    rateLimiter.recordBytes(bytes);
+                    if (digest != null) {
+                        Manifest.appendEntry(manifestLines, digest.finish(), bytes, manifestName(outputPath, file));
+                    }
+                } catch (IOException e) {
+                    throw new IOException("Error generating file " + i + ": " + e.getMessage(), e);
+                }
+                if (!stopRequested.getAsBoolean()) {
+                    completed.increment();
+                    recordBatch(manifestLines, i, i);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Records files first..last in the checkpoint journal, if there is one
+     */
+    private void checkpoint(long first, long last) throws IOException {
+        if (journal != null && first <= last) {
+            journal.record(first, last);
+        }
+    }
+
+    /**
+     * Appends the manifest entries of a finished batch and then records the batch in the checkpoint
+     * journal, so a resumed run never skips a file the manifest does not list
+     * @param manifestLines entries of the batch's files, emptied afterwards
+     */
+    private void recordBatch(StringBuilder manifestLines, long first, long last) throws IOException {
+        if (manifest != null) {
+            manifest.append(manifestLines);
+            manifestLines.setLength(0);
+        }
+        checkpoint(first, last);
+    }
+
+    /**
+     * @return the path of a file relative to the output directory with '/' as separator, as listed in
+     *         the manifest
+     */
+    private static String manifestName(Path outputPath, Path file) {
+        String name = outputPath.relativize(file).toString();
+        return file.getFileSystem().getSeparator().equals("/") ? name : name.replace('\\', '/');
+    }
+
+    /**
+     * @return the seed of the run's random values, chosen at random unless the parameters set one
+     */
+    public long getSeed() {
+        return random.getSeed();
+    }
+
+    /**
+     * @return number of threads the run started to write files, which can be below the requested count
+     *         for small runs or when virtual threads are capped by the free file descriptors
+     */
+    public int getWorkerThreadCount() {
+        return workerThreads;
+    }
+
+    /**
+     * @return true if the workers of this run are virtual threads. Valid once {@link #generate} has started.
+     */
+    public boolean isUsingVirtualThreads() {
+        return virtualThreadFactory != null;
+    }
+
+    /**
+     * @return number of files skipped because the checkpoint journal lists them as already generated.
+     *         Valid once {@link #generate} has started writing, or with a data source once it has returned.
+     */
+    public long getResumedCount() {
+        if (plan == null) {
+            return 0;
+        }
+        // With a data source the run covers as many files as there are records, up to the file count
+        long files = dataSource == null ? parameters.getFileCount()
+                : Math.min(dataSource.getRowsRead(), parameters.getFileCount());
+        return Math.max(0, files - totalFiles - skippedFiles);
+    }
+
+    /**
+     * @return number of files of the run that existed before it started, found by the pre-flight scan.
+     *         Depending on the collision policy they were overwritten, skipped or compared. Valid once {@link #generate}
+     *         has started writing.
+     */
+    public long getExistingCount() {
+        return existingFiles;
+    }
+
+    /**
+     * @return number of files skipped because they already existed
+     */
+    public long getSkippedCount() {
+        return skippedFiles;
+    }
+
+    /**
+     * @return number of existing files an updating run left alone because their content was unchanged.
+     *         They count as completed files of no written bytes.
+     */
+    public long getUnchangedCount() {
+        return unchangedFiles.sum();
+    }
+
+    /**
+     * @return number of existing files an updating run rewrote because their content changed
+     */
+    public long getChangedCount() {
+        return changedFiles.sum();
+    }
+
+    /**
+     * @return number of files outside the run's range that an updating run deleted.
+     *         Valid once {@link #generate} has started writing.
+     */
+    public long getDeletedCount() {
+        return deletedFiles.sum();
+    }
+
+    /**
+     * @return the throttle shared by all workers; its limits can be changed while the run is in progress
+     */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Summarizes the run: throughput and per-phase latency percentiles.
+     * Call after {@link #generate} has returned.
+     */
+    public MetricsReport getMetricsReport() {
+        return metrics.report(getCompletedCount(), getCompletedBytes(), runNanos);
+    }
+
+    /**
+     * Stops all workers after the file they are currently writing
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return number of files written so far
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * @return number of bytes written so far
+     */
+    public long getCompletedBytes() {
+        return completedBytes.sum();
+    }
+
+    /**
+     * Waits for every worker to finish. The first failure stops the remaining workers
+     * and is rethrown once they have all returned.
+     */
+    private void awaitWorkers(List<Future<Void>> workers) throws IOException, InterruptedException {
+        Throwable failure = null;
+        for (Future<Void> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                cancelled = true;
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                cancelled = true;
+                throw e;
+            }
+        }
+
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure instanceof InterruptedException) {
+            throw (InterruptedException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new IOException("File generation failed", failure);
+        }
+    }
+
+    private boolean isStopped(BooleanSupplier cancellationRequested) {
+        return cancelled || cancellationRequested.getAsBoolean();
+    }
+
+    /**
+     * Per-thread generation state. Render buffers are reused for every file the worker writes.
+     * Files are streamed from the payload generator when there is one; otherwise the content template
+     * is rendered, and a null content template means the backend supplies the content itself.
+     */
+    private class Worker {
+        private final Path outputPath;
+        private final CompiledTemplate nameTemplate;
+        private final CompiledTemplate contentTemplate;
+        private final PayloadGenerator payload;
+        private final FileWriteBackend.Session session;
+        private final PhaseTimer timer;
+        private final BatchTracer tracer = BatchTracer.create();
+        private final StringBuilder nameBuffer = new StringBuilder(64);
+        private final StringBuilder contentBuffer = new StringBuilder(256);
+        private final RowParser rows = dataSource != null ? dataSource.newParser() : null;
+        private final ParsedRow row = dataSource != null ? new ParsedRow(columns.size()) : null;
+        private final FileDigest digest = manifest != null ? FileDigest.create(parameters.getChecksumType()) : null;
+        private final DeltaCheck delta = parameters.getCollisionPolicy() == CollisionPolicy.UPDATE
+                ? new DeltaCheck(previousManifest, bufferSize()) : null;
+        private final Utf8Encoder encoder = digest != null || delta != null ? new Utf8Encoder() : null;
+        private final StringBuilder manifestLines = new StringBuilder();
+        private Path lastDirectory;
+
+        Worker(Path outputPath, CompiledTemplate nameTemplate, CompiledTemplate contentTemplate,
+               PayloadGenerator payload, FileWriteBackend.Session session, PhaseTimer timer) {
+            this.outputPath = outputPath;
+            this.nameTemplate = nameTemplate;
+            this.contentTemplate = contentTemplate;
+            this.payload = payload != null && digest != null ? new DigestingPayload(payload, digest) : payload;
+            this.session = session;
+            this.timer = timer;
+        }
+
+        /**
+         * Writes a file for every record of the chunks the worker takes, skipping the records of files
+         * a resumed run already generated
+         */
+        void runChunks(BlockingQueue<DataChunk> chunks, AtomicBoolean readerDone,
+                       BooleanSupplier cancellationRequested) throws IOException, InterruptedException {
+            BooleanSupplier stopRequested = () -> isStopped(cancellationRequested);
+            while (!stopRequested.getAsBoolean()) {
+                // Check the reader before polling: once it is done, every chunk it read is queued
+                boolean lastChunkQueued = readerDone.get();
+                DataChunk chunk = chunks.poll(QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (chunk == null) {
+                    if (lastChunkQueued) {
+                        return;
+                    }
+                    continue;
+                }
+
+                rows.reset(chunk);
+                long index = parameters.getStartIndex() + chunk.getFirstRow();
+                long end = Math.min(index + chunk.getRowCount() - 1, parameters.getEndIndex());
+                while (index <= end && !stopRequested.getAsBoolean()) {
+                    long[] range = plan.rangeFrom(index);
+                    if (range == null || range[0] > end) {
+                        break;
+                    }
+                    for (; index < range[0]; index++) {
+                        rows.next(row);
+                    }
+                    long last = Math.min(range[1], end);
+                    runBatch(index, last, stopRequested);
+                    index = last + 1;
+                }
+            }
+        }
+
+        void run(long total, BooleanSupplier cancellationRequested) throws IOException, InterruptedException {
+            BooleanSupplier stopRequested = () -> isStopped(cancellationRequested);
+            while (!isStopped(cancellationRequested)) {
+                long position = nextIndex.getAndAdd(claimSize);
+                if (position >= total) {
+                    return;
+                }
+                // A claimed batch can span a gap between the ranges left to do by a resumed run
+                long end = Math.min(position + claimSize, total);
+                while (position < end) {
+                    long first = plan.indexAt(position);
+                    long last = Math.min(plan.rangeEndAt(position), first + (end - position) - 1);
+                    runBatch(first, last, stopRequested);
+                    position += last - first + 1;
+                }
+            }
+        }
+
+        /**
+         * Generates files first..last and records the ones written in the checkpoint journal,
+         * including those written before a failure
+         */
+        private void runBatch(long first, long last, BooleanSupplier stopRequested)
+                throws IOException, InterruptedException {
+            tracer.beginBatch(first, timer);
+            long files = 0;
+            long bytes = 0;
+            try {
+                for (long i = first; i <= last && rateLimiter.acquireFile(stopRequested); i++) {
+                    long written = generateFile(i);
+                    rateLimiter.recordBytes(written);
+                    completed.increment();
+                    bytes += written;
+                    files++;
+                }
+            } catch (Exception e) {
+                try {
+                    recordBatch(manifestLines, first, first + files - 1);
+                } catch (IOException journalFailure) {
+                    e.addSuppressed(journalFailure);
+                }
+                throw e;
+            }
+            recordBatch(manifestLines, first, first + files - 1);
+            tracer.endBatch(files, bytes, timer);
+        }
+
+        /**
+         * Generates a single file with the specified index, unless an update finds it unchanged
+         * @return number of bytes written
+         */
+        private long generateFile(long fileIndex) throws IOException {
+            timer.start();
+            if (rows != null && !rows.next(row)) {
+                throw new IOException("Error generating file " + fileIndex + ": the data chunk has no record left");
+            }
+            nameBuffer.setLength(0);
+            nameTemplate.render(fileIndex, row, nameBuffer);
+            Path file = outputPath.resolve(nameBuffer.toString());
+            if (rows != null && !file.normalize().startsWith(outputPath.normalize())) {
+                throw new IOException("Error generating file " + fileIndex + ": the name " + nameBuffer
+                        + " from the data source leaves the output directory");
+            }
+            contentBuffer.setLength(0);
+            ByteBuffer encoded = null;
+            String checksum = staticChecksum;
+            if (payload == null && contentTemplate != null) {
+                contentTemplate.render(fileIndex, row, contentBuffer);
+                if (encoder != null) {
+                    // Checksum and compare the exact bytes the session writes
+                    try {
+                        encoded = encoder.encode(contentBuffer);
+                    } catch (CharacterCodingException e) {
+                        throw new IOException("Error generating file " + fileIndex + ": cannot encode content", e);
+                    }
+                }
+                if (digest != null && encoded != null) {
+                    digest.reset();
+                    digest.update(encoded);
+                    checksum = digest.finish();
+                }
+            }
+            timer.lap(Phase.RENDER);
+
+            if (delta != null && isUnchanged(file, fileIndex, encoded, checksum)) {
+                return 0;
+            }
+
+            // Write file
+            long bytes;
+            try {
+                if (createDirectoriesWhileWriting) {
+                    lastDirectory = ensureDirectory(file, lastDirectory);
+                }
+                if (payload != null) {
+                    if (digest != null) {
+                        digest.reset();
+                    }
+                    bytes = session.writePayload(file, fileIndex, parameters.getTargetFileSize(), payload);
+                    if (digest != null) {
+                        checksum = digest.finish();
+                    }
+                } else if (encoded != null) {
+                    bytes = session.write(file, encoded);
+                } else {
+                    bytes = session.write(file, contentBuffer);
+                }
+            } catch (IOException e) {
+                throw new IOException("Error generating file " + fileIndex + ": " + e.getMessage(), e);
+            }
+            completedBytes.add(bytes);
+            if (digest != null) {
+                Manifest.appendEntry(manifestLines, checksum, bytes, manifestName(outputPath, file));
+            }
+            return bytes;
+        }
+
+        /**
+         * Compares an existing file with its new content and counts it as unchanged or changed.
+         * An unchanged file keeps its manifest entry.
+         * @param encoded the rendered content, or null if it comes from the payload generator
+         * @return true if the file need not be written
+         */
+        private boolean isUnchanged(Path file, long fileIndex, ByteBuffer encoded, String checksum)
+                throws IOException {
+            DeltaCheck.Difference difference;
+            try {
+                difference = encoded != null
+                        ? delta.compare(file, fileIndex, encoded, checksum)
+                        : delta.compare(file, fileIndex, parameters.getTargetFileSize(), payload, digest);
+            } catch (IOException e) {
+                throw new IOException("Error comparing file " + fileIndex + ": " + e.getMessage(), e);
+            }
+            timer.lap(Phase.COMPARE);
+            if (difference == DeltaCheck.Difference.CHANGED) {
+                changedFiles.increment();
+            } else if (difference == DeltaCheck.Difference.UNCHANGED) {
+                unchangedFiles.increment();
+                if (digest != null) {
+                    long size = encoded != null ? encoded.remaining() : parameters.getTargetFileSize();
+                    Manifest.appendEntry(manifestLines, delta.getChecksum(), size, manifestName(outputPath, file));
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Render stage of the pipeline. Claims batches of indexes like a {@link Worker}, renders and encodes
+     * each file, and packs the contiguous runs of file numbers into batches for the writers.
+     */
+    private class Renderer {
+        private final Path outputPath;
+        private final CompiledTemplate nameTemplate;
+        private final CompiledTemplate contentTemplate;
+        private final PhaseTimer timer = metrics.newTimer();
+        private final Utf8Encoder encoder = new Utf8Encoder();
+        private final FileDigest digest = manifest != null ? FileDigest.create(parameters.getChecksumType()) : null;
+        private final StringBuilder nameBuffer = new StringBuilder(64);
+        private final StringBuilder contentBuffer = new StringBuilder(256);
+
+        Renderer(Path outputPath, CompiledTemplate nameTemplate, CompiledTemplate contentTemplate) {
+            this.outputPath = outputPath;
+            this.nameTemplate = nameTemplate;
+            this.contentTemplate = contentTemplate;
+        }
+
+        void run(BlockingQueue<RenderedBatch> free, BlockingQueue<RenderedBatch> rendered,
+                 BooleanSupplier stopRequested) throws IOException, InterruptedException {
+            long total = plan.size();
+            RenderedBatch batch = null;
+            while (!stopRequested.getAsBoolean()) {
+                long position = nextIndex.getAndAdd(BATCH_SIZE);
+                if (position >= total) {
+                    break;
+                }
+                long end = Math.min(position + BATCH_SIZE, total);
+                for (; position < end; position++) {
+                    long fileIndex = plan.indexAt(position);
+                    timer.start();
+                    nameBuffer.setLength(0);
+                    nameTemplate.render(fileIndex, nameBuffer);
+                    contentBuffer.setLength(0);
+                    contentTemplate.render(fileIndex, contentBuffer);
+                    ByteBuffer content;
+                    try {
+                        content = encoder.encode(contentBuffer);
+                    } catch (CharacterCodingException e) {
+                        throw new IOException("Error generating file " + fileIndex + ": cannot encode content", e);
+                    }
+
+                    // A batch holds consecutive file numbers only, so the writers can checkpoint it as a range
+                    if (batch != null && (batch.getFirst() + batch.getCount() != fileIndex
+                            || !batch.fits(content.remaining()))) {
+                        if (!transfer(batch, rendered, stopRequested)) {
+                            return;
+                        }
+                        batch = null;
+                    }
+                    if (batch == null) {
+                        batch = take(free, stopRequested);
+                        if (batch == null) {
+                            return;
+                        }
+                        batch.reset(fileIndex);
+                    }
+                    String checksum = null;
+                    if (digest != null) {
+                        digest.reset();
+                        digest.update(content);
+                        checksum = digest.finish();
+                    }
+                    batch.add(outputPath.resolve(nameBuffer.toString()), content, checksum);
+                    timer.lap(Phase.RENDER);
+                }
+            }
+            if (batch != null) {
+                transfer(batch, rendered, stopRequested);
+            }
+        }
+    }
+
+    /**
+     * Write stage of the pipeline. Writes each rendered batch through the worker's session
+     * and returns the batch to the render stage.
+     */
+    private class BatchWriter {
+        private final Path outputPath;
+        private final FileWriteBackend.Session session;
+        private final PhaseTimer timer;
+        private final BatchTracer tracer = BatchTracer.create();
+        private final StringBuilder manifestLines = new StringBuilder();
+        private Path lastDirectory;
+
+        BatchWriter(Path outputPath, FileWriteBackend.Session session, PhaseTimer timer) {
+            this.outputPath = outputPath;
+            this.session = session;
+            this.timer = timer;
+        }
+
+        void run(BlockingQueue<RenderedBatch> rendered, BlockingQueue<RenderedBatch> free,
+                 AtomicInteger activeRenderers, BooleanSupplier stopRequested)
+                throws IOException, InterruptedException {
+            while (!stopRequested.getAsBoolean()) {
+                // Check the renderers before polling: once they are done, everything they rendered is queued
+                boolean renderersDone = activeRenderers.get() == 0;
+                RenderedBatch batch = rendered.poll(QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (batch == null) {
+                    if (renderersDone) {
+                        return;
+                    }
+                    continue;
+                }
+                try {
+                    writeBatch(batch, stopRequested);
+                } finally {
+                    free.add(batch);
+                }
+            }
+        }
+
+        private void writeBatch(RenderedBatch batch, BooleanSupplier stopRequested)
+                throws IOException, InterruptedException {
+            long first = batch.getFirst();
+            tracer.beginBatch(first, timer);
+            long files = 0;
+            long bytes = 0;
+            try {
+                for (int file = 0; file < batch.getCount() && rateLimiter.acquireFile(stopRequested); file++) {
+                    timer.start();
+                    Path target = batch.getTarget(file);
+                    long written;
+                    try {
+                        if (createDirectoriesWhileWriting) {
+                            lastDirectory = ensureDirectory(target, lastDirectory);
+                        }
+                        written = session.write(target, batch.getContent(file));
+                    } catch (IOException e) {
+                        throw new IOException("Error generating file " + (first + file) + ": " + e.getMessage(), e);
+                    }
+                    completedBytes.add(written);
+                    rateLimiter.recordBytes(written);
+                    completed.increment();
+                    if (manifest != null) {
+                        Manifest.appendEntry(manifestLines, batch.getChecksum(file), written,
+                                             manifestName(outputPath, target));
+                    }
+                    bytes += written;
+                    files++;
+                }
+            } catch (Exception e) {
+                try {
+                    recordBatch(manifestLines, first, first + files - 1);
+                } catch (IOException journalFailure) {
+                    e.addSuppressed(journalFailure);
+                }
+                throw e;
+            }
+            recordBatch(manifestLines, first, first + files - 1);
+            tracer.endBatch(files, bytes, timer);
+        }
+    }
+
+    /**
+     * Hands a batch or chunk to the next stage, waiting while the queue is full
+     * @return false if a stop was requested while waiting
+     */
+    private static <T> boolean transfer(T item, BlockingQueue<T> queue, BooleanSupplier stopRequested)
+            throws InterruptedException {
+        while (!queue.offer(item, QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (stopRequested.getAsBoolean()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes a batch from a queue, waiting while it is empty
+     * @return the batch, or null if a stop was requested while waiting
+     */
+    private static RenderedBatch take(BlockingQueue<RenderedBatch> queue, BooleanSupplier stopRequested)
+            throws InterruptedException {
+        RenderedBatch batch = queue.poll(QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        while (batch == null && !stopRequested.getAsBoolean()) {
+            batch = queue.poll(QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return batch;
+    }
+
+    /**
+     * Creates daemon worker threads so an abandoned run never keeps the JVM alive
+     */
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "file-generator-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.generator.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The file numbers a run still has to generate, as sorted, disjoint ranges.
+ * Workers claim positions in the plan rather than file numbers, so the ranges left over by a resumed
+ * run are handed out exactly like one continuous range.
+ */
+final class IndexPlan {
+
+    private final long[] firsts;
+    private final long[] lasts;
+    private final long[] positions;
+    private final long size;
+
+    private IndexPlan(List<long[]> ranges) {
+        firsts = new long[ranges.size()];
+        lasts = new long[ranges.size()];
+        positions = new long[ranges.size()];
+        long position = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            firsts[i] = ranges.get(i)[0];
+            lasts[i] = ranges.get(i)[1];
+            positions[i] = position;
+            position += lasts[i] - firsts[i] + 1;
+        }
+        size = position;
+    }
+
+    /**
+     * @return a plan covering first..last
+     */
+    static IndexPlan of(long first, long last) {
+        List<long[]> ranges = new ArrayList<>(1);
+        if (first <= last) {
+            ranges.add(new long[] {first, last});
+        }
+        return new IndexPlan(ranges);
+    }
+
+    /**
+     * @param done sorted, disjoint and non-adjacent ranges, as returned by {@link CheckpointJournal#read}
+     * @return a plan covering the numbers in first..last that are not in any of the done ranges
+     */
+    static IndexPlan excluding(long first, long last, List<long[]> done) {
+        List<long[]> ranges = new ArrayList<>();
+        long next = first;
+        for (long[] range : done) {
+            if (range[1] < next) {
+                continue;
+            } else if (range[0] > last) {
+                break;
+            }
+            if (range[0] > next) {
+                ranges.add(new long[] {next, range[0] - 1});
+            }
+            if (range[1] >= last) {
+                return new IndexPlan(ranges);
+            }
+            next = range[1] + 1;
+        }
+        if (next <= last) {
+            ranges.add(new long[] {next, last});
+        }
+        return new IndexPlan(ranges);
+    }
+
+    /**
+     * @param skipped sorted, disjoint ranges
+     * @return a plan covering the numbers of this plan that are not in any of the skipped ranges
+     */
+    IndexPlan excluding(List<long[]> skipped) {
+        List<long[]> ranges = new ArrayList<>();
+        for (int i = 0; i < firsts.length; i++) {
+            IndexPlan part = excluding(firsts[i], lasts[i], skipped);
+            for (int j = 0; j < part.firsts.length; j++) {
+                ranges.add(new long[] {part.firsts[j], part.lasts[j]});
+            }
+        }
+        return new IndexPlan(ranges);
+    }
+
+    /**
+     * @return true if the plan covers the given file number
+     */
+    boolean contains(long index) {
+        int range = lastRangeStartingAtOrBefore(index);
+        return range >= 0 && index <= lasts[range];
+    }
+
+    /**
+     * @return number of files in the plan
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * @return file number at the given position, 0 &lt;= position &lt; size
+     */
+    long indexAt(long position) {
+        int range = rangeAt(position);
+        return firsts[range] + (position - positions[range]);
+    }
+
+    /**
+     * @return last file number of the contiguous range that contains the given position
+     */
+    long rangeEndAt(long position) {
+        return lasts[rangeAt(position)];
+    }
+
+    /**
+     * @return number of planned file numbers up to and including the given one
+     */
+    long sizeUpTo(long index) {
+        int range = lastRangeStartingAtOrBefore(index);
+        return range < 0 ? 0 : positions[range] + Math.min(index, lasts[range]) - firsts[range] + 1;
+    }
+
+    /**
+     * @return the first planned range that ends at or after the given file number, as {first, last},
+     *         or null if there is none
+     */
+    long[] rangeFrom(long index) {
+        int range = Math.max(0, lastRangeStartingAtOrBefore(index));
+        if (range < lasts.length && lasts[range] < index) {
+            range++;
+        }
+        return range < lasts.length ? new long[] {Math.max(firsts[range], index), lasts[range]} : null;
+    }
+
+    private int lastRangeStartingAtOrBefore(long index) {
+        int low = -1;
+        int high = firsts.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (firsts[middle] <= index) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private int rangeAt(long position) {
+        int low = 0;
+        int high = positions.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (positions[middle] <= position) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+}
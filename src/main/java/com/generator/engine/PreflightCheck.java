@@ -0,0 +1,378 @@
+package com.generator.engine;
+
+import com.generator.template.CompiledTemplate;
+import com.generator.util.ByteSizes;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Checks before a run writes anything: which of its files already exist, and whether the output
+ * file store has the space and inodes the run needs, so a full disk is reported up front rather
+ * than millions of files into the run.
+ */
+final class PreflightCheck {
+
+    /**
+     * Space a file is assumed to occupy per started block, the common file system block size
+     */
+    static final long ALLOCATION_UNIT = 4096;
+
+    /**
+     * Names read from a directory before they are matched on another pool thread
+     */
+    static final int MATCH_BATCH_SIZE = 4096;
+
+    private static final long DF_TIMEOUT_SECONDS = 5;
+
+    private PreflightCheck() {
+    }
+
+    /**
+     * Finds the files of the plan that already exist. The output directory is walked down to the
+     * depth of the name pattern with one pool task per directory. Each directory's entries are
+     * streamed rather than listed, and batches of names are matched on the pool while reading goes on,
+     * so a directory of millions of entries needs neither a huge array nor a single thread.
+     * Names are matched by reading their file number back, see {@link CompiledTemplate#parseIndex}.
+     * Each batch of matches is merged into the ranges found so far, so contiguous files take one range
+     * however many there are.
+     * @return the existing file numbers as sorted, disjoint ranges
+     */
+    static List<long[]> findExisting(Path outputPath, CompiledTemplate nameTemplate, IndexPlan plan,
+                                     ExecutorService pool, BooleanSupplier stopRequested)
+            throws IOException, InterruptedException {
+        return findExisting(outputPath, nameTemplate, plan, pool, stopRequested, null, 0, -1);
+    }
+
+    /**
+     * Receives the names the scan matched to file numbers outside the run
+     */
+    interface OutsideHandler {
+        /**
+         * @param name the file's path relative to the output directory
+         */
+        void outside(String name) throws IOException;
+    }
+
+    /**
+     * Finds the files of the plan that already exist like {@link #findExisting(Path, CompiledTemplate,
+     * IndexPlan, ExecutorService, BooleanSupplier)}, and also passes every name whose file number lies
+     * outside first..last to the handler, on the pool thread that matched it
+     * @param outside receives names outside the run, or null to ignore them
+     */
+    static List<long[]> findExisting(Path outputPath, CompiledTemplate nameTemplate, IndexPlan plan,
+                                     ExecutorService pool, BooleanSupplier stopRequested,
+                                     OutsideHandler outside, long first, long last)
+            throws IOException, InterruptedException {
+        Scan scan = new Scan(nameTemplate, plan, pool, stopRequested, outside, first, last, true);
+        scan.run(outputPath);
+        return scan.ranges();
+    }
+
+    /**
+     * Counts the files of the plan that already exist, scanning like {@link #findExisting(Path,
+     * CompiledTemplate, IndexPlan, ExecutorService, BooleanSupplier, OutsideHandler, long, long)}
+     * but keeping no file numbers, so the memory it needs does not grow with the files it finds
+     * @param outside receives names outside the run, or null to ignore them
+     */
+    static long countExisting(Path outputPath, CompiledTemplate nameTemplate, IndexPlan plan,
+                              ExecutorService pool, BooleanSupplier stopRequested,
+                              OutsideHandler outside, long first, long last)
+            throws IOException, InterruptedException {
+        Scan scan = new Scan(nameTemplate, plan, pool, stopRequested, outside, first, last, false);
+        scan.run(outputPath);
+        return scan.count.sum();
+    }
+
+    /**
+     * @return the number of file numbers in the ranges
+     */
+    static long count(List<long[]> ranges) {
+        long count = 0;
+        for (long[] range : ranges) {
+            count += range[1] - range[0] + 1;
+        }
+        return count;
+    }
+
+    /**
+     * @return files * bytesPerFile, or Long.MAX_VALUE if that overflows
+     */
+    static long multiply(long files, long bytesPerFile) {
+        try {
+            return Math.multiplyExact(files, bytesPerFile);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * @return the space a file of the given size occupies, in whole allocation units
+     */
+    static long allocated(long size) {
+        return (size + ALLOCATION_UNIT - 1) / ALLOCATION_UNIT * ALLOCATION_UNIT;
+    }
+
+    /**
+     * Fails if the file store of the output directory has less usable space or fewer free inodes than needed
+     * @param inodes files and directories the run creates
+     * @throws IOException naming what is short
+     */
+    static void checkCapacity(Path outputPath, long bytes, long inodes) throws IOException {
+        long usable = Files.getFileStore(outputPath).getUsableSpace();
+        if (bytes > usable) {
+            throw new IOException(String.format(Locale.ROOT,
+                    "Not enough space in %s: the run needs about %s, only %s are usable",
+                    outputPath, ByteSizes.format(bytes), ByteSizes.format(usable)));
+        }
+        long freeInodes = freeInodes(outputPath);
+        if (freeInodes >= 0 && inodes > freeInodes) {
+            throw new IOException(String.format(Locale.ROOT,
+                    "Not enough inodes in %s: the run creates about %d files and directories, only %d are free",
+                    outputPath, inodes, freeInodes));
+        }
+    }
+
+    /**
+     * Asks {@code df -P -i} for the free inodes of the file store, as the JDK has no API for them
+     * @return the number of free inodes, or -1 if unknown or unlimited (Windows, btrfs, ZFS)
+     */
+    static long freeInodes(Path path) {
+        if (System.getProperty("os.name", "").startsWith("Windows")) {
+            return -1;
+        }
+        Process df = null;
+        try {
+            df = new ProcessBuilder("df", "-P", "-i", path.toAbsolutePath().toString())
+                    .redirectErrorStream(true).start();
+            List<String> lines = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(df.getInputStream(), StandardCharsets.UTF_8))) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    lines.add(line);
+                }
+            }
+            if (!df.waitFor(DF_TIMEOUT_SECONDS, TimeUnit.SECONDS) || df.exitValue() != 0 || lines.size() < 2) {
+                return -1;
+            }
+            return parseFreeInodes(lines.get(0), lines.get(lines.size() - 1));
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } finally {
+            if (df != null) {
+                df.destroy();
+            }
+        }
+    }
+
+    /**
+     * Reads the free inodes from df's header and data line, e.g. Linux's {@code IFree} or macOS's
+     * {@code ifree} column. The mount point is the last column and may contain spaces, so columns are
+     * counted from the start.
+     * @return the number of free inodes, or -1 if the line has none or the file store reports no inode limit
+     */
+    static long parseFreeInodes(String header, String line) {
+        List<String> columns = Arrays.asList(header.trim().toLowerCase(Locale.ROOT).split("\\s+"));
+        String[] values = line.trim().split("\\s+");
+        int free = columns.indexOf("ifree");
+        int total = columns.indexOf("inodes");
+        try {
+            if (free < 0 || free >= values.length || (total >= 0 && Long.parseLong(values[total]) == 0)) {
+                return -1;
+            }
+            return Long.parseLong(values[free]);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * One collision scan: directory and match tasks on a shared pool, and the file numbers they found
+     */
+    private static final class Scan {
+        private final CompiledTemplate nameTemplate;
+        private final IndexPlan plan;
+        private final int depth;
+        private final ExecutorService pool;
+        private final BooleanSupplier stopRequested;
+        private final OutsideHandler outside;
+        private final long first;
+        private final long last;
+        private final Queue<Future<Void>> tasks = new ConcurrentLinkedQueue<>();
+        /** Found ranges by their first file number, or null if the scan only counts */
+        private final TreeMap<Long, long[]> found;
+        final LongAdder count = new LongAdder();
+
+        Scan(CompiledTemplate nameTemplate, IndexPlan plan, ExecutorService pool, BooleanSupplier stopRequested,
+             OutsideHandler outside, long first, long last, boolean keepRanges) {
+            this.nameTemplate = nameTemplate;
+            this.plan = plan;
+            int depth = 0;
+            for (CompiledTemplate directory = nameTemplate.directoryPart(); directory != null;
+                 directory = directory.directoryPart()) {
+                depth++;
+            }
+            this.depth = depth;
+            this.pool = pool;
+            this.stopRequested = stopRequested;
+            this.outside = outside;
+            this.first = first;
+            this.last = last;
+            this.found = keepRanges ? new TreeMap<>() : null;
+        }
+
+        void run(Path outputPath) throws IOException, InterruptedException {
+            if (nameTemplate.usesIndex()) {
+                submit(() -> scanDirectory(outputPath, "", 0));
+                await();
+            }
+        }
+
+        interface Step {
+            void run() throws IOException;
+        }
+
+        void submit(Step step) {
+            tasks.add(pool.submit(() -> {
+                step.run();
+                return null;
+            }));
+        }
+
+        /**
+         * Reads one directory, queueing its subdirectories above the depth of the file names and
+         * batches of the names at that depth
+         * @param prefix the directory's path relative to the output directory, ending in '/' unless empty
+         */
+        void scanDirectory(Path directory, String prefix, int level) throws IOException {
+            List<String> names = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    if (stopRequested.getAsBoolean()) {
+                        return;
+                    }
+                    String name = prefix + entry.getFileName();
+                    if (level < depth) {
+                        if (Files.isDirectory(entry)) {
+                            submit(() -> scanDirectory(entry, name + "/", level + 1));
+                        }
+                    } else {
+                        names.add(name);
+                        if (names.size() == MATCH_BATCH_SIZE) {
+                            List<String> batch = names;
+                            submit(() -> match(batch));
+                            names = new ArrayList<>();
+                        }
+                    }
+                }
+            } catch (NoSuchFileException | NotDirectoryException e) {
+                return;
+            }
+            match(names);
+        }
+
+        void match(List<String> names) throws IOException {
+            long[] indexes = new long[names.size()];
+            int count = 0;
+            for (String name : names) {
+                long index = nameTemplate.parseIndex(name);
+                if (index >= 0 && plan.contains(index)) {
+                    indexes[count++] = index;
+                } else if (index >= 0 && outside != null && (index < first || index > last)) {
+                    outside.outside(name);
+                }
+            }
+            this.count.add(count);
+            if (found != null && count > 0) {
+                Arrays.sort(indexes, 0, count);
+                long rangeFirst = indexes[0];
+                for (int i = 1; i < count; i++) {
+                    if (indexes[i] > indexes[i - 1] + 1) {
+                        add(rangeFirst, indexes[i - 1]);
+                        rangeFirst = indexes[i];
+                    }
+                }
+                add(rangeFirst, indexes[count - 1]);
+            }
+        }
+
+        /**
+         * Merges a range of found file numbers with the ranges it overlaps or touches
+         */
+        private void add(long rangeFirst, long rangeLast) {
+            synchronized (found) {
+                Map.Entry<Long, long[]> before = found.floorEntry(rangeFirst);
+                if (before != null && before.getValue()[1] >= rangeFirst - 1) {
+                    rangeFirst = before.getKey();
+                    rangeLast = Math.max(rangeLast, before.getValue()[1]);
+                    found.remove(rangeFirst);
+                }
+                for (Map.Entry<Long, long[]> after = found.ceilingEntry(rangeFirst);
+                     after != null && after.getKey() <= rangeLast + 1; after = found.ceilingEntry(rangeFirst)) {
+                    rangeLast = Math.max(rangeLast, after.getValue()[1]);
+                    found.remove(after.getKey());
+                }
+                found.put(rangeFirst, new long[] {rangeFirst, rangeLast});
+            }
+        }
+
+        /**
+         * @return the found file numbers as sorted, disjoint ranges
+         */
+        List<long[]> ranges() {
+            return new ArrayList<>(found.values());
+        }
+
+        /**
+         * Waits for every task, including the ones submitted while waiting. A task queues its
+         * subtasks before it completes, so the queue only runs empty once all of them are done.
+         */
+        void await() throws IOException, InterruptedException {
+            Throwable failure = null;
+            Future<Void> task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                }
+            }
+
+            if (failure instanceof IOException) {
+                throw new IOException("Failed to scan for existing files: " + failure.getMessage(), failure);
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure != null) {
+                throw new IOException("Failed to scan for existing files", failure);
+            }
+        }
+    }
+}
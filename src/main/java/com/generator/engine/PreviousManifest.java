@@ -0,0 +1,107 @@
+package com.generator.engine;
+
+import com.generator.manifest.Manifest;
+import com.generator.model.ChecksumType;
+import com.generator.template.CompiledTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The sizes and checksums an earlier run recorded for the files of this run, so an update can tell
+ * unchanged files from the checksum of their new content instead of reading them. Entries are stored
+ * by file number in flat arrays, about 12 bytes per file with CRC checksums, rather than as objects.
+ */
+final class PreviousManifest {
+
+    /**
+     * Share of the maximum heap the tables may take; larger runs compare with the files instead
+     */
+    private static final int HEAP_FRACTION = 4;
+
+    private final long first;
+    private final int checksumBytes;
+    private final long[] sizes;
+    private final byte[] checksums;
+
+    private PreviousManifest(long first, int files, int checksumBytes) {
+        this.first = first;
+        this.checksumBytes = checksumBytes;
+        this.sizes = new long[files];
+        this.checksums = new byte[files * checksumBytes];
+        Arrays.fill(sizes, -1);
+    }
+
+    /**
+     * Reads the entries of files first..last from an earlier manifest. Entries are matched to file
+     * numbers through the name template, see {@link CompiledTemplate#parseIndex}.
+     * @return the entries, or null if there is no manifest, it records another checksum, or the run is
+     *         too large to keep its entries in memory
+     * @throws IOException if the manifest cannot be read or is malformed
+     */
+    static PreviousManifest load(Path manifest, ChecksumType type, CompiledTemplate nameTemplate,
+                                 long first, long last) throws IOException {
+        if (!Files.isRegularFile(manifest) || !nameTemplate.usesIndex()) {
+            return null;
+        }
+        int checksumBytes = type == ChecksumType.SHA256 ? 32 : 4;
+        long files = last - first + 1;
+        long maxFiles = Runtime.getRuntime().maxMemory() / HEAP_FRACTION / (Long.BYTES + checksumBytes);
+        if (files <= 0 || files > Math.min(maxFiles, Integer.MAX_VALUE / checksumBytes)) {
+            return null;
+        }
+
+        PreviousManifest previous = new PreviousManifest(first, (int) files, checksumBytes);
+        ChecksumType recorded = Manifest.read(manifest, entry -> {
+            long index = nameTemplate.parseIndex(entry.getPath());
+            if (index >= first && index <= last) {
+                previous.put((int) (index - first), entry.getSize(), entry.getChecksum());
+            }
+        });
+        return recorded == type ? previous : null;
+    }
+
+    private void put(int slot, long size, String checksum) {
+        if (checksum.length() != 2 * checksumBytes) {
+            return;
+        }
+        int offset = slot * checksumBytes;
+        for (int i = 0; i < checksumBytes; i++) {
+            int high = Character.digit(checksum.charAt(2 * i), 16);
+            int low = Character.digit(checksum.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                sizes[slot] = -1;
+                return;
+            }
+            checksums[offset + i] = (byte) (high << 4 | low);
+        }
+        sizes[slot] = size;
+    }
+
+    /**
+     * @return the size recorded for the file, or -1 if the manifest does not list it
+     */
+    long size(long index) {
+        long slot = index - first;
+        return slot >= 0 && slot < sizes.length ? sizes[(int) slot] : -1;
+    }
+
+    /**
+     * @return true if the manifest lists the file with this size and checksum
+     */
+    boolean matches(long index, long size, String checksum) {
+        if (size(index) != size || checksum.length() != 2 * checksumBytes) {
+            return false;
+        }
+        int offset = (int) (index - first) * checksumBytes;
+        for (int i = 0; i < checksumBytes; i++) {
+            int value = Character.digit(checksum.charAt(2 * i), 16) << 4 | Character.digit(checksum.charAt(2 * i + 1), 16);
+            if ((byte) value != checksums[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,94 @@
+package com.generator.engine;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Reads the engine's counters at a fixed rate and hands {@link ProgressSnapshot}s to the listener.
+ * Workers only bump lock-free counters, so the cost of reporting no longer depends on the number of
+ * files, and a slow listener (such as the JavaFX thread) can never throttle generation.
+ * All snapshots are delivered from a single thread, one at a time.
+ */
+final class ProgressSampler {
+
+    /**
+     * Weight of the newest interval in the smoothed throughput
+     */
+    private static final double SMOOTHING = 0.3;
+
+    private final LongSupplier files;
+    private final LongSupplier bytes;
+    private final LongSupplier totalFiles;
+    private final FileGenerationEngine.ProgressListener listener;
+    private final long startNanos = System.nanoTime();
+    private ScheduledExecutorService scheduler;
+
+    private long lastNanos = startNanos;
+    private long lastFiles;
+    private long lastBytes;
+    private double filesPerSecond = -1;
+    private double bytesPerSecond = -1;
+
+    ProgressSampler(LongSupplier files, LongSupplier bytes, LongSupplier totalFiles,
+                    FileGenerationEngine.ProgressListener listener) {
+        this.files = files;
+        this.bytes = bytes;
+        this.totalFiles = totalFiles;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts sampling on a daemon thread
+     */
+    void start(long intervalMillis) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "file-generator-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::sample, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops sampling and publishes a final snapshot with the average throughput of the whole run
+     */
+    void stop() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(1, TimeUnit.SECONDS);
+        }
+
+        long now = System.nanoTime();
+        double seconds = Math.max(now - startNanos, 1) / 1_000_000_000.0;
+        long completedFiles = files.getAsLong();
+        long completedBytes = bytes.getAsLong();
+        listener.progressChanged(new ProgressSnapshot(completedFiles, totalFiles.getAsLong(), completedBytes, now - startNanos,
+                completedFiles / seconds, completedBytes / seconds));
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        long completedFiles = files.getAsLong();
+        long completedBytes = bytes.getAsLong();
+
+        double seconds = Math.max(now - lastNanos, 1) / 1_000_000_000.0;
+        filesPerSecond = smooth(filesPerSecond, (completedFiles - lastFiles) / seconds);
+        bytesPerSecond = smooth(bytesPerSecond, (completedBytes - lastBytes) / seconds);
+        lastNanos = now;
+        lastFiles = completedFiles;
+        lastBytes = completedBytes;
+
+        try {
+            listener.progressChanged(new ProgressSnapshot(completedFiles, totalFiles.getAsLong(), completedBytes,
+                    now - startNanos, filesPerSecond, bytesPerSecond));
+        } catch (RuntimeException e) {
+            // A failing listener must not cancel the schedule; the final snapshot still reports the outcome
+        }
+    }
+
+    private static double smooth(double previous, double current) {
+        return previous < 0 ? current : previous + SMOOTHING * (current - previous);
+    }
+}
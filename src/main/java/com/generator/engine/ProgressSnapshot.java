@@ -0,0 +1,86 @@
+package com.generator.engine;
+
+import com.generator.util.ByteSizes;
+
+import java.util.Locale;
+
+/**
+ * Immutable view of a run's progress at one sampling instant, with throughput and estimated time remaining
+ */
+public final class ProgressSnapshot {
+
+    private final long completedFiles;
+    private final long totalFiles;
+    private final long completedBytes;
+    private final long elapsedNanos;
+    private final double filesPerSecond;
+    private final double bytesPerSecond;
+
+    public ProgressSnapshot(long completedFiles, long totalFiles, long completedBytes, long elapsedNanos,
+                            double filesPerSecond, double bytesPerSecond) {
+        this.completedFiles = completedFiles;
+        this.totalFiles = totalFiles;
+        this.completedBytes = completedBytes;
+        this.elapsedNanos = elapsedNanos;
+        this.filesPerSecond = filesPerSecond;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    public long getCompletedFiles() {
+        return completedFiles;
+    }
+
+    public long getTotalFiles() {
+        return totalFiles;
+    }
+
+    public long getCompletedBytes() {
+        return completedBytes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return recent file throughput, smoothed over the last few samples
+     */
+    public double getFilesPerSecond() {
+        return filesPerSecond;
+    }
+
+    /**
+     * @return recent byte throughput, smoothed over the last few samples
+     */
+    public double getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * @return estimated seconds until all files are written, or -1 while the rate is unknown
+     */
+    public long getEtaSeconds() {
+        if (completedFiles >= totalFiles) {
+            return 0;
+        } else if (filesPerSecond <= 0) {
+            return -1;
+        }
+        return (long) Math.ceil((totalFiles - completedFiles) / filesPerSecond);
+    }
+
+    /**
+     * Formats the snapshot for status lines, e.g.
+     * {@code Generated 12,345 of 1,000,000 files | 2,345 files/s | 1.2 MiB/s | ETA 0:07:01}
+     */
+    public String format() {
+        long eta = getEtaSeconds();
+        return String.format(Locale.ROOT, "Generated %,d of %,d files | %,.0f files/s | %s/s | ETA %s",
+                completedFiles, totalFiles, filesPerSecond, ByteSizes.format(bytesPerSecond),
+                eta < 0 ? "--:--" : String.format(Locale.ROOT, "%d:%02d:%02d", eta / 3600, eta / 60 % 60, eta % 60));
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
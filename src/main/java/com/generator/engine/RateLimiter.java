@@ -0,0 +1,156 @@
+package com.generator.engine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Token-bucket throttle shared by all workers of a run, limiting files per second and/or bytes per second.
+ * Both limits can be changed while the run is in progress and take effect within {@link #MAX_PARK_NANOS}.
+ * A worker takes one file token before writing a file and is charged the file's bytes afterwards, since
+ * the size of a rendered file is only known once it has been written; the next file then waits until
+ * that debt has been paid off. A limit of 0 means unlimited, and with no limits set the only cost per
+ * file is two volatile reads.
+ */
+public final class RateLimiter {
+
+    /**
+     * Longest a waiting worker sleeps before checking for cancellation and new limits
+     */
+    static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    /**
+     * Tokens that may pile up while workers are idle, as seconds' worth of the rate
+     */
+    private static final double BURST_SECONDS = 0.1;
+
+    private final Bucket files = new Bucket();
+    private final Bucket bytes = new Bucket();
+
+    /**
+     * @param filesPerSecond file limit, 0 for unlimited
+     * @param bytesPerSecond byte limit, 0 for unlimited
+     */
+    public RateLimiter(double filesPerSecond, double bytesPerSecond) {
+        setFilesPerSecond(filesPerSecond);
+        setBytesPerSecond(bytesPerSecond);
+    }
+
+    public double getFilesPerSecond() {
+        return files.rate;
+    }
+
+    /**
+     * Changes the file limit, also while workers are running
+     * @param filesPerSecond new limit, 0 for unlimited
+     */
+    public void setFilesPerSecond(double filesPerSecond) {
+        files.setRate(filesPerSecond, 1);
+    }
+
+    public double getBytesPerSecond() {
+        return bytes.rate;
+    }
+
+    /**
+     * Changes the byte limit, also while workers are running
+     * @param bytesPerSecond new limit, 0 for unlimited
+     */
+    public void setBytesPerSecond(double bytesPerSecond) {
+        bytes.setRate(bytesPerSecond, 0);
+    }
+
+    /**
+     * Waits until the limits allow another file to be written, and takes its file token
+     * @param stopRequested polled while waiting
+     * @return false if the wait ended because a stop was requested
+     */
+    boolean acquireFile(BooleanSupplier stopRequested) throws InterruptedException {
+        while (true) {
+            if (stopRequested.getAsBoolean()) {
+                return false;
+            }
+            // Bytes are paid after the fact, so only proceed once earlier files have been paid for
+            long wait = bytes.rate > 0 ? bytes.nanosUntilAvailable(0) : 0;
+            if (wait == 0 && files.rate > 0) {
+                wait = files.tryTake(1);
+            }
+            if (wait == 0) {
+                return true;
+            }
+            LockSupport.parkNanos(Math.min(wait, MAX_PARK_NANOS));
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Charges the bytes of a file that has just been written
+     */
+    void recordBytes(long count) {
+        if (bytes.rate > 0) {
+            bytes.charge(count);
+        }
+    }
+
+    /**
+     * One token bucket. Refills lazily from the elapsed time whenever it is used.
+     */
+    private static final class Bucket {
+        private volatile double rate;
+        private double capacity;
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        synchronized void setRate(double newRate, double minimumCapacity) {
+            if (newRate < 0 || Double.isNaN(newRate) || Double.isInfinite(newRate)) {
+                throw new IllegalArgumentException("Invalid rate limit: " + newRate);
+            }
+            refill(System.nanoTime());
+            boolean wasUnlimited = rate == 0;
+            rate = newRate;
+            capacity = Math.max(minimumCapacity, newRate * BURST_SECONDS);
+            tokens = wasUnlimited ? capacity : Math.min(tokens, capacity);
+        }
+
+        /**
+         * Takes the tokens if they are available
+         * @return 0 if they were taken, otherwise the nanoseconds until they will be
+         */
+        synchronized long tryTake(double amount) {
+            long wait = nanosUntil(amount);
+            if (wait == 0) {
+                tokens -= amount;
+            }
+            return wait;
+        }
+
+        synchronized long nanosUntilAvailable(double amount) {
+            return nanosUntil(amount);
+        }
+
+        synchronized void charge(double amount) {
+            refill(System.nanoTime());
+            tokens -= amount;
+        }
+
+        private long nanosUntil(double amount) {
+            if (rate == 0) {
+                return 0;
+            }
+            refill(System.nanoTime());
+            if (tokens >= amount) {
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((amount - tokens) / rate * 1e9));
+        }
+
+        private void refill(long now) {
+            if (rate > 0) {
+                tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * rate / 1e9);
+            }
+            lastRefillNanos = now;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.generator.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Files first..first+count-1, rendered and encoded by the render stage and waiting to be written.
+ * All contents share one direct arena, so the I/O stage writes them without another copy. Batches
+ * circulate between the stages and are reused, keeping the pipeline free of per-file buffers.
+ */
+final class RenderedBatch {
+
+    /**
+     * Initial arena size, enough for a full batch of typical small files
+     */
+    static final int ARENA_SIZE = 256 * 1024;
+
+    private final Path[] targets;
+    private final String[] checksums;
+    private final int[] ends;
+    private ByteBuffer arena = ByteBuffer.allocateDirect(ARENA_SIZE);
+    private ByteBuffer view = arena.duplicate();
+    private long first;
+    private int count;
+
+    RenderedBatch(int capacity) {
+        targets = new Path[capacity];
+        checksums = new String[capacity];
+        ends = new int[capacity];
+    }
+
+    /**
+     * Empties the batch for files starting at the given number
+     */
+    void reset(long firstIndex) {
+        for (int i = 0; i < count; i++) {
+            targets[i] = null;
+            checksums[i] = null;
+        }
+        first = firstIndex;
+        count = 0;
+        arena.clear();
+    }
+
+    /**
+     * @return true if one more file of the given size fits without growing the arena, or the batch is empty
+     */
+    boolean fits(int size) {
+        return count == 0 || (count < targets.length && arena.remaining() >= size);
+    }
+
+    /**
+     * Appends the next file. The batch must be empty or {@link #fits} the content.
+     * @param content heap buffer positioned at the encoded content
+     */
+    void add(Path target, ByteBuffer content) {
+        add(target, content, null);
+    }
+
+    /**
+     * Appends the next file with the checksum of its content for the manifest
+     */
+    void add(Path target, ByteBuffer content, String checksum) {
+        if (content.remaining() > arena.remaining()) {
+            // Only an empty batch gets here: make room for a single file larger than the arena
+            arena = ByteBuffer.allocateDirect(content.remaining());
+            view = arena.duplicate();
+        }
+        arena.put(content);
+        targets[count] = target;
+        checksums[count] = checksum;
+        ends[count] = arena.position();
+        count++;
+    }
+
+    long getFirst() {
+        return first;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    Path getTarget(int file) {
+        return targets[file];
+    }
+
+    /**
+     * @return the checksum of the file's content, or null if none was computed
+     */
+    String getChecksum(int file) {
+        return checksums[file];
+    }
+
+    /**
+     * @return a view of the file's encoded content; the same view object is reused for every file
+     */
+    ByteBuffer getContent(int file) {
+        view.limit(ends[file]);
+        view.position(file == 0 ? 0 : ends[file - 1]);
+        return view;
+    }
+}
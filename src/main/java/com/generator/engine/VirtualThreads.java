@@ -0,0 +1,71 @@
+package com.generator.engine;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual threads on Java 21 and later. The project targets Java 8, so the builder API is looked up
+ * reflectively once; on older JVMs {@link #factory} returns null and callers keep platform threads.
+ */
+final class VirtualThreads {
+
+    /**
+     * Most platform threads used in place of virtual threads on JVMs without them
+     */
+    static final int PLATFORM_FALLBACK_LIMIT = 256;
+
+    private static final Method OF_VIRTUAL = lookup(Thread.class, "ofVirtual");
+
+    static final boolean SUPPORTED = OF_VIRTUAL != null;
+
+    private VirtualThreads() {
+    }
+
+    private static Method lookup(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return a factory for virtual threads named prefix0, prefix1, ..., or null if the JVM has none
+     */
+    static ThreadFactory factory(String prefix) {
+        if (!SUPPORTED) {
+            return null;
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Number of files that can safely be open at once: half the file descriptors this process has left,
+     * so sockets, jars and the checkpoint journal still get theirs
+     * @return the headroom, or {@link Integer#MAX_VALUE} if the platform does not report its limit
+     */
+    static int openFileHeadroom() {
+        try {
+            OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+            if (os instanceof UnixOperatingSystemMXBean) {
+                UnixOperatingSystemMXBean unix = (UnixOperatingSystemMXBean) os;
+                long free = unix.getMaxFileDescriptorCount() - unix.getOpenFileDescriptorCount();
+                return (int) Math.max(1, Math.min(Integer.MAX_VALUE, free / 2));
+            }
+        } catch (LinkageError e) {
+            // Not a HotSpot-based JVM
+        }
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,288 @@
+package com.generator.io;
+
+import com.generator.metrics.Phase;
+import com.generator.metrics.PhaseTimer;
+import com.generator.model.ArchiveFormat;
+import com.generator.payload.PayloadGenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Write backend that streams every generated file into one archive instead of creating files.
+ * Each worker session packs whole entries into its own block of {@code blockSize} bytes and compresses
+ * it on the worker thread, so compression runs on all cores; full blocks are then appended to the
+ * archive under a lock, in whatever order the workers finish them. Millions of entries thus cost a
+ * few large sequential writes rather than millions of file creates.
+ * Entries larger than a block are streamed while holding the lock, so they stay contiguous.
+ * Close the backend after every session has been closed to flush the last blocks and finish the archive.
+ */
+public abstract class ArchiveBackend implements FileWriteBackend, Closeable {
+
+    /**
+     * Smallest block a session packs entries into
+     */
+    static final int MIN_BLOCK_SIZE = 64 * 1024;
+
+    private final Path archive;
+    private final Path baseDirectory;
+    private final boolean fsync;
+    private final FileChannel channel;
+    private final List<ArchiveSession> closedSessions = new ArrayList<>();
+    final int blockSize;
+    final Object lock = new Object();
+    private long position;
+
+    ArchiveBackend(Path archive, Path baseDirectory, int blockSize, boolean fsync) throws IOException {
+        this.archive = archive;
+        this.baseDirectory = baseDirectory;
+        this.blockSize = Math.max(blockSize, MIN_BLOCK_SIZE);
+        this.fsync = fsync;
+        this.channel = FileChannel.open(archive, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                                        StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Creates the archive file and a backend writing to it
+     * @param baseDirectory entry names are the generated paths relative to this directory
+     * @param blockSize size of each session's block, which also bounds the size of a buffered entry
+     * @param fsync whether the archive is forced to the storage device before it is closed
+     */
+    public static ArchiveBackend create(Path archive, ArchiveFormat format, Path baseDirectory, int blockSize,
+                                        boolean fsync) throws IOException {
+        if (archive.getParent() != null) {
+            Files.createDirectories(archive.getParent());
+        }
+        switch (format) {
+            case TAR:
+                return new TarArchiveBackend(archive, baseDirectory, blockSize, fsync, false);
+            case TAR_GZ:
+                return new TarArchiveBackend(archive, baseDirectory, blockSize, fsync, true);
+            case ZIP:
+                return new ZipArchiveBackend(archive, baseDirectory, blockSize, fsync);
+            default:
+                throw new IllegalArgumentException("Unsupported archive format: " + format);
+        }
+    }
+
+    /**
+     * @return the archive file being written
+     */
+    public Path getArchive() {
+        return archive;
+    }
+
+    /**
+     * Appends bytes to the archive. Callers that need several appends to stay together hold {@link #lock}.
+     * @return archive offset of the first byte
+     */
+    final long append(byte[] bytes, int offset, int length) throws IOException {
+        synchronized (lock) {
+            long start = position;
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            position += length;
+            return start;
+        }
+    }
+
+    /**
+     * @return number of bytes appended so far
+     */
+    final long position() {
+        synchronized (lock) {
+            return position;
+        }
+    }
+
+    /**
+     * @return the entry name of a generated file, relative to the base directory with {@code /} separators
+     */
+    final String entryName(Path target) {
+        String name = baseDirectory.relativize(target).toString();
+        return target.getFileSystem().getSeparator().equals("/") ? name : name.replace('\\', '/');
+    }
+
+    /**
+     * Flushes the blocks the sessions still hold, finishes the archive and closes it
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            synchronized (closedSessions) {
+                for (ArchiveSession session : closedSessions) {
+                    session.flush();
+                    session.release();
+                }
+                closedSessions.clear();
+            }
+            finish();
+            if (fsync) {
+                channel.force(true);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the archive trailer once every entry has been appended
+     */
+    abstract void finish() throws IOException;
+
+    /**
+     * Session that encodes content into reusable heap arrays and hands whole entries to the format.
+     * Closing the session releases nothing: its last block is flushed when the backend is closed,
+     * since {@link Session#close} cannot report a failed write.
+     */
+    abstract class ArchiveSession implements Session {
+        private final PhaseTimer timer;
+        private final Utf8Encoder encoder = new Utf8Encoder();
+        private byte[] scratch = new byte[1024];
+
+        ArchiveSession(PhaseTimer timer) {
+            this.timer = timer;
+        }
+
+        @Override
+        public long write(Path target, CharSequence content) throws IOException {
+            timer.lap(Phase.OPEN);
+            ByteBuffer bytes;
+            try {
+                bytes = encoder.encode(content);
+            } catch (CharacterCodingException e) {
+                throw new IOException("Cannot encode content for " + target, e);
+            }
+            addEntry(target, bytes.array(), bytes.limit());
+            timer.lap(Phase.WRITE);
+            timer.lap(Phase.CLOSE);
+            return bytes.limit();
+        }
+
+        @Override
+        public long write(Path target, ByteBuffer content) throws IOException {
+            timer.lap(Phase.OPEN);
+            int length = content.remaining();
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            content.get(scratch, 0, length);
+            addEntry(target, scratch, length);
+            timer.lap(Phase.WRITE);
+            timer.lap(Phase.CLOSE);
+            return length;
+        }
+
+        @Override
+        public long writePayload(Path target, long fileIndex, long size, PayloadGenerator generator)
+                throws IOException {
+            timer.lap(Phase.OPEN);
+            if (size <= maxBufferedEntrySize()) {
+                if (scratch.length < size) {
+                    scratch = new byte[(int) Math.max(size, scratch.length * 2L)];
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(scratch, 0, (int) size);
+                generator.fill(buffer, fileIndex, 0);
+                addEntry(entryName(target), scratch, (int) size);
+            } else {
+                synchronized (lock) {
+                    streamEntry(entryName(target), size, EntryData.of(generator, fileIndex, size));
+                }
+            }
+            timer.lap(Phase.WRITE);
+            timer.lap(Phase.CLOSE);
+            return size;
+        }
+
+        /**
+         * Adds an entry, buffered in the block or streamed depending on its size
+         */
+        private void addEntry(Path target, byte[] data, int length) throws IOException {
+            if (length <= maxBufferedEntrySize()) {
+                addEntry(entryName(target), data, length);
+            } else {
+                synchronized (lock) {
+                    streamEntry(entryName(target), length, EntryData.of(data, length));
+                }
+            }
+        }
+
+        /**
+         * @return largest entry that is buffered in the session rather than streamed under the lock
+         */
+        abstract long maxBufferedEntrySize();
+
+        /**
+         * Adds an entry of at most {@link #maxBufferedEntrySize} bytes to the session's block,
+         * flushing the block first if it is full
+         */
+        abstract void addEntry(String name, byte[] data, int length) throws IOException;
+
+        /**
+         * Streams an entry too large for the block straight into the archive. Called holding {@link #lock}.
+         */
+        abstract void streamEntry(String name, long size, EntryData data) throws IOException;
+
+        /**
+         * Compresses and appends the entries buffered in the block
+         */
+        abstract void flush() throws IOException;
+
+        /**
+         * Frees native resources once the session's last block has been flushed
+         */
+        void release() {
+        }
+
+        @Override
+        public void close() {
+            synchronized (closedSessions) {
+                closedSessions.add(this);
+            }
+        }
+    }
+
+    /**
+     * Content of an entry that is streamed rather than buffered
+     */
+    interface EntryData {
+
+        /**
+         * Copies the next bytes of the entry into the chunk
+         * @return number of bytes copied, 0 at the end of the entry
+         */
+        int read(byte[] chunk);
+
+        static EntryData of(byte[] data, int length) {
+            int[] offset = {0};
+            return chunk -> {
+                int count = Math.min(chunk.length, length - offset[0]);
+                System.arraycopy(data, offset[0], chunk, 0, count);
+                offset[0] += count;
+                return count;
+            };
+        }
+
+        static EntryData of(PayloadGenerator generator, long fileIndex, long size) {
+            long[] offset = {0};
+            return chunk -> {
+                int count = (int) Math.min(chunk.length, size - offset[0]);
+                if (count > 0) {
+                    generator.fill(ByteBuffer.wrap(chunk, 0, count), fileIndex, offset[0]);
+                    offset[0] += count;
+                }
+                return count;
+            };
+        }
+    }
+}
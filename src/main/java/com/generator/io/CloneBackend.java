@@ -0,0 +1,213 @@
+package com.generator.io;
+
+import com.generator.metrics.Phase;
+import com.generator.metrics.PhaseTimer;
+import com.generator.payload.PayloadGenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Write backend for runs whose content is identical for every file.
+ * The payload is encoded and written once into a hidden seed file next to the output; every
+ * generated file is then produced with {@link FileChannel#transferTo}, which the JDK turns into
+ * a kernel-side copy (sendfile or copy_file_range, the latter able to reflink on filesystems that
+ * support it), so the content never passes through the Java heap again.
+ * Payloads below {@link #TRANSFER_THRESHOLD} are cheaper to write directly than to copy, so they
+ * are read back once into a shared direct buffer that every file is written from.
+ * Close the backend after the run to remove the seed file.
+ */
+public class CloneBackend implements FileWriteBackend, Closeable {
+
+    private static final OpenOption[] OPEN_OPTIONS = {
+        StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING
+    };
+
+    /**
+     * Smallest payload worth a kernel-side copy; below this the extra syscalls cost more than the write
+     */
+    static final long TRANSFER_THRESHOLD = 64 * 1024;
+
+    private final Path seed;
+    private final long size;
+    private final boolean fsync;
+    private final ByteBuffer payload;
+
+    private CloneBackend(Path seed, boolean fsync) throws IOException {
+        this.seed = seed;
+        this.size = Files.size(seed);
+        this.fsync = fsync;
+        this.payload = size < TRANSFER_THRESHOLD ? readPayload(seed, (int) size) : null;
+    }
+
+    private static ByteBuffer readPayload(Path seed, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        try (FileChannel channel = FileChannel.open(seed, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the buffer is full
+            }
+        }
+        buffer.flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Writes the content into a seed file in the given directory using the run's regular backend,
+     * so cloned files are byte-identical to what that backend would have produced.
+     */
+    public static CloneBackend create(Path directory, FileWriteBackend seedWriter, CharSequence content,
+                                      boolean fsync) throws IOException {
+        return create(directory, seedWriter, fsync, (session, seed) -> session.write(seed, content));
+    }
+
+    /**
+     * Streams a static payload into a seed file in the given directory using the run's regular backend
+     */
+    public static CloneBackend create(Path directory, FileWriteBackend seedWriter, long size,
+                                      PayloadGenerator generator, boolean fsync) throws IOException {
+        return create(directory, seedWriter, fsync, (session, seed) -> session.writePayload(seed, 0, size, generator));
+    }
+
+    private static CloneBackend create(Path directory, FileWriteBackend seedWriter, boolean fsync,
+                                       SeedWriter writer) throws IOException {
+        Path seed = Files.createTempFile(directory, ".filegen-seed-", ".tmp");
+        try (Session session = seedWriter.openSession()) {
+            writer.write(session, seed);
+            return new CloneBackend(seed, fsync);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(seed);
+            throw e;
+        }
+    }
+
+    @Override
+    public Session openSession(PhaseTimer timer) {
+        return new CloneSession(timer);
+    }
+
+    /**
+     * Reads the seed once to compute the checksum every cloned file shares
+     */
+    public String checksum(FileDigest digest) throws IOException {
+        digest.reset();
+        if (payload != null) {
+            digest.update(payload.duplicate());
+            return digest.finish();
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(size, 1024 * 1024));
+        try (FileChannel channel = FileChannel.open(seed, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0 && buffer.position() > 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return digest.finish();
+    }
+
+    /**
+     * Deletes the seed file
+     */
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(seed);
+    }
+
+    private interface SeedWriter {
+        void write(Session session, Path seed) throws IOException;
+    }
+
+    private class CloneSession implements Session {
+        private final PhaseTimer timer;
+        private FileChannel source;
+
+        CloneSession(PhaseTimer timer) {
+            this.timer = timer;
+        }
+
+        /**
+         * Copies the seed into the target; the rendered content is ignored because it equals the seed
+         */
+        @Override
+        public long write(Path target, CharSequence content) throws IOException {
+            return copySeed(target);
+        }
+
+        /**
+         * Copies the seed into the target; the encoded content is ignored because it equals the seed
+         */
+        @Override
+        public long write(Path target, ByteBuffer content) throws IOException {
+            return copySeed(target);
+        }
+
+        /**
+         * Copies the seed into the target; the generator is not consulted because its output equals the seed
+         */
+        @Override
+        public long writePayload(Path target, long fileIndex, long size, PayloadGenerator generator)
+                throws IOException {
+            return copySeed(target);
+        }
+
+        private long copySeed(Path target) throws IOException {
+            if (payload != null) {
+                writeFromMemory(target);
+                return size;
+            }
+            if (source == null) {
+                source = FileChannel.open(seed, StandardOpenOption.READ);
+            }
+
+            try (FileChannel channel = FileChannel.open(target, OPEN_OPTIONS)) {
+                timer.lap(Phase.OPEN);
+                long position = 0;
+                while (position < size) {
+                    long transferred = source.transferTo(position, size - position, channel);
+                    if (transferred <= 0) {
+                        throw new IOException("Seed file was modified during the run: " + seed);
+                    }
+                    position += transferred;
+                }
+                timer.lap(Phase.WRITE);
+                if (fsync) {
+                    channel.force(true);
+                }
+            }
+            timer.lap(Phase.CLOSE);
+            return size;
+        }
+
+        private void writeFromMemory(Path target) throws IOException {
+            ByteBuffer view = payload.duplicate();
+            try (FileChannel channel = FileChannel.open(target, OPEN_OPTIONS)) {
+                timer.lap(Phase.OPEN);
+                while (view.hasRemaining()) {
+                    channel.write(view);
+                }
+                timer.lap(Phase.WRITE);
+                if (fsync) {
+                    channel.force(true);
+                }
+            }
+            timer.lap(Phase.CLOSE);
+        }
+
+        @Override
+        public void close() {
+            if (source != null) {
+                try {
+                    source.close();
+                } catch (IOException e) {
+                    // Read-only channel, nothing was buffered
+                }
+            }
+        }
+    }
+}
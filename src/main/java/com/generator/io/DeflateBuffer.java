@@ -0,0 +1,107 @@
+package com.generator.io;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Raw deflate compressor writing into a reusable, growable output array, with the CRC-32 of its input.
+ * Each archive session owns one, so compression needs no locking and runs on every worker at once.
+ */
+final class DeflateBuffer {
+
+    private static final int GZIP_HEADER_SIZE = 10;
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final CRC32 crc = new CRC32();
+    private byte[] output = new byte[64 * 1024];
+    private int length;
+
+    /**
+     * Starts a new deflate stream with empty output
+     */
+    void reset() {
+        deflater.reset();
+        crc.reset();
+        length = 0;
+    }
+
+    /**
+     * Compresses input into the output; call with {@code finish} set for the last input of the stream
+     */
+    void deflate(byte[] input, int offset, int count, boolean finish) {
+        crc.update(input, offset, count);
+        deflater.setInput(input, offset, count);
+        if (finish) {
+            deflater.finish();
+        }
+        while (finish ? !deflater.finished() : !deflater.needsInput()) {
+            if (length == output.length) {
+                output = Arrays.copyOf(output, output.length * 2);
+            }
+            length += deflater.deflate(output, length, output.length - length);
+        }
+    }
+
+    /**
+     * Compresses input as one complete gzip member, which can be concatenated with other members
+     * to form a valid gzip stream
+     */
+    void gzipMember(byte[] input, int offset, int count) {
+        reset();
+        length = GZIP_HEADER_SIZE;
+        output[0] = (byte) 0x1f;
+        output[1] = (byte) 0x8b;
+        output[2] = Deflater.DEFLATED;
+        for (int i = 3; i < GZIP_HEADER_SIZE - 1; i++) {
+            output[i] = 0;
+        }
+        output[GZIP_HEADER_SIZE - 1] = (byte) 0xff;
+        deflate(input, offset, count, true);
+        appendIntLE((int) crc.getValue());
+        appendIntLE(count);
+    }
+
+    /**
+     * Drops the output produced so far, keeping the stream's state
+     */
+    void clearOutput() {
+        length = 0;
+    }
+
+    byte[] output() {
+        return output;
+    }
+
+    int length() {
+        return length;
+    }
+
+    long crc() {
+        return crc.getValue();
+    }
+
+    long bytesRead() {
+        return deflater.getBytesRead();
+    }
+
+    long bytesWritten() {
+        return deflater.getBytesWritten();
+    }
+
+    /**
+     * Releases the native compressor
+     */
+    void end() {
+        deflater.end();
+    }
+
+    private void appendIntLE(int value) {
+        if (length + 4 > output.length) {
+            output = Arrays.copyOf(output, output.length * 2);
+        }
+        for (int i = 0; i < 4; i++) {
+            output[length++] = (byte) (value >>> (8 * i));
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.generator.io;
+
+import com.generator.model.ChecksumType;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+/**
+ * Checksum of one file at a time, fed with the bytes as they are written so the file is never read back.
+ * Not thread-safe: every worker owns one and resets it for each file.
+ */
+public abstract class FileDigest {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private FileDigest() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the running JVM does not support the checksum
+     */
+    public static FileDigest create(ChecksumType type) {
+        if (!type.isSupported()) {
+            throw new IllegalArgumentException("Checksum " + type.getName() + " needs a newer Java version");
+        }
+        switch (type) {
+            case CRC32C:
+                return new ChecksumDigest(newCrc32c());
+            case CRC32:
+                return new Crc32Digest();
+            case SHA256:
+                return new MessageDigestFile("SHA-256");
+            default:
+                throw new IllegalArgumentException("Unsupported checksum: " + type);
+        }
+    }
+
+    /**
+     * CRC32C only exists from Java 9 on, while the project targets Java 8
+     */
+    private static Checksum newCrc32c() {
+        try {
+            return (Checksum) Class.forName("java.util.zip.CRC32C").getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Checksum crc32c needs Java 9 or later", e);
+        }
+    }
+
+    /**
+     * Starts the checksum of a new file
+     */
+    public abstract void reset();
+
+    /**
+     * Adds the bytes between the buffer's position and limit, leaving the position unchanged
+     */
+    public final void update(ByteBuffer bytes) {
+        int position = bytes.position();
+        consume(bytes);
+        bytes.position(position);
+    }
+
+    public abstract void update(byte[] bytes, int offset, int length);
+
+    /**
+     * Adds the remaining bytes of the buffer, moving its position to its limit
+     */
+    abstract void consume(ByteBuffer bytes);
+
+    /**
+     * @return the checksum of the bytes added since the last reset, as lower-case hex
+     */
+    public abstract String finish();
+
+    static String hex(long value, int digits) {
+        char[] text = new char[digits];
+        for (int i = digits - 1; i >= 0; i--) {
+            text[i] = HEX_DIGITS[(int) value & 0xF];
+            value >>>= 4;
+        }
+        return new String(text);
+    }
+
+    private static final class Crc32Digest extends FileDigest {
+        private final CRC32 crc = new CRC32();
+
+        @Override
+        public void reset() {
+            crc.reset();
+        }
+
+        @Override
+        public void update(byte[] bytes, int offset, int length) {
+            crc.update(bytes, offset, length);
+        }
+
+        @Override
+        void consume(ByteBuffer bytes) {
+            crc.update(bytes);
+        }
+
+        @Override
+        public String finish() {
+            return hex(crc.getValue(), 8);
+        }
+    }
+
+    private static final class ChecksumDigest extends FileDigest {
+        /**
+         * Bytes copied out of a direct buffer at a time
+         */
+        private static final int CHUNK_SIZE = 8192;
+
+        private final Checksum checksum;
+        private byte[] chunk;
+
+        ChecksumDigest(Checksum checksum) {
+            this.checksum = checksum;
+        }
+
+        @Override
+        public void reset() {
+            checksum.reset();
+        }
+
+        @Override
+        public void update(byte[] bytes, int offset, int length) {
+            checksum.update(bytes, offset, length);
+        }
+
+        @Override
+        void consume(ByteBuffer bytes) {
+            // Checksum.update(ByteBuffer) only exists from Java 9 on, so drain the buffer through arrays
+            if (bytes.hasArray()) {
+                checksum.update(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+                bytes.position(bytes.limit());
+                return;
+            }
+            if (chunk == null) {
+                chunk = new byte[CHUNK_SIZE];
+            }
+            while (bytes.hasRemaining()) {
+                int length = Math.min(bytes.remaining(), chunk.length);
+                bytes.get(chunk, 0, length);
+                checksum.update(chunk, 0, length);
+            }
+        }
+
+        @Override
+        public String finish() {
+            return hex(checksum.getValue(), 8);
+        }
+    }
+
+    private static final class MessageDigestFile extends FileDigest {
+        private final MessageDigest digest;
+
+        MessageDigestFile(String algorithm) {
+            try {
+                digest = MessageDigest.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalArgumentException("Checksum " + algorithm + " is not available", e);
+            }
+        }
+
+        @Override
+        public void reset() {
+            digest.reset();
+        }
+
+        @Override
+        public void update(byte[] bytes, int offset, int length) {
+            digest.update(bytes, offset, length);
+        }
+
+        @Override
+        void consume(ByteBuffer bytes) {
+            digest.update(bytes);
+        }
+
+        @Override
+        public String finish() {
+            byte[] hash = digest.digest();
+            char[] text = new char[hash.length * 2];
+            for (int i = 0; i < hash.length; i++) {
+                text[2 * i] = HEX_DIGITS[(hash[i] >>> 4) & 0xF];
+                text[2 * i + 1] = HEX_DIGITS[hash[i] & 0xF];
+            }
+            return new String(text);
+        }
+    }
+}
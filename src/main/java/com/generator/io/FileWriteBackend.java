@@ -0,0 +1,79 @@
+package com.generator.io;
+
+import com.generator.metrics.PhaseTimer;
+import com.generator.model.WriteBackendType;
+import com.generator.payload.PayloadGenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Strategy for writing rendered file content to disk.
+ * A backend is shared by the whole run; each worker thread opens its own {@link Session},
+ * which owns any per-thread buffers and is never used concurrently.
+ */
+public interface FileWriteBackend {
+
+    /**
+     * Opens a session for the calling worker thread
+     * @param timer receives the open, write and close laps of every file; the caller starts it
+     *              and records the render lap before each write
+     */
+    Session openSession(PhaseTimer timer);
+
+    /**
+     * Opens a session that records no timings
+     */
+    default Session openSession() {
+        return openSession(PhaseTimer.disabled());
+    }
+
+    /**
+     * Creates the backend selected for a run
+     * @param fsync whether every file is forced to the storage device before it is closed
+     * @param bufferSize size of each session's write buffer, i.e. the chunk size for streamed payloads
+     */
+    static FileWriteBackend create(WriteBackendType type, boolean fsync, int bufferSize) {
+        switch (type) {
+            case FILE_WRITER:
+                return new FileWriterBackend(fsync, bufferSize);
+            case NIO_CHANNEL:
+                return new NioChannelBackend(fsync, new DirectBufferPool(bufferSize));
+            case MEMORY_MAPPED:
+                throw new IllegalArgumentException("Memory-mapped files are written with MappedFileWriter");
+            default:
+                throw new IllegalArgumentException("Unsupported write backend: " + type);
+        }
+    }
+
+    /**
+     * Per-worker writer. Closing the session releases its buffers.
+     */
+    interface Session extends Closeable {
+
+        /**
+         * Creates or truncates the target file and writes the content to it
+         * @return number of bytes written
+         */
+        long write(Path target, CharSequence content) throws IOException;
+
+        /**
+         * Creates or truncates the target file and writes the bytes remaining in the buffer as they are,
+         * for content that was rendered and encoded ahead of time
+         * @return number of bytes written
+         */
+        long write(Path target, ByteBuffer content) throws IOException;
+
+        /**
+         * Creates or truncates the target file and streams {@code size} generated bytes into it,
+         * one buffer-sized chunk at a time
+         * @return number of bytes written
+         */
+        long writePayload(Path target, long fileIndex, long size, PayloadGenerator generator) throws IOException;
+
+        @Override
+        void close();
+    }
+}
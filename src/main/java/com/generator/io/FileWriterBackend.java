@@ -0,0 +1,128 @@
+package com.generator.io;
+
+import com.generator.metrics.Phase;
+import com.generator.metrics.PhaseTimer;
+import com.generator.payload.PayloadGenerator;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * The original {@code java.io} write path: a writer over a {@link FileOutputStream} using the
+ * platform default charset, exactly what {@code new FileWriter(file)} does.
+ * Kept for compatibility and for comparison with the NIO backend.
+ */
+public class FileWriterBackend implements FileWriteBackend {
+
+    private final boolean fsync;
+    private final int bufferSize;
+
+    public FileWriterBackend(boolean fsync, int bufferSize) {
+        this.fsync = fsync;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public Session openSession(PhaseTimer timer) {
+        return new WriterSession(timer);
+    }
+
+    private class WriterSession implements Session {
+        private final PhaseTimer timer;
+        private char[] chars = new char[256];
+        private ByteBuffer chunk;
+
+        WriterSession(PhaseTimer timer) {
+            this.timer = timer;
+        }
+
+        @Override
+        public long write(Path target, CharSequence content) throws IOException {
+            int length = content.length();
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            copyChars(content, chars, length);
+
+            // Same as FileWriter, but keeps hold of the stream so the descriptor can be synced
+            long written;
+            try (FileOutputStream stream = new FileOutputStream(target.toFile());
+                 Writer writer = new OutputStreamWriter(stream)) {
+                timer.lap(Phase.OPEN);
+                writer.write(chars, 0, length);
+                writer.flush();
+                written = stream.getChannel().position();
+                timer.lap(Phase.WRITE);
+                if (fsync) {
+                    stream.getFD().sync();
+                }
+            }
+            timer.lap(Phase.CLOSE);
+            return written;
+        }
+
+        @Override
+        public long write(Path target, ByteBuffer content) throws IOException {
+            int length = content.remaining();
+            try (FileOutputStream stream = new FileOutputStream(target.toFile())) {
+                timer.lap(Phase.OPEN);
+                while (content.hasRemaining()) {
+                    stream.getChannel().write(content);
+                }
+                timer.lap(Phase.WRITE);
+                if (fsync) {
+                    stream.getFD().sync();
+                }
+            }
+            timer.lap(Phase.CLOSE);
+            return length;
+        }
+
+        @Override
+        public long writePayload(Path target, long fileIndex, long size, PayloadGenerator generator)
+                throws IOException {
+            if (chunk == null) {
+                chunk = ByteBuffer.allocate(bufferSize);
+            }
+
+            try (FileOutputStream stream = new FileOutputStream(target.toFile())) {
+                timer.lap(Phase.OPEN);
+                for (long written = 0; written < size; written += chunk.limit()) {
+                    chunk.clear();
+                    chunk.limit((int) Math.min(chunk.capacity(), size - written));
+                    generator.fill(chunk, fileIndex, written);
+                    stream.write(chunk.array(), 0, chunk.limit());
+                }
+                timer.lap(Phase.WRITE);
+                if (fsync) {
+                    stream.getFD().sync();
+                }
+            }
+            timer.lap(Phase.CLOSE);
+            return size;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Copies the first {@code length} characters into the array, without creating a String
+     */
+    static void copyChars(CharSequence content, char[] target, int length) {
+        if (content instanceof StringBuilder) {
+            ((StringBuilder) content).getChars(0, length, target, 0);
+        } else if (content instanceof String) {
+            ((String) content).getChars(0, length, target, 0);
+        } else {
+            for (int i = 0; i < length; i++) {
+                target[i] = content.charAt(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.generator.io;
+
+import com.generator.metrics.Phase;
+import com.generator.metrics.PhaseTimer;
+import com.generator.payload.PayloadGenerator;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Writes one large file from several threads at once through memory mappings.
+ * The file is first extended to its final length, then split into page-aligned regions; each
+ * thread owns one region and fills it through {@link MappedByteBuffer} windows, so the payload
+ * is produced at memory speed and written back by the kernel's page cache.
+ * Java has no portable fallocate, so the length is reserved with {@link RandomAccessFile#setLength},
+ * which leaves a sparse file on most filesystems until the regions are filled.
+ */
+public class MappedFileWriter {
+
+    /**
+     * Largest mapping held at a time by one thread
+     */
+    static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * Smallest region worth handing to a separate thread
+     */
+    static final long MIN_REGION_SIZE = 4L * 1024 * 1024;
+
+    private static final long PAGE_SIZE = 4096;
+
+    private final ExecutorService pool;
+    private final int threads;
+    private final boolean fsync;
+
+    /**
+     * @param pool executor that runs the region writers; it must have at least {@code threads} threads
+     */
+    public MappedFileWriter(ExecutorService pool, int threads, boolean fsync) {
+        this.pool = pool;
+        this.threads = threads;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Creates or resizes the target and fills it with {@code size} generated bytes
+     * @param generators supplies one generator per region, since generators are not thread-safe
+     * @param stopRequested polled between windows; the file is left incomplete once it returns true
+     * @param timer receives the open, write and close laps; the caller starts it
+     * @return number of bytes written
+     */
+    public long write(Path target, long fileIndex, long size, Supplier<PayloadGenerator> generators,
+                      BooleanSupplier stopRequested, PhaseTimer timer) throws IOException, InterruptedException {
+        return write(target, fileIndex, size, generators, stopRequested, timer, null);
+    }
+
+    /**
+     * Creates or resizes the target, fills it with {@code size} generated bytes and checksums it.
+     * The regions are filled in parallel but a checksum needs the bytes in order, so the digest runs
+     * over the mappings once they are filled, while the pages are still in memory.
+     * @param digest receives the file's bytes, or null to compute no checksum
+     * @return number of bytes written
+     */
+    public long write(Path target, long fileIndex, long size, Supplier<PayloadGenerator> generators,
+                      BooleanSupplier stopRequested, PhaseTimer timer, FileDigest digest)
+            throws IOException, InterruptedException {
+        try (RandomAccessFile file = new RandomAccessFile(target.toFile(), "rw")) {
+            file.setLength(size);
+            FileChannel channel = file.getChannel();
+            timer.lap(Phase.OPEN);
+
+            long regions = Math.max(1, Math.min(threads, (size + MIN_REGION_SIZE - 1) / MIN_REGION_SIZE));
+            long regionSize = alignToPage((size + regions - 1) / regions);
+
+            List<Future<Void>> parts = new ArrayList<>();
+            for (long start = 0; start < size; start += regionSize) {
+                long regionStart = start;
+                long regionEnd = Math.min(size, start + regionSize);
+                parts.add(pool.submit(() -> {
+                    fillRegion(channel, fileIndex, regionStart, regionEnd, generators.get(), stopRequested);
+                    return null;
+                }));
+            }
+            awaitParts(parts);
+            if (digest != null) {
+                digest.reset();
+                for (long position = 0; position < size && !stopRequested.getAsBoolean(); position += WINDOW_SIZE) {
+                    digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                                              Math.min(WINDOW_SIZE, size - position)));
+                }
+            }
+            timer.lap(Phase.WRITE);
+
+            if (fsync) {
+                channel.force(true);
+            }
+        }
+        timer.lap(Phase.CLOSE);
+        return size;
+    }
+
+    private void fillRegion(FileChannel channel, long fileIndex, long start, long end, PayloadGenerator generator,
+                            BooleanSupplier stopRequested) throws IOException {
+        for (long position = start; position < end && !stopRequested.getAsBoolean(); position += WINDOW_SIZE) {
+            long length = Math.min(WINDOW_SIZE, end - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_WRITE, position, length);
+            generator.fill(window, fileIndex, position);
+            if (fsync) {
+                window.force();
+            }
+        }
+    }
+
+    /**
+     * Waits for every region so the file is never closed under a running writer, then rethrows the first failure
+     */
+    private static void awaitParts(List<Future<Void>> parts) throws IOException, InterruptedException {
+        Throwable failure = null;
+        for (Future<Void> part : parts) {
+            try {
+                part.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                for (Future<Void> other : parts) {
+                    other.cancel(true);
+                }
+                throw e;
+            }
+        }
+
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new IOException("Mapped write failed", failure);
+        }
+    }
+
+    private static long alignToPage(long value) {
+        return (value + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+    }
+}
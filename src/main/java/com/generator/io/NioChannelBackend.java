@@ -0,0 +1,176 @@
+package com.generator.io;
+
+import com.generator.metrics.Phase;
+import com.generator.metrics.PhaseTimer;
+import com.generator.payload.PayloadGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes files through {@link FileChannel}s from a pooled direct buffer, which the channel hands to the
+ * kernel without the temporary native copy that heap buffers and streams need.
+ * Content is encoded as UTF-8 between heap arrays, where the JDK encoder has its fast path, and then
+ * copied into the direct buffer in bulk. Content larger than one buffer is written in several passes.
+ */
+public class NioChannelBackend implements FileWriteBackend {
+
+    private static final OpenOption[] OPEN_OPTIONS = {
+        StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING
+    };
+
+    private final boolean fsync;
+    private final DirectBufferPool bufferPool;
+
+    public NioChannelBackend(boolean fsync) {
+        this(fsync, new DirectBufferPool(DirectBufferPool.DEFAULT_BUFFER_SIZE));
+    }
+
+    /**
+     * @param bufferPool pool whose buffer size sets the chunk size of streamed payloads
+     */
+    public NioChannelBackend(boolean fsync, DirectBufferPool bufferPool) {
+        this.fsync = fsync;
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    public Session openSession(PhaseTimer timer) {
+        return new ChannelSession(bufferPool.acquire(), timer);
+    }
+
+    private class ChannelSession implements Session {
+        private final ByteBuffer buffer;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer encoded;
+        private final PhaseTimer timer;
+        private char[] chars = new char[256];
+        private CharBuffer charBuffer = CharBuffer.wrap(chars);
+
+        ChannelSession(ByteBuffer buffer, PhaseTimer timer) {
+            this.buffer = buffer;
+            this.encoded = ByteBuffer.allocate(buffer.capacity());
+            this.timer = timer;
+        }
+
+        @Override
+        public long write(Path target, CharSequence content) throws IOException {
+            int length = content.length();
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+                charBuffer = CharBuffer.wrap(chars);
+            }
+            FileWriterBackend.copyChars(content, chars, length);
+            charBuffer.clear();
+            charBuffer.limit(length);
+
+            long written = 0;
+            try (FileChannel channel = FileChannel.open(target, OPEN_OPTIONS)) {
+                timer.lap(Phase.OPEN);
+                encoder.reset();
+                encoded.clear();
+                CoderResult result = encoder.encode(charBuffer, encoded, true);
+                while (result.isOverflow()) {
+                    written += drainEncoded(channel);
+                    result = encoder.encode(charBuffer, encoded, true);
+                }
+                if (result.isError()) {
+                    result.throwException();
+                }
+                while (encoder.flush(encoded).isOverflow()) {
+                    written += drainEncoded(channel);
+                }
+                written += drainEncoded(channel);
+                timer.lap(Phase.WRITE);
+                if (fsync) {
+                    channel.force(true);
+                }
+            } catch (CharacterCodingException e) {
+                throw new IOException("Cannot encode content for " + target, e);
+            }
+            timer.lap(Phase.CLOSE);
+            return written;
+        }
+
+        @Override
+        public long write(Path target, ByteBuffer content) throws IOException {
+            int length = content.remaining();
+            try (FileChannel channel = FileChannel.open(target, OPEN_OPTIONS)) {
+                timer.lap(Phase.OPEN);
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+                timer.lap(Phase.WRITE);
+                if (fsync) {
+                    channel.force(true);
+                }
+            }
+            timer.lap(Phase.CLOSE);
+            return length;
+        }
+
+        @Override
+        public long writePayload(Path target, long fileIndex, long size, PayloadGenerator generator)
+                throws IOException {
+            try (FileChannel channel = FileChannel.open(target, OPEN_OPTIONS)) {
+                timer.lap(Phase.OPEN);
+                long written = 0;
+                while (written < size) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), size - written));
+                    generator.fill(buffer, fileIndex, written);
+                    written += drain(channel);
+                }
+                timer.lap(Phase.WRITE);
+                if (fsync) {
+                    channel.force(true);
+                }
+            }
+            timer.lap(Phase.CLOSE);
+            return size;
+        }
+
+        /**
+         * Copies the encoded bytes into the direct buffer, writes them to the channel and clears both buffers
+         * @return number of bytes written
+         */
+        private int drainEncoded(FileChannel channel) throws IOException {
+            encoded.flip();
+            buffer.clear();
+            buffer.put(encoded);
+            encoded.clear();
+            return drain(channel);
+        }
+
+        /**
+         * Writes the buffer's contents to the channel and clears it
+         * @return number of bytes written
+         */
+        private int drain(FileChannel channel) throws IOException {
+            buffer.flip();
+            int length = buffer.remaining();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+            return length;
+        }
+
+        @Override
+        public void close() {
+            bufferPool.release(buffer);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.generator.io;
+
+import com.generator.metrics.PhaseTimer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Writes a POSIX ustar archive, optionally gzip-compressed.
+ * With gzip every block is compressed as an independent gzip member on the worker that filled it, the
+ * way pigz splits its input; concatenated members form a valid gzip stream that gzip, tar and
+ * {@link java.util.zip.GZIPInputStream} read as one.
+ */
+final class TarArchiveBackend extends ArchiveBackend {
+
+    private static final int RECORD_SIZE = 512;
+
+    /**
+     * Largest size that fits the 11 octal digits of the header; larger sizes use base-256
+     */
+    private static final long MAX_OCTAL_SIZE = 077777777777L;
+
+    private final boolean gzip;
+    private final long modificationTime = System.currentTimeMillis() / 1000;
+
+    TarArchiveBackend(Path archive, Path baseDirectory, int blockSize, boolean fsync, boolean gzip)
+            throws IOException {
+        super(archive, baseDirectory, blockSize, fsync);
+        this.gzip = gzip;
+    }
+
+    @Override
+    public Session openSession(PhaseTimer timer) {
+        return new TarSession(timer);
+    }
+
+    @Override
+    void finish() throws IOException {
+        // Two empty records mark the end of the archive
+        byte[] trailer = new byte[2 * RECORD_SIZE];
+        if (gzip) {
+            DeflateBuffer deflate = new DeflateBuffer();
+            try {
+                deflate.gzipMember(trailer, 0, trailer.length);
+                append(deflate.output(), 0, deflate.length());
+            } finally {
+                deflate.end();
+            }
+        } else {
+            append(trailer, 0, trailer.length);
+        }
+    }
+
+    private static int padding(long size) {
+        return (int) ((RECORD_SIZE - size % RECORD_SIZE) % RECORD_SIZE);
+    }
+
+    /**
+     * Writes a ustar header for a regular file into the record at {@code offset}
+     * @throws IOException if the name cannot be stored in a ustar header
+     */
+    private void writeHeader(byte[] record, int offset, String name, long size) throws IOException {
+        Arrays.fill(record, offset, offset + RECORD_SIZE, (byte) 0);
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int split = 0;
+        if (bytes.length > 100) {
+            // ustar stores long names as a prefix of up to 155 bytes and a name of up to 100 bytes
+            for (int i = bytes.length - 101; i < bytes.length && split == 0; i++) {
+                if (i > 0 && i <= 155 && bytes[i] == '/') {
+                    split = i;
+                }
+            }
+            if (split == 0) {
+                throw new IOException("Entry name is too long for a tar archive: " + name);
+            }
+            System.arraycopy(bytes, 0, record, offset + 345, split);
+            split++;
+        }
+        System.arraycopy(bytes, split, record, offset, bytes.length - split);
+
+        writeOctal(record, offset + 100, 8, 0644);
+        writeOctal(record, offset + 108, 8, 0);
+        writeOctal(record, offset + 116, 8, 0);
+        if (size <= MAX_OCTAL_SIZE) {
+            writeOctal(record, offset + 124, 12, size);
+        } else {
+            record[offset + 124] = (byte) 0x80;
+            for (int i = 0; i < 8; i++) {
+                record[offset + 135 - i] = (byte) (size >>> (8 * i));
+            }
+        }
+        writeOctal(record, offset + 136, 12, modificationTime);
+        record[offset + 156] = '0';
+        System.arraycopy("ustar\u000000".getBytes(StandardCharsets.US_ASCII), 0, record, offset + 257, 8);
+
+        Arrays.fill(record, offset + 148, offset + 156, (byte) ' ');
+        long checksum = 0;
+        for (int i = 0; i < RECORD_SIZE; i++) {
+            checksum += record[offset + i] & 0xff;
+        }
+        writeOctal(record, offset + 148, 7, checksum);
+    }
+
+    /**
+     * Writes a zero-padded octal number followed by a NUL into a field of the given width
+     */
+    private static void writeOctal(byte[] record, int offset, int width, long value) {
+        record[offset + width - 1] = 0;
+        for (int i = width - 2; i >= 0; i--) {
+            record[offset + i] = (byte) ('0' + (value & 7));
+            value >>>= 3;
+        }
+    }
+
+    private class TarSession extends ArchiveSession {
+        private final byte[] block = new byte[blockSize];
+        private final DeflateBuffer deflate = gzip ? new DeflateBuffer() : null;
+        private int used;
+
+        TarSession(PhaseTimer timer) {
+            super(timer);
+        }
+
+        @Override
+        long maxBufferedEntrySize() {
+            return block.length - RECORD_SIZE - (RECORD_SIZE - 1);
+        }
+
+        @Override
+        void addEntry(String name, byte[] data, int length) throws IOException {
+            int padding = padding(length);
+            if (used + RECORD_SIZE + length + padding > block.length) {
+                flush();
+            }
+            writeHeader(block, used, name, length);
+            used += RECORD_SIZE;
+            System.arraycopy(data, 0, block, used, length);
+            used += length;
+            Arrays.fill(block, used, used + padding, (byte) 0);
+            used += padding;
+        }
+
+        @Override
+        void streamEntry(String name, long size, EntryData data) throws IOException {
+            // The block doubles as the chunk buffer, so send its entries first
+            flush();
+            byte[] header = new byte[RECORD_SIZE];
+            writeHeader(header, 0, name, size);
+            emit(header, header.length);
+            for (int count = data.read(block); count > 0; count = data.read(block)) {
+                emit(block, count);
+            }
+            emit(new byte[padding(size)], padding(size));
+        }
+
+        @Override
+        void flush() throws IOException {
+            if (used > 0) {
+                emit(block, used);
+                used = 0;
+            }
+        }
+
+        @Override
+        void release() {
+            if (deflate != null) {
+                deflate.end();
+            }
+        }
+
+        /**
+         * Appends bytes to the archive, as a gzip member when compressing
+         */
+        private void emit(byte[] bytes, int length) throws IOException {
+            if (deflate == null) {
+                append(bytes, 0, length);
+            } else if (length > 0) {
+                deflate.gzipMember(bytes, 0, length);
+                append(deflate.output(), 0, deflate.length());
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.generator.io;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes rendered content as UTF-8 into a reusable heap array, where the JDK encoder has its fast path.
+ * One encoder per thread; the returned buffer is only valid until the next call.
+ */
+public final class Utf8Encoder {
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private char[] chars = new char[256];
+    private byte[] bytes = new byte[1024];
+
+    /**
+     * @return a heap buffer over the encoded bytes, from position 0 to its limit
+     */
+    public ByteBuffer encode(CharSequence content) throws CharacterCodingException {
+        int length = content.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        FileWriterBackend.copyChars(content, chars, length);
+        // UTF-8 needs at most three bytes per char, so the output never overflows
+        if (bytes.length < length * 3L) {
+            bytes = new byte[(int) Math.min(Integer.MAX_VALUE - 8, Math.max(length * 3L, bytes.length * 2L))];
+        }
+
+        ByteBuffer output = ByteBuffer.wrap(bytes);
+        encoder.reset();
+        CoderResult result = encoder.encode(CharBuffer.wrap(chars, 0, length), output, true);
+        if (!result.isUnderflow()) {
+            result.throwException();
+        }
+        result = encoder.flush(output);
+        if (!result.isUnderflow()) {
+            result.throwException();
+        }
+        output.flip();
+        return output;
+    }
+}
@@ -0,0 +1,341 @@
+package com.generator.io;
+
+import com.generator.metrics.PhaseTimer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a zip archive of deflated entries.
+ * Workers deflate their entries in parallel and pack local headers and data into their blocks; the
+ * central directory records are written to a temporary file next to the archive as the blocks are
+ * appended, since millions of them would not fit in memory, and copied behind the entries at the end.
+ * Zip64 records are used for archives with more than 65,534 entries or more than 4 GiB, and for
+ * entries larger than 4 GiB.
+ */
+final class ZipArchiveBackend extends ArchiveBackend {
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int DATA_DESCRIPTOR = 0x08074b50;
+    private static final int ZIP64_END = 0x06064b50;
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+    private static final int END = 0x06054b50;
+
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int FLAG_UTF8 = 0x0800;
+    private static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+    private static final int METHOD_DEFLATED = 8;
+    private static final int VERSION_DEFAULT = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final long MAX_32 = 0xFFFFFFFFL;
+    private static final int MAX_16 = 0xFFFF;
+
+    /**
+     * Streamed entries of at least this size get Zip64 sizes, leaving room for deflate's worst-case expansion
+     */
+    private static final long ZIP64_STREAM_THRESHOLD = MAX_32 - MAX_32 / 64;
+
+    private final int dosTime;
+    private final int dosDate;
+    private final Path centralFile;
+    private final OutputStream central;
+    private final byte[] centralRecord = new byte[CENTRAL_HEADER_SIZE + 0x10000 + 28];
+    private long entries;
+    private long centralSize;
+
+    ZipArchiveBackend(Path archive, Path baseDirectory, int blockSize, boolean fsync) throws IOException {
+        super(archive, baseDirectory, blockSize, fsync);
+        LocalDateTime now = LocalDateTime.now();
+        dosTime = now.getHour() << 11 | now.getMinute() << 5 | now.getSecond() / 2;
+        dosDate = (Math.max(now.getYear(), 1980) - 1980) << 9 | now.getMonthValue() << 5 | now.getDayOfMonth();
+        centralFile = archive.resolveSibling(archive.getFileName() + ".central.tmp");
+        central = new BufferedOutputStream(Files.newOutputStream(centralFile), 1024 * 1024);
+    }
+
+    @Override
+    public Session openSession(PhaseTimer timer) {
+        return new ZipSession(timer);
+    }
+
+    @Override
+    void finish() throws IOException {
+        try {
+            central.close();
+            long centralOffset = position();
+            byte[] chunk = new byte[1024 * 1024];
+            try (InputStream input = Files.newInputStream(centralFile)) {
+                for (int count = input.read(chunk); count > 0; count = input.read(chunk)) {
+                    append(chunk, 0, count);
+                }
+            }
+
+            byte[] end = new byte[56 + 20 + 22];
+            int length = 0;
+            boolean zip64 = entries >= MAX_16 || centralSize >= MAX_32 || centralOffset >= MAX_32;
+            if (zip64) {
+                long zip64EndOffset = position();
+                putInt(end, 0, ZIP64_END);
+                putLong(end, 4, 44);
+                putShort(end, 12, VERSION_ZIP64);
+                putShort(end, 14, VERSION_ZIP64);
+                putLong(end, 24, entries);
+                putLong(end, 32, entries);
+                putLong(end, 40, centralSize);
+                putLong(end, 48, centralOffset);
+                putInt(end, 56, ZIP64_LOCATOR);
+                putLong(end, 64, zip64EndOffset);
+                putInt(end, 72, 1);
+                length = 76;
+            }
+            putInt(end, length, END);
+            putShort(end, length + 8, (int) Math.min(entries, MAX_16));
+            putShort(end, length + 10, (int) Math.min(entries, MAX_16));
+            putInt(end, length + 12, (int) Math.min(centralSize, MAX_32));
+            putInt(end, length + 16, (int) Math.min(centralOffset, MAX_32));
+            append(end, 0, length + 22);
+        } finally {
+            Files.deleteIfExists(centralFile);
+        }
+    }
+
+    /**
+     * Writes a local file header
+     * @param streamed true if the CRC and sizes follow the data in a data descriptor
+     * @return header length
+     */
+    private int writeLocalHeader(byte[] target, int offset, byte[] name, long crc, long compressedSize,
+                                 long size, boolean streamed, boolean zip64) {
+        putInt(target, offset, LOCAL_HEADER);
+        putShort(target, offset + 4, zip64 ? VERSION_ZIP64 : VERSION_DEFAULT);
+        putShort(target, offset + 6, FLAG_UTF8 | (streamed ? FLAG_DATA_DESCRIPTOR : 0));
+        putShort(target, offset + 8, METHOD_DEFLATED);
+        putShort(target, offset + 10, dosTime);
+        putShort(target, offset + 12, dosDate);
+        putInt(target, offset + 14, (int) crc);
+        putInt(target, offset + 18, zip64 ? -1 : (int) compressedSize);
+        putInt(target, offset + 22, zip64 ? -1 : (int) size);
+        putShort(target, offset + 26, name.length);
+        putShort(target, offset + 28, zip64 ? 20 : 0);
+        System.arraycopy(name, 0, target, offset + LOCAL_HEADER_SIZE, name.length);
+        int length = LOCAL_HEADER_SIZE + name.length;
+        if (zip64) {
+            // Sizes are in the data descriptor
+            putShort(target, offset + length, 1);
+            putShort(target, offset + length + 2, 16);
+            putLong(target, offset + length + 4, 0);
+            putLong(target, offset + length + 12, 0);
+            length += 20;
+        }
+        return length;
+    }
+
+    /**
+     * Adds the central directory record of an entry. Called holding the lock.
+     */
+    private void writeCentralRecord(byte[] name, long crc, long compressedSize, long size, long offset,
+                                    boolean streamed) throws IOException {
+        byte[] record = centralRecord;
+        boolean largeSize = size >= MAX_32;
+        boolean largeCompressedSize = compressedSize >= MAX_32;
+        boolean largeOffset = offset >= MAX_32;
+        int extra = (largeSize ? 8 : 0) + (largeCompressedSize ? 8 : 0) + (largeOffset ? 8 : 0);
+        boolean zip64 = extra > 0 || (streamed && size >= ZIP64_STREAM_THRESHOLD);
+
+        putInt(record, 0, CENTRAL_HEADER);
+        putShort(record, 4, VERSION_ZIP64);
+        putShort(record, 6, zip64 ? VERSION_ZIP64 : VERSION_DEFAULT);
+        putShort(record, 8, FLAG_UTF8 | (streamed ? FLAG_DATA_DESCRIPTOR : 0));
+        putShort(record, 10, METHOD_DEFLATED);
+        putShort(record, 12, dosTime);
+        putShort(record, 14, dosDate);
+        putInt(record, 16, (int) crc);
+        putInt(record, 20, largeCompressedSize ? -1 : (int) compressedSize);
+        putInt(record, 24, largeSize ? -1 : (int) size);
+        putShort(record, 28, name.length);
+        putShort(record, 30, extra > 0 ? extra + 4 : 0);
+        putShort(record, 32, 0);
+        putShort(record, 34, 0);
+        putShort(record, 36, 0);
+        putInt(record, 38, 0);
+        putInt(record, 42, largeOffset ? -1 : (int) offset);
+        System.arraycopy(name, 0, record, CENTRAL_HEADER_SIZE, name.length);
+        int length = CENTRAL_HEADER_SIZE + name.length;
+        if (extra > 0) {
+            putShort(record, length, 1);
+            putShort(record, length + 2, extra);
+            length += 4;
+            if (largeSize) {
+                putLong(record, length, size);
+                length += 8;
+            }
+            if (largeCompressedSize) {
+                putLong(record, length, compressedSize);
+                length += 8;
+            }
+            if (largeOffset) {
+                putLong(record, length, offset);
+                length += 8;
+            }
+        }
+        central.write(record, 0, length);
+        centralSize += length;
+        entries++;
+    }
+
+    private static byte[] nameBytes(String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_16) {
+            throw new IOException("Entry name is too long for a zip archive: " + name);
+        }
+        return bytes;
+    }
+
+    private static void putShort(byte[] target, int offset, int value) {
+        target[offset] = (byte) value;
+        target[offset + 1] = (byte) (value >>> 8);
+    }
+
+    private static void putInt(byte[] target, int offset, int value) {
+        for (int i = 0; i < 4; i++) {
+            target[offset + i] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    private static void putLong(byte[] target, int offset, long value) {
+        for (int i = 0; i < 8; i++) {
+            target[offset + i] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    /**
+     * Entry packed into a session's block, waiting for the block's archive offset
+     */
+    private static final class PendingEntry {
+        final byte[] name;
+        final long crc;
+        final long compressedSize;
+        final long size;
+        final int blockOffset;
+
+        PendingEntry(byte[] name, long crc, long compressedSize, long size, int blockOffset) {
+            this.name = name;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.blockOffset = blockOffset;
+        }
+    }
+
+    private class ZipSession extends ArchiveSession {
+        private final byte[] block = new byte[blockSize];
+        private final DeflateBuffer deflate = new DeflateBuffer();
+        private final List<PendingEntry> pending = new ArrayList<>();
+        private int used;
+
+        ZipSession(PhaseTimer timer) {
+            super(timer);
+        }
+
+        @Override
+        long maxBufferedEntrySize() {
+            return block.length / 2;
+        }
+
+        @Override
+        void addEntry(String name, byte[] data, int length) throws IOException {
+            byte[] nameBytes = nameBytes(name);
+            deflate.reset();
+            deflate.deflate(data, 0, length, true);
+            int compressedSize = deflate.length();
+            int entrySize = LOCAL_HEADER_SIZE + nameBytes.length + compressedSize;
+            if (used + entrySize > block.length) {
+                flush();
+            }
+
+            if (entrySize > block.length) {
+                // Incompressible data with a long name can outgrow the block
+                byte[] header = new byte[LOCAL_HEADER_SIZE + nameBytes.length];
+                writeLocalHeader(header, 0, nameBytes, deflate.crc(), compressedSize, length, false, false);
+                synchronized (lock) {
+                    long offset = append(header, 0, header.length);
+                    append(deflate.output(), 0, compressedSize);
+                    writeCentralRecord(nameBytes, deflate.crc(), compressedSize, length, offset, false);
+                }
+                return;
+            }
+
+            int headerSize = writeLocalHeader(block, used, nameBytes, deflate.crc(), compressedSize, length,
+                                              false, false);
+            System.arraycopy(deflate.output(), 0, block, used + headerSize, compressedSize);
+            pending.add(new PendingEntry(nameBytes, deflate.crc(), compressedSize, length, used));
+            used += entrySize;
+        }
+
+        @Override
+        void streamEntry(String name, long size, EntryData data) throws IOException {
+            // The block doubles as the chunk buffer, so send its entries first
+            flush();
+            byte[] nameBytes = nameBytes(name);
+            boolean zip64 = size >= ZIP64_STREAM_THRESHOLD;
+            byte[] header = new byte[LOCAL_HEADER_SIZE + nameBytes.length + 20];
+            int headerSize = writeLocalHeader(header, 0, nameBytes, 0, 0, 0, true, zip64);
+            long offset = append(header, 0, headerSize);
+
+            deflate.reset();
+            for (int count = data.read(block); count > 0; count = data.read(block)) {
+                deflate.deflate(block, 0, count, false);
+                append(deflate.output(), 0, deflate.length());
+                deflate.clearOutput();
+            }
+            deflate.deflate(block, 0, 0, true);
+            append(deflate.output(), 0, deflate.length());
+
+            byte[] descriptor = new byte[24];
+            putInt(descriptor, 0, DATA_DESCRIPTOR);
+            putInt(descriptor, 4, (int) deflate.crc());
+            int descriptorSize;
+            if (zip64) {
+                putLong(descriptor, 8, deflate.bytesWritten());
+                putLong(descriptor, 16, deflate.bytesRead());
+                descriptorSize = 24;
+            } else {
+                putInt(descriptor, 8, (int) deflate.bytesWritten());
+                putInt(descriptor, 12, (int) deflate.bytesRead());
+                descriptorSize = 16;
+            }
+            append(descriptor, 0, descriptorSize);
+            writeCentralRecord(nameBytes, deflate.crc(), deflate.bytesWritten(), deflate.bytesRead(), offset, true);
+        }
+
+        @Override
+        void flush() throws IOException {
+            if (used == 0) {
+                return;
+            }
+            synchronized (lock) {
+                long blockOffset = append(block, 0, used);
+                for (PendingEntry entry : pending) {
+                    writeCentralRecord(entry.name, entry.crc, entry.compressedSize, entry.size,
+                                       blockOffset + entry.blockOffset, false);
+                }
+            }
+            pending.clear();
+            used = 0;
+        }
+
+        @Override
+        void release() {
+            deflate.end();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.generator.jobs;
+
+import com.generator.engine.FileGenerationEngine;
+import com.generator.engine.ProgressSnapshot;
+import com.generator.model.FileGenerationParameters;
+
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One generation run submitted to a {@link JobScheduler}: its parameters and priority, the engine that
+ * runs it, and its state and latest progress. The scheduler owns the parameters once a job is submitted
+ * and sets the thread count it grants just before the job starts.
+ */
+public final class GenerationJob {
+
+    /**
+     * Lifecycle of a job; every job ends in one of the last three states
+     */
+    public enum State {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED;
+
+        public boolean isDone() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final JobScheduler scheduler;
+    private final long id;
+    private final int priority;
+    private final FileGenerationParameters parameters;
+    private final FileGenerationEngine engine;
+    private final Object device;
+    private final int requestedThreads;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private volatile State state = State.QUEUED;
+    private volatile ProgressSnapshot progress;
+    private volatile Throwable failure;
+    private volatile boolean cancelRequested;
+    private volatile int grantedThreads;
+
+    GenerationJob(JobScheduler scheduler, long id, int priority, FileGenerationParameters parameters,
+                  Object device) {
+        this.scheduler = scheduler;
+        this.id = id;
+        this.priority = priority;
+        this.parameters = parameters;
+        this.engine = new FileGenerationEngine(parameters);
+        this.device = device;
+        this.requestedThreads = parameters.getThreadCount();
+    }
+
+    /**
+     * @return the job's number, in submission order starting at 1
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return the priority; higher priorities start first
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    public FileGenerationParameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return the engine running the job, e.g. for its rate limiter and metrics
+     */
+    public FileGenerationEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * @return the file store of the output directory; jobs on the same one share a disk
+     */
+    Object getDevice() {
+        return device;
+    }
+
+    int getRequestedThreads() {
+        return requestedThreads;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    void setState(State state) {
+        this.state = state;
+    }
+
+    /**
+     * @return the latest progress snapshot, or null before the job has started
+     */
+    public ProgressSnapshot getProgress() {
+        return progress;
+    }
+
+    void setProgress(ProgressSnapshot progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * @return why the job failed, or null
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    void setFailure(Throwable failure) {
+        this.failure = failure;
+    }
+
+    /**
+     * @return worker threads the scheduler granted, or 0 while queued
+     */
+    public int getGrantedThreads() {
+        return grantedThreads;
+    }
+
+    void setGrantedThreads(int grantedThreads) {
+        this.grantedThreads = grantedThreads;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /**
+     * Removes a queued job from the queue, or stops a running one after the files in progress
+     */
+    public void cancel() {
+        cancelRequested = true;
+        scheduler.cancel(this);
+    }
+
+    /**
+     * Blocks until the job has succeeded, failed or been cancelled
+     */
+    public void await() throws InterruptedException {
+        finished.await();
+    }
+
+    /**
+     * Blocks until the job has ended or the timeout has passed
+     * @return true if the job has ended
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return finished.await(timeout, unit);
+    }
+
+    void markFinished() {
+        finished.countDown();
+    }
+
+    /**
+     * Formats the job for a job list, e.g.
+     * {@code #2 /data/out [RUNNING, 4 threads] Generated 12,345 of 1,000,000 files | ...}
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        text.append('#').append(id).append(' ').append(parameters.getOutputDirectory()).append(" [").append(state);
+        if (state == State.RUNNING) {
+            text.append(String.format(Locale.ROOT, ", %d threads", grantedThreads));
+        } else if (priority != 0) {
+            text.append(", priority ").append(priority);
+        }
+        text.append(']');
+        if (state == State.FAILED && failure != null) {
+            text.append(' ').append(failure.getMessage());
+        } else if (progress != null) {
+            text.append(' ').append(progress.format());
+        }
+        return text.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
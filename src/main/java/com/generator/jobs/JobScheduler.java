@@ -0,0 +1,241 @@
+package com.generator.jobs;
+
+import com.generator.model.FileGenerationParameters;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs several generation jobs, highest priority first and in submission order within a priority.
+ * All jobs draw their worker threads from one bounded budget: a job that starts while others run gets
+ * an equal share of it, at most the threads it asked for, so concurrent jobs get a fair part of the
+ * disk bandwidth. Jobs whose output directories lie on different file stores run in parallel, while
+ * at most {@code jobsPerDevice} jobs run on the same one; with the default of 1 jobs on one disk run
+ * one after the other instead of seeking against each other. Queued jobs on a busy disk do not hold
+ * back jobs for other disks.
+ */
+public final class JobScheduler implements AutoCloseable {
+
+    /**
+     * Receives every change of a job's state and its progress snapshots, from scheduler and engine threads
+     */
+    public interface JobListener {
+        void jobChanged(GenerationJob job);
+    }
+
+    private static final Comparator<GenerationJob> ORDER = Comparator
+            .comparingInt(GenerationJob::getPriority).reversed()
+            .thenComparingLong(GenerationJob::getId);
+
+    private final int maxThreads;
+    private final int jobsPerDevice;
+    private final JobListener listener;
+    private final ExecutorService runners = Executors.newCachedThreadPool(new RunnerThreadFactory());
+    private final TreeSet<GenerationJob> queue = new TreeSet<>(ORDER);
+    private final List<GenerationJob> jobs = new ArrayList<>();
+    private final Map<Object, Integer> runningPerDevice = new HashMap<>();
+    private int freeThreads;
+    private int runningJobs;
+    private long nextId = 1;
+    private boolean closed;
+
+    /**
+     * @param maxThreads worker threads shared by all running jobs
+     * @param jobsPerDevice jobs that may run at once on the same file store
+     * @param listener notified of job changes, or null
+     */
+    public JobScheduler(int maxThreads, int jobsPerDevice, JobListener listener) {
+        if (maxThreads < 1 || jobsPerDevice < 1) {
+            throw new IllegalArgumentException("Thread budget and jobs per device must be at least 1");
+        }
+        this.maxThreads = maxThreads;
+        this.jobsPerDevice = jobsPerDevice;
+        this.listener = listener;
+        this.freeThreads = maxThreads;
+    }
+
+    /**
+     * Queues a job and starts it as soon as its disk and the thread budget allow
+     * @param parameters owned by the scheduler from now on; their thread count is the most the job gets
+     * @param priority higher priorities start first
+     * @throws IllegalStateException if the scheduler has been closed
+     */
+    public GenerationJob submit(FileGenerationParameters parameters, int priority) {
+        Object device = deviceOf(Paths.get(parameters.getOutputDirectory()));
+        GenerationJob job;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The job scheduler has been closed");
+            }
+            job = new GenerationJob(this, nextId++, priority, parameters, device);
+            jobs.add(job);
+            queue.add(job);
+        }
+        notifyListener(job);
+        dispatch();
+        return job;
+    }
+
+    /**
+     * @return every job submitted so far, in submission order
+     */
+    public synchronized List<GenerationJob> getJobs() {
+        return new ArrayList<>(jobs);
+    }
+
+    /**
+     * @return worker threads not granted to any running job
+     */
+    public synchronized int getFreeThreads() {
+        return freeThreads;
+    }
+
+    /**
+     * Cancels every job and stops accepting new ones; running jobs stop after the files in progress
+     */
+    @Override
+    public void close() {
+        List<GenerationJob> all;
+        synchronized (this) {
+            closed = true;
+            all = new ArrayList<>(jobs);
+        }
+        for (GenerationJob job : all) {
+            job.cancel();
+        }
+        runners.shutdown();
+    }
+
+    void cancel(GenerationJob job) {
+        synchronized (this) {
+            // A running job sees the request on its own; a queued one never starts
+            if (!queue.remove(job)) {
+                return;
+            }
+            job.setState(GenerationJob.State.CANCELLED);
+        }
+        job.markFinished();
+        notifyListener(job);
+    }
+
+    /**
+     * Starts queued jobs in priority order while threads are free, skipping jobs whose disk is busy
+     */
+    private void dispatch() {
+        List<GenerationJob> started = new ArrayList<>();
+        synchronized (this) {
+            for (Iterator<GenerationJob> waiting = queue.iterator(); waiting.hasNext() && freeThreads > 0; ) {
+                GenerationJob job = waiting.next();
+                int onDevice = runningPerDevice.getOrDefault(job.getDevice(), 0);
+                if (onDevice >= jobsPerDevice) {
+                    continue;
+                }
+                waiting.remove();
+                runningPerDevice.put(job.getDevice(), onDevice + 1);
+                grantThreads(job);
+                runningJobs++;
+                job.setState(GenerationJob.State.RUNNING);
+                started.add(job);
+            }
+        }
+        for (GenerationJob job : started) {
+            notifyListener(job);
+            runners.execute(() -> run(job));
+        }
+    }
+
+    /**
+     * Grants a starting job its share of the budget. Virtual thread jobs wait on I/O rather than
+     * occupy a core, so they keep their thread count and count as one thread.
+     */
+    private void grantThreads(GenerationJob job) {
+        FileGenerationParameters parameters = job.getParameters();
+        if (parameters.isVirtualThreads()) {
+            freeThreads--;
+            job.setGrantedThreads(1);
+            return;
+        }
+        int share = Math.max(1, maxThreads / (runningJobs + 1));
+        int threads = Math.min(job.getRequestedThreads(), Math.min(share, freeThreads));
+        freeThreads -= threads;
+        job.setGrantedThreads(threads);
+        parameters.setThreadCount(threads);
+    }
+
+    private void run(GenerationJob job) {
+        GenerationJob.State state = GenerationJob.State.SUCCEEDED;
+        try {
+            job.getEngine().generate(job::isCancelRequested, progress -> {
+                job.setProgress(progress);
+                notifyListener(job);
+            });
+            if (job.isCancelRequested()) {
+                state = GenerationJob.State.CANCELLED;
+            }
+        } catch (InterruptedException e) {
+            state = GenerationJob.State.CANCELLED;
+        } catch (IOException | RuntimeException | Error e) {
+            job.setFailure(e);
+            state = GenerationJob.State.FAILED;
+        } finally {
+            synchronized (this) {
+                freeThreads += job.getGrantedThreads();
+                runningJobs--;
+                runningPerDevice.merge(job.getDevice(), -1, Integer::sum);
+                job.setState(state);
+            }
+            job.markFinished();
+            notifyListener(job);
+            dispatch();
+        }
+    }
+
+    private void notifyListener(GenerationJob job) {
+        if (listener != null) {
+            listener.jobChanged(job);
+        }
+    }
+
+    /**
+     * Identifies the disk of a directory by the file store of its closest existing ancestor.
+     * Partitions of one physical disk are separate file stores, so they count as separate devices.
+     * @return the file store, or the path's root if no ancestor can be inspected
+     */
+    static Object deviceOf(Path directory) {
+        Path absolute = directory.toAbsolutePath();
+        for (Path path = absolute; path != null; path = path.getParent()) {
+            if (Files.exists(path)) {
+                try {
+                    return Files.getFileStore(path);
+                } catch (IOException e) {
+                    break;
+                }
+            }
+        }
+        return String.valueOf(absolute.getRoot());
+    }
+
+    private static class RunnerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "file-generator-job-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.generator.manifest;
+
+import com.generator.model.ChecksumType;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Text format of integrity manifests: a header naming the checksum, then one
+ * {@code checksum size path} line per file, with the path relative to the output directory and
+ * {@code /} as separator. Backslashes and line breaks in paths are escaped as {@code \\}, {@code \n}
+ * and {@code \r}, so every entry stays on one line.
+ */
+public final class Manifest {
+
+    static final String HEADER = "# file-generator manifest ";
+
+    private Manifest() {
+    }
+
+    /**
+     * One file recorded in a manifest
+     */
+    public static final class Entry {
+        private final String checksum;
+        private final long size;
+        private final String path;
+
+        Entry(String checksum, long size, String path) {
+            this.checksum = checksum;
+            this.size = size;
+            this.path = path;
+        }
+
+        public String getChecksum() {
+            return checksum;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return the path relative to the output directory, with {@code /} as separator
+         */
+        public String getPath() {
+            return path;
+        }
+    }
+
+    /**
+     * Receives the entries of a manifest as it is read
+     */
+    public interface EntryHandler {
+        void entry(Entry entry);
+    }
+
+    /**
+     * Reads a manifest entry by entry, e.g. to compare a new run against the files an earlier one wrote
+     * @return the checksum the manifest records
+     * @throws IOException if the manifest cannot be read or is malformed
+     */
+    public static ChecksumType read(Path file, EntryHandler handler) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            ChecksumType type = parseHeader(reader.readLine(), file);
+            long lineNumber = 1;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                if (!line.isEmpty()) {
+                    handler.entry(parseEntry(line, lineNumber));
+                }
+            }
+            return type;
+        }
+    }
+
+    static String header(ChecksumType type) {
+        return HEADER + type.getName();
+    }
+
+    /**
+     * @throws IOException if the line is not a manifest header
+     */
+    static ChecksumType parseHeader(String line, Object source) throws IOException {
+        if (line == null || !line.startsWith(HEADER)) {
+            throw new IOException(source + " is not a file generator manifest");
+        }
+        ChecksumType type;
+        try {
+            type = ChecksumType.forName(line.substring(HEADER.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IOException(source + ": " + e.getMessage(), e);
+        }
+        if (!type.isSupported()) {
+            throw new IOException(source + " records " + type.getName() + " checksums, which need Java 9 or later");
+        }
+        return type;
+    }
+
+    /**
+     * Appends the line of one file, including its line break
+     */
+    public static void appendEntry(StringBuilder out, String checksum, long size, CharSequence path) {
+        out.append(checksum).append(' ').append(size).append(' ');
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == File.separatorChar) {
+                out.append('/');
+            } else if (c == '\\') {
+                out.append("\\\\");
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else if (c == '\r') {
+                out.append("\\r");
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('\n');
+    }
+
+    /**
+     * Parses the line of one file
+     * @throws IOException if the line is malformed
+     */
+    static Entry parseEntry(String line, long lineNumber) throws IOException {
+        int first = line.indexOf(' ');
+        int second = first < 0 ? -1 : line.indexOf(' ', first + 1);
+        if (first <= 0 || second < 0 || second == line.length() - 1) {
+            throw new IOException("Malformed manifest line " + lineNumber + ": " + line);
+        }
+        long size;
+        try {
+            size = Long.parseLong(line.substring(first + 1, second));
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed manifest line " + lineNumber + ": " + line, e);
+        }
+
+        StringBuilder path = new StringBuilder(line.length() - second);
+        for (int i = second + 1; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < line.length()) {
+                char escaped = line.charAt(++i);
+                path.append(escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+            } else {
+                path.append(c);
+            }
+        }
+        return new Entry(line.substring(0, first), size, path.toString());
+    }
+}
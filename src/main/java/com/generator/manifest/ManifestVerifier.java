@@ -0,0 +1,269 @@
+package com.generator.manifest;
+
+import com.generator.io.FileDigest;
+import com.generator.model.ChecksumType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checks that every file listed in a manifest exists with the recorded size and checksum.
+ * The calling thread reads the manifest and hands batches of entries to a pool of checker threads,
+ * so many files are read at once; large files are checksummed straight from memory mappings, small
+ * ones are read into a reusable direct buffer, which costs fewer system calls than mapping them.
+ */
+public final class ManifestVerifier {
+
+    /**
+     * Files of at least this size are memory-mapped
+     */
+    static final long MAP_THRESHOLD = 1024 * 1024;
+
+    /**
+     * Largest mapping held at a time by one checker
+     */
+    static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private static final int BATCH_SIZE = 256;
+    private static final long QUEUE_POLL_MILLIS = 50;
+
+    /**
+     * What is wrong with a file
+     */
+    public enum Problem {
+        MISSING,
+        CORRUPT
+    }
+
+    /**
+     * Receives every file that fails the check, from one thread at a time
+     */
+    public interface ProblemListener {
+        void problemFound(Problem problem, Manifest.Entry entry, String detail);
+    }
+
+    private final Path manifest;
+    private final Path baseDirectory;
+    private final int threads;
+    private final LongAdder checkedFiles = new LongAdder();
+    private final LongAdder checkedBytes = new LongAdder();
+    private final LongAdder missingFiles = new LongAdder();
+    private final LongAdder corruptFiles = new LongAdder();
+    private volatile boolean failed;
+
+    /**
+     * @param baseDirectory the directory the manifest's paths are relative to, i.e. the run's output directory
+     * @param threads number of files checked at once
+     */
+    public ManifestVerifier(Path manifest, Path baseDirectory, int threads) {
+        this.manifest = manifest;
+        this.baseDirectory = baseDirectory;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Checks every file in the manifest, blocking until all have been checked
+     * @throws IOException if the manifest cannot be read or is malformed
+     */
+    public void verify(ProblemListener listener) throws IOException, InterruptedException {
+        ChecksumType type;
+        BlockingQueue<List<Manifest.Entry>> batches = new ArrayBlockingQueue<>(2 * threads);
+        AtomicBoolean readerDone = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, new CheckerThreadFactory());
+        List<Future<Void>> checkers = new ArrayList<>(threads);
+
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            type = Manifest.parseHeader(reader.readLine(), manifest);
+            for (int i = 0; i < threads; i++) {
+                checkers.add(pool.submit(() -> {
+                    check(batches, readerDone, FileDigest.create(type), listener);
+                    return null;
+                }));
+            }
+            pool.shutdown();
+
+            try {
+                List<Manifest.Entry> batch = new ArrayList<>(BATCH_SIZE);
+                long lineNumber = 1;
+                for (String line = reader.readLine(); line != null && !failed; line = reader.readLine()) {
+                    lineNumber++;
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    batch.add(Manifest.parseEntry(line, lineNumber));
+                    if (batch.size() == BATCH_SIZE) {
+                        put(batch, batches);
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    put(batch, batches);
+                }
+            } finally {
+                readerDone.set(true);
+            }
+        } catch (IOException | RuntimeException | InterruptedException e) {
+            failed = true;
+            pool.shutdownNow();
+            throw e;
+        }
+        awaitCheckers(checkers);
+    }
+
+    private void put(List<Manifest.Entry> batch, BlockingQueue<List<Manifest.Entry>> batches)
+            throws InterruptedException {
+        while (!batches.offer(batch, QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (failed) {
+                return;
+            }
+        }
+    }
+
+    private void check(BlockingQueue<List<Manifest.Entry>> batches, AtomicBoolean readerDone, FileDigest digest,
+                       ProblemListener listener) throws InterruptedException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) MAP_THRESHOLD);
+        try {
+            while (!failed) {
+                // Check the reader before polling: once it is done, every batch it read is queued
+                boolean lastBatchQueued = readerDone.get();
+                List<Manifest.Entry> batch = batches.poll(QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (batch == null) {
+                    if (lastBatchQueued) {
+                        return;
+                    }
+                    continue;
+                }
+                for (Manifest.Entry entry : batch) {
+                    checkFile(entry, digest, buffer, listener);
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    private void checkFile(Manifest.Entry entry, FileDigest digest, ByteBuffer buffer, ProblemListener listener) {
+        Path file = baseDirectory.resolve(entry.getPath());
+        String problem;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size != entry.getSize()) {
+                problem = "size " + size + ", expected " + entry.getSize();
+            } else {
+                digest.reset();
+                if (size >= MAP_THRESHOLD) {
+                    for (long position = 0; position < size; position += WINDOW_SIZE) {
+                        digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                                                  Math.min(WINDOW_SIZE, size - position)));
+                    }
+                } else {
+                    buffer.clear();
+                    while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                        // keep reading until the whole file is in the buffer
+                    }
+                    buffer.flip();
+                    digest.update(buffer);
+                }
+                String checksum = digest.finish();
+                problem = checksum.equals(entry.getChecksum()) ? null
+                        : "checksum " + checksum + ", expected " + entry.getChecksum();
+            }
+            checkedBytes.add(size);
+        } catch (NoSuchFileException e) {
+            missingFiles.increment();
+            checkedFiles.increment();
+            report(listener, Problem.MISSING, entry, "not found");
+            return;
+        } catch (IOException e) {
+            problem = "cannot be read: " + e.getMessage();
+        }
+        checkedFiles.increment();
+        if (problem != null) {
+            corruptFiles.increment();
+            report(listener, Problem.CORRUPT, entry, problem);
+        }
+    }
+
+    private void report(ProblemListener listener, Problem problem, Manifest.Entry entry, String detail) {
+        synchronized (listener) {
+            listener.problemFound(problem, entry, detail);
+        }
+    }
+
+    private void awaitCheckers(List<Future<Void>> checkers) throws IOException, InterruptedException {
+        Throwable failure = null;
+        for (Future<Void> checker : checkers) {
+            try {
+                checker.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new IOException("Verification failed", failure);
+        }
+    }
+
+    /**
+     * @return number of files checked so far, including missing and corrupt ones
+     */
+    public long getCheckedCount() {
+        return checkedFiles.sum();
+    }
+
+    /**
+     * @return number of bytes read so far
+     */
+    public long getCheckedBytes() {
+        return checkedBytes.sum();
+    }
+
+    public long getMissingCount() {
+        return missingFiles.sum();
+    }
+
+    public long getCorruptCount() {
+        return corruptFiles.sum();
+    }
+
+    /**
+     * Creates daemon checker threads so an abandoned verification never keeps the JVM alive
+     */
+    private static class CheckerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "file-generator-verifier-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.generator.manifest;
+
+import com.generator.model.ChecksumType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends the entries of written files to a manifest. Workers collect the lines of a batch and
+ * append them in one call, before the batch is recorded in the checkpoint journal, so every file a
+ * resumed run skips is already listed. Safe to use from any thread.
+ */
+public final class ManifestWriter implements AutoCloseable {
+
+    private final FileChannel channel;
+
+    private ManifestWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the manifest for a run
+     * @param append true to add to the entries of an earlier run, e.g. when it is resumed
+     * @throws IOException if the manifest cannot be written, or already records a different checksum
+     */
+    public static ManifestWriter open(Path file, ChecksumType type, boolean append) throws IOException {
+        if (append && Files.exists(file) && Files.size(file) > 0) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                ChecksumType recorded = Manifest.parseHeader(reader.readLine(), file);
+                if (recorded != type) {
+                    throw new IOException("Manifest " + file + " records " + recorded.getName()
+                            + " checksums, not " + type.getName());
+                }
+            }
+            return new ManifestWriter(FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+        }
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        ManifestWriter writer = new ManifestWriter(FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+        writer.append(Manifest.header(type) + "\n");
+        return writer;
+    }
+
+    /**
+     * Appends complete lines, as built by {@link Manifest#appendEntry}
+     */
+    public void append(CharSequence lines) throws IOException {
+        if (lines.length() == 0) {
+            return;
+        }
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(lines.toString());
+        synchronized (channel) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Forces the manifest to disk and closes it
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.generator.metrics;
+
+/**
+ * Emits one Java Flight Recorder event per batch of files claimed by a worker.
+ * JFR is optional: on JVMs without {@code jdk.jfr} (older Java 8 builds) the no-op tracer is used, and
+ * with JFR present but not recording, an event costs one allocation and an enabled check per batch.
+ * A tracer belongs to one worker thread.
+ */
+public interface BatchTracer {
+
+    /**
+     * Starts timing a batch
+     */
+    void beginBatch(long firstIndex, PhaseTimer timer);
+
+    /**
+     * Ends the batch started last and commits its event
+     */
+    void endBatch(long files, long bytes, PhaseTimer timer);
+
+    /**
+     * Creates a tracer for the calling worker thread
+     */
+    static BatchTracer create() {
+        return JfrSupport.AVAILABLE ? new JfrBatchTracer() : NoOpTracer.INSTANCE;
+    }
+
+    /**
+     * Tracer used when JFR is not available
+     */
+    final class NoOpTracer implements BatchTracer {
+        static final NoOpTracer INSTANCE = new NoOpTracer();
+
+        private NoOpTracer() {
+        }
+
+        @Override
+        public void beginBatch(long firstIndex, PhaseTimer timer) {
+        }
+
+        @Override
+        public void endBatch(long files, long bytes, PhaseTimer timer) {
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.generator.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event covering one batch of files written by a worker thread, with the time spent in each phase
+ */
+@Name("com.generator.GenerationBatch")
+@Label("File Generation Batch")
+@Category("File Generator")
+@Description("A batch of consecutive files written by one worker thread")
+@StackTrace(false)
+class GenerationBatchEvent extends jdk.jfr.Event {
+
+    @Label("First File Number")
+    long firstIndex;
+
+    @Label("Files")
+    long files;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Render Time")
+    @Timespan
+    long renderTime;
+
+    @Label("Compare Time")
+    @Timespan
+    long compareTime;
+
+    @Label("Open Time")
+    @Timespan
+    long openTime;
+
+    @Label("Write Time")
+    @Timespan
+    long writeTime;
+
+    @Label("Close Time")
+    @Timespan
+    long closeTime;
+}
@@ -0,0 +1,45 @@
+package com.generator.metrics;
+
+/**
+ * Emits {@link GenerationBatchEvent}s. Only loaded when {@link JfrSupport#AVAILABLE} is true.
+ */
+final class JfrBatchTracer implements BatchTracer {
+
+    private final long[] phaseStart = new long[Phase.values().length];
+    private GenerationBatchEvent event;
+
+    @Override
+    public void beginBatch(long firstIndex, PhaseTimer timer) {
+        GenerationBatchEvent batch = new GenerationBatchEvent();
+        if (!batch.isEnabled()) {
+            event = null;
+            return;
+        }
+        batch.firstIndex = firstIndex;
+        for (Phase phase : Phase.values()) {
+            phaseStart[phase.ordinal()] = timer.totalNanos(phase);
+        }
+        batch.begin();
+        event = batch;
+    }
+
+    @Override
+    public void endBatch(long files, long bytes, PhaseTimer timer) {
+        GenerationBatchEvent batch = event;
+        if (batch == null) {
+            return;
+        }
+        batch.end();
+        if (batch.shouldCommit()) {
+            batch.files = files;
+            batch.bytes = bytes;
+            batch.renderTime = timer.totalNanos(Phase.RENDER) - phaseStart[Phase.RENDER.ordinal()];
+            batch.compareTime = timer.totalNanos(Phase.COMPARE) - phaseStart[Phase.COMPARE.ordinal()];
+            batch.openTime = timer.totalNanos(Phase.OPEN) - phaseStart[Phase.OPEN.ordinal()];
+            batch.writeTime = timer.totalNanos(Phase.WRITE) - phaseStart[Phase.WRITE.ordinal()];
+            batch.closeTime = timer.totalNanos(Phase.CLOSE) - phaseStart[Phase.CLOSE.ordinal()];
+            batch.commit();
+        }
+        event = null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.generator.metrics;
+
+/**
+ * Detects whether the running JVM ships the {@code jdk.jfr} event API
+ */
+final class JfrSupport {
+
+    static final boolean AVAILABLE = detect();
+
+    private JfrSupport() {
+    }
+
+    private static boolean detect() {
+        try {
+            Class.forName("jdk.jfr.Event", false, JfrSupport.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
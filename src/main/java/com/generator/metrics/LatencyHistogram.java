@@ -0,0 +1,108 @@
+package com.generator.metrics;
+
+/**
+ * Fixed-size log-linear histogram of nanosecond durations, in the style of HdrHistogram.
+ * Values below 128 are counted exactly; above that every power of two is split into 64 buckets,
+ * so any percentile is reported within about 1.6% of the recorded value. Durations above
+ * {@link #MAX_TRACKABLE} (about 18 minutes) are counted in the top bucket.
+ * Recording is a handful of arithmetic operations and one array increment. Instances are not
+ * thread-safe: every thread records into its own histogram and the results are merged with {@link #add}.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+    private static final int MAX_VALUE_BITS = 40;
+
+    /**
+     * Largest value told apart from larger ones
+     */
+    public static final long MAX_TRACKABLE = (1L << MAX_VALUE_BITS) - 1;
+
+    private final long[] counts = new long[indexOf(MAX_TRACKABLE) + 1];
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * Records one duration; negative values count as zero
+     */
+    public void record(long value) {
+        long clamped = Math.max(0, value);
+        counts[indexOf(Math.min(clamped, MAX_TRACKABLE))]++;
+        count++;
+        total += clamped;
+        if (clamped > max) {
+            max = clamped;
+        }
+    }
+
+    /**
+     * Adds all values recorded by another histogram to this one
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return sum of all recorded values
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * Returns the value below which the given percentage of recordings fall, e.g. 99.9 for p999
+     * @return the highest value of the matching bucket, never more than the recorded maximum, or 0 if empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueAt(i), max);
+            }
+        }
+        return max;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int bucket = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+        int subBucket = (int) (value >>> bucket);
+        return SUB_BUCKET_COUNT + (bucket - 1) * SUB_BUCKET_HALF + (subBucket - SUB_BUCKET_HALF);
+    }
+
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int bucket = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return ((subBucket + 1) << bucket) - 1;
+    }
+}
@@ -0,0 +1,103 @@
+package com.generator.metrics;
+
+import com.generator.util.ByteSizes;
+
+import java.util.Locale;
+
+/**
+ * Summary of a finished run: overall throughput and latency percentiles for every {@link Phase}
+ */
+public final class MetricsReport {
+
+    private final long files;
+    private final long bytes;
+    private final long elapsedNanos;
+    private final LatencyHistogram[] phases;
+
+    MetricsReport(long files, long bytes, long elapsedNanos, LatencyHistogram[] phases) {
+        this.files = files;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+        this.phases = phases;
+    }
+
+    public long getFiles() {
+        return files;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return merged durations of the phase, in nanoseconds
+     */
+    public LatencyHistogram getHistogram(Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    /**
+     * Formats the throughput line followed by the phase table
+     */
+    public String format() {
+        return formatThroughput() + System.lineSeparator() + formatPhases();
+    }
+
+    /**
+     * Formats overall throughput, e.g. {@code 100000 files (9.8 MiB) in 2.345 s: 42644 files/s, 4.2 MiB/s}
+     */
+    public String formatThroughput() {
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        return String.format(Locale.ROOT, "%d files (%s) in %.3f s: %.0f files/s, %s/s",
+                files, ByteSizes.format(bytes), seconds, files / seconds, ByteSizes.format(bytes / seconds));
+    }
+
+    /**
+     * Formats the latency percentiles of every phase that recorded something as a small table, e.g.
+     * <pre>
+     * phase        count       p50       p99     p99.9       max
+     * render      100000    0.4 us    2.1 us   15.3 us    1.2 ms
+     * </pre>
+     */
+    public String formatPhases() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%-7s %10s %9s %9s %9s %9s",
+                "phase", "count", "p50", "p99", "p99.9", "max"));
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = getHistogram(phase);
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            out.append(String.format(Locale.ROOT, "%n%-7s %10d %9s %9s %9s %9s", phase.getLabel(),
+                    histogram.getCount(),
+                    formatNanos(histogram.getValueAtPercentile(50)),
+                    formatNanos(histogram.getValueAtPercentile(99)),
+                    formatNanos(histogram.getValueAtPercentile(99.9)),
+                    formatNanos(histogram.getMax())));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Formats a duration with three significant digits in ns, us, ms or s
+     */
+    static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + " ns";
+        } else if (nanos < 1_000_000) {
+            return String.format(Locale.ROOT, "%.1f us", nanos / 1e3);
+        } else if (nanos < 1_000_000_000) {
+            return String.format(Locale.ROOT, "%.1f ms", nanos / 1e6);
+        }
+        return String.format(Locale.ROOT, "%.2f s", nanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
@@ -0,0 +1,27 @@
+package com.generator.metrics;
+
+/**
+ * Steps in the life of one generated file, timed separately by {@link PhaseTimer}
+ */
+public enum Phase {
+    /** Rendering the file name and content templates */
+    RENDER("render"),
+    /** Comparing the rendered content with the existing file, in runs that only update changed files */
+    COMPARE("compare"),
+    /** Creating or truncating the file */
+    OPEN("open"),
+    /** Writing the content, including payload generation */
+    WRITE("write"),
+    /** Forcing the file to disk when fsync is on, and closing it */
+    CLOSE("close");
+
+    private final String label;
+
+    Phase(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
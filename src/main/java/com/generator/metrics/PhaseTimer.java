@@ -0,0 +1,71 @@
+package com.generator.metrics;
+
+/**
+ * Times consecutive phases of file generation on one thread.
+ * {@link #start()} marks the beginning of a file and every {@link #lap(Phase)} records the time since
+ * the previous mark into that phase's histogram, so each phase costs a single {@code System.nanoTime()}.
+ * A timer belongs to one worker thread; only the shared {@link #disabled()} instance may be used by many.
+ */
+public final class PhaseTimer {
+
+    private static final PhaseTimer DISABLED = new PhaseTimer(false);
+
+    private final boolean enabled;
+    private final LatencyHistogram[] histograms;
+    private long mark;
+
+    public PhaseTimer() {
+        this(true);
+    }
+
+    private PhaseTimer(boolean enabled) {
+        this.enabled = enabled;
+        this.histograms = new LatencyHistogram[enabled ? Phase.values().length : 0];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * @return a timer that records nothing
+     */
+    public static PhaseTimer disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Marks the start of the first phase
+     */
+    public void start() {
+        if (enabled) {
+            mark = System.nanoTime();
+        }
+    }
+
+    /**
+     * Ends the given phase and starts the next one
+     */
+    public void lap(Phase phase) {
+        if (enabled) {
+            long now = System.nanoTime();
+            histograms[phase.ordinal()].record(now - mark);
+            mark = now;
+        }
+    }
+
+    /**
+     * @return total nanoseconds spent in the phase so far, 0 for a disabled timer
+     */
+    public long totalNanos(Phase phase) {
+        return enabled ? histograms[phase.ordinal()].getTotal() : 0;
+    }
+
+    /**
+     * Adds this timer's recordings to the given per-phase histograms
+     */
+    void addTo(LatencyHistogram[] target) {
+        for (int i = 0; i < histograms.length; i++) {
+            target[i].add(histograms[i]);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.generator.metrics;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects the phase timers of all threads taking part in a run and merges them into a {@link MetricsReport}
+ */
+public final class RunMetrics {
+
+    private final Queue<PhaseTimer> timers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a timer for one worker thread
+     */
+    public PhaseTimer newTimer() {
+        PhaseTimer timer = new PhaseTimer();
+        timers.add(timer);
+        return timer;
+    }
+
+    /**
+     * Merges the timers into a report. Call once the threads using them have finished.
+     */
+    public MetricsReport report(long files, long bytes, long elapsedNanos) {
+        LatencyHistogram[] phases = new LatencyHistogram[Phase.values().length];
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+        for (PhaseTimer timer : timers) {
+            timer.addTo(phases);
+        }
+        return new MetricsReport(files, bytes, elapsedNanos, phases);
+    }
+}
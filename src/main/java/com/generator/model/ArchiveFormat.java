@@ -0,0 +1,39 @@
+package com.generator.model;
+
+import java.util.Locale;
+
+/**
+ * Container format when the generated files are streamed into a single archive instead of the file system.
+ */
+public enum ArchiveFormat {
+    /**
+     * Uncompressed POSIX ustar archive
+     */
+    TAR,
+
+    /**
+     * Tar archive compressed as a series of independently compressed gzip members
+     */
+    TAR_GZ,
+
+    /**
+     * Zip archive with deflated entries, using Zip64 records where needed
+     */
+    ZIP;
+
+    /**
+     * Selects the format from an archive's file name extension
+     * @throws IllegalArgumentException if the extension is not .tar, .tar.gz, .tgz or .zip
+     */
+    public static ArchiveFormat forFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".tar")) {
+            return TAR;
+        } else if (name.endsWith(".tar.gz") || name.endsWith(".tgz")) {
+            return TAR_GZ;
+        } else if (name.endsWith(".zip")) {
+            return ZIP;
+        }
+        throw new IllegalArgumentException("Unsupported archive type (use .tar, .tar.gz, .tgz or .zip): " + fileName);
+    }
+}
@@ -0,0 +1,68 @@
+package com.generator.model;
+
+import java.util.Locale;
+
+/**
+ * Checksum recorded for every file in an integrity manifest
+ */
+public enum ChecksumType {
+    /**
+     * CRC-32C (Castagnoli), computed with the CPU's CRC instructions; needs Java 9 or later
+     */
+    CRC32C,
+
+    /**
+     * Classic zip CRC-32, the fallback for CRC-32C on Java 8
+     */
+    CRC32,
+
+    /**
+     * SHA-256, for manifests that must also detect deliberate tampering
+     */
+    SHA256;
+
+    private static final boolean CRC32C_AVAILABLE = classExists("java.util.zip.CRC32C");
+
+    private static boolean classExists(String name) {
+        try {
+            Class.forName(name);
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return false if the running JVM cannot compute this checksum
+     */
+    public boolean isSupported() {
+        return this != CRC32C || CRC32C_AVAILABLE;
+    }
+
+    /**
+     * @return CRC-32C where the JVM has it, otherwise CRC-32
+     */
+    public static ChecksumType defaultType() {
+        return CRC32C_AVAILABLE ? CRC32C : CRC32;
+    }
+
+    /**
+     * @return the name used in manifests and on the command line, e.g. {@code crc32c}
+     */
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Looks up a checksum by its manifest name
+     * @throws IllegalArgumentException if the name is not crc32c, crc32 or sha256
+     */
+    public static ChecksumType forName(String name) {
+        for (ChecksumType type : values()) {
+            if (type.getName().equalsIgnoreCase(name.trim().replace("-", ""))) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported checksum (use crc32c, crc32 or sha256): " + name);
+    }
+}
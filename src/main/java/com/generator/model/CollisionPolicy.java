@@ -0,0 +1,27 @@
+package com.generator.model;
+
+/**
+ * Selects what a run does with files of the same name that already exist in the output directory.
+ */
+public enum CollisionPolicy {
+    /**
+     * Replace existing files
+     */
+    OVERWRITE,
+
+    /**
+     * Keep existing files and generate only the missing ones
+     */
+    SKIP,
+
+    /**
+     * Stop before writing anything if any file already exists
+     */
+    FAIL,
+
+    /**
+     * Compare existing files with the content this run renders for them and rewrite only those that
+     * differ, so a run repeated with small changes only writes what changed
+     */
+    UPDATE
+}
@@ -0,0 +1,31 @@
+package com.generator.model;
+
+/**
+ * Selects what goes into each generated file.
+ */
+public enum ContentMode {
+    /**
+     * The rendered content template, written once per file
+     */
+    TEMPLATE,
+
+    /**
+     * The rendered content template, repeated until the target file size is reached
+     */
+    REPEAT_TEMPLATE,
+
+    /**
+     * Random binary data of the target file size
+     */
+    RANDOM_BYTES,
+
+    /**
+     * Random printable ASCII text of the target file size
+     */
+    RANDOM_TEXT,
+
+    /**
+     * Zero bytes of the target file size
+     */
+    ZERO_FILL
+}
@@ -0,0 +1,33 @@
+package com.generator.model;
+
+import java.util.Locale;
+
+/**
+ * Format of a data source whose records fill {@code {col:name}} placeholders, one record per file.
+ */
+public enum DataFormat {
+    /**
+     * Comma-separated values with a header record naming the columns; fields may be quoted with
+     * {@code "}, and a doubled quote inside a quoted field stands for one quote
+     */
+    CSV,
+
+    /**
+     * One JSON object per line; its top-level members are the columns
+     */
+    JSONL;
+
+    /**
+     * Selects the format from a data file's extension
+     * @throws IllegalArgumentException if the extension is not .csv, .jsonl or .ndjson
+     */
+    public static DataFormat forFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        } else if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return JSONL;
+        }
+        throw new IllegalArgumentException("Unsupported data file type (use .csv, .jsonl or .ndjson): " + fileName);
+    }
+}
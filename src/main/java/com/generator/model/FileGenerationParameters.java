@@ -4,10 +4,56 @@ package com.generator.model;
  * Model class that encapsulates all parameters needed for file generation.
  */
 public class FileGenerationParameters {
+
+    /**
+     * Default write buffer size, which is also the chunk size for size-targeted files
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * Deepest directory tree allowed for fixed fan-out sharding
+     */
+    public static final int MAX_SHARD_DEPTH = 6;
+
+    /**
+     * File name of the checkpoint journal the GUI keeps in the output directory
+     */
+    public static final String DEFAULT_CHECKPOINT_NAME = ".file-generator-checkpoint";
+
+    /**
+     * File name of the integrity manifest the GUI writes into the output directory
+     */
+    public static final String DEFAULT_MANIFEST_NAME = ".file-generator-manifest";
+
     private String outputDirectory;
-    private int fileCount;
+    private long fileCount;
+    private long startIndex;
     private String fileNamePattern;
     private String fileContent;
+    private int threadCount;
+    private int renderThreadCount;
+    private boolean virtualThreads;
+    private TimestampMode timestampMode;
+    private WriteBackendType writeBackend;
+    private boolean fsync;
+    private boolean cloneStaticContent;
+    private ContentMode contentMode;
+    private long targetFileSize;
+    private int chunkSize;
+    private int shardFanOut;
+    private int shardDepth;
+    private double maxFilesPerSecond;
+    private long maxBytesPerSecond;
+    private String checkpointFile;
+    private String archiveFile;
+    private String dataFile;
+    private Long seed;
+    private String manifestFile;
+    private ChecksumType checksumType;
+    private CollisionPolicy collisionPolicy;
+    private boolean preflightCheck;
+    private boolean deleteExtraFiles;
+    private boolean resume;
 
     /**
      * Default constructor
@@ -15,19 +61,76 @@ public class FileGenerationParameters {
     public FileGenerationParameters() {
         this.outputDirectory = "";
         this.fileCount = 1;
+        this.startIndex = 1;
         this.fileNamePattern = "file_{n}.txt";
         this.fileContent = "This is file number {n}";
+        this.threadCount = defaultThreadCount();
+        this.renderThreadCount = 0;
+        this.virtualThreads = false;
+        this.timestampMode = TimestampMode.PER_SECOND;
+        this.writeBackend = WriteBackendType.NIO_CHANNEL;
+        this.fsync = false;
+        this.cloneStaticContent = true;
+        this.contentMode = ContentMode.TEMPLATE;
+        this.targetFileSize = 0;
+        this.chunkSize = DEFAULT_CHUNK_SIZE;
+        this.shardFanOut = 0;
+        this.shardDepth = 1;
+        this.maxFilesPerSecond = 0;
+        this.maxBytesPerSecond = 0;
+        this.checkpointFile = null;
+        this.archiveFile = null;
+        this.dataFile = null;
+        this.seed = null;
+        this.manifestFile = null;
+        this.checksumType = ChecksumType.defaultType();
+        this.collisionPolicy = CollisionPolicy.OVERWRITE;
+        this.preflightCheck = true;
+        this.deleteExtraFiles = false;
+        this.resume = false;
     }
 
     /**
      * Constructor with all parameters
      */
-    public FileGenerationParameters(String outputDirectory, int fileCount, 
+    public FileGenerationParameters(String outputDirectory, long fileCount, 
                                   String fileNamePattern, String fileContent) {
         this.outputDirectory = outputDirectory;
         this.fileCount = fileCount;
+        this.startIndex = 1;
         this.fileNamePattern = fileNamePattern;
         this.fileContent = fileContent;
+        this.threadCount = defaultThreadCount();
+        this.renderThreadCount = 0;
+        this.virtualThreads = false;
+        this.timestampMode = TimestampMode.PER_SECOND;
+        this.writeBackend = WriteBackendType.NIO_CHANNEL;
+        this.fsync = false;
+        this.cloneStaticContent = true;
+        this.contentMode = ContentMode.TEMPLATE;
+        this.targetFileSize = 0;
+        this.chunkSize = DEFAULT_CHUNK_SIZE;
+        this.shardFanOut = 0;
+        this.shardDepth = 1;
+        this.maxFilesPerSecond = 0;
+        this.maxBytesPerSecond = 0;
+        this.checkpointFile = null;
+        this.archiveFile = null;
+        this.dataFile = null;
+        this.seed = null;
+        this.manifestFile = null;
+        this.checksumType = ChecksumType.defaultType();
+        this.collisionPolicy = CollisionPolicy.OVERWRITE;
+        this.preflightCheck = true;
+        this.deleteExtraFiles = false;
+        this.resume = false;
+    }
+
+    /**
+     * Default worker count: one thread per available processor
+     */
+    public static int defaultThreadCount() {
+        return Runtime.getRuntime().availableProcessors();
     }
 
     // Getters and setters
@@ -39,14 +142,32 @@ public class FileGenerationParameters {
         this.outputDirectory = outputDirectory;
     }
 
-    public int getFileCount() {
+    public long getFileCount() {
         return fileCount;
     }
 
-    public void setFileCount(int fileCount) {
+    public void setFileCount(long fileCount) {
         this.fileCount = fileCount;
     }
 
+    /**
+     * @return file number {@code {n}} of the first generated file
+     */
+    public long getStartIndex() {
+        return startIndex;
+    }
+
+    public void setStartIndex(long startIndex) {
+        this.startIndex = startIndex;
+    }
+
+    /**
+     * @return file number {@code {n}} of the last generated file
+     */
+    public long getEndIndex() {
+        return startIndex + fileCount - 1;
+    }
+
     public String getFileNamePattern() {
         return fileNamePattern;
     }
@@ -63,6 +184,278 @@ public class FileGenerationParameters {
         this.fileContent = fileContent;
     }
 
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * @return number of threads rendering content ahead of the {@link #getThreadCount() writer threads},
+     *         or 0 to render and write each file on the same thread
+     */
+    public int getRenderThreadCount() {
+        return renderThreadCount;
+    }
+
+    public void setRenderThreadCount(int renderThreadCount) {
+        this.renderThreadCount = renderThreadCount;
+    }
+
+    /**
+     * @return true if every {@link #getThreadCount() worker} is a virtual thread, so the thread count
+     *         becomes the number of files in flight at once; needs Java 21, older JVMs use platform threads
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public TimestampMode getTimestampMode() {
+        return timestampMode;
+    }
+
+    public void setTimestampMode(TimestampMode timestampMode) {
+        this.timestampMode = timestampMode;
+    }
+
+    public WriteBackendType getWriteBackend() {
+        return writeBackend;
+    }
+
+    public void setWriteBackend(WriteBackendType writeBackend) {
+        this.writeBackend = writeBackend;
+    }
+
+    public boolean isFsync() {
+        return fsync;
+    }
+
+    public void setFsync(boolean fsync) {
+        this.fsync = fsync;
+    }
+
+    /**
+     * @return true if files without content placeholders are cloned from a single seed file
+     */
+    public boolean isCloneStaticContent() {
+        return cloneStaticContent;
+    }
+
+    public void setCloneStaticContent(boolean cloneStaticContent) {
+        this.cloneStaticContent = cloneStaticContent;
+    }
+
+    public ContentMode getContentMode() {
+        return contentMode;
+    }
+
+    public void setContentMode(ContentMode contentMode) {
+        this.contentMode = contentMode;
+    }
+
+    /**
+     * @return size in bytes of each file for every content mode except {@link ContentMode#TEMPLATE}
+     */
+    public long getTargetFileSize() {
+        return targetFileSize;
+    }
+
+    public void setTargetFileSize(long targetFileSize) {
+        this.targetFileSize = targetFileSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return maximum number of entries per directory when files are sharded into a fixed
+     *         directory tree, or 0 to write the file name pattern as given
+     */
+    public int getShardFanOut() {
+        return shardFanOut;
+    }
+
+    public void setShardFanOut(int shardFanOut) {
+        this.shardFanOut = shardFanOut;
+    }
+
+    /**
+     * @return number of directory levels used by fan-out sharding
+     */
+    public int getShardDepth() {
+        return shardDepth;
+    }
+
+    public void setShardDepth(int shardDepth) {
+        this.shardDepth = shardDepth;
+    }
+
+    /**
+     * @return initial limit on files written per second across all workers, 0 for unlimited
+     */
+    public double getMaxFilesPerSecond() {
+        return maxFilesPerSecond;
+    }
+
+    public void setMaxFilesPerSecond(double maxFilesPerSecond) {
+        this.maxFilesPerSecond = maxFilesPerSecond;
+    }
+
+    /**
+     * @return initial limit on bytes written per second across all workers, 0 for unlimited
+     */
+    public long getMaxBytesPerSecond() {
+        return maxBytesPerSecond;
+    }
+
+    public void setMaxBytesPerSecond(long maxBytesPerSecond) {
+        this.maxBytesPerSecond = maxBytesPerSecond;
+    }
+
+    /**
+     * @return journal that records the completed file numbers so an interrupted run can be resumed,
+     *         or null to keep no checkpoint
+     */
+    public String getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    public void setCheckpointFile(String checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+
+    /**
+     * @return true if the files already recorded in the checkpoint journal are skipped
+     */
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    /**
+     * @return archive that receives all generated files as entries instead of the output directory,
+     *         or null to write individual files. A relative path is resolved against the output directory,
+     *         and the extension selects the {@link ArchiveFormat}.
+     */
+    public String getArchiveFile() {
+        return archiveFile;
+    }
+
+    public void setArchiveFile(String archiveFile) {
+        this.archiveFile = archiveFile;
+    }
+
+    /**
+     * @return the format of the archive, or null when files are written individually
+     * @throws IllegalArgumentException if the archive's extension is not supported
+     */
+    public ArchiveFormat getArchiveFormat() {
+        return archiveFile == null ? null : ArchiveFormat.forFileName(archiveFile);
+    }
+
+    /**
+     * @return CSV or JSONL file whose records fill the {@code {col:name}} placeholders, one record per file
+     *         and at most {@link #getFileCount()} of them, or null to use none. The extension selects the
+     *         {@link DataFormat}.
+     */
+    public String getDataFile() {
+        return dataFile;
+    }
+
+    public void setDataFile(String dataFile) {
+        this.dataFile = dataFile;
+    }
+
+    /**
+     * @return the format of the data file, or null without one
+     * @throws IllegalArgumentException if the data file's extension is not supported
+     */
+    public DataFormat getDataFormat() {
+        return dataFile == null ? null : DataFormat.forFileName(dataFile);
+    }
+
+    /**
+     * @return seed of the random placeholders and random content modes, or null for a new seed every run.
+     *         With a seed, every file's random values depend only on the seed and its file number.
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return file (relative to the output directory) that receives the size and checksum of every file
+     *         written, or null to write no manifest
+     */
+    public String getManifestFile() {
+        return manifestFile;
+    }
+
+    public void setManifestFile(String manifestFile) {
+        this.manifestFile = manifestFile;
+    }
+
+    /**
+     * @return checksum recorded in the manifest
+     */
+    public ChecksumType getChecksumType() {
+        return checksumType;
+    }
+
+    public void setChecksumType(ChecksumType checksumType) {
+        this.checksumType = checksumType;
+    }
+
+    /**
+     * @return what happens to files of the run that already exist in the output directory
+     */
+    public CollisionPolicy getCollisionPolicy() {
+        return collisionPolicy;
+    }
+
+    public void setCollisionPolicy(CollisionPolicy collisionPolicy) {
+        this.collisionPolicy = collisionPolicy;
+    }
+
+    /**
+     * @return true if the run checks free space, free inodes and existing files before writing anything
+     */
+    public boolean isPreflightCheck() {
+        return preflightCheck;
+    }
+
+    public void setPreflightCheck(boolean preflightCheck) {
+        this.preflightCheck = preflightCheck;
+    }
+
+    /**
+     * @return true if an updating run deletes files that match the name pattern but lie outside its range
+     */
+    public boolean isDeleteExtraFiles() {
+        return deleteExtraFiles;
+    }
+
+    public void setDeleteExtraFiles(boolean deleteExtraFiles) {
+        this.deleteExtraFiles = deleteExtraFiles;
+    }
+
     /**
      * Validates the parameters
      * @return true if all parameters are valid, false otherwise
@@ -70,8 +463,78 @@ public class FileGenerationParameters {
     public boolean isValid() {
         return outputDirectory != null && !outputDirectory.trim().isEmpty() &&
                fileCount > 0 &&
+               startIndex >= 0 && fileCount - 1 <= Long.MAX_VALUE - startIndex &&
                fileNamePattern != null && !fileNamePattern.trim().isEmpty() &&
-               fileContent != null;
+               fileContent != null &&
+               threadCount > 0 &&
+               renderThreadCount >= 0 &&
+               (renderThreadCount == 0 || contentMode == ContentMode.TEMPLATE) &&
+               !(virtualThreads && (renderThreadCount > 0 || writeBackend == WriteBackendType.MEMORY_MAPPED)) &&
+               timestampMode != null &&
+               writeBackend != null &&
+               contentMode != null &&
+               collisionPolicy != null &&
+               targetFileSize >= 0 &&
+               chunkSize > 0 &&
+               (shardFanOut == 0 || shardFanOut >= 2) &&
+               shardDepth >= 1 && shardDepth <= MAX_SHARD_DEPTH &&
+               maxFilesPerSecond >= 0 && !Double.isInfinite(maxFilesPerSecond) &&
+               maxBytesPerSecond >= 0 &&
+               !(resume && (checkpointFile == null || checkpointFile.trim().isEmpty())) &&
+               !(writeBackend == WriteBackendType.MEMORY_MAPPED && contentMode == ContentMode.TEMPLATE) &&
+               isValidArchive() &&
+               isValidDataSource() &&
+               isValidManifest() &&
+               isValidUpdate();
+    }
+
+    /**
+     * An update compares individual files as its workers render them, so it needs neither an archive
+     * nor a separate render stage, and only an update deletes files
+     */
+    private boolean isValidUpdate() {
+        if (collisionPolicy != CollisionPolicy.UPDATE) {
+            return !deleteExtraFiles;
+        }
+        return archiveFile == null && renderThreadCount == 0 && writeBackend != WriteBackendType.MEMORY_MAPPED;
+    }
+
+    /**
+     * An archive is rewritten from scratch, so it can neither be resumed nor filled through memory mappings
+     */
+    private boolean isValidArchive() {
+        if (archiveFile == null) {
+            return true;
+        }
+        try {
+            getArchiveFormat();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return !resume && writeBackend != WriteBackendType.MEMORY_MAPPED;
+    }
+
+    /**
+     * Records are rendered into templates by the workers that write them
+     */
+    private boolean isValidDataSource() {
+        if (dataFile == null) {
+            return true;
+        }
+        try {
+            getDataFormat();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return contentMode == ContentMode.TEMPLATE && renderThreadCount == 0;
+    }
+
+    /**
+     * Manifest paths are relative to the output directory, so archive entries cannot be listed
+     */
+    private boolean isValidManifest() {
+        return manifestFile == null
+                || (archiveFile == null && checksumType != null && checksumType.isSupported());
     }
 
     @Override
@@ -79,8 +542,33 @@ public class FileGenerationParameters {
         return "FileGenerationParameters{" +
                 "outputDirectory='" + outputDirectory + '\'' +
                 ", fileCount=" + fileCount +
+                ", startIndex=" + startIndex +
                 ", fileNamePattern='" + fileNamePattern + '\'' +
                 ", fileContent='" + fileContent + '\'' +
+                ", threadCount=" + threadCount +
+                ", renderThreadCount=" + renderThreadCount +
+                ", virtualThreads=" + virtualThreads +
+                ", timestampMode=" + timestampMode +
+                ", writeBackend=" + writeBackend +
+                ", fsync=" + fsync +
+                ", cloneStaticContent=" + cloneStaticContent +
+                ", contentMode=" + contentMode +
+                ", targetFileSize=" + targetFileSize +
+                ", chunkSize=" + chunkSize +
+                ", shardFanOut=" + shardFanOut +
+                ", shardDepth=" + shardDepth +
+                ", maxFilesPerSecond=" + maxFilesPerSecond +
+                ", maxBytesPerSecond=" + maxBytesPerSecond +
+                ", checkpointFile='" + checkpointFile + '\'' +
+                ", resume=" + resume +
+                ", archiveFile='" + archiveFile + '\'' +
+                ", dataFile='" + dataFile + '\'' +
+                ", seed=" + seed +
+                ", manifestFile='" + manifestFile + '\'' +
+                ", checksumType=" + checksumType +
+                ", collisionPolicy=" + collisionPolicy +
+                ", preflightCheck=" + preflightCheck +
+                ", deleteExtraFiles=" + deleteExtraFiles +
                 '}';
     }
 }
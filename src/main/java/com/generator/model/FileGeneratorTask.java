@@ -1,91 +1,146 @@
 package com.generator.model;
 
+import com.generator.engine.FileGenerationEngine;
+import com.generator.engine.ProgressSnapshot;
+import com.generator.engine.RateLimiter;
+import com.generator.jobs.GenerationJob;
+import com.generator.jobs.JobScheduler;
+import com.generator.metrics.MetricsReport;
 import javafx.concurrent.Task;
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Background task for generating files.
  * Extends JavaFX Task to provide progress updates and run in background thread.
+ * The files themselves are written by a multi-threaded {@link FileGenerationEngine}, either on the
+ * task's thread or as a job of a {@link JobScheduler} that the task waits for.
  */
 public class FileGeneratorTask extends Task<Void> {
-    
+
+    private static final long PROGRESS_INTERVAL_MILLIS = 100;
+
     private final FileGenerationParameters parameters;
-    private volatile boolean cancelled = false;
+    private final FileGenerationEngine engine;
+    private final GenerationJob job;
+    private volatile MetricsReport metricsReport;
 
     public FileGeneratorTask(FileGenerationParameters parameters) {
         this.parameters = parameters;
+        this.engine = new FileGenerationEngine(parameters);
+        this.job = null;
+    }
+
+    /**
+     * Queues the run on the scheduler right away; the task reports the job's progress once started
+     * @param priority higher priorities start first
+     */
+    public FileGeneratorTask(FileGenerationParameters parameters, JobScheduler scheduler, int priority) {
+        this.parameters = parameters;
+        this.job = scheduler.submit(parameters, priority);
+        this.engine = job.getEngine();
     }
 
     @Override
     protected Void call() throws Exception {
-        updateMessage("Starting file generation...");
+        updateMessage(job != null ? "Waiting for other jobs on this disk..." : "Starting file generation...");
         updateProgress(0, parameters.getFileCount());
 
-        // Create output directory if it doesn't exist
-        File outputDir = new File(parameters.getOutputDirectory());
-        if (!outputDir.exists()) {
-            if (!outputDir.mkdirs()) {
-                throw new IOException("Failed to create output directory: " + parameters.getOutputDirectory());
-            }
+        if (job != null) {
+            awaitJob();
+        } else {
+            runEngine();
         }
 
-        // Generate files
-        for (int i = 1; i <= parameters.getFileCount() && !cancelled; i++) {
-            if (isCancelled()) {
-                updateMessage("Generation cancelled");
-                break;
+        if (isCancelled() || (job != null && job.getState() == GenerationJob.State.CANCELLED)) {
+            updateMessage("Generation cancelled");
+        } else {
+            if (engine.getSkippedCount() > 0) {
+                updateMessage("File generation completed successfully! Skipped "
+                        + engine.getSkippedCount() + " files that already existed.");
+            } else if (parameters.getCollisionPolicy() == CollisionPolicy.UPDATE) {
+                updateMessage("File generation completed successfully! Kept " + engine.getUnchangedCount()
+                        + " unchanged files, rewrote " + engine.getChangedCount() + " changed files.");
+            } else if (engine.getExistingCount() > 0) {
+                updateMessage("File generation completed successfully! Overwrote "
+                        + engine.getExistingCount() + " existing files.");
+            } else {
+                updateMessage("File generation completed successfully!");
             }
+            updateProgress(parameters.getFileCount(), parameters.getFileCount());
+        }
+
+        return null;
+    }
+
+    private void runEngine() throws IOException, InterruptedException {
+        try {
+            // Snapshots arrive ten times per second; Task coalesces them further onto the FX thread
+            engine.generate(this::isCancelled, progress -> {
+                updateProgress(progress.getCompletedFiles(), progress.getTotalFiles());
+                updateMessage(progress.format());
+            });
+        } catch (IOException e) {
+            updateMessage(e.getMessage());
+            throw e;
+        } finally {
+            metricsReport = engine.getMetricsReport();
+        }
+    }
 
-            try {
-                generateFile(i);
-                updateProgress(i, parameters.getFileCount());
-                updateMessage(String.format("Generated file %d of %d", i, parameters.getFileCount()));
-                
-                // Small delay to prevent overwhelming the system
-                if (i % 100 == 0) {
-                    Thread.sleep(1);
+    /**
+     * Relays the job's progress until it has ended, and rethrows its failure
+     */
+    private void awaitJob() throws Exception {
+        try {
+            while (!job.await(PROGRESS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                ProgressSnapshot progress = job.getProgress();
+                if (progress != null) {
+                    updateProgress(progress.getCompletedFiles(), progress.getTotalFiles());
+                    updateMessage(progress.format());
                 }
-            } catch (IOException e) {
-                updateMessage("Error generating file " + i + ": " + e.getMessage());
-                throw e;
             }
+        } finally {
+            metricsReport = engine.getMetricsReport();
         }
-
-        if (!cancelled && !isCancelled()) {
-            updateMessage("File generation completed successfully!");
-            updateProgress(parameters.getFileCount(), parameters.getFileCount());
+        Throwable failure = job.getFailure();
+        if (failure instanceof Exception) {
+            updateMessage(failure.getMessage());
+            throw (Exception) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
         }
+    }
 
-        return null;
+    /**
+     * @return the scheduled job, or null if the task runs the engine itself
+     */
+    public GenerationJob getJob() {
+        return job;
     }
 
     /**
-     * Generates a single file with the specified index
+     * @return the run's throttle, whose limits can be changed while the task is running
      */
-    private void generateFile(int fileIndex) throws IOException {
-        // Replace {n} placeholder in filename pattern
-        String fileName = parameters.getFileNamePattern().replace("{n}", String.valueOf(fileIndex));
-        File file = new File(parameters.getOutputDirectory(), fileName);
-
-        // Replace placeholders in file content
-        String content = parameters.getFileContent()
-                .replace("{n}", String.valueOf(fileIndex))
-                .replace("{date}", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
-
-        // Write file
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write(content);
-        }
+    public RateLimiter getRateLimiter() {
+        return engine.getRateLimiter();
+    }
+
+    /**
+     * @return throughput and phase latencies of the run, or null until generation has ended
+     */
+    public MetricsReport getMetricsReport() {
+        return metricsReport;
     }
 
     @Override
     protected void cancelled() {
         super.cancelled();
-        cancelled = true;
+        if (job != null) {
+            job.cancel();
+        } else {
+            engine.cancel();
+        }
         updateMessage("File generation was cancelled");
     }
 
@@ -0,0 +1,16 @@
+package com.generator.model;
+
+/**
+ * Controls how often date placeholders such as {@code {date}} are refreshed during a run.
+ */
+public enum TimestampMode {
+    /**
+     * Re-format the timestamp at most once per wall-clock second
+     */
+    PER_SECOND,
+
+    /**
+     * Format the timestamp once when the run starts and use it for every file
+     */
+    PER_RUN
+}
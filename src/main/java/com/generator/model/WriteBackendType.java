@@ -0,0 +1,22 @@
+package com.generator.model;
+
+/**
+ * Selects how generated content is written to disk.
+ */
+public enum WriteBackendType {
+    /**
+     * Classic {@code java.io} writer using the platform default charset
+     */
+    FILE_WRITER,
+
+    /**
+     * {@code FileChannel} writes from pooled direct buffers, content encoded as UTF-8
+     */
+    NIO_CHANNEL,
+
+    /**
+     * One file at a time, preallocated and filled through memory mappings by all worker threads.
+     * Meant for very large files, so it requires a size-targeted {@link ContentMode}.
+     */
+    MEMORY_MAPPED
+}
@@ -0,0 +1,55 @@
+package com.generator.payload;
+
+import com.generator.model.ContentMode;
+import com.generator.template.CompiledTemplate;
+import com.generator.util.SeededRandom;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Produces the bytes of size-targeted files one chunk at a time, so files of any size can be
+ * streamed to disk with a fixed amount of memory.
+ * Generators keep per-file state and are not thread-safe; every worker creates its own.
+ */
+public abstract class PayloadGenerator {
+
+    /**
+     * Fills the buffer from its position up to its limit with payload bytes.
+     * @param fileIndex number of the file being generated
+     * @param fileOffset offset within the file of the first byte written
+     */
+    public abstract void fill(ByteBuffer buffer, long fileIndex, long fileOffset);
+
+    /**
+     * @return true if every file gets identical bytes, so the payload can be written once and cloned
+     */
+    public abstract boolean isStatic();
+
+    /**
+     * Creates a generator for one worker thread, with random content that differs on every call
+     * @param template content template, used by {@link ContentMode#REPEAT_TEMPLATE}
+     */
+    public static PayloadGenerator create(ContentMode mode, CompiledTemplate template) {
+        return create(mode, template, SeededRandom.withRandomSeed());
+    }
+
+    /**
+     * Creates a generator for one worker thread
+     * @param template content template, used by {@link ContentMode#REPEAT_TEMPLATE}
+     * @param random the run's random source, shared by all workers so every file has fixed random content
+     */
+    public static PayloadGenerator create(ContentMode mode, CompiledTemplate template, SeededRandom random) {
+        switch (mode) {
+            case REPEAT_TEMPLATE:
+                return new RepeatTemplateGenerator(template);
+            case RANDOM_BYTES:
+                return new RandomBytesGenerator(random);
+            case RANDOM_TEXT:
+                return new RandomTextGenerator(random);
+            case ZERO_FILL:
+                return new ZeroFillGenerator();
+            default:
+                throw new IllegalArgumentException("Content mode has no payload generator: " + mode);
+        }
+    }
+}
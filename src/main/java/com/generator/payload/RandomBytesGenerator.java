@@ -0,0 +1,52 @@
+package com.generator.payload;
+
+import com.generator.util.SeededRandom;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fills files with random binary data, eight bytes per random draw.
+ * The draw for each eight-byte word of a file is keyed on the file number and the word's offset,
+ * so a file gets the same bytes however it is split into chunks or regions.
+ */
+final class RandomBytesGenerator extends PayloadGenerator {
+
+    private static final long STREAM = -1;
+
+    private final SeededRandom random;
+
+    RandomBytesGenerator(SeededRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public void fill(ByteBuffer buffer, long fileIndex, long fileOffset) {
+        long key = random.key(fileIndex, STREAM);
+        long offset = fileOffset;
+        while (buffer.hasRemaining() && (offset & 7) != 0) {
+            buffer.put(byteAt(key, offset++));
+        }
+        boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+        while (buffer.remaining() >= Long.BYTES) {
+            long value = SeededRandom.value(key, offset >>> 3);
+            buffer.putLong(bigEndian ? value : Long.reverseBytes(value));
+            offset += Long.BYTES;
+        }
+        while (buffer.hasRemaining()) {
+            buffer.put(byteAt(key, offset++));
+        }
+    }
+
+    /**
+     * @return the byte at the given file offset, most significant byte of each word first
+     */
+    private static byte byteAt(long key, long offset) {
+        return (byte) (SeededRandom.value(key, offset >>> 3) >>> (56 - 8 * (offset & 7)));
+    }
+
+    @Override
+    public boolean isStatic() {
+        return false;
+    }
+}
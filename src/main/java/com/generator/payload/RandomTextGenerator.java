@@ -0,0 +1,63 @@
+package com.generator.payload;
+
+import com.generator.util.SeededRandom;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fills files with random printable ASCII text broken into fixed-length lines.
+ * Each random draw yields ten characters (six bits each), staged in a scratch array and bulk-copied.
+ * Draws are keyed on the file number and offset, so a file's text does not depend on how it is chunked.
+ */
+final class RandomTextGenerator extends PayloadGenerator {
+
+    static final int LINE_LENGTH = 80;
+    private static final int CHARS_PER_DRAW = 10;
+    private static final long STREAM = -2;
+    private static final byte[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789 .".getBytes(StandardCharsets.US_ASCII);
+
+    private final SeededRandom random;
+    private final byte[] scratch = new byte[8192];
+
+    RandomTextGenerator(SeededRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public void fill(ByteBuffer buffer, long fileIndex, long fileOffset) {
+        long key = random.key(fileIndex, STREAM);
+        long offset = fileOffset;
+        while (buffer.hasRemaining()) {
+            int length = Math.min(scratch.length, buffer.remaining());
+            int column = (int) (offset % LINE_LENGTH);
+            long draw = offset / CHARS_PER_DRAW;
+            int slot = (int) (offset % CHARS_PER_DRAW);
+            long bits = SeededRandom.value(key, draw) >>> (6 * slot);
+            for (int i = 0; i < length; i++) {
+                if (slot == CHARS_PER_DRAW) {
+                    bits = SeededRandom.value(key, ++draw);
+                    slot = 0;
+                }
+                // Line breaks use up their slot too, keeping every character at a fixed position
+                if (column == LINE_LENGTH - 1) {
+                    scratch[i] = '\n';
+                    column = 0;
+                } else {
+                    scratch[i] = ALPHABET[(int) bits & 0x3F];
+                    column++;
+                }
+                bits >>>= 6;
+                slot++;
+            }
+            buffer.put(scratch, 0, length);
+            offset += length;
+        }
+    }
+
+    @Override
+    public boolean isStatic() {
+        return false;
+    }
+}
@@ -0,0 +1,62 @@
+package com.generator.payload;
+
+import com.generator.template.CompiledTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Repeats the file's rendered content template (UTF-8) until the file is full.
+ * The template is rendered once per file and expanded to at least {@link #MIN_PATTERN_LENGTH}
+ * bytes, so short templates are still copied in large blocks. A template that renders empty
+ * produces zero bytes.
+ */
+final class RepeatTemplateGenerator extends PayloadGenerator {
+
+    static final int MIN_PATTERN_LENGTH = 8192;
+    private static final byte[] ZERO = {0};
+
+    private final CompiledTemplate template;
+    private final StringBuilder renderBuffer = new StringBuilder(256);
+    private long renderedIndex = -1;
+    private byte[] pattern;
+
+    RepeatTemplateGenerator(CompiledTemplate template) {
+        this.template = template;
+    }
+
+    @Override
+    public void fill(ByteBuffer buffer, long fileIndex, long fileOffset) {
+        if (pattern == null || (renderedIndex != fileIndex && !template.isStatic())) {
+            renderBuffer.setLength(0);
+            template.render(fileIndex, renderBuffer);
+            byte[] rendered = renderBuffer.length() == 0 ? ZERO : renderBuffer.toString().getBytes(StandardCharsets.UTF_8);
+            pattern = expand(rendered);
+            renderedIndex = fileIndex;
+        }
+
+        int start = (int) (fileOffset % pattern.length);
+        while (buffer.hasRemaining()) {
+            int length = Math.min(pattern.length - start, buffer.remaining());
+            buffer.put(pattern, start, length);
+            start = 0;
+        }
+    }
+
+    /**
+     * Repeats the rendered bytes a whole number of times, so offsets modulo the result stay aligned
+     */
+    private static byte[] expand(byte[] rendered) {
+        int copies = (MIN_PATTERN_LENGTH + rendered.length - 1) / rendered.length;
+        byte[] expanded = new byte[rendered.length * copies];
+        for (int i = 0; i < copies; i++) {
+            System.arraycopy(rendered, 0, expanded, i * rendered.length, rendered.length);
+        }
+        return expanded;
+    }
+
+    @Override
+    public boolean isStatic() {
+        return template.isStatic();
+    }
+}
@@ -0,0 +1,23 @@
+package com.generator.payload;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fills files with zero bytes
+ */
+final class ZeroFillGenerator extends PayloadGenerator {
+
+    private static final byte[] ZEROS = new byte[8192];
+
+    @Override
+    public void fill(ByteBuffer buffer, long fileIndex, long fileOffset) {
+        while (buffer.hasRemaining()) {
+            buffer.put(ZEROS, 0, Math.min(ZEROS.length, buffer.remaining()));
+        }
+    }
+
+    @Override
+    public boolean isStatic() {
+        return true;
+    }
+}
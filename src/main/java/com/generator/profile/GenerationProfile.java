@@ -0,0 +1,474 @@
+package com.generator.profile;
+
+import com.generator.model.ChecksumType;
+import com.generator.model.CollisionPolicy;
+import com.generator.model.ContentMode;
+import com.generator.model.FileGenerationParameters;
+import com.generator.model.TimestampMode;
+import com.generator.model.WriteBackendType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Saves generation parameters to a JSON profile file and reads them back, so a run, including its
+ * threads, write backend, sharding and rate limits, can be repeated without retyping it. A profile is
+ * one flat JSON object with a member per parameter; members left out keep their defaults. Enum values
+ * are spelled like the command line options (e.g. {@code "nio-channel"}). The output directory, data
+ * file and checkpoint are stored relative to the profile when they lie below its directory, so a
+ * directory of profiles and fixtures can be moved as a whole.
+ */
+public final class GenerationProfile {
+
+    /**
+     * Format version written to every profile; profiles of a later version are rejected
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * File name extension of profiles
+     */
+    public static final String EXTENSION = ".json";
+
+    private GenerationProfile() {
+    }
+
+    /**
+     * Writes the parameters to a profile file, replacing it if it exists
+     */
+    public static void write(FileGenerationParameters parameters, Path profile) throws IOException {
+        Path directory = baseDirectory(profile);
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("version", VERSION);
+        values.put("outputDirectory", relativize(directory, parameters.getOutputDirectory()));
+        values.put("fileCount", parameters.getFileCount());
+        values.put("startIndex", parameters.getStartIndex());
+        values.put("fileNamePattern", parameters.getFileNamePattern());
+        values.put("fileContent", parameters.getFileContent());
+        values.put("threadCount", parameters.getThreadCount());
+        values.put("renderThreadCount", parameters.getRenderThreadCount());
+        values.put("virtualThreads", parameters.isVirtualThreads());
+        values.put("timestampMode", enumName(parameters.getTimestampMode()));
+        values.put("writeBackend", enumName(parameters.getWriteBackend()));
+        values.put("fsync", parameters.isFsync());
+        values.put("cloneStaticContent", parameters.isCloneStaticContent());
+        values.put("contentMode", enumName(parameters.getContentMode()));
+        values.put("targetFileSize", parameters.getTargetFileSize());
+        values.put("chunkSize", parameters.getChunkSize());
+        values.put("shardFanOut", parameters.getShardFanOut());
+        values.put("shardDepth", parameters.getShardDepth());
+        values.put("maxFilesPerSecond", parameters.getMaxFilesPerSecond());
+        values.put("maxBytesPerSecond", parameters.getMaxBytesPerSecond());
+        values.put("checkpointFile", relativize(directory, parameters.getCheckpointFile()));
+        values.put("resume", parameters.isResume());
+        values.put("archiveFile", parameters.getArchiveFile());
+        values.put("dataFile", relativize(directory, parameters.getDataFile()));
+        values.put("seed", parameters.getSeed());
+        values.put("manifestFile", parameters.getManifestFile());
+        values.put("checksumType", parameters.getChecksumType() != null ? parameters.getChecksumType().getName() : null);
+        values.put("collisionPolicy", enumName(parameters.getCollisionPolicy()));
+        values.put("preflightCheck", parameters.isPreflightCheck());
+        values.put("deleteExtraFiles", parameters.isDeleteExtraFiles());
+        Files.write(profile, toJson(values).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a profile file. The parameters are not validated, as a profile may leave settings such as
+     * the output directory to be filled in later.
+     * @throws IOException if the file cannot be read, is not a profile or holds a value of the wrong type
+     */
+    public static FileGenerationParameters read(Path profile) throws IOException {
+        String text = new String(Files.readAllBytes(profile), StandardCharsets.UTF_8);
+        try {
+            return fromJson(new JsonObjectParser(text).parse(), baseDirectory(profile));
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            throw new IOException("Invalid profile " + profile + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static FileGenerationParameters fromJson(Map<String, Object> values, Path directory) {
+        FileGenerationParameters parameters = new FileGenerationParameters();
+        for (Map.Entry<String, Object> member : values.entrySet()) {
+            String key = member.getKey();
+            Object value = member.getValue();
+            switch (key) {
+                case "version":
+                    if (number(key, value).intValueExact() > VERSION) {
+                        throw new IllegalArgumentException("version " + value + " needs a newer file generator");
+                    }
+                    break;
+                case "outputDirectory":
+                    parameters.setOutputDirectory(resolve(directory, text(key, value)));
+                    break;
+                case "fileCount":
+                    parameters.setFileCount(number(key, value).longValueExact());
+                    break;
+                case "startIndex":
+                    parameters.setStartIndex(number(key, value).longValueExact());
+                    break;
+                case "fileNamePattern":
+                    parameters.setFileNamePattern(text(key, value));
+                    break;
+                case "fileContent":
+                    parameters.setFileContent(text(key, value));
+                    break;
+                case "threadCount":
+                    parameters.setThreadCount(number(key, value).intValueExact());
+                    break;
+                case "renderThreadCount":
+                    parameters.setRenderThreadCount(number(key, value).intValueExact());
+                    break;
+                case "virtualThreads":
+                    parameters.setVirtualThreads(bool(key, value));
+                    break;
+                case "timestampMode":
+                    parameters.setTimestampMode(enumValue(TimestampMode.class, key, value));
+                    break;
+                case "writeBackend":
+                    parameters.setWriteBackend(enumValue(WriteBackendType.class, key, value));
+                    break;
+                case "fsync":
+                    parameters.setFsync(bool(key, value));
+                    break;
+                case "cloneStaticContent":
+                    parameters.setCloneStaticContent(bool(key, value));
+                    break;
+                case "contentMode":
+                    parameters.setContentMode(enumValue(ContentMode.class, key, value));
+                    break;
+                case "targetFileSize":
+                    parameters.setTargetFileSize(number(key, value).longValueExact());
+                    break;
+                case "chunkSize":
+                    parameters.setChunkSize(number(key, value).intValueExact());
+                    break;
+                case "shardFanOut":
+                    parameters.setShardFanOut(number(key, value).intValueExact());
+                    break;
+                case "shardDepth":
+                    parameters.setShardDepth(number(key, value).intValueExact());
+                    break;
+                case "maxFilesPerSecond":
+                    parameters.setMaxFilesPerSecond(number(key, value).doubleValue());
+                    break;
+                case "maxBytesPerSecond":
+                    parameters.setMaxBytesPerSecond(number(key, value).longValueExact());
+                    break;
+                case "checkpointFile":
+                    parameters.setCheckpointFile(resolve(directory, optionalText(key, value)));
+                    break;
+                case "resume":
+                    parameters.setResume(bool(key, value));
+                    break;
+                case "archiveFile":
+                    parameters.setArchiveFile(optionalText(key, value));
+                    break;
+                case "dataFile":
+                    parameters.setDataFile(resolve(directory, optionalText(key, value)));
+                    break;
+                case "seed":
+                    parameters.setSeed(value == null ? null : number(key, value).longValueExact());
+                    break;
+                case "manifestFile":
+                    parameters.setManifestFile(optionalText(key, value));
+                    break;
+                case "checksumType":
+                    parameters.setChecksumType(ChecksumType.forName(text(key, value)));
+                    break;
+                case "collisionPolicy":
+                    parameters.setCollisionPolicy(enumValue(CollisionPolicy.class, key, value));
+                    break;
+                case "preflightCheck":
+                    parameters.setPreflightCheck(bool(key, value));
+                    break;
+                case "deleteExtraFiles":
+                    parameters.setDeleteExtraFiles(bool(key, value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown setting \"" + key + "\"");
+            }
+        }
+        return parameters;
+    }
+
+    private static Path baseDirectory(Path profile) {
+        Path parent = profile.toAbsolutePath().normalize().getParent();
+        return parent != null ? parent : Paths.get("").toAbsolutePath();
+    }
+
+    /**
+     * @return the path relative to the profile's directory if it lies below it, otherwise absolute
+     */
+    static String relativize(Path directory, String path) {
+        if (path == null) {
+            return null;
+        }
+        Path absolute = Paths.get(path).toAbsolutePath().normalize();
+        if (!absolute.startsWith(directory)) {
+            return absolute.toString();
+        }
+        String relative = directory.relativize(absolute).toString().replace('\\', '/');
+        return relative.isEmpty() ? "." : relative;
+    }
+
+    /**
+     * @return the path resolved against the profile's directory, or null
+     */
+    static String resolve(Path directory, String path) {
+        return path == null ? null : directory.resolve(path).normalize().toString();
+    }
+
+    private static String enumName(Enum<?> value) {
+        return value == null ? null : value.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String key, Object value) {
+        try {
+            return Enum.valueOf(type, text(key, value).toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid value for \"" + key + "\": " + value);
+        }
+    }
+
+    private static String text(String key, Object value) {
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("\"" + key + "\" must be a string");
+        }
+        return (String) value;
+    }
+
+    private static String optionalText(String key, Object value) {
+        return value == null ? null : text(key, value);
+    }
+
+    private static BigDecimal number(String key, Object value) {
+        if (!(value instanceof BigDecimal)) {
+            throw new IllegalArgumentException("\"" + key + "\" must be a number");
+        }
+        return (BigDecimal) value;
+    }
+
+    private static boolean bool(String key, Object value) {
+        if (!(value instanceof Boolean)) {
+            throw new IllegalArgumentException("\"" + key + "\" must be true or false");
+        }
+        return (Boolean) value;
+    }
+
+    /**
+     * Formats the members as a JSON object with one member per line
+     */
+    static String toJson(Map<String, Object> values) {
+        StringBuilder json = new StringBuilder("{\n");
+        int remaining = values.size();
+        for (Map.Entry<String, Object> member : values.entrySet()) {
+            json.append("  ");
+            appendString(json, member.getKey());
+            json.append(": ");
+            Object value = member.getValue();
+            if (value instanceof String) {
+                appendString(json, (String) value);
+            } else if (value instanceof Double) {
+                double number = (Double) value;
+                json.append(number == Math.rint(number) && Math.abs(number) < 1e15
+                        ? Long.toString((long) number) : Double.toString(number));
+            } else {
+                json.append(value);
+            }
+            json.append(--remaining > 0 ? ",\n" : "\n");
+        }
+        return json.append("}\n").toString();
+    }
+
+    private static void appendString(StringBuilder json, String text) {
+        json.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < ' ') {
+                        json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Parses one flat JSON object: strings, numbers, booleans and null, no nested objects or arrays
+     */
+    private static final class JsonObjectParser {
+        private final String text;
+        private int position;
+
+        JsonObjectParser(String text) {
+            this.text = text;
+        }
+
+        Map<String, Object> parse() {
+            Map<String, Object> values = new LinkedHashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                position++;
+            } else {
+                while (true) {
+                    expect('"');
+                    String key = parseString();
+                    expect(':');
+                    if (values.containsKey(key)) {
+                        throw new IllegalArgumentException("\"" + key + "\" is set twice");
+                    }
+                    values.put(key, parseValue());
+                    char c = next();
+                    if (c == '}') {
+                        break;
+                    } else if (c != ',') {
+                        throw malformed("expected ',' or '}' but found '" + c + "'");
+                    }
+                }
+            }
+            skipWhitespace();
+            if (position < text.length()) {
+                throw malformed("unexpected text after the JSON object");
+            }
+            return values;
+        }
+
+        private Object parseValue() {
+            char c = peek();
+            if (c == '"') {
+                position++;
+                return parseString();
+            }
+            int start = position;
+            while (position < text.length() && "-+.0123456789eEtruefalsn".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            String token = text.substring(start, position);
+            switch (token) {
+                case "true":
+                    return Boolean.TRUE;
+                case "false":
+                    return Boolean.FALSE;
+                case "null":
+                    return null;
+                default:
+                    try {
+                        return new BigDecimal(token);
+                    } catch (NumberFormatException e) {
+                        throw malformed(token.isEmpty() ? "unexpected '" + c + "'" : "invalid value " + token);
+                    }
+            }
+        }
+
+        /**
+         * Parses the rest of a string after its opening quote
+         */
+        private String parseString() {
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                if (position >= text.length()) {
+                    throw malformed("unterminated string");
+                }
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                } else if (c == '\\') {
+                    value.append(unescape());
+                } else {
+                    value.append(c);
+                }
+            }
+        }
+
+        private char unescape() {
+            if (position >= text.length()) {
+                throw malformed("unterminated string");
+            }
+            char escape = text.charAt(position++);
+            switch (escape) {
+                case 'b':
+                    return '\b';
+                case 'f':
+                    return '\f';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 't':
+                    return '\t';
+                case 'u':
+                    try {
+                        char decoded = (char) Integer.parseInt(text.substring(position, position + 4), 16);
+                        position += 4;
+                        return decoded;
+                    } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                        throw malformed("invalid \\u escape");
+                    }
+                default:
+                    return escape;
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && text.charAt(position) <= ' ') {
+                position++;
+            }
+        }
+
+        private char peek() {
+            skipWhitespace();
+            if (position >= text.length()) {
+                throw malformed("unexpected end of file");
+            }
+            return text.charAt(position);
+        }
+
+        private char next() {
+            char c = peek();
+            position++;
+            return c;
+        }
+
+        private void expect(char expected) {
+            char c = next();
+            if (c != expected) {
+                throw malformed("expected '" + expected + "' but found '" + c + "'");
+            }
+        }
+
+        private IllegalArgumentException malformed(String problem) {
+            int line = 1;
+            for (int i = 0; i < Math.min(position, text.length()); i++) {
+                if (text.charAt(i) == '\n') {
+                    line++;
+                }
+            }
+            return new IllegalArgumentException("line " + line + ": " + problem);
+        }
+    }
+}
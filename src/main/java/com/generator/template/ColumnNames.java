@@ -0,0 +1,42 @@
+package com.generator.template;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The data source columns referenced by {@code {col:name}} placeholders, numbered in order of first use.
+ * Templates compiled against the same instance share the numbering, so a parsed {@link DataRow} only
+ * needs to hold the columns the templates actually use. Not thread-safe; fill it before generation starts.
+ */
+public final class ColumnNames {
+
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * @return the number of the column, registering it if it is new
+     */
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        if (index == null) {
+            index = names.size();
+            indexes.put(name, index);
+            names.add(name);
+        }
+        return index;
+    }
+
+    /**
+     * @return the registered names, indexed by column number
+     */
+    public List<String> names() {
+        return Collections.unmodifiableList(names);
+    }
+
+    public int size() {
+        return names.size();
+    }
+}
@@ -0,0 +1,425 @@
+package com.generator.template;
+
+import com.generator.model.TimestampMode;
+import com.generator.util.SeededRandom;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A file name or content template parsed once into a list of segments.
+ * Rendering walks the segments and appends straight into a caller-owned buffer,
+ * so no intermediate Strings are created per file.
+ *
+ * Supported placeholders:
+ * <ul>
+ *   <li>{@code {n}} - file number</li>
+ *   <li>{@code {n:06}} - file number zero-padded to the given width</li>
+ *   <li>{@code {n/1000}}, {@code {n%100}}, {@code {n/1000%100:03}} - file number divided by and/or
+ *       modulo a constant, for shard directories such as {@code {n/1000}/file_{n}.txt}</li>
+ *   <li>{@code {date}} - current date and time</li>
+ *   <li>{@code {date:ISO}} - current date and time as ISO-8601 with offset; {@code ISO_DATE},
+ *       {@code ISO_INSTANT}, {@code RFC_1123} or any {@link DateTimeFormatter} pattern also work</li>
+ *   <li>{@code {epochMillis}} - current time in milliseconds since the epoch</li>
+ *   <li>{@code {uuid}} - random type 4 UUID</li>
+ *   <li>{@code {random:N}} - N random alphanumeric characters</li>
+ *   <li>{@code {rand:int}} - random non-negative int</li>
+ *   <li>{@code {rand:hex:N}} - N random hex digits</li>
+ *   <li>{@code {lorem:N}} - N random lorem ipsum words</li>
+ *   <li>{@code {col:name}} - column {@code name} of the data source record the file is generated from,
+ *       when compiled with {@link ColumnNames}</li>
+ * </ul>
+ * Anything else between braces is kept as literal text. A {@code /} outside placeholders separates
+ * directories, see {@link #directoryPart()}.
+ * <p>
+ * Random placeholders compiled with a {@link SeededRandom} are keyed on the seed, the file number and
+ * the placeholder, so a file renders identically on any thread and in any run with the same seed. The
+ * k-th occurrence of the same placeholder text gets the same value, which lets a name and its content
+ * share e.g. a {@code {rand:hex:8}}.
+ */
+public final class CompiledTemplate {
+
+    private static final DateTimeFormatter DEFAULT_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Segment[] segments;
+    private final boolean usesIndex;
+    private final boolean usesColumns;
+    private volatile Pattern namePattern;
+
+    private CompiledTemplate(List<Segment> segments, boolean usesIndex) {
+        this.segments = segments.toArray(new Segment[0]);
+        this.usesIndex = usesIndex;
+        boolean columns = false;
+        for (Segment segment : this.segments) {
+            columns |= segment instanceof Segments.Column;
+        }
+        this.usesColumns = columns;
+    }
+
+    /**
+     * Parses the template text, refreshing date placeholders at most once per second
+     */
+    public static CompiledTemplate compile(String template) {
+        return compile(template, new TimestampProvider(TimestampMode.PER_SECOND));
+    }
+
+    /**
+     * Parses the template text into its literal and placeholder segments
+     * @param timestamps shared source for date placeholders
+     */
+    public static CompiledTemplate compile(String template, TimestampProvider timestamps) {
+        return compile(template, timestamps, null);
+    }
+
+    /**
+     * Parses the template text into its literal and placeholder segments
+     * @param timestamps shared source for date placeholders
+     * @param columns registry for {@code {col:name}} placeholders, or null to keep them as literal text
+     */
+    public static CompiledTemplate compile(String template, TimestampProvider timestamps, ColumnNames columns) {
+        return compile(template, timestamps, columns, null);
+    }
+
+    /**
+     * Parses the template text into its literal and placeholder segments
+     * @param timestamps shared source for date placeholders
+     * @param columns registry for {@code {col:name}} placeholders, or null to keep them as literal text
+     * @param random source for random placeholders, or null for a fresh seed per compile and a new
+     *               {@code {uuid}} and {@code {random:N}} on every rendering
+     */
+    public static CompiledTemplate compile(String template, TimestampProvider timestamps, ColumnNames columns,
+                                           SeededRandom random) {
+        List<Segment> segments = new ArrayList<>();
+        Map<String, Integer> occurrences = new HashMap<>();
+        SeededRandom seeded = random != null ? random : SeededRandom.withRandomSeed();
+        StringBuilder literal = new StringBuilder();
+        boolean usesIndex = false;
+
+        int pos = 0;
+        while (pos < template.length()) {
+            int open = template.indexOf('{', pos);
+            int close = open < 0 ? -1 : template.indexOf('}', open + 1);
+            if (open < 0 || close < 0) {
+                literal.append(template, pos, template.length());
+                break;
+            }
+
+            String name = template.substring(open + 1, close);
+            int occurrence = occurrences.merge(name, 1, Integer::sum) - 1;
+            long stream = ((long) name.hashCode() << 32) | occurrence;
+            Segment placeholder = parsePlaceholder(name, timestamps, columns, random, seeded, stream);
+            if (placeholder == null) {
+                // Unknown placeholder, keep the opening brace and carry on scanning after it
+                literal.append(template, pos, open + 1);
+                pos = open + 1;
+                continue;
+            }
+
+            literal.append(template, pos, open);
+            if (literal.length() > 0) {
+                segments.add(new Segments.Literal(literal.toString()));
+                literal.setLength(0);
+            }
+            segments.add(placeholder);
+            usesIndex |= placeholder instanceof Segments.Index;
+            pos = close + 1;
+        }
+
+        if (literal.length() > 0) {
+            segments.add(new Segments.Literal(literal.toString()));
+        }
+        return new CompiledTemplate(segments, usesIndex);
+    }
+
+    /**
+     * Returns the segment for a placeholder name, or null if the name is not a known placeholder
+     * @param random the caller's random source, null if unseeded
+     * @param seeded the caller's random source, or a fresh one if it is unseeded
+     * @param stream stream number of the placeholder for random values
+     */
+    private static Segment parsePlaceholder(String name, TimestampProvider timestamps, ColumnNames columns,
+                                            SeededRandom random, SeededRandom seeded, long stream) {
+        if (name.equals("n")) {
+            return new Segments.Index(0);
+        } else if (name.startsWith("n:")) {
+            int width = parseCount(name.substring(2));
+            return width < 0 ? null : new Segments.Index(width);
+        } else if (name.startsWith("n/") || name.startsWith("n%")) {
+            return parseShard(name);
+        } else if (name.equals("date")) {
+            return new Segments.Date(timestamps.cached(DEFAULT_DATE_FORMAT));
+        } else if (name.startsWith("date:")) {
+            DateTimeFormatter formatter = parseDateFormat(name.substring(5));
+            return formatter == null ? null : new Segments.Date(timestamps.cached(formatter));
+        } else if (name.equals("epochMillis")) {
+            return new Segments.EpochMillis(timestamps);
+        } else if (name.equals("uuid")) {
+            return new Segments.Uuid(random, stream);
+        } else if (name.startsWith("random:")) {
+            int length = parseCount(name.substring(7));
+            return length < 0 ? null : new Segments.Random(length, random, stream);
+        } else if (name.equals("rand:int")) {
+            return new Segments.RandInt(seeded, stream);
+        } else if (name.startsWith("rand:hex:")) {
+            int digits = parseCount(name.substring(9));
+            return digits < 0 ? null : new Segments.RandHex(digits, seeded, stream);
+        } else if (name.startsWith("lorem:")) {
+            int words = parseCount(name.substring(6));
+            return words < 0 ? null : new Segments.Lorem(words, seeded, stream);
+        } else if (name.startsWith("col:") && name.length() > 4 && columns != null) {
+            return new Segments.Column(columns.indexOf(name.substring(4)));
+        }
+        return null;
+    }
+
+    /**
+     * Parses {@code n/K}, {@code n%M} or {@code n/K%M}, each optionally followed by {@code :0W}
+     */
+    private static Segment parseShard(String name) {
+        int colon = name.indexOf(':');
+        int width = colon < 0 ? 0 : parseCount(name.substring(colon + 1));
+        String expression = colon < 0 ? name.substring(1) : name.substring(1, colon);
+        int percent = expression.indexOf('%');
+
+        long divisor = 1;
+        long modulus = 0;
+        if (expression.startsWith("/")) {
+            divisor = parseConstant(percent < 0 ? expression.substring(1) : expression.substring(1, percent));
+        }
+        if (percent >= 0) {
+            modulus = parseConstant(expression.substring(percent + 1));
+        }
+        if (width < 0 || divisor <= 0 || modulus < 0 || (percent >= 0 && modulus == 0)) {
+            return null;
+        }
+        return new Segments.IndexShard(divisor, modulus, width);
+    }
+
+    /**
+     * Parses a positive decimal constant of up to 18 digits, returning -1 if the text is not one
+     */
+    private static long parseConstant(String text) {
+        if (text.isEmpty() || text.length() > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Resolves a named ISO format or a DateTimeFormatter pattern, returning null if it is neither
+     */
+    private static DateTimeFormatter parseDateFormat(String format) {
+        switch (format) {
+            case "ISO":
+                return DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+            case "ISO_DATE":
+                return DateTimeFormatter.ISO_LOCAL_DATE;
+            case "ISO_INSTANT":
+                return DateTimeFormatter.ISO_INSTANT;
+            case "RFC_1123":
+                return DateTimeFormatter.RFC_1123_DATE_TIME;
+            default:
+                try {
+                    return DateTimeFormatter.ofPattern(format);
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+        }
+    }
+
+    /**
+     * Parses a small non-negative decimal number, returning -1 if the text is not one
+     */
+    private static int parseCount(String text) {
+        if (text.isEmpty() || text.length() > 4) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Appends the template rendered for the given file index to the buffer
+     */
+    public void render(long index, StringBuilder out) {
+        for (Segment segment : segments) {
+            segment.appendTo(out, index);
+        }
+    }
+
+    /**
+     * Appends the template rendered for the given file index and data source record to the buffer
+     * @param row the record for {@code {col:name}} placeholders, or null if there is none
+     */
+    public void render(long index, DataRow row, StringBuilder out) {
+        for (Segment segment : segments) {
+            segment.appendTo(out, index, row);
+        }
+    }
+
+    /**
+     * Convenience method returning the rendered template as a new String
+     */
+    public String render(long index) {
+        StringBuilder out = new StringBuilder();
+        render(index, out);
+        return out.toString();
+    }
+
+    /**
+     * @return true if the template contains a file number placeholder
+     */
+    public boolean usesIndex() {
+        return usesIndex;
+    }
+
+    /**
+     * @return true if the template contains a data source column placeholder
+     */
+    public boolean usesColumns() {
+        return usesColumns;
+    }
+
+    /**
+     * Recovers the file number a name was rendered from, the inverse of {@link #render(long)}, so
+     * existing files can be matched against a template without rendering every name of a run.
+     * The first {@code {n}} placeholder is read back; the name must then render identically from it.
+     * @return the file number, or -1 if the template has no {@code {n}} or no file number renders the name
+     */
+    public long parseIndex(String name) {
+        if (!usesIndex) {
+            return -1;
+        }
+        Pattern pattern = namePattern;
+        if (pattern == null) {
+            pattern = namePattern = compileNamePattern();
+        }
+        Matcher matcher = pattern.matcher(name);
+        if (!matcher.matches()) {
+            return -1;
+        }
+
+        long index;
+        try {
+            index = Long.parseLong(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        StringBuilder rendered = new StringBuilder(name.length());
+        render(index, rendered);
+        return name.contentEquals(rendered) ? index : -1;
+    }
+
+    /**
+     * Builds a pattern capturing the first file number; any other placeholder matches anything
+     */
+    private Pattern compileNamePattern() {
+        StringBuilder regex = new StringBuilder();
+        boolean captured = false;
+        for (Segment segment : segments) {
+            if (segment instanceof Segments.Literal) {
+                regex.append(Pattern.quote(((Segments.Literal) segment).getText()));
+            } else if (segment instanceof Segments.Index) {
+                regex.append(captured ? "\\d+" : "(\\d+)");
+                captured = true;
+            } else if (segment instanceof Segments.IndexShard) {
+                regex.append("\\d+");
+            } else {
+                regex.append(".*?");
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * Returns the directory portion of a file name template, i.e. everything before the last
+     * {@code /} outside a placeholder, or null if the template names files directly in the output directory
+     */
+    public CompiledTemplate directoryPart() {
+        for (int i = segments.length - 1; i >= 0; i--) {
+            if (!(segments[i] instanceof Segments.Literal)) {
+                continue;
+            }
+            String text = ((Segments.Literal) segments[i]).getText();
+            int separator = text.lastIndexOf('/');
+            if (separator < 0) {
+                continue;
+            }
+
+            List<Segment> directory = new ArrayList<>();
+            boolean usesIndex = false;
+            for (int j = 0; j < i; j++) {
+                directory.add(segments[j]);
+                usesIndex |= segments[j] instanceof Segments.Index;
+            }
+            if (separator > 0) {
+                directory.add(new Segments.Literal(text.substring(0, separator)));
+            }
+            return new CompiledTemplate(directory, usesIndex);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the smallest step between file numbers at which the rendering can change, or 0 if it
+     * also depends on something other than the file number (dates, random values).
+     * For example {@code {n/1000}/{n/100%10}} changes at most every 100 files.
+     */
+    public long indexStride() {
+        long stride = 0;
+        for (Segment segment : segments) {
+            if (segment instanceof Segments.Literal) {
+                continue;
+            } else if (segment instanceof Segments.Index) {
+                return 1;
+            } else if (segment instanceof Segments.IndexShard) {
+                long divisor = ((Segments.IndexShard) segment).getDivisor();
+                stride = stride == 0 ? divisor : gcd(stride, divisor);
+            } else {
+                return 0;
+            }
+        }
+        return stride == 0 ? Long.MAX_VALUE : stride;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * @return true if the template has no placeholders, so every rendering is identical
+     */
+    public boolean isStatic() {
+        for (Segment segment : segments) {
+            if (!(segment instanceof Segments.Literal)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
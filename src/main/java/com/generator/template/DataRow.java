@@ -0,0 +1,13 @@
+package com.generator.template;
+
+/**
+ * One record of a data source, as seen by {@code {col:name}} placeholders.
+ * Columns are numbered by the {@link ColumnNames} the templates were compiled with.
+ */
+public interface DataRow {
+
+    /**
+     * Appends the value of the column, or nothing if the record has no such value
+     */
+    void appendColumn(int column, StringBuilder out);
+}
@@ -0,0 +1,21 @@
+package com.generator.template;
+
+/**
+ * One piece of a compiled template: either literal text or a placeholder slot.
+ * Implementations must be safe to call from several worker threads at once.
+ */
+public interface Segment {
+
+    /**
+     * Appends this segment's text for the given file index
+     */
+    void appendTo(StringBuilder out, long index);
+
+    /**
+     * Appends this segment's text for the given file index and data source record
+     * @param row the record the file is generated from, or null without a data source
+     */
+    default void appendTo(StringBuilder out, long index, DataRow row) {
+        appendTo(out, index);
+    }
+}
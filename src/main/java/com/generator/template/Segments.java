@@ -0,0 +1,310 @@
+package com.generator.template;
+
+import com.generator.util.SeededRandom;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Built-in segment implementations used by {@link CompiledTemplate}
+ */
+final class Segments {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final char[] ALPHANUMERIC =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+    private static final String[] LOREM_WORDS = (
+            "lorem ipsum dolor sit amet consectetur adipiscing elit sed do eiusmod tempor incididunt ut labore "
+            + "et dolore magna aliqua enim ad minim veniam quis nostrud exercitation ullamco laboris nisi "
+            + "aliquip ex ea commodo consequat duis aute irure in reprehenderit voluptate velit esse cillum "
+            + "eu fugiat nulla pariatur excepteur sint occaecat cupidatat non proident sunt culpa qui officia "
+            + "deserunt mollit anim id est laborum").split(" ");
+
+    private Segments() {
+    }
+
+    /**
+     * Literal text copied as-is
+     */
+    static final class Literal implements Segment {
+        private final String text;
+
+        Literal(String text) {
+            this.text = text;
+        }
+
+        String getText() {
+            return text;
+        }
+
+        @Override
+        public void appendTo(StringBuilder out, long index) {
+            out.append(text);
+        }
+    }
+
+    /**
+     * {@code {n}} and {@code {n:0W}}: the file number, optionally zero-padded to a fixed width
+     */
+    static final class Index implements Segment {
+        private final int width;
+
+        Index(int width) {
+            this.width = width;
+        }
+
+        @Override
+        public void appendTo(StringBuilder out, long index) {
+            appendPadded(out, index, width);
+        }
+
+        static void appendPadded(StringBuilder out, long value, int width) {
+            for (int pad = width - digitCount(value); pad > 0; pad--) {
+                out.append('0');
+            }
+            out.append(value);
+        }
+
+        private static int digitCount(long value) {
+            int digits = 1;
+            for (long limit = 10; value >= limit && digits < 19; limit *= 10) {
+                digits++;
+            }
+            return digits;
+        }
+    }
+
+    /**
+     * {@code {n/K}}, {@code {n%M}} and {@code {n/K%M:0W}}: the file number divided by K and/or taken modulo M,
+     * used to spread files over shard directories
+     */
+    static final class IndexShard implements Segment {
+        private final long divisor;
+        private final long modulus;
+        private final int width;
+
+        /**
+         * @param modulus 0 for no modulo
+         */
+        IndexShard(long divisor, long modulus, int width) {
+            this.divisor = divisor;
+            this.modulus = modulus;
+            this.width = width;
+        }
+
+        long getDivisor() {
+            return divisor;
+        }
+
+        @Override
+        public void appendTo(StringBuilder out, long index) {
+            long value = index / divisor;
+            if (modulus > 0) {
+                value %= modulus;
+            }
+            Index.appendPadded(out, value, width);
+        }
+    }
+
+    /**
+     * {@code {date}} and {@code {date:FORMAT}}: the current date and time, formatted at most once per second
+     */
+    static final class Date implements Segment {
+        private final TimestampProvider.CachedTimestamp timestamp;
+
+        Date(TimestampProvider.CachedTimestamp timestamp) {
+            this.timestamp = timestamp;
+        }
+
+        @Override
+        public void appendTo(StringBuilder out, long index) {
+            out.append(timestamp.current());
+        }
+    }
+
+    /**
+     * {@code {epochMillis}}: the current time in milliseconds since the epoch
+     */
+    static final class EpochMillis implements Segment {
+        private final TimestampProvider timestamps;
+
+        EpochMillis(TimestampProvider timestamps) {
+            this.timestamps = timestamps;
+        }
+
+        @Override
+        public void appendTo(StringBuilder out, long index) {
+            out.append(timestamps.currentMillis());
+        }
+    }
+
+    /**
+     * {@code {uuid}}: a random type 4 UUID, formatted without going through {@link java.util.UUID}
+     */
+    static final class Uuid implements Segment {
+        private final SeededRandom random;
+        private final long stream;
+
+        /**
+         * @param random seeded source keyed on the file number, or null for values that differ on every call
+         */
+        Uuid(SeededRandom random, long stream) {
+            this.random = random;
+            this.stream = stream;
+        }
+
+        @Override
+        public void appendTo(StringBuilder out, long index) {
+            long high;
+            long low;
+            if (random == null) {
+                high = ThreadLocalRandom.current().nextLong();
+                low = ThreadLocalRandom.current().nextLong();
+            } else {
+                long key = random.key(index, stream);
+                high = SeededRandom.value(key, 0);
+                low = SeededRandom.value(key, 1);
+            }
+            high = (high & ~0xF000L) | 0x4000L;
+            low = (low & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+
+            appendHex(out, high >>> 32, 8);
+            out.append('-');
+            appendHex(out, high >>> 16, 4);
+            out.append('-');
+            appendHex(out, high, 4);
+            out.append('-');
+            appendHex(out, low >>> 48, 4);
+            out.append('-');
+            appendHex(out, low, 12);
+        }
+    }
+
+    private static void appendHex(StringBuilder out, long value, int digits) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            out.append(HEX_DIGITS[(int) (value >>> shift) & 0xF]);
+        }
+    }
+
+    /**
+     * {@code {random:N}}: N random alphanumeric characters
+     */
+    static final class Random implements Segment {
+        private final int length;
+        private final SeededRandom random;
+        private final long stream;
+
+        /**
+         * @param random seeded source keyed on the file number, or null for values that differ on every call
+         */
+        Random(int length, SeededRandom random, long stream) {
+            this.length = length;
+            this.random = random;
+            this.stream = stream;
+        }
+
+        @Override
+        public void appendTo(StringBuilder out, long index) {
+            if (random == null) {
+                ThreadLocalRandom threadRandom = ThreadLocalRandom.current();
+                for (int i = 0; i < length; i++) {
+                    out.append(ALPHANUMERIC[threadRandom.nextInt(ALPHANUMERIC.length)]);
+                }
+                return;
+            }
+            long key = random.key(index, stream);
+            for (int i = 0; i < length; i++) {
+                out.append(ALPHANUMERIC[SeededRandom.bounded(SeededRandom.value(key, i), ALPHANUMERIC.length)]);
+            }
+        }
+    }
+
+    /**
+     * {@code {rand:int}}: a non-negative random int, the same for every rendering of a file number
+     */
+    static final class RandInt implements Segment {
+        private final SeededRandom random;
+        private final long stream;
+
+        RandInt(SeededRandom random, long stream) {
+            this.random = random;
+            this.stream = stream;
+        }
+
+        @Override
+        public void appendTo(StringBuilder out, long index) {
+            out.append((int) (SeededRandom.value(random.key(index, stream), 0) >>> 33));
+        }
+    }
+
+    /**
+     * {@code {rand:hex:N}}: N random hex digits, the same for every rendering of a file number
+     */
+    static final class RandHex implements Segment {
+        private final int digits;
+        private final SeededRandom random;
+        private final long stream;
+
+        RandHex(int digits, SeededRandom random, long stream) {
+            this.digits = digits;
+            this.random = random;
+            this.stream = stream;
+        }
+
+        @Override
+        public void appendTo(StringBuilder out, long index) {
+            long key = random.key(index, stream);
+            for (int done = 0; done < digits; done += 16) {
+                appendHex(out, SeededRandom.value(key, done / 16), Math.min(16, digits - done));
+            }
+        }
+    }
+
+    /**
+     * {@code {lorem:N}}: N lorem ipsum words separated by spaces, the same for every rendering of a file number
+     */
+    static final class Lorem implements Segment {
+        private final int words;
+        private final SeededRandom random;
+        private final long stream;
+
+        Lorem(int words, SeededRandom random, long stream) {
+            this.words = words;
+            this.random = random;
+            this.stream = stream;
+        }
+
+        @Override
+        public void appendTo(StringBuilder out, long index) {
+            long key = random.key(index, stream);
+            for (int i = 0; i < words; i++) {
+                if (i > 0) {
+                    out.append(' ');
+                }
+                out.append(LOREM_WORDS[SeededRandom.bounded(SeededRandom.value(key, i), LOREM_WORDS.length)]);
+            }
+        }
+    }
+
+    /**
+     * {@code {col:name}}: a column of the data source record the file is generated from
+     */
+    static final class Column implements Segment {
+        private final int column;
+
+        Column(int column) {
+            this.column = column;
+        }
+
+        @Override
+        public void appendTo(StringBuilder out, long index) {
+            // Rendered without a record, e.g. for a directory check: the column is empty
+        }
+
+        @Override
+        public void appendTo(StringBuilder out, long index, DataRow row) {
+            if (row != null) {
+                row.appendColumn(column, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.generator.template;
+
+import com.generator.model.TimestampMode;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe source of formatted timestamps for template placeholders.
+ * Each format is rendered at most once per second (or once per run) and the cached text
+ * is shared by all worker threads, so date placeholders cost no formatting work per file.
+ */
+public final class TimestampProvider {
+
+    private final LongSupplier clock;
+    private final ZoneId zone;
+    private final boolean perRun;
+    private final long runStartMillis;
+
+    public TimestampProvider(TimestampMode mode) {
+        this(mode, System::currentTimeMillis, ZoneId.systemDefault());
+    }
+
+    /**
+     * @param clock source of the current time in epoch milliseconds
+     */
+    public TimestampProvider(TimestampMode mode, LongSupplier clock, ZoneId zone) {
+        this.clock = clock;
+        this.zone = zone;
+        this.perRun = mode == TimestampMode.PER_RUN;
+        this.runStartMillis = clock.getAsLong();
+    }
+
+    /**
+     * @return the current time in epoch milliseconds, or the run start time in per-run mode
+     */
+    public long currentMillis() {
+        return perRun ? runStartMillis : clock.getAsLong();
+    }
+
+    /**
+     * Creates a cached view of this provider's time in the given format
+     */
+    public CachedTimestamp cached(DateTimeFormatter formatter) {
+        return new CachedTimestamp(formatter.withZone(zone));
+    }
+
+    /**
+     * One format's most recently rendered timestamp. Concurrent refreshes are harmless:
+     * both threads produce the same text and the last write wins.
+     */
+    public final class CachedTimestamp {
+        private final DateTimeFormatter formatter;
+        private volatile Entry entry;
+
+        private CachedTimestamp(DateTimeFormatter formatter) {
+            this.formatter = formatter;
+        }
+
+        /**
+         * @return the formatted timestamp for the current second
+         */
+        public String current() {
+            long now = currentMillis();
+            long second = Math.floorDiv(now, 1000);
+            Entry cached = entry;
+            if (cached == null || cached.second != second) {
+                cached = new Entry(second, formatter.format(Instant.ofEpochSecond(second)));
+                entry = cached;
+            }
+            return cached.text;
+        }
+    }
+
+    private static final class Entry {
+        final long second;
+        final String text;
+
+        Entry(long second, String text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
+}
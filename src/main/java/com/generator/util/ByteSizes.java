@@ -0,0 +1,66 @@
+package com.generator.util;
+
+import java.util.Locale;
+
+/**
+ * Parsing and formatting of human-readable byte sizes such as {@code 64K} or {@code 1.5 GiB}.
+ * Suffixes are binary multiples (K = 1024).
+ */
+public final class ByteSizes {
+
+    private static final String[] UNITS = {"B", "KiB", "MiB", "GiB", "TiB", "PiB"};
+
+    private ByteSizes() {
+    }
+
+    /**
+     * Parses a size with an optional K, M, G or T suffix (also accepted as KB/KiB etc.)
+     * @throws IllegalArgumentException if the text is not a valid non-negative size
+     */
+    public static long parse(String text) {
+        String value = text.trim().toUpperCase(Locale.ROOT);
+        if (value.endsWith("IB")) {
+            value = value.substring(0, value.length() - 2);
+        } else if (value.endsWith("B")) {
+            value = value.substring(0, value.length() - 1);
+        }
+
+        int shift = 0;
+        if (!value.isEmpty()) {
+            switch (value.charAt(value.length() - 1)) {
+                case 'K': shift = 10; break;
+                case 'M': shift = 20; break;
+                case 'G': shift = 30; break;
+                case 'T': shift = 40; break;
+                default: break;
+            }
+        }
+        if (shift > 0) {
+            value = value.substring(0, value.length() - 1);
+        }
+
+        try {
+            long number = Long.parseLong(value.trim());
+            if (number < 0 || number > (Long.MAX_VALUE >> shift)) {
+                throw new IllegalArgumentException("Size out of range: " + text);
+            }
+            return number << shift;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid size: " + text);
+        }
+    }
+
+    /**
+     * Formats a byte count with one decimal in the largest fitting binary unit, e.g. {@code 1.5 GiB}
+     */
+    public static String format(double bytes) {
+        int unit = 0;
+        while (bytes >= 1024 && unit < UNITS.length - 1) {
+            bytes /= 1024;
+            unit++;
+        }
+        return unit == 0
+                ? String.format(Locale.ROOT, "%.0f %s", bytes, UNITS[unit])
+                : String.format(Locale.ROOT, "%.1f %s", bytes, UNITS[unit]);
+    }
+}
@@ -0,0 +1,62 @@
+package com.generator.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Counter-based random numbers: every value is a pure function of the run's seed, the file number,
+ * a stream number and the position within the stream. Threads share one instance without any
+ * state or locking, values can be drawn in any order, and a single file can be regenerated later
+ * from its number alone. Uses the SplitMix64 mixing function, so it is fast but not cryptographic.
+ */
+public final class SeededRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long STREAM_GAMMA = 0xD1B54A32D192ED03L;
+
+    private final long seed;
+
+    public SeededRandom(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return an instance with a seed that differs from run to run
+     */
+    public static SeededRandom withRandomSeed() {
+        return new SeededRandom(ThreadLocalRandom.current().nextLong());
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return the key of the given stream for one file, to pass to {@link #value}
+     */
+    public long key(long fileIndex, long stream) {
+        return mix(mix(seed ^ mix(fileIndex)) + stream * STREAM_GAMMA);
+    }
+
+    /**
+     * @return the value at the given position of the keyed stream
+     */
+    public static long value(long key, long position) {
+        return mix(key + (position + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * @return a value from 0 (inclusive) to bound (exclusive), derived from a random value
+     */
+    public static int bounded(long value, int bound) {
+        return (int) (((value >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * The SplitMix64 finalizer (Stafford's variant 13), a bijection with good avalanche
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,280 @@
+package com.generator;
+
+import com.generator.model.FileGenerationParameters;
+import com.generator.model.TimestampMode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+
+/**
+ * Unit tests for the headless FileGeneratorCli entry point
+ */
+public class FileGeneratorCliTest {
+
+    private Path tempDir;
+    private ByteArrayOutputStream out;
+    private ByteArrayOutputStream err;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("file-generator-cli-test");
+        out = new ByteArrayOutputStream();
+        err = new ByteArrayOutputStream();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir)
+                .sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+    private int run(String... args) {
+        return FileGeneratorCli.run(args, new PrintStream(out, true), new PrintStream(err, true));
+    }
+
+    @Test
+    public void testParseArguments() throws Exception {
+        FileGenerationParameters params = FileGeneratorCli.parseArguments(new String[] {
+            "--output", "/tmp/out", "-c", "25", "--start", "5000000000", "--pattern=doc_{n}.txt",
+            "--content", "Body {n}", "--threads", "3", "--timestamp-mode", "per-run"
+        });
+
+        assertEquals("/tmp/out", params.getOutputDirectory());
+        assertEquals(25, params.getFileCount());
+        assertEquals(5_000_000_000L, params.getStartIndex());
+        assertEquals("doc_{n}.txt", params.getFileNamePattern());
+        assertEquals("Body {n}", params.getFileContent());
+        assertEquals(3, params.getThreadCount());
+        assertEquals(TimestampMode.PER_RUN, params.getTimestampMode());
+    }
+
+    @Test
+    public void testParseRateLimits() throws Exception {
+        FileGenerationParameters params = FileGeneratorCli.parseArguments(new String[] {
+            "--output", "/tmp/out", "--max-files-per-second", "250.5", "--max-bytes-per-second", "50M"
+        });
+
+        assertEquals(250.5, params.getMaxFilesPerSecond(), 0);
+        assertEquals(50L * 1024 * 1024, params.getMaxBytesPerSecond());
+    }
+
+    @Test
+    public void testResumeFromCheckpoint() throws Exception {
+        Path checkpoint = tempDir.resolve("cli.checkpoint");
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, run("--output", tempDir.resolve("out").toString(),
+                "--count", "10", "--checkpoint", checkpoint.toString()));
+
+        out.reset();
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, run("--output", tempDir.resolve("out").toString(),
+                "--count", "15", "--checkpoint", checkpoint.toString(), "--resume", "true"));
+        assertTrue(out.toString().contains("Generated 5 files"));
+        assertTrue(out.toString().contains("Skipped 10 files"));
+    }
+
+    @Test
+    public void testArchiveOutput() throws Exception {
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, run("--output", tempDir.toString(), "--count", "50",
+                "--archive", "cli.tar"));
+
+        // 50 entries of one header and one data record each, plus two end records
+        assertEquals((50 * 2 + 2) * 512, Files.size(tempDir.resolve("cli.tar")));
+    }
+
+    @Test
+    public void testRenderThreads() throws Exception {
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, run("--output", tempDir.toString(), "--count", "300",
+                "--threads", "2", "--render-threads", "2", "--content", "Piped {n}"));
+
+        assertEquals("Piped 300", new String(Files.readAllBytes(tempDir.resolve("file_300.txt"))));
+    }
+
+    @Test
+    public void testVirtualThreads() throws Exception {
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, run("--output", tempDir.toString(), "--count", "100",
+                "--threads", "1000", "--virtual-threads", "true"));
+
+        assertTrue(Files.exists(tempDir.resolve("file_100.txt")));
+        assertTrue(out.toString().contains(" virtual threads") || out.toString().contains("platform threads"));
+    }
+
+    @Test
+    public void testDataFile() throws Exception {
+        Path data = tempDir.resolve("people.csv");
+        Files.write(data, "name,age\nAda,36\nAlan,41\n".getBytes("UTF-8"));
+
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, run("--output", tempDir.resolve("out").toString(),
+                "--data", data.toString(), "--pattern", "{col:name}.txt", "--content", "{col:age}"));
+
+        assertEquals("41", new String(Files.readAllBytes(tempDir.resolve("out/Alan.txt")), "UTF-8"));
+        assertTrue(out.toString().contains("Generated 2 files"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testColumnsNeedDataFile() throws Exception {
+        FileGeneratorCli.parseArguments(new String[] {"--output", "/tmp/out", "--pattern", "{col:id}.txt"});
+    }
+
+    @Test
+    public void testSeed() throws Exception {
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, run("--output", tempDir.toString(), "--count", "3",
+                "--content", "{rand:hex:16}", "--seed", "-17"));
+
+        assertTrue(out.toString().contains("Random seed -17"));
+        String first = new String(Files.readAllBytes(tempDir.resolve("file_2.txt")), "UTF-8");
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, run("--output", tempDir.toString(), "--count", "3",
+                "--content", "{rand:hex:16}", "--seed", "-17"));
+        assertEquals(first, new String(Files.readAllBytes(tempDir.resolve("file_2.txt")), "UTF-8"));
+    }
+
+    @Test
+    public void testManifestAndVerify() throws Exception {
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, run("--output", tempDir.toString(), "--count", "20",
+                "--pattern", "d{n}/f_{n}.txt", "--manifest", "files.manifest", "--checksum", "crc32"));
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, run("--verify", tempDir.resolve("files.manifest").toString()));
+        assertTrue(out.toString().contains("20 ok, 0 missing, 0 corrupt"));
+
+        Files.write(tempDir.resolve("d4/f_4.txt"), "changed".getBytes("UTF-8"));
+        assertEquals(FileGeneratorCli.EXIT_FAILURE, run("--verify", tempDir.resolve("files.manifest").toString(),
+                "--output", tempDir.toString(), "--threads", "2"));
+        assertTrue(out.toString().contains("CORRUPT d4/f_4.txt"));
+        assertTrue(out.toString().contains("19 ok, 0 missing, 1 corrupt"));
+    }
+
+    @Test
+    public void testExistingFiles() throws Exception {
+        Files.write(tempDir.resolve("file_2.txt"), "old".getBytes("UTF-8"));
+        assertEquals(FileGeneratorCli.EXIT_FAILURE, run("--output", tempDir.toString(), "--count", "3",
+                "--existing", "fail"));
+        assertTrue(err.toString().contains("file_2.txt"));
+
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, run("--output", tempDir.toString(), "--count", "3",
+                "--existing", "skip", "--preflight", "false"));
+        assertTrue(out.toString().contains("Skipped 1 files that already existed"));
+        assertEquals("old", new String(Files.readAllBytes(tempDir.resolve("file_2.txt")), "UTF-8"));
+    }
+
+    @Test
+    public void testUpdateExistingFiles() throws Exception {
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, run("--output", tempDir.toString(), "--count", "5"));
+        Files.write(tempDir.resolve("file_2.txt"), "old".getBytes("UTF-8"));
+
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, run("--output", tempDir.toString(), "--count", "4",
+                "--existing", "update", "--delete-extra", "true"));
+        assertTrue(out.toString().contains("Kept 3 unchanged files, rewrote 1 changed files"));
+        assertTrue(out.toString().contains("Deleted 1 files outside the run"));
+        assertFalse(Files.exists(tempDir.resolve("file_5.txt")));
+
+        assertEquals(FileGeneratorCli.EXIT_USAGE, run("--output", tempDir.toString(), "--delete-extra", "true"));
+        assertTrue(err.toString().contains("--existing update"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testManifestCannotListArchive() throws Exception {
+        FileGeneratorCli.parseArguments(new String[] {
+            "--output", "/tmp/out", "--manifest", "m", "--archive", "out.zip"
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testVerifyTakesNoGenerationOptions() {
+        FileGeneratorCli.parseVerifyArguments(new String[] {"--verify", "m", "--count", "3"});
+    }
+
+    @Test
+    public void testSaveProfileAndReplay() throws Exception {
+        Path profile = tempDir.resolve("fixture.json");
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, run("--output", tempDir.resolve("a").toString(), "--count", "10",
+                "--threads", "2", "--seed", "5", "--content", "{rand:hex:8}", "--save-profile", profile.toString()));
+        assertFalse(Files.exists(tempDir.resolve("a")));
+
+        // Options after a profile override its settings
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, run("--profile", profile.toString(),
+                "--output", tempDir.resolve("b").toString(), "--save-profile", tempDir.resolve("b.json").toString()));
+
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, run("--replay", profile.toString(),
+                "--replay", tempDir.resolve("b.json").toString()));
+        assertTrue(out.toString().contains("Profile 2 of 2"));
+        byte[] first = Files.readAllBytes(tempDir.resolve("a/file_7.txt"));
+        assertArrayEquals(first, Files.readAllBytes(tempDir.resolve("b/file_7.txt")));
+
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, run("--replay", profile.toString(),
+                "--replay", tempDir.resolve("b.json").toString(), "--parallel", "true"));
+        assertArrayEquals(first, Files.readAllBytes(tempDir.resolve("a/file_7.txt")));
+    }
+
+    @Test
+    public void testReplayRejectsInvalidProfile() throws Exception {
+        Path profile = Files.write(tempDir.resolve("bad.json"), "{\"fileCount\": 0}".getBytes("UTF-8"));
+        assertEquals(FileGeneratorCli.EXIT_USAGE, run("--replay", profile.toString()));
+        assertTrue(err.toString().contains("bad.json"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReplayTakesNoGenerationOptions() {
+        FileGeneratorCli.parseReplayArguments(new String[] {"--replay", "p.json", "--count", "3"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRenderThreadsNeedTemplate() throws Exception {
+        FileGeneratorCli.parseArguments(new String[] {
+            "--output", "/tmp/out", "--render-threads", "2", "--content-mode", "zero-fill"
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedArchive() throws Exception {
+        FileGeneratorCli.parseArguments(new String[] {"--output", "/tmp/out", "--archive", "out.7z"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testResumeWithoutCheckpoint() throws Exception {
+        FileGeneratorCli.parseArguments(new String[] {"--output", "/tmp/out", "--resume", "true"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownOption() throws Exception {
+        FileGeneratorCli.parseArguments(new String[] {"--output", "/tmp/out", "--bogus", "1"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingOutputDirectory() throws Exception {
+        FileGeneratorCli.parseArguments(new String[] {"--count", "5"});
+    }
+
+    @Test
+    public void testGenerateFiles() throws Exception {
+        int status = run("--output", tempDir.toString(), "--count", "20", "--pattern", "cli_{n}.txt",
+                         "--content", "CLI {n}");
+
+        assertEquals(FileGeneratorCli.EXIT_SUCCESS, status);
+        assertEquals("CLI 20", new String(Files.readAllBytes(tempDir.resolve("cli_20.txt"))));
+        assertTrue(out.toString().contains("Generated 20 files"));
+    }
+
+    @Test
+    public void testInvalidArgumentsExitCode() {
+        assertEquals(FileGeneratorCli.EXIT_USAGE, run("--count", "abc"));
+        assertTrue(err.toString().contains("Invalid number"));
+        assertEquals(FileGeneratorCli.EXIT_USAGE, run());
+    }
+
+    @Test
+    public void testGenerationFailureExitCode() throws Exception {
+        Path blocker = Files.createFile(tempDir.resolve("blocker"));
+
+        assertEquals(FileGeneratorCli.EXIT_FAILURE, run("--output", blocker.resolve("child").toString()));
+    }
+}
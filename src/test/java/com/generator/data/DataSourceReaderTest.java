@@ -0,0 +1,172 @@
+package com.generator.data;
+
+import com.generator.model.DataFormat;
+import com.generator.template.ColumnNames;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Unit tests for DataSourceReader and the row parsers
+ */
+public class DataSourceReaderTest {
+
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("file-generator-data-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir)
+                .sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Reads every chunk and parses its records, returning the values of the columns
+     */
+    private static List<List<String>> readAll(DataSourceReader reader, int columns) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        RowParser parser = reader.newParser();
+        ParsedRow row = new ParsedRow(columns);
+        for (DataChunk chunk = reader.read(); chunk != null; chunk = reader.read()) {
+            assertEquals(records.size(), chunk.getFirstRow());
+            parser.reset(chunk);
+            for (int i = 0; i < chunk.getRowCount(); i++) {
+                assertTrue(parser.next(row));
+                List<String> values = new ArrayList<>();
+                for (int c = 0; c < columns; c++) {
+                    values.add(row.get(c));
+                }
+                records.add(values);
+            }
+            assertFalse("The chunk holds exactly the counted records", parser.next(row));
+        }
+        return records;
+    }
+
+    private static ColumnNames columns(String... names) {
+        ColumnNames columns = new ColumnNames();
+        for (String name : names) {
+            columns.indexOf(name);
+        }
+        return columns;
+    }
+
+    @Test
+    public void testCsvQuotingAcrossSmallChunks() throws IOException {
+        StringBuilder csv = new StringBuilder("id,skipped,text\r\n");
+        for (int i = 0; i < 200; i++) {
+            csv.append(i).append(",x,");
+            if (i % 3 == 0) {
+                csv.append("\"line one\nline \"\"two\"\", with comma\"");
+            } else {
+                csv.append("plain ").append(i);
+            }
+            csv.append(i % 2 == 0 ? "\r\n" : "\n");
+            if (i % 50 == 0) {
+                csv.append("\n");
+            }
+        }
+        Path file = write("data.csv", csv.toString());
+
+        try (DataSourceReader reader = DataSourceReader.open(file, DataFormat.CSV, columns("text", "id"), 64)) {
+            List<List<String>> records = readAll(reader, 2);
+            assertEquals(200, records.size());
+            assertEquals(200, reader.getRowsRead());
+            assertEquals(reader.getSize(), reader.getBytesRead());
+            for (int i = 0; i < 200; i++) {
+                String text = i % 3 == 0 ? "line one\nline \"two\", with comma" : "plain " + i;
+                assertEquals(text, records.get(i).get(0));
+                assertEquals(String.valueOf(i), records.get(i).get(1));
+            }
+        }
+    }
+
+    @Test
+    public void testCsvLastRecordWithoutLineBreak() throws IOException {
+        Path file = write("short.csv", "a,b\n1,2\n\n3,");
+        try (DataSourceReader reader = DataSourceReader.open(file, DataFormat.CSV, columns("b", "a"))) {
+            List<List<String>> records = readAll(reader, 2);
+            assertEquals(2, records.size());
+            assertEquals("2", records.get(0).get(0));
+            assertEquals("", records.get(1).get(0));
+            assertEquals("3", records.get(1).get(1));
+        }
+    }
+
+    @Test
+    public void testCsvMissingColumn() throws IOException {
+        Path file = write("missing.csv", "a,b\n1,2\n");
+        try {
+            DataSourceReader.open(file, DataFormat.CSV, columns("c")).close();
+            fail("A column missing from the header must be reported");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("'c'"));
+        }
+    }
+
+    @Test
+    public void testJsonlValues() throws IOException {
+        StringBuilder jsonl = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            jsonl.append("{\"id\": ").append(i)
+                 .append(", \"ignored\": {\"x\": \"}\"}, \"name\": \"Caf\\u00e9 \\\"").append(i).append("\\\"\"")
+                 .append(", \"tags\": [1, {\"a\": [2]}], \"none\": null}\n");
+            if (i % 10 == 0) {
+                jsonl.append("   \n");
+            }
+        }
+        Path file = write("data.jsonl", jsonl.toString());
+
+        try (DataSourceReader reader = DataSourceReader.open(file, DataFormat.JSONL,
+                columns("name", "id", "tags", "none", "absent"), 128)) {
+            List<List<String>> records = readAll(reader, 5);
+            assertEquals(100, records.size());
+            assertEquals("Café \"42\"", records.get(42).get(0));
+            assertEquals("42", records.get(42).get(1));
+            assertEquals("[1, {\"a\": [2]}]", records.get(42).get(2));
+            assertEquals("", records.get(42).get(3));
+            assertEquals("", records.get(42).get(4));
+        }
+    }
+
+    @Test
+    public void testMalformedJsonNamesRecord() throws IOException {
+        Path file = write("bad.jsonl", "{\"a\": 1}\n{\"a\" 2}\n");
+        try (DataSourceReader reader = DataSourceReader.open(file, DataFormat.JSONL, columns("a"))) {
+            RowParser parser = reader.newParser();
+            ParsedRow row = new ParsedRow(1);
+            parser.reset(reader.read());
+            assertTrue(parser.next(row));
+            try {
+                parser.next(row);
+                fail("Malformed JSON must be reported");
+            } catch (IOException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("record 2"));
+            }
+        }
+    }
+}
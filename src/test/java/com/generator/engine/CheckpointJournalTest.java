@@ -0,0 +1,114 @@
+package com.generator.engine;
+
+import com.generator.model.FileGenerationParameters;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Unit tests for CheckpointJournal class
+ */
+public class CheckpointJournalTest {
+
+    private Path tempDir;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("file-generator-checkpoint-test");
+        file = tempDir.resolve("run.checkpoint");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir)
+                .sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testOutOfOrderRangesAreMerged() throws Exception {
+        try (CheckpointJournal journal = CheckpointJournal.open(file, "abc", false)) {
+            journal.record(513, 768);
+            journal.record(1, 256);
+            journal.record(257, 300);
+            journal.record(1000, 1000);
+        }
+
+        List<long[]> ranges = CheckpointJournal.read(file, "abc");
+        assertEquals(3, ranges.size());
+        assertArrayEquals(new long[] {1, 300}, ranges.get(0));
+        assertArrayEquals(new long[] {513, 768}, ranges.get(1));
+        assertArrayEquals(new long[] {1000, 1000}, ranges.get(2));
+    }
+
+    @Test
+    public void testResumeKeepsAndCompactsRanges() throws Exception {
+        try (CheckpointJournal journal = CheckpointJournal.open(file, "abc", false)) {
+            journal.record(11, 20);
+            journal.record(1, 10);
+        }
+        try (CheckpointJournal journal = CheckpointJournal.open(file, "abc", true)) {
+            assertEquals(1, journal.getCompleted().size());
+            assertArrayEquals(new long[] {1, 20}, journal.getCompleted().get(0));
+            journal.record(21, 30);
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size());
+        assertEquals("1-20", lines.get(1));
+        assertEquals("21-30", lines.get(2));
+    }
+
+    @Test
+    public void testNewRunTruncates() throws Exception {
+        try (CheckpointJournal journal = CheckpointJournal.open(file, "abc", false)) {
+            journal.record(1, 10);
+        }
+        try (CheckpointJournal journal = CheckpointJournal.open(file, "abc", false)) {
+            assertTrue(journal.getCompleted().isEmpty());
+        }
+        assertTrue(CheckpointJournal.read(file, "abc").isEmpty());
+    }
+
+    @Test
+    public void testTornLastLineIsIgnored() throws Exception {
+        try (CheckpointJournal journal = CheckpointJournal.open(file, "abc", false)) {
+            journal.record(1, 10);
+        }
+        Files.write(file, "11-2".getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+
+        List<long[]> ranges = CheckpointJournal.read(file, "abc");
+        assertEquals(1, ranges.size());
+        assertArrayEquals(new long[] {1, 10}, ranges.get(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void testFingerprintMismatch() throws Exception {
+        CheckpointJournal.open(file, "abc", false).close();
+        CheckpointJournal.open(file, "def", true);
+    }
+
+    @Test
+    public void testFingerprintIgnoresFileCount() {
+        FileGenerationParameters first = new FileGenerationParameters("/out", 100, "f_{n}.txt", "Body {n}");
+        FileGenerationParameters second = new FileGenerationParameters("/out", 500, "f_{n}.txt", "Body {n}");
+        FileGenerationParameters other = new FileGenerationParameters("/out", 100, "g_{n}.txt", "Body {n}");
+
+        assertEquals(CheckpointJournal.fingerprint(first), CheckpointJournal.fingerprint(second));
+        assertNotEquals(CheckpointJournal.fingerprint(first), CheckpointJournal.fingerprint(other));
+    }
+}
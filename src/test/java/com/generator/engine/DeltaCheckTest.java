@@ -0,0 +1,120 @@
+package com.generator.engine;
+
+import com.generator.io.FileDigest;
+import com.generator.manifest.Manifest;
+import com.generator.manifest.ManifestWriter;
+import com.generator.model.ChecksumType;
+import com.generator.model.ContentMode;
+import com.generator.payload.PayloadGenerator;
+import com.generator.template.CompiledTemplate;
+import com.generator.util.SeededRandom;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+
+/**
+ * Unit tests for DeltaCheck and PreviousManifest
+ */
+public class DeltaCheckTest {
+
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("file-generator-delta-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir)
+                .sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+    private static ByteBuffer bytes(String content) {
+        return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String checksum(ChecksumType type, ByteBuffer content) {
+        FileDigest digest = FileDigest.create(type);
+        digest.update(content);
+        return digest.finish();
+    }
+
+    @Test
+    public void testContentIsComparedChunkByChunk() throws Exception {
+        Path file = Files.write(tempDir.resolve("f_1.txt"), "abcdefghij".getBytes(StandardCharsets.UTF_8));
+        DeltaCheck delta = new DeltaCheck(null, 3);
+
+        ByteBuffer same = bytes("abcdefghij");
+        assertEquals(DeltaCheck.Difference.UNCHANGED, delta.compare(file, 1, same, null));
+        assertEquals("The content is not consumed", 10, same.remaining());
+        assertEquals(DeltaCheck.Difference.CHANGED, delta.compare(file, 1, bytes("abcdefghiX"), null));
+        assertEquals(DeltaCheck.Difference.CHANGED, delta.compare(file, 1, bytes("abc"), null));
+        assertEquals(DeltaCheck.Difference.MISSING, delta.compare(tempDir.resolve("f_2.txt"), 2, same, null));
+    }
+
+    @Test
+    public void testPayloadIsComparedWithFile() throws Exception {
+        PayloadGenerator payload = PayloadGenerator.create(ContentMode.RANDOM_BYTES,
+                CompiledTemplate.compile(""), new SeededRandom(3));
+        ByteBuffer content = ByteBuffer.allocate(10_000);
+        payload.fill(content, 7, 0);
+        content.flip();
+        Path file = tempDir.resolve("f_7.bin");
+        Files.write(file, content.array());
+
+        DeltaCheck delta = new DeltaCheck(null, 4096);
+        assertEquals(DeltaCheck.Difference.UNCHANGED, delta.compare(file, 7, 10_000, payload, null));
+        assertEquals(DeltaCheck.Difference.CHANGED, delta.compare(file, 8, 10_000, payload, null));
+        assertEquals(DeltaCheck.Difference.CHANGED, delta.compare(file, 7, 9_999, payload, null));
+    }
+
+    @Test
+    public void testPreviousManifestAnswersWithoutReading() throws Exception {
+        ChecksumType type = ChecksumType.SHA256;
+        Path manifestFile = tempDir.resolve("files.manifest");
+        StringBuilder lines = new StringBuilder();
+        Manifest.appendEntry(lines, checksum(type, bytes("one")), 3, "f_1.txt");
+        Manifest.appendEntry(lines, checksum(type, bytes("two")), 3, "f_2.txt");
+        Manifest.appendEntry(lines, checksum(type, bytes("six")), 3, "f_6.txt");
+        try (ManifestWriter writer = ManifestWriter.open(manifestFile, type, false)) {
+            writer.append(lines);
+        }
+        CompiledTemplate names = CompiledTemplate.compile("f_{n}.txt");
+
+        PreviousManifest previous = PreviousManifest.load(manifestFile, type, names, 1, 5);
+        assertEquals(3, previous.size(1));
+        assertEquals("Outside the run", -1, previous.size(6));
+        assertNull("Other checksum", PreviousManifest.load(manifestFile, ChecksumType.CRC32, names, 1, 5));
+        assertNull("No manifest", PreviousManifest.load(tempDir.resolve("none"), type, names, 1, 5));
+
+        // The file is trusted to hold what the manifest records, so only its size is read
+        Path file = Files.write(tempDir.resolve("f_1.txt"), "XXX".getBytes(StandardCharsets.UTF_8));
+        Files.write(tempDir.resolve("f_2.txt"), "two".getBytes(StandardCharsets.UTF_8));
+        DeltaCheck delta = new DeltaCheck(previous, 4096);
+        ByteBuffer one = bytes("one");
+        assertEquals(DeltaCheck.Difference.UNCHANGED, delta.compare(file, 1, one, checksum(type, one)));
+        assertEquals(checksum(type, one), delta.getChecksum());
+        ByteBuffer changed = bytes("ONE");
+        assertEquals(DeltaCheck.Difference.CHANGED, delta.compare(file, 1, changed, checksum(type, changed)));
+
+        // Files the manifest does not list are read
+        Files.write(tempDir.resolve("f_3.txt"), "new".getBytes(StandardCharsets.UTF_8));
+        ByteBuffer other = bytes("NEW");
+        assertEquals(DeltaCheck.Difference.CHANGED,
+                     delta.compare(tempDir.resolve("f_3.txt"), 3, other, checksum(type, other)));
+    }
+}
@@ -0,0 +1,29 @@
+package com.generator.engine;
+
+import com.generator.template.CompiledTemplate;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for DirectorySharding class
+ */
+public class DirectoryShardingTest {
+
+    @Test
+    public void testUnshardedPatternUnchanged() {
+        assertEquals("file_{n}.txt", DirectorySharding.shardedPattern("file_{n}.txt", 0, 1));
+    }
+
+    @Test
+    public void testFanOutPrefix() {
+        String pattern = DirectorySharding.shardedPattern("file_{n}.txt", 1000, 2);
+
+        assertEquals("{n/1000000:03}/{n/1000%1000:03}/file_{n}.txt", pattern);
+        assertEquals("001/234/file_1234567.txt", CompiledTemplate.compile(pattern).render(1234567));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFanOutOverflow() {
+        DirectorySharding.shardedPattern("file_{n}.txt", Integer.MAX_VALUE, 6);
+    }
+}
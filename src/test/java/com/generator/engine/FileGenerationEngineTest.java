@@ -0,0 +1,833 @@
+package com.generator.engine;
+
+import com.generator.manifest.ManifestVerifier;
+import com.generator.metrics.MetricsReport;
+import com.generator.metrics.Phase;
+import com.generator.model.ChecksumType;
+import com.generator.model.CollisionPolicy;
+import com.generator.model.ContentMode;
+import com.generator.model.FileGenerationParameters;
+import com.generator.model.WriteBackendType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Unit tests for FileGenerationEngine class
+ */
+public class FileGenerationEngineTest {
+
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("file-generator-engine-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir)
+                .sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testParallelGenerationWritesEveryFile() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 1000, "parallel_{n}.txt", "Content {n}"
+        );
+        params.setThreadCount(4);
+
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+
+        for (int i = 1; i <= 1000; i++) {
+            File file = new File(tempDir.toFile(), "parallel_" + i + ".txt");
+            assertTrue("File " + file.getName() + " should exist", file.exists());
+            assertEquals("Content " + i, new String(Files.readAllBytes(file.toPath())));
+        }
+    }
+
+    @Test
+    public void testStartIndexOffsetsFileNumbers() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 600, "{n/1000}/offset_{n}.txt", "Content {n}"
+        );
+        params.setStartIndex(4_999_999_700L);
+        params.setThreadCount(3);
+
+        AtomicLong lastTotal = new AtomicLong();
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> false, progress -> lastTotal.set(progress.getTotalFiles()));
+
+        assertEquals(600, engine.getCompletedCount());
+        assertEquals(600, lastTotal.get());
+        assertEquals("Content 4999999700",
+                     new String(Files.readAllBytes(tempDir.resolve("4999999/offset_4999999700.txt"))));
+        assertTrue(Files.exists(tempDir.resolve("5000000/offset_5000000299.txt")));
+        assertFalse(Files.exists(tempDir.resolve("5000000/offset_5000000300.txt")));
+    }
+
+    @Test
+    public void testRateLimitedRun() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 60, "limited_{n}.txt", "Content {n}"
+        );
+        params.setThreadCount(4);
+        params.setMaxFilesPerSecond(100);
+
+        long start = System.nanoTime();
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // 10 files come from the initial burst, the other 50 take half a second
+        assertTrue("Took " + elapsedMillis + " ms", elapsedMillis >= 400);
+        assertEquals(60, Files.list(tempDir).count());
+    }
+
+    @Test
+    public void testCancelledRunResumesWhereItStopped() throws Exception {
+        Path checkpoint = tempDir.resolve("run.checkpoint");
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.resolve("out").toString(), 5000, "resume_{n}.txt", "Content {n}"
+        );
+        params.setThreadCount(4);
+        params.setCheckpointFile(checkpoint.toString());
+
+        FileGenerationEngine first = new FileGenerationEngine(params);
+        first.generate(() -> first.getCompletedCount() >= 1000, progress -> { });
+        long written = first.getCompletedCount();
+        assertTrue(written < 5000);
+
+        params.setResume(true);
+        FileGenerationEngine second = new FileGenerationEngine(params);
+        second.generate(() -> false, progress -> { });
+
+        assertEquals(written, second.getResumedCount());
+        assertEquals(5000 - written, second.getCompletedCount());
+        for (int i = 1; i <= 5000; i++) {
+            assertTrue("File " + i + " should exist", Files.exists(tempDir.resolve("out/resume_" + i + ".txt")));
+        }
+    }
+
+    @Test
+    public void testResumeSkipsRecordedRanges() throws Exception {
+        Path checkpoint = tempDir.resolve("run.checkpoint");
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.resolve("out").toString(), 1000, "skip_{n}.txt", "Content {n}"
+        );
+        params.setThreadCount(3);
+        params.setCheckpointFile(checkpoint.toString());
+        params.setResume(true);
+        Files.write(checkpoint, ("# file-generator checkpoint " + CheckpointJournal.fingerprint(params)
+                + "\n600-700\n1-100\n").getBytes(StandardCharsets.US_ASCII));
+
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> false, progress -> { });
+
+        assertEquals(201, engine.getResumedCount());
+        assertEquals(799, engine.getCompletedCount());
+        for (int i = 1; i <= 1000; i++) {
+            boolean skipped = i <= 100 || (i >= 600 && i <= 700);
+            assertEquals("File " + i, !skipped, Files.exists(tempDir.resolve("out/skip_" + i + ".txt")));
+        }
+
+        List<long[]> done = CheckpointJournal.read(checkpoint, CheckpointJournal.fingerprint(params));
+        assertEquals(1, done.size());
+        assertArrayEquals(new long[] {1, 1000}, done.get(0));
+    }
+
+    @Test
+    public void testArchiveOutput() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 2000, "{n/500}/entry_{n}.txt", "Content {n}"
+        );
+        params.setThreadCount(4);
+        params.setArchiveFile("out.zip");
+
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> false, progress -> { });
+
+        assertEquals(2000, engine.getCompletedCount());
+        assertFalse("No directories are created", Files.exists(tempDir.resolve("1")));
+        try (ZipFile zip = new ZipFile(tempDir.resolve("out.zip").toFile())) {
+            assertEquals(2000, zip.size());
+            ZipEntry entry = zip.getEntry("3/entry_1777.txt");
+            assertEquals("Content 1777", new String(readAll(zip.getInputStream(entry)), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testRenderPipelineWritesEveryFile() throws Exception {
+        Path checkpoint = tempDir.resolve("pipeline.checkpoint");
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.resolve("out").toString(), 3000, "{n/1000}/piped_{n}.txt", "Content {n} \u00e9\u20ac"
+        );
+        params.setThreadCount(2);
+        params.setRenderThreadCount(3);
+        params.setCheckpointFile(checkpoint.toString());
+
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> false, progress -> { });
+
+        assertEquals(3000, engine.getCompletedCount());
+        for (int i = 1; i <= 3000; i++) {
+            Path file = tempDir.resolve("out/" + (i / 1000) + "/piped_" + i + ".txt");
+            assertEquals("Content " + i + " \u00e9\u20ac", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        }
+        List<long[]> done = CheckpointJournal.read(checkpoint, CheckpointJournal.fingerprint(params));
+        assertEquals(1, done.size());
+        assertArrayEquals(new long[] {1, 3000}, done.get(0));
+    }
+
+    @Test
+    public void testRenderPipelineIntoArchive() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 1500, "entry_{n}.txt", "Content {n}"
+        );
+        params.setThreadCount(2);
+        params.setRenderThreadCount(2);
+        params.setArchiveFile("out.zip");
+
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+
+        try (ZipFile zip = new ZipFile(tempDir.resolve("out.zip").toFile())) {
+            assertEquals(1500, zip.size());
+            ZipEntry entry = zip.getEntry("entry_1234.txt");
+            assertEquals("Content 1234", new String(readAll(zip.getInputStream(entry)), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testRenderPipelineCancellation() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 100000, "cancel_{n}.txt", "Content {n}"
+        );
+        params.setThreadCount(2);
+        params.setRenderThreadCount(2);
+
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> engine.getCompletedCount() >= 50, progress -> { });
+
+        assertTrue("Generation should stop early", engine.getCompletedCount() < 100000);
+    }
+
+    @Test
+    public void testVirtualThreadMode() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 2000, "{n/500}/virtual_{n}.txt", "Content {n}"
+        );
+        params.setThreadCount(500);
+        params.setVirtualThreads(true);
+
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> false, progress -> { });
+
+        assertEquals(2000, engine.getCompletedCount());
+        assertEquals(VirtualThreads.SUPPORTED, engine.isUsingVirtualThreads());
+        // Small claims spread even a short run over many threads
+        assertEquals(2000 / FileGenerationEngine.VIRTUAL_BATCH_SIZE, engine.getWorkerThreadCount());
+        assertEquals("Content 1999", new String(Files.readAllBytes(tempDir.resolve("3/virtual_1999.txt")),
+                StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDataFileRecords() throws Exception {
+        StringBuilder csv = new StringBuilder("id,city,note\n");
+        for (int i = 0; i < 3000; i++) {
+            csv.append("r").append(i).append(",city").append(i % 7).append(",\"a, \"\"b\"\"\nc\"\n");
+        }
+        Path data = tempDir.resolve("rows.csv");
+        Files.write(data, csv.toString().getBytes(StandardCharsets.UTF_8));
+        Path checkpoint = tempDir.resolve("data.checkpoint");
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.resolve("out").toString(), Long.MAX_VALUE - 1, "{col:city}/{col:id}.txt", "{n}: {col:note}"
+        );
+        params.setThreadCount(4);
+        params.setDataFile(data.toString());
+        params.setCheckpointFile(checkpoint.toString());
+        params.setResume(true);
+        Files.write(checkpoint, ("# file-generator checkpoint " + CheckpointJournal.fingerprint(params)
+                + "\n1-1000\n").getBytes(StandardCharsets.US_ASCII));
+
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> false, progress -> { });
+
+        assertEquals(1000, engine.getResumedCount());
+        assertEquals(2000, engine.getCompletedCount());
+        assertFalse(Files.exists(tempDir.resolve("out/city6/r999.txt")));
+        for (int i = 1000; i < 3000; i++) {
+            Path file = tempDir.resolve("out/city" + (i % 7) + "/r" + i + ".txt");
+            assertEquals((i + 1) + ": a, \"b\"\nc", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testDataFileLimitedByCount() throws Exception {
+        Path data = tempDir.resolve("rows.jsonl");
+        StringBuilder jsonl = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            jsonl.append("{\"name\": \"item").append(i).append("\"}\n");
+        }
+        Files.write(data, jsonl.toString().getBytes(StandardCharsets.UTF_8));
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 10, "{col:name}.txt", "{col:name}"
+        );
+        params.setDataFile(data.toString());
+
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> false, progress -> { });
+
+        assertEquals(10, engine.getCompletedCount());
+        assertTrue(Files.exists(tempDir.resolve("item9.txt")));
+        assertFalse(Files.exists(tempDir.resolve("item10.txt")));
+    }
+
+    @Test
+    public void testDataFileNamesStayInOutputDirectory() throws Exception {
+        Path data = tempDir.resolve("rows.csv");
+        Files.write(data, "name\nok\n../escaped\n".getBytes(StandardCharsets.UTF_8));
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.resolve("out").toString(), Long.MAX_VALUE - 1, "{col:name}.txt", "x"
+        );
+        params.setDataFile(data.toString());
+
+        try {
+            new FileGenerationEngine(params).generate(() -> false, progress -> { });
+            fail("A name leaving the output directory must be rejected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("escaped"));
+        }
+        assertFalse(Files.exists(tempDir.resolve("escaped.txt")));
+    }
+
+    @Test
+    public void testDataFileWithRenderThreadsIsRejected() throws Exception {
+        Path data = tempDir.resolve("rows.csv");
+        Files.write(data, "name\nok\n".getBytes(StandardCharsets.UTF_8));
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.resolve("out").toString(), 1, "{col:name}.txt", "x"
+        );
+        params.setDataFile(data.toString());
+        params.setRenderThreadCount(2);
+
+        try {
+            new FileGenerationEngine(params).generate(() -> false, progress -> { });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid parameters"));
+        }
+        assertFalse(Files.exists(tempDir.resolve("out")));
+    }
+
+    @Test
+    public void testSeededRunsAreReproducible() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.resolve("a").toString(), 500, "{rand:hex:6}_{n}.txt", "{uuid} {lorem:4} {rand:int}"
+        );
+        params.setThreadCount(4);
+        params.setSeed(123L);
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> false, progress -> { });
+        assertEquals(123L, engine.getSeed());
+
+        // A single file regenerated on its own matches the one from the full run
+        params.setOutputDirectory(tempDir.resolve("b").toString());
+        params.setStartIndex(321);
+        params.setFileCount(1);
+        params.setThreadCount(1);
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+
+        File[] single = tempDir.resolve("b").toFile().listFiles();
+        assertEquals(1, single.length);
+        assertTrue(single[0].getName().endsWith("_321.txt"));
+        assertArrayEquals(Files.readAllBytes(tempDir.resolve("a").resolve(single[0].getName())),
+                Files.readAllBytes(single[0].toPath()));
+    }
+
+    @Test
+    public void testSeededRandomBytes() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.resolve("a").toString(), 3, "random_{n}.bin", ""
+        );
+        params.setContentMode(ContentMode.RANDOM_BYTES);
+        params.setTargetFileSize(100_000);
+        params.setSeed(5L);
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+
+        params.setOutputDirectory(tempDir.resolve("b").toString());
+        params.setWriteBackend(WriteBackendType.MEMORY_MAPPED);
+        params.setChunkSize(4096);
+        params.setThreadCount(3);
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+
+        for (int i = 1; i <= 3; i++) {
+            assertArrayEquals(Files.readAllBytes(tempDir.resolve("a/random_" + i + ".bin")),
+                    Files.readAllBytes(tempDir.resolve("b/random_" + i + ".bin")));
+        }
+    }
+
+    @Test
+    public void testManifestMatchesEveryWritePath() throws Exception {
+        String[][] runs = {
+            // name, content mode, backend, content
+            {"template", "TEMPLATE", "NIO_CHANNEL", "Content {n} \u00e9"},
+            {"static", "TEMPLATE", "NIO_CHANNEL", "Same content"},
+            {"legacy", "TEMPLATE", "FILE_WRITER", "Legacy {n}"},
+            {"pipeline", "TEMPLATE", "NIO_CHANNEL", "Rendered {n}"},
+            {"random", "RANDOM_BYTES", "NIO_CHANNEL", ""},
+            {"mapped", "RANDOM_TEXT", "MEMORY_MAPPED", ""},
+        };
+        for (String[] run : runs) {
+            Path output = tempDir.resolve(run[0]);
+            FileGenerationParameters params = new FileGenerationParameters(
+                output.toString(), 40, "d{n}/" + run[0] + "_{n}", run[3]
+            );
+            params.setContentMode(ContentMode.valueOf(run[1]));
+            params.setWriteBackend(WriteBackendType.valueOf(run[2]));
+            params.setTargetFileSize(10_000);
+            params.setChunkSize(4096);
+            params.setThreadCount(3);
+            params.setRenderThreadCount(run[0].equals("pipeline") ? 2 : 0);
+            params.setManifestFile(FileGenerationParameters.DEFAULT_MANIFEST_NAME);
+            params.setChecksumType(ChecksumType.SHA256);
+            new FileGenerationEngine(params).generate(() -> false, progress -> { });
+
+            ManifestVerifier verifier = new ManifestVerifier(
+                    output.resolve(FileGenerationParameters.DEFAULT_MANIFEST_NAME), output, 2);
+            List<String> problems = new CopyOnWriteArrayList<>();
+            verifier.verify((problem, entry, detail) -> problems.add(entry.getPath() + ": " + detail));
+            assertTrue(run[0] + " " + problems, problems.isEmpty());
+            assertEquals(run[0], 40, verifier.getCheckedCount());
+        }
+    }
+
+    @Test
+    public void testResumedRunExtendsManifest() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 3000, "resume_{n}.txt", "Content {n}"
+        );
+        params.setThreadCount(4);
+        params.setCheckpointFile(tempDir.resolve("run.checkpoint").toString());
+        params.setManifestFile("files.manifest");
+
+        FileGenerationEngine first = new FileGenerationEngine(params);
+        first.generate(() -> first.getCompletedCount() >= 500, progress -> { });
+        assertTrue(first.getCompletedCount() < 3000);
+        params.setResume(true);
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+
+        ManifestVerifier verifier = new ManifestVerifier(tempDir.resolve("files.manifest"), tempDir, 2);
+        verifier.verify((problem, entry, detail) -> fail(entry.getPath() + ": " + detail));
+        assertEquals(3000, verifier.getCheckedCount());
+    }
+
+    @Test
+    public void testExistingFilesAreSkipped() throws Exception {
+        Files.createDirectories(tempDir.resolve("1"));
+        Files.write(tempDir.resolve("1/keep_1500.txt"), "old".getBytes(StandardCharsets.UTF_8));
+        Files.write(tempDir.resolve("1/keep_1501.txt"), "old".getBytes(StandardCharsets.UTF_8));
+        Files.write(tempDir.resolve("keep_7.txt"), "not of this run".getBytes(StandardCharsets.UTF_8));
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 2000, "{n/1000}/keep_{n}.txt", "New {n}"
+        );
+        params.setThreadCount(3);
+        params.setCollisionPolicy(CollisionPolicy.SKIP);
+
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> false, progress -> { });
+
+        assertEquals(2, engine.getSkippedCount());
+        assertEquals(0, engine.getResumedCount());
+        assertEquals(1998, engine.getCompletedCount());
+        assertEquals("old", new String(Files.readAllBytes(tempDir.resolve("1/keep_1500.txt")), StandardCharsets.UTF_8));
+        assertEquals("New 1502", new String(Files.readAllBytes(tempDir.resolve("1/keep_1502.txt")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testExistingFilesFailBeforeWriting() throws Exception {
+        Files.write(tempDir.resolve("fail_30.txt"), new byte[0]);
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 50, "fail_{n}.txt", "Content {n}"
+        );
+        params.setCollisionPolicy(CollisionPolicy.FAIL);
+
+        try {
+            new FileGenerationEngine(params).generate(() -> false, progress -> { });
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("fail_30.txt"));
+        }
+        assertFalse(Files.exists(tempDir.resolve("fail_1.txt")));
+    }
+
+    @Test
+    public void testExistingFilesAreCountedWhenOverwritten() throws Exception {
+        Files.write(tempDir.resolve("over_2.txt"), "old".getBytes(StandardCharsets.UTF_8));
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 5, "over_{n}.txt", "New {n}"
+        );
+
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> false, progress -> { });
+
+        assertEquals(1, engine.getExistingCount());
+        assertEquals(0, engine.getSkippedCount());
+        assertEquals("New 2", new String(Files.readAllBytes(tempDir.resolve("over_2.txt")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testUpdateRewritesOnlyChangedFiles() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 100, "{n/50}/update_{n}.txt", "Content {n}"
+        );
+        params.setThreadCount(3);
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+        Files.write(tempDir.resolve("0/update_5.txt"), "Content X".getBytes(StandardCharsets.UTF_8));
+        Files.write(tempDir.resolve("0/update_9.txt"), "Content".getBytes(StandardCharsets.UTF_8));
+        Files.delete(tempDir.resolve("1/update_70.txt"));
+
+        params.setCollisionPolicy(CollisionPolicy.UPDATE);
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> false, progress -> { });
+
+        assertEquals(100, engine.getCompletedCount());
+        assertEquals(99, engine.getExistingCount());
+        assertEquals(97, engine.getUnchangedCount());
+        assertEquals(2, engine.getChangedCount());
+        assertEquals("Content 5".length() + "Content 9".length() + "Content 70".length(),
+                     engine.getCompletedBytes());
+        assertEquals("Content 5", new String(Files.readAllBytes(tempDir.resolve("0/update_5.txt")), StandardCharsets.UTF_8));
+        assertEquals("Content 9", new String(Files.readAllBytes(tempDir.resolve("0/update_9.txt")), StandardCharsets.UTF_8));
+        assertTrue(Files.exists(tempDir.resolve("1/update_70.txt")));
+        assertEquals(100, engine.getMetricsReport().getHistogram(Phase.COMPARE).getCount());
+    }
+
+    @Test
+    public void testUpdateComparesWithPreviousManifest() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 20, "sized_{n}.bin", ""
+        );
+        params.setContentMode(ContentMode.RANDOM_BYTES);
+        params.setTargetFileSize(10_000);
+        params.setChunkSize(4096);
+        params.setSeed(1L);
+        params.setManifestFile("files.manifest");
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+
+        // Same seed: the recorded checksums match and only the new files are written
+        params.setFileCount(25);
+        params.setCollisionPolicy(CollisionPolicy.UPDATE);
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> false, progress -> { });
+        assertEquals(20, engine.getUnchangedCount());
+        assertEquals(0, engine.getChangedCount());
+        assertEquals(5 * 10_000, engine.getCompletedBytes());
+
+        // Another seed changes every file
+        params.setSeed(2L);
+        engine = new FileGenerationEngine(params);
+        engine.generate(() -> false, progress -> { });
+        assertEquals(0, engine.getUnchangedCount());
+        assertEquals(25, engine.getChangedCount());
+
+        ManifestVerifier verifier = new ManifestVerifier(tempDir.resolve("files.manifest"), tempDir, 2);
+        verifier.verify((problem, entry, detail) -> fail(entry.getPath() + ": " + detail));
+        assertEquals(25, verifier.getCheckedCount());
+    }
+
+    @Test
+    public void testUpdateDeletesFilesOutsideTheRun() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 50, "extra_{n}.txt", "Content {n}"
+        );
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+        Files.write(tempDir.resolve("notes.txt"), "keep".getBytes(StandardCharsets.UTF_8));
+
+        params.setStartIndex(11);
+        params.setFileCount(30);
+        params.setCollisionPolicy(CollisionPolicy.UPDATE);
+        params.setDeleteExtraFiles(true);
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> false, progress -> { });
+
+        assertEquals(20, engine.getDeletedCount());
+        assertEquals(30, engine.getUnchangedCount());
+        assertFalse(Files.exists(tempDir.resolve("extra_10.txt")));
+        assertTrue(Files.exists(tempDir.resolve("extra_11.txt")));
+        assertTrue(Files.exists(tempDir.resolve("extra_40.txt")));
+        assertFalse(Files.exists(tempDir.resolve("extra_41.txt")));
+        assertTrue(Files.exists(tempDir.resolve("notes.txt")));
+    }
+
+    @Test
+    public void testRunLargerThanDiskFailsBeforeWriting() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 1_000_000_000L, "huge_{n}.bin", ""
+        );
+        params.setContentMode(ContentMode.ZERO_FILL);
+        params.setTargetFileSize(1L << 40);
+
+        try {
+            new FileGenerationEngine(params).generate(() -> false, progress -> { });
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Not enough space"));
+        }
+        assertFalse(Files.exists(tempDir.resolve("huge_1.bin")));
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        try (InputStream in = input) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int count = in.read(buffer); count > 0; count = in.read(buffer)) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    @Test
+    public void testFileWriterBackend() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 300, "legacy_{n}.txt", "Legacy {n}"
+        );
+        params.setThreadCount(2);
+        params.setWriteBackend(WriteBackendType.FILE_WRITER);
+
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+
+        assertEquals("Legacy 300", new String(Files.readAllBytes(tempDir.resolve("legacy_300.txt"))));
+    }
+
+    @Test
+    public void testStaticContentIsClonedFromSeed() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 500, "static_{n}.txt", "Identical content for every file"
+        );
+        params.setThreadCount(4);
+
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+
+        String[] names = tempDir.toFile().list();
+        assertEquals("Seed file should be removed after the run", 500, names.length);
+        for (String name : names) {
+            assertEquals("Identical content for every file", new String(Files.readAllBytes(tempDir.resolve(name))));
+        }
+    }
+
+    @Test
+    public void testEmptyStaticContent() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 10, "empty_{n}.txt", ""
+        );
+
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+
+        assertEquals(10, tempDir.toFile().list().length);
+        assertEquals(0, tempDir.resolve("empty_10.txt").toFile().length());
+    }
+
+    @Test
+    public void testCloningDisabled() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 20, "noclone_{n}.txt", "Static"
+        );
+        params.setCloneStaticContent(false);
+
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+
+        assertEquals("Static", new String(Files.readAllBytes(tempDir.resolve("noclone_20.txt"))));
+    }
+
+    @Test
+    public void testSizedRandomPayload() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 4, "random_{n}.bin", ""
+        );
+        params.setContentMode(ContentMode.RANDOM_BYTES);
+        params.setTargetFileSize(300_000);
+        params.setChunkSize(64 * 1024);
+
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> false, progress -> { });
+
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(300_000, tempDir.resolve("random_" + i + ".bin").toFile().length());
+        }
+        assertEquals(1_200_000, engine.getCompletedBytes());
+    }
+
+    @Test
+    public void testSizedZeroFillIsCloned() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 3, "zero_{n}.bin", ""
+        );
+        params.setContentMode(ContentMode.ZERO_FILL);
+        params.setTargetFileSize(200_000);
+
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+
+        assertEquals("Seed file should be removed after the run", 3, tempDir.toFile().list().length);
+        byte[] bytes = Files.readAllBytes(tempDir.resolve("zero_3.bin"));
+        assertEquals(200_000, bytes.length);
+        for (byte b : bytes) {
+            assertEquals(0, b);
+        }
+    }
+
+    @Test
+    public void testProgressReachesTotal() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 600, "progress_{n}.txt", "Content {n}"
+        );
+        params.setThreadCount(3);
+
+        List<ProgressSnapshot> snapshots = new CopyOnWriteArrayList<>();
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> false, snapshots::add);
+
+        ProgressSnapshot last = snapshots.get(snapshots.size() - 1);
+        assertEquals(600, last.getTotalFiles());
+        assertEquals(600, last.getCompletedFiles());
+        assertEquals(0, last.getEtaSeconds());
+        assertTrue(last.getFilesPerSecond() > 0);
+        assertEquals(600, engine.getCompletedCount());
+        assertTrue("Progress is sampled, not reported per file", snapshots.size() < 600);
+
+        MetricsReport report = engine.getMetricsReport();
+        assertEquals(600, report.getFiles());
+        for (Phase phase : Phase.values()) {
+            // Only updates compare files before writing them
+            assertEquals(phase == Phase.COMPARE ? 0 : 600, report.getHistogram(phase).getCount());
+        }
+    }
+
+    @Test
+    public void testMoreThreadsThanFiles() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 3, "few_{n}.txt", "Content {n}"
+        );
+        params.setThreadCount(16);
+
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+
+        assertEquals(3, tempDir.toFile().list().length);
+    }
+
+    @Test
+    public void testMemoryMappedRepeatTemplate() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 2, "mapped_{n}.txt", "block {n};"
+        );
+        params.setThreadCount(3);
+        params.setWriteBackend(WriteBackendType.MEMORY_MAPPED);
+        params.setContentMode(ContentMode.REPEAT_TEMPLATE);
+        params.setTargetFileSize(10L * 1024 * 1024 + 123);
+
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> false, progress -> { });
+
+        byte[] bytes = Files.readAllBytes(tempDir.resolve("mapped_2.txt"));
+        assertEquals(10L * 1024 * 1024 + 123, bytes.length);
+        String text = new String(bytes, java.nio.charset.StandardCharsets.US_ASCII);
+        assertTrue(text.startsWith("block 2;block 2;"));
+        assertEquals("Regions must continue the pattern seamlessly", -1, text.replace("block 2;", "").indexOf("block"));
+        assertEquals(2, engine.getCompletedCount());
+        assertEquals(2 * bytes.length, engine.getCompletedBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMemoryMappedRejectsTemplateMode() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 1, "mapped_{n}.txt", "Content"
+        );
+        params.setWriteBackend(WriteBackendType.MEMORY_MAPPED);
+
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+    }
+
+    @Test
+    public void testShardPlaceholdersCreateDirectories() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 2500, "{n/1000}/{n/100%10}/file_{n}.txt", "Content {n}"
+        );
+        params.setThreadCount(3);
+
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+
+        assertEquals(3, tempDir.toFile().list().length);
+        assertTrue(Files.exists(tempDir.resolve("0/0/file_1.txt")));
+        assertTrue(Files.exists(tempDir.resolve("1/2/file_1234.txt")));
+        assertEquals(100, tempDir.resolve("2/4").toFile().list().length);
+    }
+
+    @Test
+    public void testFanOutSharding() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 300, "file_{n}.txt", "Content {n}"
+        );
+        params.setShardFanOut(10);
+        params.setShardDepth(2);
+
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+
+        assertEquals(4, tempDir.toFile().list().length);
+        assertEquals(10, tempDir.resolve("1").toFile().list().length);
+        assertEquals("Content 123", new String(Files.readAllBytes(tempDir.resolve("1/2/file_123.txt"))));
+    }
+
+    @Test
+    public void testUnpredictableDirectoriesCreatedWhileWriting() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 20, "{random:1}/file_{n}.txt", "Content {n}"
+        );
+        params.setThreadCount(2);
+
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+
+        assertEquals(20, Files.walk(tempDir).filter(Files::isRegularFile).count());
+    }
+
+    @Test
+    public void testCancellationStopsWorkers() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.toString(), 100000, "cancel_{n}.txt", "Content {n}"
+        );
+        params.setThreadCount(4);
+
+        FileGenerationEngine engine = new FileGenerationEngine(params);
+        engine.generate(() -> engine.getCompletedCount() >= 50, progress -> { });
+
+        assertTrue("Generation should stop early", engine.getCompletedCount() < 100000);
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidDirectory() throws Exception {
+        // A directory can never be created beneath a regular file
+        Path blocker = Files.createFile(tempDir.resolve("blocker"));
+        FileGenerationParameters params = new FileGenerationParameters(
+            blocker.resolve("child").toString(), 1, "test_{n}.txt", "Content"
+        );
+
+        new FileGenerationEngine(params).generate(() -> false, progress -> { });
+    }
+}
@@ -0,0 +1,83 @@
+package com.generator.engine;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Unit tests for IndexPlan class
+ */
+public class IndexPlanTest {
+
+    @Test
+    public void testContinuousRange() {
+        IndexPlan plan = IndexPlan.of(5, 14);
+
+        assertEquals(10, plan.size());
+        assertEquals(5, plan.indexAt(0));
+        assertEquals(14, plan.indexAt(9));
+        assertEquals(14, plan.rangeEndAt(3));
+    }
+
+    @Test
+    public void testExcludingDoneRanges() {
+        IndexPlan plan = IndexPlan.excluding(1, 100, Arrays.asList(
+                new long[] {0, 10}, new long[] {20, 29}, new long[] {90, 200}));
+
+        // Left to do: 11..19 and 30..89
+        assertEquals(9 + 60, plan.size());
+        assertEquals(11, plan.indexAt(0));
+        assertEquals(19, plan.rangeEndAt(0));
+        assertEquals(19, plan.indexAt(8));
+        assertEquals(30, plan.indexAt(9));
+        assertEquals(89, plan.indexAt(68));
+        assertEquals(89, plan.rangeEndAt(9));
+    }
+
+    @Test
+    public void testNothingDone() {
+        IndexPlan plan = IndexPlan.excluding(1, 100, Collections.emptyList());
+
+        assertEquals(100, plan.size());
+        assertEquals(1, plan.indexAt(0));
+    }
+
+    @Test
+    public void testEverythingDone() {
+        IndexPlan plan = IndexPlan.excluding(1, 100, Collections.singletonList(new long[] {1, 100}));
+
+        assertEquals(0, plan.size());
+    }
+
+    @Test
+    public void testPositionOfIndexes() {
+        IndexPlan plan = IndexPlan.excluding(1, 100, Arrays.asList(new long[] {1, 10}, new long[] {20, 29}));
+
+        // Left to do: 11..19 and 30..100
+        assertEquals(0, plan.sizeUpTo(5));
+        assertEquals(4, plan.sizeUpTo(14));
+        assertEquals(9, plan.sizeUpTo(25));
+        assertEquals(80, plan.sizeUpTo(500));
+        assertArrayEquals(new long[] {14, 19}, plan.rangeFrom(14));
+        assertArrayEquals(new long[] {30, 100}, plan.rangeFrom(21));
+        assertArrayEquals(new long[] {11, 19}, plan.rangeFrom(3));
+        assertNull(plan.rangeFrom(101));
+    }
+
+    @Test
+    public void testExcludingFromPlan() {
+        IndexPlan plan = IndexPlan.excluding(1, 100, Collections.singletonList(new long[] {40, 59}));
+        IndexPlan left = plan.excluding(Arrays.asList(new long[] {1, 5}, new long[] {38, 62}, new long[] {100, 100}));
+
+        // Left to do: 6..37 and 63..99
+        assertEquals(32 + 37, left.size());
+        assertEquals(6, left.indexAt(0));
+        assertEquals(63, left.indexAt(32));
+        assertTrue(left.contains(37));
+        assertFalse(left.contains(38));
+        assertFalse(left.contains(100));
+        assertFalse(left.contains(0));
+    }
+}
@@ -0,0 +1,141 @@
+package com.generator.engine;
+
+import com.generator.template.CompiledTemplate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Unit tests for PreflightCheck class
+ */
+public class PreflightCheckTest {
+
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("file-generator-preflight-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir)
+                .sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testFindsExistingFilesOfThePlan() throws Exception {
+        CompiledTemplate names = CompiledTemplate.compile("{n/1000}/f_{n}.txt");
+        // Enough files in one directory for several match batches
+        for (int i = 1; i <= PreflightCheck.MATCH_BATCH_SIZE + 100; i++) {
+            touch(names.render(i));
+        }
+        touch(names.render(20_000));
+        touch(names.render(30_000));
+        touch("0/unrelated.txt");
+        touch("f_7.txt");
+        touch("9/8/f_9008.txt");
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        List<long[]> existing;
+        try {
+            existing = PreflightCheck.findExisting(tempDir, names, IndexPlan.of(500, 25_000), pool, () -> false);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(2, existing.size());
+        assertArrayEquals(new long[] {500, PreflightCheck.MATCH_BATCH_SIZE + 100}, existing.get(0));
+        assertArrayEquals(new long[] {20_000, 20_000}, existing.get(1));
+        assertEquals(PreflightCheck.MATCH_BATCH_SIZE + 100 - 500 + 2, PreflightCheck.count(existing));
+    }
+
+    @Test
+    public void testBatchesMergeIntoRanges() throws Exception {
+        // Directory order scatters the numbers over the match batches
+        CompiledTemplate names = CompiledTemplate.compile("f_{n}");
+        int files = 3 * PreflightCheck.MATCH_BATCH_SIZE;
+        for (int i = 1; i <= files; i++) {
+            if (i != 5000) {
+                touch(names.render(i));
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        List<long[]> existing;
+        long count;
+        try {
+            existing = PreflightCheck.findExisting(tempDir, names, IndexPlan.of(1, files), pool, () -> false);
+            count = PreflightCheck.countExisting(tempDir, names, IndexPlan.of(1, files), pool, () -> false,
+                                                 null, 1, files);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(2, existing.size());
+        assertArrayEquals(new long[] {1, 4999}, existing.get(0));
+        assertArrayEquals(new long[] {5001, files}, existing.get(1));
+        assertEquals(files - 1, count);
+    }
+
+    @Test
+    public void testMissingOutputDirectoryHasNoCollisions() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            assertTrue(PreflightCheck.findExisting(tempDir.resolve("new"), CompiledTemplate.compile("f_{n}"),
+                    IndexPlan.of(1, 10), pool, () -> false).isEmpty());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCapacity() throws Exception {
+        assertEquals(0, PreflightCheck.allocated(0));
+        assertEquals(4096, PreflightCheck.allocated(1));
+        assertEquals(8192, PreflightCheck.allocated(4097));
+        assertEquals(Long.MAX_VALUE, PreflightCheck.multiply(Long.MAX_VALUE / 2, 4096));
+
+        PreflightCheck.checkCapacity(tempDir, 4096, 1);
+        try {
+            PreflightCheck.checkCapacity(tempDir, Long.MAX_VALUE, 1);
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Not enough space"));
+        }
+    }
+
+    @Test
+    public void testParseFreeInodes() {
+        assertEquals(16581087, PreflightCheck.parseFreeInodes(
+                "Filesystem       Inodes  IUsed    IFree IUse% Mounted on",
+                "/dev/vda       16777216 196129 16581087    2% /mnt/my disk"));
+        assertEquals(4881657, PreflightCheck.parseFreeInodes(
+                "Filesystem 512-blocks Used Available Capacity iused ifree %iused Mounted on",
+                "/dev/disk1s1 976490576 10 20 1% 488275 4881657 9% /"));
+        assertEquals("No inode limit", -1, PreflightCheck.parseFreeInodes(
+                "Filesystem Inodes IUsed IFree IUse% Mounted on",
+                "/dev/sda2 0 0 0 - /data"));
+        assertEquals(-1, PreflightCheck.parseFreeInodes("Filesystem 1K-blocks Used", "/dev/sda2 10 5"));
+    }
+
+    private void touch(String name) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.createFile(file);
+    }
+}
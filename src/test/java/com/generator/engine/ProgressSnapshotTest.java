@@ -0,0 +1,32 @@
+package com.generator.engine;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ProgressSnapshot class
+ */
+public class ProgressSnapshotTest {
+
+    @Test
+    public void testEta() {
+        ProgressSnapshot snapshot = new ProgressSnapshot(250_000, 1_000_000, 0, 0, 1000, 0);
+
+        assertEquals(750, snapshot.getEtaSeconds());
+    }
+
+    @Test
+    public void testEtaUnknownWithoutThroughput() {
+        assertEquals(-1, new ProgressSnapshot(0, 10, 0, 0, 0, 0).getEtaSeconds());
+        assertEquals(0, new ProgressSnapshot(10, 10, 0, 0, 0, 0).getEtaSeconds());
+    }
+
+    @Test
+    public void testFormat() {
+        ProgressSnapshot snapshot = new ProgressSnapshot(12_345, 1_000_000, 0, 0, 2345, 1.5 * 1024 * 1024);
+
+        assertEquals("Generated 12,345 of 1,000,000 files | 2,345 files/s | 1.5 MiB/s | ETA 0:07:02",
+                     snapshot.format());
+        assertTrue(new ProgressSnapshot(0, 5, 0, 0, 0, 0).format().endsWith("ETA --:--"));
+    }
+}
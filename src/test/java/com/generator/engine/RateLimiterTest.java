@@ -0,0 +1,118 @@
+package com.generator.engine;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for RateLimiter
+ */
+public class RateLimiterTest {
+
+    @Test
+    public void testUnlimitedNeverWaits() throws Exception {
+        RateLimiter limiter = new RateLimiter(0, 0);
+        long start = System.nanoTime();
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(limiter.acquireFile(() -> false));
+            limiter.recordBytes(1_000_000);
+        }
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+    }
+
+    @Test
+    public void testFilesPerSecondAcrossThreads() throws Exception {
+        RateLimiter limiter = new RateLimiter(200, 0);
+        AtomicLong acquired = new AtomicLong();
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    while (limiter.acquireFile(stop::get)) {
+                        acquired.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        Thread.sleep(1000);
+        stop.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // One second at 200 files/s plus the initial burst of 20
+        assertTrue("Acquired " + acquired.get(), acquired.get() >= 150 && acquired.get() <= 260);
+    }
+
+    @Test
+    public void testBytesPerSecondChargesAfterWrite() throws Exception {
+        RateLimiter limiter = new RateLimiter(0, 100_000);
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.acquireFile(() -> false));
+            limiter.recordBytes(10_000);
+        }
+        // The burst covers the first file, the other 40,000 bytes take about 0.4 s
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue("Took " + elapsedMillis + " ms", elapsedMillis >= 300 && elapsedMillis < 1500);
+    }
+
+    @Test
+    public void testRateChangeTakesEffectWhileWaiting() throws Exception {
+        RateLimiter limiter = new RateLimiter(0.5, 0);
+        assertTrue(limiter.acquireFile(() -> false));
+
+        Thread raise = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+            limiter.setFilesPerSecond(0);
+        });
+        raise.start();
+
+        long start = System.nanoTime();
+        assertTrue(limiter.acquireFile(() -> false));
+        raise.join();
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+        assertEquals(0, limiter.getFilesPerSecond(), 0);
+    }
+
+    @Test
+    public void testStopEndsWait() throws Exception {
+        RateLimiter limiter = new RateLimiter(0.1, 0);
+        assertTrue(limiter.acquireFile(() -> false));
+
+        long deadline = System.nanoTime() + 100_000_000L;
+        assertFalse(limiter.acquireFile(() -> System.nanoTime() > deadline));
+    }
+
+    @Test(expected = InterruptedException.class)
+    public void testInterruptEndsWait() throws Exception {
+        RateLimiter limiter = new RateLimiter(0.1, 0);
+        limiter.acquireFile(() -> false);
+        Thread.currentThread().interrupt();
+        limiter.acquireFile(() -> false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNegativeRate() {
+        new RateLimiter(-1, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNaNRate() {
+        new RateLimiter(0, 0).setBytesPerSecond(Double.NaN);
+    }
+}
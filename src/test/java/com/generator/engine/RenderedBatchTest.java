@@ -0,0 +1,72 @@
+package com.generator.engine;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Unit tests for RenderedBatch class
+ */
+public class RenderedBatchTest {
+
+    private static String text(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer bytes(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testContentsAreSliced() {
+        RenderedBatch batch = new RenderedBatch(4);
+        batch.reset(10);
+        Path first = Paths.get("a.txt");
+        batch.add(first, bytes("alpha"));
+        batch.add(Paths.get("b.txt"), bytes(""));
+        batch.add(Paths.get("c.txt"), bytes("gamma!"));
+
+        assertEquals(10, batch.getFirst());
+        assertEquals(3, batch.getCount());
+        assertSame(first, batch.getTarget(0));
+        assertEquals("alpha", text(batch.getContent(0)));
+        assertEquals("", text(batch.getContent(1)));
+        assertEquals("gamma!", text(batch.getContent(2)));
+    }
+
+    @Test
+    public void testCapacityAndArenaLimitFit() {
+        RenderedBatch batch = new RenderedBatch(2);
+        batch.reset(1);
+        assertTrue("An empty batch takes any file", batch.fits(RenderedBatch.ARENA_SIZE * 2));
+        batch.add(Paths.get("a"), bytes("x"));
+        assertFalse(batch.fits(RenderedBatch.ARENA_SIZE));
+        assertTrue(batch.fits(RenderedBatch.ARENA_SIZE - 1));
+        batch.add(Paths.get("b"), bytes("y"));
+        assertFalse("The batch is full", batch.fits(0));
+    }
+
+    @Test
+    public void testOversizedFileGrowsArenaAndResetReuses() {
+        RenderedBatch batch = new RenderedBatch(2);
+        batch.reset(1);
+        byte[] large = new byte[RenderedBatch.ARENA_SIZE + 100];
+        large[large.length - 1] = 7;
+        batch.add(Paths.get("large"), ByteBuffer.wrap(large));
+        ByteBuffer content = batch.getContent(0);
+        assertEquals(large.length, content.remaining());
+        assertEquals(7, content.get(content.limit() - 1));
+
+        batch.reset(5);
+        assertEquals(0, batch.getCount());
+        batch.add(Paths.get("small"), bytes("small"));
+        assertEquals(5, batch.getFirst());
+        assertEquals("small", text(batch.getContent(0)));
+    }
+}
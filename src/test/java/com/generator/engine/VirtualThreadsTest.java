@@ -0,0 +1,44 @@
+package com.generator.engine;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Unit tests for VirtualThreads class
+ */
+public class VirtualThreadsTest {
+
+    static boolean javaHasVirtualThreads() {
+        String version = System.getProperty("java.specification.version");
+        return !version.startsWith("1.") && Integer.parseInt(version) >= 21;
+    }
+
+    @Test
+    public void testSupportMatchesJavaVersion() {
+        if (Boolean.getBoolean("file.generator.requireVirtualThreads")) {
+            assertTrue("The java21plus profile requires virtual threads", VirtualThreads.SUPPORTED);
+        }
+        assertEquals(javaHasVirtualThreads(), VirtualThreads.SUPPORTED);
+    }
+
+    @Test
+    public void testFactoryRunsTask() throws Exception {
+        ThreadFactory factory = VirtualThreads.factory("virtual-test-");
+        if (!VirtualThreads.SUPPORTED) {
+            assertNull(factory);
+            return;
+        }
+        String[] name = new String[1];
+        Thread thread = factory.newThread(() -> name[0] = Thread.currentThread().getName());
+        thread.start();
+        thread.join();
+        assertEquals("virtual-test-0", name[0]);
+    }
+
+    @Test
+    public void testOpenFileHeadroomIsPositive() {
+        assertTrue(VirtualThreads.openFileHeadroom() > 0);
+    }
+}
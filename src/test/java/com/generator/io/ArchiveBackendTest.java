@@ -0,0 +1,203 @@
+package com.generator.io;
+
+import com.generator.model.ArchiveFormat;
+import com.generator.model.ContentMode;
+import com.generator.payload.PayloadGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Unit tests for the ArchiveBackend implementations
+ */
+public class ArchiveBackendTest {
+
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("file-generator-archive-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir)
+                .sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+    /**
+     * Writes 1000 small entries from two sessions, one large payload entry and one long-named entry
+     */
+    private Path writeArchive(ArchiveFormat format, String name) throws IOException {
+        Path archive = tempDir.resolve(name);
+        PayloadGenerator zeros = PayloadGenerator.create(ContentMode.ZERO_FILL, null);
+        try (ArchiveBackend backend = ArchiveBackend.create(archive, format, tempDir, 4096, false)) {
+            FileWriteBackend.Session first = backend.openSession();
+            FileWriteBackend.Session second = backend.openSession();
+            for (int i = 1; i <= 1000; i++) {
+                (i % 2 == 0 ? first : second).write(tempDir.resolve("dir" + i / 100 + "/file_" + i + ".txt"),
+                        "Content é " + i);
+            }
+            first.writePayload(tempDir.resolve("large.bin"), 1, 300_000, zeros);
+            second.write(tempDir.resolve(repeat("long/", 30) + "name.txt"), "Long");
+            first.close();
+            second.close();
+        }
+        return archive;
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+
+    private static void assertEntries(Map<String, byte[]> entries) {
+        assertEquals(1002, entries.size());
+        assertEquals("Content é 1", new String(entries.get("dir0/file_1.txt"), StandardCharsets.UTF_8));
+        assertEquals("Content é 1000", new String(entries.get("dir10/file_1000.txt"), StandardCharsets.UTF_8));
+        assertEquals(300_000, entries.get("large.bin").length);
+        assertEquals("Long", new String(entries.get(repeat("long/", 30) + "name.txt"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testTar() throws IOException {
+        Path archive = writeArchive(ArchiveFormat.TAR, "out.tar");
+
+        assertEquals(0, Files.size(archive) % 512);
+        try (InputStream input = Files.newInputStream(archive)) {
+            assertEntries(readTar(input));
+        }
+    }
+
+    @Test
+    public void testTarGzConcatenatesMembers() throws IOException {
+        Path archive = writeArchive(ArchiveFormat.TAR_GZ, "out.tar.gz");
+
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(archive))) {
+            assertEntries(readTar(input));
+        }
+    }
+
+    @Test
+    public void testZip() throws IOException {
+        Path archive = writeArchive(ArchiveFormat.ZIP, "out.zip");
+
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                try (InputStream input = zip.getInputStream(entry)) {
+                    entries.put(entry.getName(), readAll(input));
+                }
+            }
+        }
+        assertEntries(entries);
+    }
+
+    @Test
+    public void testZip64EntryCount() throws IOException {
+        Path archive = tempDir.resolve("many.zip");
+        try (ArchiveBackend backend = ArchiveBackend.create(archive, ArchiveFormat.ZIP, tempDir, 1 << 20, false)) {
+            try (FileWriteBackend.Session session = backend.openSession()) {
+                for (int i = 0; i < 70_000; i++) {
+                    session.write(tempDir.resolve("f" + i), "");
+                }
+            }
+        }
+
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            assertEquals(70_000, zip.size());
+            assertNotNull(zip.getEntry("f69999"));
+        }
+        assertFalse("Central directory spill file is removed",
+                Files.exists(tempDir.resolve("many.zip.central.tmp")));
+    }
+
+    @Test
+    public void testFormatFromFileName() {
+        assertEquals(ArchiveFormat.TAR, ArchiveFormat.forFileName("a.tar"));
+        assertEquals(ArchiveFormat.TAR_GZ, ArchiveFormat.forFileName("a.TGZ"));
+        assertEquals(ArchiveFormat.TAR_GZ, ArchiveFormat.forFileName("a.tar.gz"));
+        assertEquals(ArchiveFormat.ZIP, ArchiveFormat.forFileName("a.zip"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedFormat() {
+        ArchiveFormat.forFileName("a.tar.zst");
+    }
+
+    /**
+     * Minimal ustar reader: regular files only, names joined from prefix and name fields
+     */
+    private static Map<String, byte[]> readTar(InputStream input) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        DataInputStream data = new DataInputStream(input);
+        byte[] header = new byte[512];
+        while (true) {
+            data.readFully(header);
+            if (header[0] == 0) {
+                break;
+            }
+            long checksum = 0;
+            for (int i = 0; i < 512; i++) {
+                checksum += i >= 148 && i < 156 ? ' ' : header[i] & 0xff;
+            }
+            assertEquals(checksum, Long.parseLong(field(header, 148, 8).trim(), 8));
+
+            String prefix = field(header, 345, 155);
+            String name = (prefix.isEmpty() ? "" : prefix + "/") + field(header, 0, 100);
+            int size = Integer.parseInt(field(header, 124, 12), 8);
+            byte[] content = new byte[size];
+            data.readFully(content);
+            data.readFully(new byte[(512 - size % 512) % 512]);
+            entries.put(name, content);
+        }
+        try {
+            data.readFully(header);
+        } catch (EOFException e) {
+            fail("Missing second end-of-archive record");
+        }
+        return entries;
+    }
+
+    private static String field(byte[] header, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int count = input.read(buffer); count > 0; count = input.read(buffer)) {
+            output.write(buffer, 0, count);
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,89 @@
+package com.generator.io;
+
+import com.generator.model.ChecksumType;
+import org.junit.Assume;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Unit tests for FileDigest class
+ */
+public class FileDigestTest {
+
+    private static final byte[] CHECK = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void testKnownValues() {
+        assertEquals("cbf43926", digest(ChecksumType.CRC32, CHECK));
+        assertEquals("15e2b0d3c33891ebb0f1ef609ec419420c20e320ce94c65fbc8c3312448eb225",
+                digest(ChecksumType.SHA256, CHECK));
+        Assume.assumeTrue(ChecksumType.CRC32C.isSupported());
+        assertEquals("e3069283", digest(ChecksumType.CRC32C, CHECK));
+    }
+
+    @Test
+    public void testBuffersAndArraysAgree() {
+        for (ChecksumType type : ChecksumType.values()) {
+            if (!type.isSupported()) {
+                continue;
+            }
+            FileDigest digest = FileDigest.create(type);
+            ByteBuffer direct = ByteBuffer.allocateDirect(CHECK.length);
+            direct.put(CHECK).flip();
+            digest.update(direct);
+            assertEquals("update must not move the buffer", 0, direct.position());
+            assertEquals(type.getName(), digest(type, CHECK), digest.finish());
+        }
+    }
+
+    @Test
+    public void testLargeAndSlicedBuffers() {
+        byte[] bytes = new byte[100_000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        for (ChecksumType type : ChecksumType.values()) {
+            if (!type.isSupported()) {
+                continue;
+            }
+            // Larger than the chunks a direct buffer is copied out in
+            FileDigest digest = FileDigest.create(type);
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+            direct.put(bytes).flip();
+            digest.update(direct);
+            assertEquals(type.getName(), digest(type, bytes), digest.finish());
+
+            // A slice of a heap buffer starts at an array offset
+            ByteBuffer heap = ByteBuffer.allocate(bytes.length + 10);
+            heap.position(10);
+            ByteBuffer slice = heap.slice();
+            slice.put(bytes).flip();
+            slice.position(3);
+            digest.reset();
+            digest.update(slice);
+            assertEquals(3, slice.position());
+            byte[] tail = new byte[bytes.length - 3];
+            System.arraycopy(bytes, 3, tail, 0, tail.length);
+            assertEquals(type.getName(), digest(type, tail), digest.finish());
+        }
+    }
+
+    @Test
+    public void testResetStartsOver() {
+        FileDigest digest = FileDigest.create(ChecksumType.CRC32);
+        digest.update(new byte[] {1, 2, 3}, 0, 3);
+        digest.reset();
+        digest.update(CHECK, 0, 5);
+        digest.update(ByteBuffer.wrap(CHECK, 5, 4));
+        assertEquals("cbf43926", digest.finish());
+    }
+
+    private static String digest(ChecksumType type, byte[] bytes) {
+        FileDigest digest = FileDigest.create(type);
+        digest.update(bytes, 0, bytes.length);
+        return digest.finish();
+    }
+}
@@ -0,0 +1,139 @@
+package com.generator.io;
+
+import com.generator.model.WriteBackendType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+
+/**
+ * Unit tests for the FileWriteBackend implementations
+ */
+public class FileWriteBackendTest {
+
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("file-generator-backend-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir)
+                .sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testNioBackendWritesUtf8() throws IOException {
+        Path target = tempDir.resolve("nio.txt");
+        try (FileWriteBackend.Session session = FileWriteBackend.create(WriteBackendType.NIO_CHANNEL, false, 4096).openSession()) {
+            session.write(target, new StringBuilder("Grüße {n} €"));
+        }
+
+        assertEquals("Grüße {n} €", new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testNioBackendContentLargerThanBuffer() throws IOException {
+        StringBuilder content = new StringBuilder();
+        while (content.length() < 3 * DirectBufferPool.DEFAULT_BUFFER_SIZE) {
+            content.append("line é ").append(content.length()).append('\n');
+        }
+
+        Path target = tempDir.resolve("large.txt");
+        try (FileWriteBackend.Session session = new NioChannelBackend(true).openSession()) {
+            session.write(target, content);
+        }
+
+        assertEquals(content.toString(), new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testNioBackendTruncatesExistingFile() throws IOException {
+        Path target = tempDir.resolve("existing.txt");
+        Files.write(target, "a much longer previous content".getBytes(StandardCharsets.UTF_8));
+
+        try (FileWriteBackend.Session session = new NioChannelBackend(false).openSession()) {
+            session.write(target, "short");
+        }
+
+        assertEquals("short", new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSessionReusedForManyFiles() throws IOException {
+        try (FileWriteBackend.Session session = new NioChannelBackend(false).openSession()) {
+            for (int i = 0; i < 10; i++) {
+                session.write(tempDir.resolve("reuse_" + i + ".txt"), "Content " + i);
+            }
+        }
+
+        assertEquals("Content 9", new String(Files.readAllBytes(tempDir.resolve("reuse_9.txt")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testFileWriterBackend() throws IOException {
+        Path target = tempDir.resolve("writer.txt");
+        try (FileWriteBackend.Session session = FileWriteBackend.create(WriteBackendType.FILE_WRITER, true, 4096).openSession()) {
+            session.write(target, new StringBuilder("Plain content 1"));
+        }
+
+        assertEquals("Plain content 1", new String(Files.readAllBytes(target)));
+    }
+
+    @Test
+    public void testEncodedContentWrittenAsIs() throws IOException {
+        Utf8Encoder encoder = new Utf8Encoder();
+        for (WriteBackendType type : new WriteBackendType[] {WriteBackendType.NIO_CHANNEL, WriteBackendType.FILE_WRITER}) {
+            Path target = tempDir.resolve(type + ".txt");
+            try (FileWriteBackend.Session session = FileWriteBackend.create(type, false, 4096).openSession()) {
+                assertEquals(11, session.write(target, encoder.encode("Grüße €")));
+            }
+            assertEquals("Grüße €", new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testCloneBackendCopiesSeed() throws IOException {
+        StringBuilder content = new StringBuilder();
+        while (content.length() < 200_000) {
+            content.append("cloned payload ");
+        }
+
+        CloneBackend backend = CloneBackend.create(tempDir, new NioChannelBackend(false), content, false);
+        try (FileWriteBackend.Session session = backend.openSession()) {
+            session.write(tempDir.resolve("clone_1.txt"), content);
+            session.write(tempDir.resolve("clone_2.txt"), content);
+        } finally {
+            backend.close();
+        }
+
+        assertEquals(content.toString(), new String(Files.readAllBytes(tempDir.resolve("clone_2.txt")), StandardCharsets.UTF_8));
+        assertEquals("Only the clones should remain", 2, tempDir.toFile().list().length);
+    }
+
+    @Test
+    public void testBufferPoolRecyclesBuffers() {
+        DirectBufferPool pool = new DirectBufferPool(1024);
+        java.nio.ByteBuffer buffer = pool.acquire();
+        buffer.put((byte) 1);
+        pool.release(buffer);
+
+        java.nio.ByteBuffer recycled = pool.acquire();
+        assertSame(buffer, recycled);
+        assertEquals(0, recycled.position());
+        assertTrue(recycled.isDirect());
+    }
+}
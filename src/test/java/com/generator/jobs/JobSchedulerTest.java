@@ -0,0 +1,181 @@
+package com.generator.jobs;
+
+import com.generator.model.CollisionPolicy;
+import com.generator.model.FileGenerationParameters;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for JobScheduler
+ */
+public class JobSchedulerTest {
+
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("file-generator-jobs-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir)
+                .sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+    /**
+     * A job of 30 files at 50 files per second, which runs for about half a second
+     */
+    private FileGenerationParameters slowJob(String directory, int threads) {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.resolve(directory).toString(), 30, "file_{n}.txt", "Content {n}"
+        );
+        params.setThreadCount(threads);
+        params.setMaxFilesPerSecond(50);
+        return params;
+    }
+
+    private long countFiles(String directory) throws IOException {
+        Path path = tempDir.resolve(directory);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    public void testJobsOnOneDiskRunByPriority() throws Exception {
+        List<Long> started = new ArrayList<>();
+        JobScheduler.JobListener listener = job -> {
+            synchronized (started) {
+                if (job.getState() == GenerationJob.State.RUNNING && !started.contains(job.getId())) {
+                    started.add(job.getId());
+                }
+            }
+        };
+        try (JobScheduler scheduler = new JobScheduler(4, 1, listener)) {
+            GenerationJob first = scheduler.submit(slowJob("first", 2), 0);
+            GenerationJob low = scheduler.submit(slowJob("low", 2), 0);
+            GenerationJob high = scheduler.submit(slowJob("high", 2), 5);
+            assertEquals(GenerationJob.State.QUEUED, low.getState());
+
+            for (GenerationJob job : new GenerationJob[] {first, low, high}) {
+                job.await();
+                assertEquals(GenerationJob.State.SUCCEEDED, job.getState());
+            }
+            synchronized (started) {
+                assertEquals(Arrays.asList(first.getId(), high.getId(), low.getId()), started);
+            }
+            assertEquals(30, countFiles("low"));
+            assertEquals(4, scheduler.getFreeThreads());
+        }
+    }
+
+    @Test
+    public void testThreadsAreSharedWithinTheBudget() throws Exception {
+        try (JobScheduler scheduler = new JobScheduler(6, 2, null)) {
+            GenerationJob first = scheduler.submit(slowJob("first", 4), 0);
+            GenerationJob second = scheduler.submit(slowJob("second", 4), 0);
+
+            // Both fit on the disk; the second job gets what is left of the budget
+            assertEquals(4, first.getGrantedThreads());
+            assertEquals(2, second.getGrantedThreads());
+            assertEquals(2, second.getParameters().getThreadCount());
+            assertEquals(0, scheduler.getFreeThreads());
+
+            first.await();
+            second.await();
+            assertEquals(6, scheduler.getFreeThreads());
+            assertEquals(30, countFiles("second"));
+        }
+    }
+
+    @Test
+    public void testCancelQueuedJob() throws Exception {
+        try (JobScheduler scheduler = new JobScheduler(4, 1, null)) {
+            GenerationJob running = scheduler.submit(slowJob("running", 2), 0);
+            GenerationJob queued = scheduler.submit(slowJob("queued", 2), 0);
+
+            queued.cancel();
+            queued.await();
+            assertEquals(GenerationJob.State.CANCELLED, queued.getState());
+
+            running.await();
+            assertEquals(GenerationJob.State.SUCCEEDED, running.getState());
+            assertEquals(0, countFiles("queued"));
+        }
+    }
+
+    @Test
+    public void testCancelRunningJob() throws Exception {
+        try (JobScheduler scheduler = new JobScheduler(4, 1, null)) {
+            FileGenerationParameters params = slowJob("running", 1);
+            params.setFileCount(10_000);
+            GenerationJob running = scheduler.submit(params, 0);
+            GenerationJob next = scheduler.submit(slowJob("next", 2), 0);
+
+            Thread.sleep(200);
+            running.cancel();
+            running.await();
+            assertEquals(GenerationJob.State.CANCELLED, running.getState());
+            assertTrue(countFiles("running") < 10_000);
+
+            // The disk is free again for the queued job
+            next.await();
+            assertEquals(GenerationJob.State.SUCCEEDED, next.getState());
+        }
+    }
+
+    @Test
+    public void testFailedJobReleasesItsThreads() throws Exception {
+        Files.createDirectories(tempDir.resolve("failing"));
+        Files.write(tempDir.resolve("failing").resolve("file_3.txt"), new byte[0]);
+
+        try (JobScheduler scheduler = new JobScheduler(2, 1, null)) {
+            FileGenerationParameters params = slowJob("failing", 2);
+            params.setCollisionPolicy(CollisionPolicy.FAIL);
+            GenerationJob failing = scheduler.submit(params, 0);
+            GenerationJob next = scheduler.submit(slowJob("next", 2), 0);
+
+            failing.await();
+            assertEquals(GenerationJob.State.FAILED, failing.getState());
+            assertTrue(failing.getFailure() instanceof IOException);
+            assertTrue(failing.format().contains("FAILED"));
+
+            next.await();
+            assertEquals(GenerationJob.State.SUCCEEDED, next.getState());
+            assertEquals(2, scheduler.getFreeThreads());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosedSchedulerRejectsJobs() {
+        JobScheduler scheduler = new JobScheduler(2, 1, null);
+        scheduler.close();
+        scheduler.submit(slowJob("late", 1), 0);
+    }
+
+    @Test
+    public void testDeviceOfMissingDirectory() throws Exception {
+        // A directory that does not exist yet is on the disk of its closest existing ancestor
+        assertEquals(JobScheduler.deviceOf(tempDir), JobScheduler.deviceOf(tempDir.resolve("a").resolve("b")));
+    }
+}
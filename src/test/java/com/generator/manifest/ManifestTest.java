@@ -0,0 +1,91 @@
+package com.generator.manifest;
+
+import com.generator.model.ChecksumType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Unit tests for Manifest and ManifestWriter classes
+ */
+public class ManifestTest {
+
+    private Path tempDir;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("file-generator-manifest-test");
+        file = tempDir.resolve("files.manifest");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir)
+                .sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testEntryRoundTrip() throws Exception {
+        String name = "dir" + File.separator + "odd name\\with\nbreaks\r.txt";
+        StringBuilder line = new StringBuilder();
+        Manifest.appendEntry(line, "cbf43926", 12345, name);
+
+        assertEquals("cbf43926 12345 dir/odd name\\\\with\\nbreaks\\r.txt\n", line.toString());
+        Manifest.Entry entry = Manifest.parseEntry(line.substring(0, line.length() - 1), 2);
+        assertEquals("cbf43926", entry.getChecksum());
+        assertEquals(12345, entry.getSize());
+        assertEquals("dir/odd name\\with\nbreaks\r.txt", entry.getPath());
+    }
+
+    @Test
+    public void testMalformedLineIsReported() {
+        try {
+            Manifest.parseEntry("cbf43926 twelve file.txt", 7);
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("line 7"));
+        }
+    }
+
+    @Test
+    public void testAppendKeepsEntriesOfSameType() throws Exception {
+        try (ManifestWriter writer = ManifestWriter.open(file, ChecksumType.CRC32, false)) {
+            writer.append("00000001 1 a\n");
+        }
+        try (ManifestWriter writer = ManifestWriter.open(file, ChecksumType.CRC32, true)) {
+            writer.append("00000002 2 b\n");
+        }
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(3, lines.size());
+        assertEquals(ChecksumType.CRC32, Manifest.parseHeader(lines.get(0), file));
+        assertEquals("00000002 2 b", lines.get(2));
+    }
+
+    @Test
+    public void testAppendRejectsOtherType() throws Exception {
+        try (ManifestWriter writer = ManifestWriter.open(file, ChecksumType.CRC32, false)) {
+            writer.append("00000001 1 a\n");
+        }
+        try {
+            ManifestWriter.open(file, ChecksumType.SHA256, true).close();
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("crc32"));
+        }
+    }
+}
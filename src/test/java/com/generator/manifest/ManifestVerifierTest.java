@@ -0,0 +1,116 @@
+package com.generator.manifest;
+
+import com.generator.io.FileDigest;
+import com.generator.model.ChecksumType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Unit tests for ManifestVerifier class
+ */
+public class ManifestVerifierTest {
+
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("file-generator-verifier-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir)
+                .sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testIntactFilesVerify() throws Exception {
+        // One file above the mapping threshold, spanning several reads of the small-file path
+        Path manifest = writeFiles(ChecksumType.CRC32, 600, (int) ManifestVerifier.MAP_THRESHOLD + 12345);
+
+        ManifestVerifier verifier = new ManifestVerifier(manifest, tempDir, 3);
+        Map<String, String> problems = verify(verifier);
+
+        assertTrue(problems.toString(), problems.isEmpty());
+        assertEquals(601, verifier.getCheckedCount());
+        assertEquals(0, verifier.getMissingCount() + verifier.getCorruptCount());
+    }
+
+    @Test
+    public void testMissingAndCorruptFilesAreReported() throws Exception {
+        Path manifest = writeFiles(ChecksumType.SHA256, 20, (int) ManifestVerifier.MAP_THRESHOLD + 1);
+        Files.delete(tempDir.resolve("f/3.bin"));
+        Files.write(tempDir.resolve("f/5.bin"), new byte[] {1, 2, 3});
+        byte[] large = Files.readAllBytes(tempDir.resolve("f/large.bin"));
+        large[large.length - 1] ^= 1;
+        Files.write(tempDir.resolve("f/large.bin"), large);
+        byte[] small = Files.readAllBytes(tempDir.resolve("f/7.bin"));
+        small[0] ^= 1;
+        Files.write(tempDir.resolve("f/7.bin"), small);
+
+        ManifestVerifier verifier = new ManifestVerifier(manifest, tempDir, 2);
+        Map<String, String> problems = verify(verifier);
+
+        assertEquals(4, problems.size());
+        assertTrue(problems.get("f/3.bin"), problems.get("f/3.bin").startsWith("MISSING"));
+        assertTrue(problems.get("f/5.bin"), problems.get("f/5.bin").contains("size 3"));
+        assertTrue(problems.get("f/7.bin"), problems.get("f/7.bin").startsWith("CORRUPT checksum"));
+        assertTrue(problems.get("f/large.bin"), problems.get("f/large.bin").startsWith("CORRUPT checksum"));
+        assertEquals(1, verifier.getMissingCount());
+        assertEquals(3, verifier.getCorruptCount());
+        assertEquals(21, verifier.getCheckedCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void testOtherFilesAreRejected() throws Exception {
+        Path notManifest = tempDir.resolve("notes.txt");
+        Files.write(notManifest, Collections.singletonList("hello"));
+        new ManifestVerifier(notManifest, tempDir, 1).verify((problem, entry, detail) -> { });
+    }
+
+    /**
+     * Writes small random files f/1.bin.. plus f/large.bin and a manifest listing them
+     */
+    private Path writeFiles(ChecksumType type, int count, int largeSize) throws IOException {
+        Files.createDirectories(tempDir.resolve("f"));
+        Random random = new Random(7);
+        FileDigest digest = FileDigest.create(type);
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i <= count; i++) {
+            String name = i < count ? "f/" + (i + 1) + ".bin" : "f/large.bin";
+            byte[] content = new byte[i < count ? random.nextInt(5000) : largeSize];
+            random.nextBytes(content);
+            Files.write(tempDir.resolve(name), content);
+            digest.reset();
+            digest.update(content, 0, content.length);
+            Manifest.appendEntry(lines, digest.finish(), content.length, name);
+        }
+        Path manifest = tempDir.resolve("files.manifest");
+        try (ManifestWriter writer = ManifestWriter.open(manifest, type, false)) {
+            writer.append(lines);
+        }
+        return manifest;
+    }
+
+    private static Map<String, String> verify(ManifestVerifier verifier) throws Exception {
+        Map<String, String> problems = Collections.synchronizedMap(new HashMap<>());
+        verifier.verify((problem, entry, detail) -> problems.put(entry.getPath(), problem + " " + detail));
+        return problems;
+    }
+}
@@ -0,0 +1,57 @@
+package com.generator.metrics;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assume;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Unit tests for the JFR batch events
+ */
+public class BatchTracerTest {
+
+    @Test
+    public void testBatchEventIsRecorded() throws Exception {
+        Assume.assumeTrue("JFR is not available on this JVM", JfrSupport.AVAILABLE);
+
+        Path file = Files.createTempFile("batch-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.generator.GenerationBatch");
+            recording.start();
+
+            PhaseTimer timer = new PhaseTimer();
+            BatchTracer tracer = BatchTracer.create();
+            tracer.beginBatch(257, timer);
+            timer.start();
+            timer.lap(Phase.RENDER);
+            tracer.endBatch(256, 4096, timer);
+
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            RecordedEvent batch = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("com.generator.GenerationBatch"))
+                    .findFirst()
+                    .orElseThrow(AssertionError::new);
+            assertEquals(257, batch.getLong("firstIndex"));
+            assertEquals(256, batch.getLong("files"));
+            assertEquals(4096, batch.getLong("bytes"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testNoOpTracer() {
+        BatchTracer tracer = BatchTracer.NoOpTracer.INSTANCE;
+        tracer.beginBatch(1, PhaseTimer.disabled());
+        tracer.endBatch(1, 1, PhaseTimer.disabled());
+    }
+}
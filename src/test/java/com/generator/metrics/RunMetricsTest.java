@@ -0,0 +1,50 @@
+package com.generator.metrics;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for RunMetrics, PhaseTimer and MetricsReport
+ */
+public class RunMetricsTest {
+
+    @Test
+    public void testTimersAreMerged() {
+        RunMetrics metrics = new RunMetrics();
+        for (int t = 0; t < 3; t++) {
+            PhaseTimer timer = metrics.newTimer();
+            for (int i = 0; i < 10; i++) {
+                timer.start();
+                timer.lap(Phase.RENDER);
+                timer.lap(Phase.OPEN);
+                timer.lap(Phase.WRITE);
+                timer.lap(Phase.CLOSE);
+            }
+        }
+
+        MetricsReport report = metrics.report(30, 3000, 1_000_000_000L);
+        for (Phase phase : Phase.values()) {
+            assertEquals(phase == Phase.COMPARE ? 0 : 30, report.getHistogram(phase).getCount());
+        }
+        assertTrue(report.formatThroughput().startsWith("30 files (2.9 KiB) in 1.000 s: 30 files/s"));
+        assertTrue(report.formatPhases().contains("render"));
+        assertTrue(report.formatPhases().contains("p99.9"));
+    }
+
+    @Test
+    public void testDisabledTimerRecordsNothing() {
+        PhaseTimer timer = PhaseTimer.disabled();
+        timer.start();
+        timer.lap(Phase.WRITE);
+
+        assertEquals(0, timer.totalNanos(Phase.WRITE));
+    }
+
+    @Test
+    public void testFormatNanos() {
+        assertEquals("850 ns", MetricsReport.formatNanos(850));
+        assertEquals("12.5 us", MetricsReport.formatNanos(12_500));
+        assertEquals("3.2 ms", MetricsReport.formatNanos(3_200_000));
+        assertEquals("2.00 s", MetricsReport.formatNanos(2_000_000_000L));
+    }
+}
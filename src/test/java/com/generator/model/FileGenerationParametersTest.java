@@ -16,6 +16,9 @@ public class FileGenerationParametersTest {
         assertEquals(1, params.getFileCount());
         assertEquals("file_{n}.txt", params.getFileNamePattern());
         assertEquals("This is file number {n}", params.getFileContent());
+        assertEquals(TimestampMode.PER_SECOND, params.getTimestampMode());
+        assertEquals(WriteBackendType.NIO_CHANNEL, params.getWriteBackend());
+        assertFalse(params.isFsync());
     }
 
     @Test
@@ -102,6 +105,62 @@ public class FileGenerationParametersTest {
         assertFalse(params.isValid());
     }
 
+    @Test
+    public void testValidation_ZeroThreadCount() {
+        FileGenerationParameters params = new FileGenerationParameters(
+            "/tmp/test", 10, "file_{n}.txt", "Content"
+        );
+        params.setThreadCount(0);
+        
+        assertFalse(params.isValid());
+    }
+
+    @Test
+    public void testDefaultThreadCount() {
+        FileGenerationParameters params = new FileGenerationParameters();
+        
+        assertEquals(Runtime.getRuntime().availableProcessors(), params.getThreadCount());
+    }
+
+    @Test
+    public void testValidation_NullTimestampMode() {
+        FileGenerationParameters params = new FileGenerationParameters(
+            "/tmp/test", 10, "file_{n}.txt", "Content"
+        );
+        params.setTimestampMode(null);
+        
+        assertFalse(params.isValid());
+    }
+
+    @Test
+    public void testValidation_MemoryMappedNeedsSizedContent() {
+        FileGenerationParameters params = new FileGenerationParameters(
+            "/test/path", 10, "test_{n}.txt", "content"
+        );
+        params.setWriteBackend(WriteBackendType.MEMORY_MAPPED);
+        assertFalse(params.isValid());
+
+        params.setContentMode(ContentMode.ZERO_FILL);
+        params.setTargetFileSize(1024);
+        assertTrue(params.isValid());
+    }
+
+    @Test
+    public void testValidation_IndexRange() {
+        FileGenerationParameters params = new FileGenerationParameters(
+            "/test/path", 500_000_000L, "test_{n}.txt", "content"
+        );
+        params.setStartIndex(10_000_000_000L);
+        assertTrue(params.isValid());
+        assertEquals(10_499_999_999L, params.getEndIndex());
+
+        params.setStartIndex(Long.MAX_VALUE);
+        assertFalse("Last file number would overflow", params.isValid());
+
+        params.setStartIndex(-1);
+        assertFalse(params.isValid());
+    }
+
     @Test
     public void testSettersAndGetters() {
         FileGenerationParameters params = new FileGenerationParameters();
@@ -110,11 +169,19 @@ public class FileGenerationParametersTest {
         params.setFileCount(50);
         params.setFileNamePattern("new_{n}.txt");
         params.setFileContent("New content {n}");
+        params.setThreadCount(8);
+        params.setTimestampMode(TimestampMode.PER_RUN);
+        params.setWriteBackend(WriteBackendType.FILE_WRITER);
+        params.setFsync(true);
         
         assertEquals("/new/path", params.getOutputDirectory());
         assertEquals(50, params.getFileCount());
         assertEquals("new_{n}.txt", params.getFileNamePattern());
         assertEquals("New content {n}", params.getFileContent());
+        assertEquals(8, params.getThreadCount());
+        assertEquals(TimestampMode.PER_RUN, params.getTimestampMode());
+        assertEquals(WriteBackendType.FILE_WRITER, params.getWriteBackend());
+        assertTrue(params.isFsync());
     }
 
     @Test
@@ -129,4 +196,154 @@ public class FileGenerationParametersTest {
         assertTrue(result.contains("test_{n}.txt"));
         assertTrue(result.contains("Test content"));
     }
+
+    @Test
+    public void testValidation_RateLimits() {
+        FileGenerationParameters params = new FileGenerationParameters(
+            "/test/path", 10, "test_{n}.txt", "content"
+        );
+        params.setMaxFilesPerSecond(0.5);
+        params.setMaxBytesPerSecond(1024);
+        assertTrue(params.isValid());
+
+        params.setMaxFilesPerSecond(Double.POSITIVE_INFINITY);
+        assertFalse(params.isValid());
+
+        params.setMaxFilesPerSecond(0);
+        params.setMaxBytesPerSecond(-1);
+        assertFalse(params.isValid());
+    }
+
+    @Test
+    public void testValidation_ResumeNeedsCheckpoint() {
+        FileGenerationParameters params = new FileGenerationParameters(
+            "/test/path", 10, "test_{n}.txt", "content"
+        );
+        params.setResume(true);
+        assertFalse(params.isValid());
+
+        params.setCheckpointFile("/test/run.checkpoint");
+        assertTrue(params.isValid());
+    }
+
+    @Test
+    public void testValidation_Archive() {
+        FileGenerationParameters params = new FileGenerationParameters(
+            "/test/path", 10, "test_{n}.txt", "content"
+        );
+        params.setArchiveFile("files.tar.gz");
+        assertTrue(params.isValid());
+        assertEquals(ArchiveFormat.TAR_GZ, params.getArchiveFormat());
+
+        params.setArchiveFile("files.rar");
+        assertFalse(params.isValid());
+
+        params.setArchiveFile("files.zip");
+        params.setCheckpointFile("/test/run.checkpoint");
+        params.setResume(true);
+        assertFalse("An archive cannot be resumed", params.isValid());
+    }
+
+    @Test
+    public void testValidation_RenderThreads() {
+        FileGenerationParameters params = new FileGenerationParameters(
+            "/test/path", 10, "test_{n}.txt", "content"
+        );
+        params.setRenderThreadCount(2);
+        assertTrue(params.isValid());
+
+        params.setContentMode(ContentMode.RANDOM_BYTES);
+        assertFalse("Only templates are rendered", params.isValid());
+
+        params.setContentMode(ContentMode.TEMPLATE);
+        params.setRenderThreadCount(-1);
+        assertFalse(params.isValid());
+    }
+
+    @Test
+    public void testValidation_VirtualThreads() {
+        FileGenerationParameters params = new FileGenerationParameters(
+            "/test/path", 10, "test_{n}.txt", "content"
+        );
+        params.setVirtualThreads(true);
+        params.setThreadCount(5000);
+        assertTrue(params.isValid());
+
+        params.setRenderThreadCount(2);
+        assertFalse("Only the single-stage workers run on virtual threads", params.isValid());
+
+        params.setRenderThreadCount(0);
+        params.setContentMode(ContentMode.ZERO_FILL);
+        params.setWriteBackend(WriteBackendType.MEMORY_MAPPED);
+        assertFalse(params.isValid());
+    }
+
+    @Test
+    public void testValidation_DataFile() {
+        FileGenerationParameters params = new FileGenerationParameters(
+            "/test/path", 10, "{col:id}.txt", "content"
+        );
+        params.setDataFile("/test/rows.jsonl");
+        assertEquals(DataFormat.JSONL, params.getDataFormat());
+        assertTrue(params.isValid());
+
+        params.setDataFile("/test/rows.xml");
+        assertFalse("Only CSV and JSON Lines files are read", params.isValid());
+
+        params.setDataFile("/test/rows.csv");
+        params.setRenderThreadCount(2);
+        assertFalse(params.isValid());
+
+        params.setRenderThreadCount(0);
+        params.setContentMode(ContentMode.ZERO_FILL);
+        assertFalse("Rows only feed templates", params.isValid());
+    }
+
+    @Test
+    public void testValidation_Manifest() {
+        FileGenerationParameters params = new FileGenerationParameters(
+            "/test/path", 10, "file_{n}.txt", "content"
+        );
+        params.setManifestFile(FileGenerationParameters.DEFAULT_MANIFEST_NAME);
+        params.setChecksumType(ChecksumType.SHA256);
+        assertTrue(params.isValid());
+
+        params.setArchiveFile("files.tar");
+        assertFalse("Archive entries cannot be listed", params.isValid());
+
+        params.setArchiveFile(null);
+        params.setChecksumType(null);
+        assertFalse(params.isValid());
+    }
+
+    @Test
+    public void testCollisionPolicyDefaults() {
+        FileGenerationParameters params = new FileGenerationParameters();
+        assertEquals(CollisionPolicy.OVERWRITE, params.getCollisionPolicy());
+        assertTrue(params.isPreflightCheck());
+
+        params.setOutputDirectory("/test/path");
+        params.setCollisionPolicy(null);
+        assertFalse(params.isValid());
+    }
+
+    @Test
+    public void testValidation_Update() {
+        FileGenerationParameters params = new FileGenerationParameters(
+            "/test/path", 10, "file_{n}.txt", "content"
+        );
+        assertFalse(params.isDeleteExtraFiles());
+        params.setDeleteExtraFiles(true);
+        assertFalse("Only an update deletes files", params.isValid());
+
+        params.setCollisionPolicy(CollisionPolicy.UPDATE);
+        assertTrue(params.isValid());
+
+        params.setRenderThreadCount(2);
+        assertFalse(params.isValid());
+
+        params.setRenderThreadCount(0);
+        params.setArchiveFile("files.tar");
+        assertFalse(params.isValid());
+    }
 }
@@ -0,0 +1,125 @@
+package com.generator.payload;
+
+import com.generator.model.ContentMode;
+import com.generator.template.CompiledTemplate;
+import com.generator.util.SeededRandom;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Unit tests for the PayloadGenerator implementations
+ */
+public class PayloadGeneratorTest {
+
+    private static byte[] generate(PayloadGenerator generator, long fileIndex, int size, int chunkSize) {
+        ByteBuffer result = ByteBuffer.allocate(size);
+        ByteBuffer chunk = ByteBuffer.allocateDirect(chunkSize);
+        for (int offset = 0; offset < size; offset += chunk.limit()) {
+            chunk.clear();
+            chunk.limit(Math.min(chunkSize, size - offset));
+            generator.fill(chunk, fileIndex, offset);
+            chunk.flip();
+            result.put(chunk);
+        }
+        return result.array();
+    }
+
+    @Test
+    public void testZeroFill() {
+        PayloadGenerator generator = PayloadGenerator.create(ContentMode.ZERO_FILL, null);
+        byte[] bytes = generate(generator, 1, 20_000, 3000);
+
+        for (byte b : bytes) {
+            assertEquals(0, b);
+        }
+        assertTrue(generator.isStatic());
+    }
+
+    @Test
+    public void testRepeatTemplateAcrossChunks() {
+        CompiledTemplate template = CompiledTemplate.compile("row {n};");
+        PayloadGenerator generator = PayloadGenerator.create(ContentMode.REPEAT_TEMPLATE, template);
+        String text = new String(generate(generator, 7, 20_003, 1000), StandardCharsets.UTF_8);
+
+        StringBuilder expected = new StringBuilder();
+        while (expected.length() < 20_003) {
+            expected.append("row 7;");
+        }
+        assertEquals(expected.substring(0, 20_003), text);
+        assertFalse(generator.isStatic());
+    }
+
+    @Test
+    public void testRepeatTemplateRendersPerFile() {
+        PayloadGenerator generator = PayloadGenerator.create(ContentMode.REPEAT_TEMPLATE, CompiledTemplate.compile("{n}"));
+
+        assertEquals("11111", new String(generate(generator, 1, 5, 5), StandardCharsets.UTF_8));
+        assertEquals("22222", new String(generate(generator, 2, 5, 5), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testStaticRepeatTemplate() {
+        PayloadGenerator generator = PayloadGenerator.create(ContentMode.REPEAT_TEMPLATE, CompiledTemplate.compile("abc"));
+
+        assertTrue(generator.isStatic());
+    }
+
+    @Test
+    public void testRandomTextIsPrintableWithLineBreaks() {
+        PayloadGenerator generator = PayloadGenerator.create(ContentMode.RANDOM_TEXT, null);
+        byte[] bytes = generate(generator, 1, 10_000, 777);
+
+        for (int i = 0; i < bytes.length; i++) {
+            if (i % RandomTextGenerator.LINE_LENGTH == RandomTextGenerator.LINE_LENGTH - 1) {
+                assertEquals("Line break expected at " + i, '\n', bytes[i]);
+            } else {
+                assertTrue("Printable character expected at " + i, bytes[i] >= 0x20 && bytes[i] < 0x7F);
+            }
+        }
+    }
+
+    @Test
+    public void testRandomBytesFillsBufferExactly() {
+        PayloadGenerator generator = PayloadGenerator.create(ContentMode.RANDOM_BYTES, null);
+        ByteBuffer buffer = ByteBuffer.allocate(1001);
+        generator.fill(buffer, 1, 0);
+
+        assertFalse(buffer.hasRemaining());
+        assertFalse(generator.isStatic());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTemplateModeHasNoGenerator() {
+        PayloadGenerator.create(ContentMode.TEMPLATE, CompiledTemplate.compile("x"));
+    }
+
+    @Test
+    public void testSeededRandomContentIgnoresChunking() {
+        for (ContentMode mode : new ContentMode[] {ContentMode.RANDOM_BYTES, ContentMode.RANDOM_TEXT}) {
+            byte[] whole = generate(PayloadGenerator.create(mode, null, new SeededRandom(99)), 5, 10_000, 10_000);
+
+            assertArrayEquals(mode.name(), whole,
+                    generate(PayloadGenerator.create(mode, null, new SeededRandom(99)), 5, 10_000, 333));
+            assertFalse(mode.name(), Arrays.equals(whole,
+                    generate(PayloadGenerator.create(mode, null, new SeededRandom(99)), 6, 10_000, 10_000)));
+            assertFalse(mode.name(), Arrays.equals(whole,
+                    generate(PayloadGenerator.create(mode, null, new SeededRandom(100)), 5, 10_000, 10_000)));
+        }
+    }
+
+    @Test
+    public void testSeededRandomBytesIgnoreByteOrder() {
+        PayloadGenerator generator = PayloadGenerator.create(ContentMode.RANDOM_BYTES, null, new SeededRandom(3));
+        ByteBuffer big = ByteBuffer.allocate(64);
+        ByteBuffer little = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        generator.fill(big, 1, 0);
+        generator.fill(little, 1, 0);
+
+        assertArrayEquals(big.array(), little.array());
+    }
+}
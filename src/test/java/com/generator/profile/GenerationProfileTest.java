@@ -0,0 +1,143 @@
+package com.generator.profile;
+
+import com.generator.model.ChecksumType;
+import com.generator.model.CollisionPolicy;
+import com.generator.model.ContentMode;
+import com.generator.model.FileGenerationParameters;
+import com.generator.model.TimestampMode;
+import com.generator.model.WriteBackendType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+
+/**
+ * Unit tests for GenerationProfile
+ */
+public class GenerationProfileTest {
+
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("file-generator-profile-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir)
+                .sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+    private Path profile(String json) throws IOException {
+        return Files.write(tempDir.resolve("profile.json"), json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRoundTripKeepsEverySetting() throws Exception {
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.resolve("out").toString(), 1_000_000, "{n/1000}/doc_{n}.txt", "Line \"1\"\n\tTab \\ {n}\u0001"
+        );
+        params.setStartIndex(42);
+        params.setThreadCount(12);
+        params.setVirtualThreads(true);
+        params.setTimestampMode(TimestampMode.PER_RUN);
+        params.setWriteBackend(WriteBackendType.FILE_WRITER);
+        params.setFsync(true);
+        params.setCloneStaticContent(false);
+        params.setContentMode(ContentMode.RANDOM_BYTES);
+        params.setTargetFileSize(65536);
+        params.setChunkSize(8192);
+        params.setShardFanOut(100);
+        params.setShardDepth(3);
+        params.setMaxFilesPerSecond(2.5);
+        params.setMaxBytesPerSecond(50_000_000);
+        params.setCheckpointFile(tempDir.resolve("out/.checkpoint").toString());
+        params.setResume(true);
+        params.setSeed(-7L);
+        params.setManifestFile("files.manifest");
+        params.setChecksumType(ChecksumType.SHA256);
+        params.setCollisionPolicy(CollisionPolicy.UPDATE);
+        params.setDeleteExtraFiles(true);
+        params.setPreflightCheck(false);
+
+        Path profile = tempDir.resolve("profile.json");
+        GenerationProfile.write(params, profile);
+        String json = new String(Files.readAllBytes(profile), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"outputDirectory\": \"out\""));
+        assertTrue(json.contains("\"writeBackend\": \"file-writer\""));
+
+        FileGenerationParameters read = GenerationProfile.read(profile);
+        assertEquals(params.toString(), read.toString());
+    }
+
+    @Test
+    public void testMissingSettingsKeepDefaults() throws Exception {
+        FileGenerationParameters read = GenerationProfile.read(profile(
+            "{ \"outputDirectory\": \"fixtures/small\", \"fileCount\": 10, \"seed\": null }"));
+
+        FileGenerationParameters defaults = new FileGenerationParameters();
+        assertEquals(tempDir.resolve("fixtures").resolve("small").toString(), read.getOutputDirectory());
+        assertEquals(10, read.getFileCount());
+        assertEquals(defaults.getFileNamePattern(), read.getFileNamePattern());
+        assertEquals(defaults.getThreadCount(), read.getThreadCount());
+        assertNull(read.getSeed());
+        assertTrue(read.isValid());
+    }
+
+    @Test
+    public void testPathsOutsideTheProfileDirectoryStayAbsolute() throws Exception {
+        Path profileDir = Files.createDirectory(tempDir.resolve("profiles"));
+        FileGenerationParameters params = new FileGenerationParameters(
+            tempDir.resolve("out").toString(), 5, "f_{n}", "x");
+        GenerationProfile.write(params, profileDir.resolve("p.json"));
+
+        assertEquals(tempDir.resolve("out").toAbsolutePath().toString(),
+            GenerationProfile.read(profileDir.resolve("p.json")).getOutputDirectory());
+    }
+
+    @Test
+    public void testUnknownSettingIsRejected() throws Exception {
+        try {
+            GenerationProfile.read(profile("{\"fileCount\": 3, \"fileCont\": \"typo\"}"));
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("fileCont"));
+        }
+    }
+
+    @Test
+    public void testWrongTypesAreRejected() throws Exception {
+        String[] invalid = {
+            "{\"fileCount\": \"10\"}",
+            "{\"fileCount\": 1.5}",
+            "{\"threadCount\": 3000000000}",
+            "{\"fsync\": 1}",
+            "{\"contentMode\": \"sparse\"}",
+            "{\"version\": 2}",
+            "{\"fileCount\": 3,}",
+            "{\"fileCount\": 3} trailing",
+            "{\"fileCount\": 3, \"fileCount\": 4}",
+            "[]"
+        };
+        for (String json : invalid) {
+            try {
+                GenerationProfile.read(profile(json));
+                fail("Expected IOException for " + json);
+            } catch (IOException e) {
+                assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid profile"));
+            }
+        }
+    }
+}
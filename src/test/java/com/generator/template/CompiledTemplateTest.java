@@ -0,0 +1,209 @@
+package com.generator.template;
+
+import com.generator.model.TimestampMode;
+import com.generator.util.SeededRandom;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+/**
+ * Unit tests for CompiledTemplate class
+ */
+public class CompiledTemplateTest {
+
+    @Test
+    public void testIndexPlaceholder() {
+        CompiledTemplate template = CompiledTemplate.compile("file_{n}.txt");
+
+        assertEquals("file_42.txt", template.render(42));
+        assertTrue(template.usesIndex());
+        assertFalse(template.isStatic());
+    }
+
+    @Test
+    public void testRepeatedIndexPlaceholder() {
+        CompiledTemplate template = CompiledTemplate.compile("{n}-{n}-{n}");
+
+        assertEquals("7-7-7", template.render(7));
+    }
+
+    @Test
+    public void testZeroPaddedIndex() {
+        CompiledTemplate template = CompiledTemplate.compile("doc_{n:06}.txt");
+
+        assertEquals("doc_000042.txt", template.render(42));
+        assertEquals("doc_1234567.txt", template.render(1234567));
+        assertTrue(template.usesIndex());
+    }
+
+    @Test
+    public void testStaticTemplate() {
+        CompiledTemplate template = CompiledTemplate.compile("Plain content");
+
+        assertEquals("Plain content", template.render(1));
+        assertTrue(template.isStatic());
+        assertFalse(template.usesIndex());
+    }
+
+    @Test
+    public void testEmptyTemplate() {
+        CompiledTemplate template = CompiledTemplate.compile("");
+
+        assertEquals("", template.render(1));
+        assertTrue(template.isStatic());
+    }
+
+    @Test
+    public void testUnknownPlaceholdersKeptLiterally() {
+        CompiledTemplate template = CompiledTemplate.compile("{unknown} {n:abc} {{n} {n");
+
+        assertEquals("{unknown} {n:abc} {3 {n", template.render(3));
+    }
+
+    @Test
+    public void testDatePlaceholder() {
+        String rendered = CompiledTemplate.compile("Date: {date}").render(1);
+
+        assertFalse(rendered.contains("{date}"));
+        assertTrue(rendered.matches("Date: \\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}"));
+    }
+
+    @Test
+    public void testUuidPlaceholder() {
+        CompiledTemplate template = CompiledTemplate.compile("{uuid}");
+        String first = template.render(1);
+
+        assertTrue(first.matches("[0-9a-f]{8}-[0-9a-f]{4}-4[0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}"));
+        assertNotEquals(first, template.render(1));
+    }
+
+    @Test
+    public void testRandomPlaceholder() {
+        String rendered = CompiledTemplate.compile("<{random:12}>").render(1);
+
+        assertTrue(rendered.matches("<[A-Za-z0-9]{12}>"));
+    }
+
+    @Test
+    public void testRenderAppendsToBuffer() {
+        StringBuilder buffer = new StringBuilder("prefix:");
+        CompiledTemplate.compile("{n}").render(5, buffer);
+
+        assertEquals("prefix:5", buffer.toString());
+    }
+
+    @Test
+    public void testShardPlaceholders() {
+        CompiledTemplate template = CompiledTemplate.compile("{n/1000}/{n/10%100:02}/{n%10}_{n}.txt");
+
+        assertEquals("1/23/7_1237.txt", template.render(1237));
+        assertEquals("0/00/5_5.txt", template.render(5));
+        assertTrue(template.usesIndex());
+        assertFalse("Shard placeholders alone do not make names unique",
+                    CompiledTemplate.compile("{n/1000}/file.txt").usesIndex());
+        assertEquals("{n/0} {n%x}", CompiledTemplate.compile("{n/0} {n%x}").render(1));
+    }
+
+    @Test
+    public void testDirectoryPart() {
+        CompiledTemplate template = CompiledTemplate.compile("data/{n/1000:03}/file_{uuid}.txt");
+
+        assertEquals("data/002", template.directoryPart().render(2500));
+        assertEquals(1000, template.directoryPart().indexStride());
+        assertNull(CompiledTemplate.compile("file_{n}.txt").directoryPart());
+    }
+
+    @Test
+    public void testIndexStride() {
+        assertEquals(100, CompiledTemplate.compile("{n/1000}/{n/100%10}").indexStride());
+        assertEquals(1, CompiledTemplate.compile("dir_{n}").indexStride());
+        assertEquals(0, CompiledTemplate.compile("{date:yyyy}/{n/100}").indexStride());
+        assertEquals(Long.MAX_VALUE, CompiledTemplate.compile("fixed").indexStride());
+    }
+
+    @Test
+    public void testColumnPlaceholders() {
+        ColumnNames columns = new ColumnNames();
+        CompiledTemplate name = CompiledTemplate.compile("{col:city}/{col:id}.txt",
+                new TimestampProvider(TimestampMode.PER_SECOND), columns);
+        CompiledTemplate content = CompiledTemplate.compile("{col:id} lives in {col:city}",
+                new TimestampProvider(TimestampMode.PER_SECOND), columns);
+
+        assertEquals(Arrays.asList("city", "id"), columns.names());
+        assertTrue(name.usesColumns());
+        assertEquals(0, name.indexStride());
+        DataRow row = (column, out) -> out.append(column == 0 ? "Oslo" : "7");
+        StringBuilder out = new StringBuilder();
+        content.render(1, row, out);
+        assertEquals("7 lives in Oslo", out.toString());
+        out.setLength(0);
+        name.render(1, row, out);
+        assertEquals("Oslo/7.txt", out.toString());
+    }
+
+    @Test
+    public void testColumnPlaceholdersNeedColumns() {
+        CompiledTemplate template = CompiledTemplate.compile("{col:id}");
+
+        assertFalse(template.usesColumns());
+        assertEquals("{col:id}", template.render(1));
+    }
+
+    private static CompiledTemplate seeded(String template, long seed) {
+        return CompiledTemplate.compile(template, new TimestampProvider(TimestampMode.PER_RUN), null,
+                new SeededRandom(seed));
+    }
+
+    @Test
+    public void testSeededRandomPlaceholders() {
+        CompiledTemplate template = seeded("{rand:int} {rand:hex:20} {lorem:5} {uuid} {random:6}", 7);
+        String rendered = template.render(3);
+
+        assertTrue(rendered, rendered.matches("\\d+ [0-9a-f]{20} [a-z]+( [a-z]+){4} [0-9a-f-]{36} [A-Za-z0-9]{6}"));
+        assertEquals(rendered, template.render(3));
+        assertEquals(rendered, seeded("{rand:int} {rand:hex:20} {lorem:5} {uuid} {random:6}", 7).render(3));
+        assertNotEquals(rendered, template.render(4));
+        assertNotEquals(rendered, seeded("{rand:int} {rand:hex:20} {lorem:5} {uuid} {random:6}", 8).render(3));
+    }
+
+    @Test
+    public void testRepeatedRandomPlaceholders() {
+        String name = seeded("{rand:hex:8}.txt", 1).render(9);
+        String content = seeded("id={rand:hex:8} other={rand:hex:8}", 1).render(9);
+
+        assertEquals("id=" + name.substring(0, 8), content.substring(0, 11));
+        assertNotEquals(content.substring(3, 11), content.substring(18));
+    }
+
+    @Test
+    public void testUnseededRandPlaceholders() {
+        CompiledTemplate template = CompiledTemplate.compile("{rand:int}-{lorem:2}");
+
+        assertEquals(template.render(1), template.render(1));
+        assertFalse(template.isStatic());
+        assertEquals("{rand:x}", CompiledTemplate.compile("{rand:x}").render(1));
+    }
+
+    @Test
+    public void testParseIndex() {
+        CompiledTemplate template = CompiledTemplate.compile("{n/1000:03}/doc_{n:06}.txt");
+
+        assertEquals(42, template.parseIndex("000/doc_000042.txt"));
+        assertEquals(1234567, template.parseIndex("1234/doc_1234567.txt"));
+        assertEquals("Wrong shard directory", -1, template.parseIndex("001/doc_000042.txt"));
+        assertEquals("Missing padding", -1, template.parseIndex("000/doc_42.txt"));
+        assertEquals(-1, template.parseIndex("000/doc_000042.txt.bak"));
+        assertEquals(-1, template.parseIndex("000/notes.txt"));
+        assertEquals(-1, CompiledTemplate.compile("static.txt").parseIndex("static.txt"));
+    }
+
+    @Test
+    public void testParseIndexWithOtherPlaceholders() {
+        CompiledTemplate template = seeded("{rand:hex:4}-{n}.bin", 3);
+        String name = template.render(77);
+
+        assertEquals(77, template.parseIndex(name));
+        assertEquals("Random part of another file", -1, template.parseIndex("zzzz-77.bin"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.generator.template;
+
+import com.generator.model.TimestampMode;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for TimestampProvider class
+ */
+public class TimestampProviderTest {
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Test
+    public void testPerSecondCachesWithinSecond() {
+        AtomicLong clock = new AtomicLong(1_000_000L);
+        TimestampProvider provider = new TimestampProvider(TimestampMode.PER_SECOND, clock::get, ZoneOffset.UTC);
+        TimestampProvider.CachedTimestamp timestamp = provider.cached(FORMAT);
+
+        String first = timestamp.current();
+        clock.addAndGet(999);
+        assertSame("Same second should reuse the cached text", first, timestamp.current());
+
+        clock.addAndGet(1);
+        assertEquals("1970-01-01 00:16:41", timestamp.current());
+    }
+
+    @Test
+    public void testPerRunNeverRefreshes() {
+        AtomicLong clock = new AtomicLong(0L);
+        TimestampProvider provider = new TimestampProvider(TimestampMode.PER_RUN, clock::get, ZoneOffset.UTC);
+        TimestampProvider.CachedTimestamp timestamp = provider.cached(FORMAT);
+
+        clock.set(86_400_000L);
+        assertEquals("1970-01-01 00:00:00", timestamp.current());
+        assertEquals(0L, provider.currentMillis());
+    }
+
+    @Test
+    public void testIsoFormat() {
+        TimestampProvider provider = new TimestampProvider(TimestampMode.PER_RUN, () -> 0L, ZoneOffset.UTC);
+
+        assertEquals("1970-01-01T00:00:00Z", provider.cached(DateTimeFormatter.ISO_OFFSET_DATE_TIME).current());
+    }
+
+    @Test
+    public void testTemplatePlaceholders() {
+        TimestampProvider provider = new TimestampProvider(TimestampMode.PER_RUN, () -> 1_500L, ZoneOffset.UTC);
+        CompiledTemplate template = CompiledTemplate.compile(
+            "{date}|{date:ISO}|{date:ISO_DATE}|{date:dd/MM/yyyy}|{epochMillis}", provider);
+
+        assertEquals("1970-01-01 00:00:01|1970-01-01T00:00:01Z|1970-01-01|01/01/1970|1500", template.render(1));
+    }
+
+    @Test
+    public void testInvalidDatePatternKeptLiterally() {
+        CompiledTemplate template = CompiledTemplate.compile("{date:bbb}");
+
+        assertEquals("{date:bbb}", template.render(1));
+    }
+}
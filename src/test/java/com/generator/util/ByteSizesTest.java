@@ -0,0 +1,37 @@
+package com.generator.util;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ByteSizes class
+ */
+public class ByteSizesTest {
+
+    @Test
+    public void testParse() {
+        assertEquals(512, ByteSizes.parse("512"));
+        assertEquals(64 * 1024, ByteSizes.parse("64K"));
+        assertEquals(10L * 1024 * 1024, ByteSizes.parse("10m"));
+        assertEquals(1L << 30, ByteSizes.parse("1GiB"));
+        assertEquals(2L << 40, ByteSizes.parse(" 2TB "));
+        assertEquals(100, ByteSizes.parse("100B"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInvalid() {
+        ByteSizes.parse("ten megabytes");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNegative() {
+        ByteSizes.parse("-1K");
+    }
+
+    @Test
+    public void testFormat() {
+        assertEquals("512 B", ByteSizes.format(512));
+        assertEquals("1.5 KiB", ByteSizes.format(1536));
+        assertEquals("2.0 GiB", ByteSizes.format(2L << 30));
+    }
+}
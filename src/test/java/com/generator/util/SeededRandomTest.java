@@ -0,0 +1,50 @@
+package com.generator.util;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Unit tests for SeededRandom class
+ */
+public class SeededRandomTest {
+
+    @Test
+    public void testValuesDependOnlyOnSeedAndPosition() {
+        SeededRandom random = new SeededRandom(42);
+        long key = random.key(7, 3);
+
+        assertEquals(key, new SeededRandom(42).key(7, 3));
+        assertEquals(SeededRandom.value(key, 5), SeededRandom.value(new SeededRandom(42).key(7, 3), 5));
+        assertNotEquals(key, new SeededRandom(43).key(7, 3));
+        assertNotEquals(key, random.key(8, 3));
+        assertNotEquals(key, random.key(7, 4));
+    }
+
+    @Test
+    public void testValuesAreDistinct() {
+        SeededRandom random = new SeededRandom(1);
+        Set<Long> values = new HashSet<>();
+        for (long file = 0; file < 100; file++) {
+            long key = random.key(file, 0);
+            for (long position = 0; position < 100; position++) {
+                values.add(SeededRandom.value(key, position));
+            }
+        }
+        assertEquals(10_000, values.size());
+    }
+
+    @Test
+    public void testBounded() {
+        int[] counts = new int[10];
+        long key = new SeededRandom(5).key(1, 0);
+        for (int i = 0; i < 100_000; i++) {
+            counts[SeededRandom.bounded(SeededRandom.value(key, i), counts.length)]++;
+        }
+        for (int count : counts) {
+            assertTrue("Roughly uniform: " + count, count > 9_000 && count < 11_000);
+        }
+    }
+}